@@ -17,11 +17,13 @@ package org.everit.jira.core;
 
 import java.util.Date;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.util.IssueKeyMatcher;
 import org.everit.jira.reporting.plugin.dto.MissingsWorklogsDTO;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
+import org.joda.time.DateTime;
 import org.ofbiz.core.entity.GenericEntityException;
 
 /**
@@ -29,6 +31,18 @@ import org.ofbiz.core.entity.GenericEntityException;
  */
 public interface SupportManager {
 
+  /**
+   * Give back the spent time of the visible worklogs of the logged user per issue key for each
+   * day. The days are calculated in the time zone of the from date.
+   *
+   * @param fromDate
+   *          The first day.
+   * @param numberOfDays
+   *          The number of the days.
+   * @return The spent times in seconds per issue key for each day.
+   */
+  List<Map<String, Long>> getDailyWorklogTimes(DateTime fromDate, int numberOfDays);
+
   /**
    * Create a query and give back the list of dates where are no worklogs. The query examine the
    * days between the user creation date and the current date. The method not examine the weekends
@@ -65,9 +79,9 @@ public interface SupportManager {
    *          The start date.
    * @param finishSummary
    *          The finish date.
-   * @param issueIds
-   *          The filtered issues ids. If null or empty then don't make filtered summary.
+   * @param nonWorkingIssueMatcher
+   *          The matcher of the filtered issues. If empty then don't make filtered summary.
    * @return The summary spent time in seconds.
    */
-  long summary(Date startSummary, Date finishSummary, List<Pattern> issueIds);
+  long summary(Date startSummary, Date finishSummary, IssueKeyMatcher nonWorkingIssueMatcher);
 }
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Set;
 
 import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.util.WorkdayCalendar;
 import org.everit.jira.timetracker.plugin.dto.EveritWorklog;
 import org.joda.time.DateTime;
 
@@ -39,21 +40,66 @@ public interface TimetrackerManager {
   double countRealWorkDaysInWeek(final List<DateTime> weekDaysAsString,
       final Set<DateTime> exludeDates, final Set<DateTime> includeDates);
 
+  /**
+   * Count the real work days in a week.
+   *
+   * @param weekDays
+   *          the days of the week.
+   * @param workdayCalendar
+   *          the calendar of the excluded and included dates.
+   * @return the counted real work days number.
+   */
+  double countRealWorkDaysInWeek(List<DateTime> weekDays, WorkdayCalendar workdayCalendar);
+
   /**
    * Give back the date of the first day where missing worklogs. Use the properties files includes
    * and excludes date settings.
    *
+   * @param excludeDatesSet
+   *          the excluded dates.
+   * @param includeDatesSet
+   *          the included dates.
    * @param currentDay
    *          Represent the current day.
-   * @param exludeDates
+   *
+   * @return The Date representation of the day.
+   */
+  DateTime firstMissingWorklogsDate(final Set<DateTime> excludeDatesSet,
+      final Set<DateTime> includeDatesSet, DateTime currentDay);
+
+  /**
+   * Give back the date of the first day where missing worklogs in the given number of days before
+   * the current day. Use the properties files includes and excludes date settings.
+   *
+   * @param excludeDatesSet
    *          the excluded dates.
-   * @param includeDates
+   * @param includeDatesSet
    *          the included dates.
+   * @param currentDay
+   *          Represent the current day.
+   * @param scannedDays
+   *          the number of the days to check before the current day.
    *
    * @return The Date representation of the day.
    */
   DateTime firstMissingWorklogsDate(final Set<DateTime> excludeDatesSet,
-      final Set<DateTime> includeDatesSet, DateTime currentDay);
+      final Set<DateTime> includeDatesSet, DateTime currentDay, int scannedDays);
+
+  /**
+   * Give back the date of the first day where missing worklogs in the given number of days before
+   * the current day.
+   *
+   * @param workdayCalendar
+   *          the calendar of the excluded and included dates.
+   * @param currentDay
+   *          Represent the current day.
+   * @param scannedDays
+   *          the number of the days to check before the current day.
+   *
+   * @return The Date representation of the day.
+   */
+  DateTime firstMissingWorklogsDate(WorkdayCalendar workdayCalendar, DateTime currentDay,
+      int scannedDays);
 
   /**
    * The method find the exclude dates of the given date month.
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.dto;
+
+import java.sql.Timestamp;
+
+/**
+ * Representation of a visible worklog row of the logged user.
+ */
+public class WorklogDTO {
+
+  /**
+   * Alias names to projections.
+   */
+  public static final class AliasNames {
+
+    public static final String BODY = "body";
+
+    public static final String ISSUE_ID = "issueId";
+
+    public static final String START_DATE = "startDate";
+
+    public static final String TIME_WORKED = "timeWorked";
+
+    public static final String WORKLOG_ID = "worklogId";
+
+    private AliasNames() {
+    }
+  }
+
+  private String body;
+
+  private Long issueId;
+
+  private Timestamp startDate;
+
+  private Long timeWorked;
+
+  private Long worklogId;
+
+  public String getBody() {
+    return body;
+  }
+
+  public Long getIssueId() {
+    return issueId;
+  }
+
+  public Timestamp getStartDate() {
+    return startDate;
+  }
+
+  public Long getTimeWorked() {
+    return timeWorked;
+  }
+
+  public Long getWorklogId() {
+    return worklogId;
+  }
+
+  public void setBody(final String body) {
+    this.body = body;
+  }
+
+  public void setIssueId(final Long issueId) {
+    this.issueId = issueId;
+  }
+
+  public void setStartDate(final Timestamp startDate) {
+    this.startDate = startDate;
+  }
+
+  public void setTimeWorked(final Long timeWorked) {
+    this.timeWorked = timeWorked;
+  }
+
+  public void setWorklogId(final Long worklogId) {
+    this.worklogId = worklogId;
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.dto;
+
+import java.sql.Timestamp;
+
+/**
+ * The spent time of the logged user on an issue at a worklog start date.
+ */
+public class WorklogTimeDTO {
+
+  /**
+   * Alias names to projections.
+   */
+  public static final class AliasNames {
+
+    public static final String ISSUE_KEY = "issueKey";
+
+    public static final String START_DATE = "startDate";
+
+    public static final String TIME_WORKED = "timeWorked";
+
+    private AliasNames() {
+    }
+  }
+
+  private String issueKey;
+
+  private Timestamp startDate;
+
+  private Long timeWorked;
+
+  public String getIssueKey() {
+    return issueKey;
+  }
+
+  public Timestamp getStartDate() {
+    return startDate;
+  }
+
+  public Long getTimeWorked() {
+    return timeWorked;
+  }
+
+  public void setIssueKey(final String issueKey) {
+    this.issueKey = issueKey;
+  }
+
+  public void setStartDate(final Timestamp startDate) {
+    this.startDate = startDate;
+  }
+
+  public void setTimeWorked(final Long timeWorked) {
+    this.timeWorked = timeWorked;
+  }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.everit.jira.core.dto.WorklogTimeDTO;
+import org.everit.jira.core.query.WorklogTimesQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.event.api.EventPublisher;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.event.issue.IssueEvent;
+import com.atlassian.jira.event.type.EventType;
+import com.atlassian.jira.issue.worklog.Worklog;
+
+/**
+ * Per node cache of the spent time of the users per day and issue key. The days are calculated
+ * in the time zone of the requested date range. The entries of a user are dropped on the events
+ * that carry a worklog of the user, including the worklogs logged on a transition or edit screen,
+ * all entries are dropped on the issue moved and deleted events. The events are not delivered to
+ * the other nodes of a cluster, so the entries also expire after {@link #MAX_AGE_MILLIS}.
+ */
+public class DailyWorklogCache implements InitializingBean, DisposableBean {
+
+  /**
+   * The cached spent times of a day.
+   */
+  private static final class CacheEntry {
+
+    private final long loadTime;
+
+    private final Map<String, Long> timeWorkedPerIssue;
+
+    CacheEntry(final Map<String, Long> timeWorkedPerIssue, final long loadTime) {
+      this.timeWorkedPerIssue = timeWorkedPerIssue;
+      this.loadTime = loadTime;
+    }
+  }
+
+  /**
+   * The key of a cached day.
+   */
+  private static final class DayKey {
+
+    private final LocalDate day;
+
+    private final String timeZoneId;
+
+    private final String userKey;
+
+    DayKey(final String userKey, final String timeZoneId, final LocalDate day) {
+      this.userKey = userKey;
+      this.timeZoneId = timeZoneId;
+      this.day = day;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof DayKey)) {
+        return false;
+      }
+      DayKey other = (DayKey) obj;
+      return userKey.equals(other.userKey) && timeZoneId.equals(other.timeZoneId)
+          && day.equals(other.day);
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = userKey.hashCode();
+      result = (prime * result) + timeZoneId.hashCode();
+      result = (prime * result) + day.hashCode();
+      return result;
+    }
+  }
+
+  /**
+   * The default maximum number of cached days. One user needs about 128 entries: the missing days
+   * check reads 91 days and the month views read up to 37 more, so the default holds the days of
+   * 100 active users. Can be overridden with the {@link #MAX_SIZE_PROPERTY} system property.
+   */
+  public static final int DEFAULT_MAX_SIZE = 128 * 100;
+
+  /**
+   * The maximum age of a cached day in milliseconds.
+   */
+  public static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  /**
+   * The system property to override the maximum number of cached days.
+   */
+  public static final String MAX_SIZE_PROPERTY = "jttp.daily.worklog.cache.size";
+
+  private final Map<DayKey, CacheEntry> cache;
+
+  private EventPublisher eventPublisher;
+
+  /**
+   * Incremented on every invalidation. A load stores its result only if no invalidation happened
+   * while it was running. Guarded by the cache.
+   */
+  private long generation;
+
+  /**
+   * Default constructor. The maximum number of cached days is read from the
+   * {@link #MAX_SIZE_PROPERTY} system property.
+   */
+  public DailyWorklogCache() {
+    this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+  }
+
+  /**
+   * Simple constructor.
+   *
+   * @param maxSize
+   *          the maximum number of cached days.
+   */
+  public DailyWorklogCache(final int maxSize) {
+    cache = new LinkedHashMap<DayKey, CacheEntry>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = -8227453914316338853L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<DayKey, CacheEntry> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  @Override
+  public void afterPropertiesSet() throws Exception {
+    eventPublisher = ComponentAccessor.getComponent(EventPublisher.class);
+    eventPublisher.register(this);
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    if (eventPublisher != null) {
+      eventPublisher.unregister(this);
+    }
+  }
+
+  /**
+   * Give back the spent time of the visible worklogs of the user per issue key for each day. The
+   * missing days are loaded with one query.
+   *
+   * @param querydslSupport
+   *          the {@link QuerydslSupport} to load the missing days.
+   * @param userKey
+   *          the key of the user.
+   * @param fromDate
+   *          the first day. The days are calculated in the time zone of this date.
+   * @param numberOfDays
+   *          the number of the days.
+   * @return the unmodifiable spent times per issue key for each day. Empty map if no worklog on
+   *         the day.
+   */
+  public List<Map<String, Long>> getDailyWorklogTimes(final QuerydslSupport querydslSupport,
+      final String userKey, final DateTime fromDate, final int numberOfDays) {
+    DateTimeZone timeZone = fromDate.getZone();
+    LocalDate firstDay = fromDate.toLocalDate();
+    List<Map<String, Long>> result = new ArrayList<>(numberOfDays);
+    int firstMissing = -1;
+    int lastMissing = -1;
+    long expectedGeneration;
+    long now = System.currentTimeMillis();
+    synchronized (cache) {
+      expectedGeneration = generation;
+      for (int i = 0; i < numberOfDays; i++) {
+        CacheEntry entry =
+            cache.get(new DayKey(userKey, timeZone.getID(), firstDay.plusDays(i)));
+        if ((entry == null) || ((now - entry.loadTime) > MAX_AGE_MILLIS)) {
+          result.add(null);
+          if (firstMissing < 0) {
+            firstMissing = i;
+          }
+          lastMissing = i;
+        } else {
+          result.add(entry.timeWorkedPerIssue);
+        }
+      }
+    }
+    if (firstMissing < 0) {
+      return result;
+    }
+
+    List<Map<String, Long>> loadedDays = loadDailyWorklogTimes(querydslSupport, userKey,
+        firstDay.plusDays(firstMissing), (lastMissing - firstMissing) + 1, timeZone);
+    synchronized (cache) {
+      boolean store = expectedGeneration == generation;
+      for (int i = 0; i < loadedDays.size(); i++) {
+        Map<String, Long> loadedDay = loadedDays.get(i);
+        result.set(firstMissing + i, loadedDay);
+        if (store) {
+          cache.put(new DayKey(userKey, timeZone.getID(), firstDay.plusDays(firstMissing + i)),
+              new CacheEntry(loadedDay, now));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Drop all cached days.
+   */
+  public void invalidateAll() {
+    synchronized (cache) {
+      generation++;
+      cache.clear();
+    }
+  }
+
+  /**
+   * Drop the cached days of the user.
+   *
+   * @param userKey
+   *          the key of the user.
+   */
+  public void invalidateUser(final String userKey) {
+    invalidateUserDays(userKey, null, null);
+  }
+
+  /**
+   * Drop the cached days of the user around the date. The day of the date can differ by one in the
+   * time zones of the cached days.
+   *
+   * @param userKey
+   *          the key of the user.
+   * @param date
+   *          the date.
+   */
+  public void invalidateUserDay(final String userKey, final Date date) {
+    LocalDate day = new LocalDate(date.getTime(), DateTimeZone.UTC);
+    invalidateUserDays(userKey, day.minusDays(1), day.plusDays(1));
+  }
+
+  private void invalidateUserDays(final String userKey, final LocalDate firstDay,
+      final LocalDate lastDay) {
+    synchronized (cache) {
+      generation++;
+      Iterator<DayKey> iterator = cache.keySet().iterator();
+      while (iterator.hasNext()) {
+        DayKey dayKey = iterator.next();
+        if (dayKey.userKey.equals(userKey)
+            && ((firstDay == null) || !dayKey.day.isBefore(firstDay))
+            && ((lastDay == null) || !dayKey.day.isAfter(lastDay))) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  private List<Map<String, Long>> loadDailyWorklogTimes(final QuerydslSupport querydslSupport,
+      final String userKey, final LocalDate firstDay, final int numberOfDays,
+      final DateTimeZone timeZone) {
+    List<WorklogTimeDTO> worklogTimes = querydslSupport.execute(new WorklogTimesQuery(userKey,
+        firstDay.toDateTimeAtStartOfDay(timeZone).toDate(),
+        firstDay.plusDays(numberOfDays).toDateTimeAtStartOfDay(timeZone).toDate()));
+
+    List<Map<String, Long>> days = new ArrayList<>(numberOfDays);
+    for (int i = 0; i < numberOfDays; i++) {
+      days.add(new HashMap<String, Long>());
+    }
+    for (WorklogTimeDTO worklogTime : worklogTimes) {
+      LocalDate day = new LocalDate(worklogTime.getStartDate().getTime(), timeZone);
+      int dayIndex = Days.daysBetween(firstDay, day).getDays();
+      if ((dayIndex < 0) || (dayIndex >= numberOfDays)) {
+        continue;
+      }
+      Map<String, Long> timeWorkedPerIssue = days.get(dayIndex);
+      Long timeWorked = timeWorkedPerIssue.get(worklogTime.getIssueKey());
+      timeWorkedPerIssue.put(worklogTime.getIssueKey(), (timeWorked == null ? 0L : timeWorked)
+          + worklogTime.getTimeWorked());
+    }
+    for (int i = 0; i < numberOfDays; i++) {
+      days.set(i, Collections.unmodifiableMap(days.get(i)));
+    }
+    return days;
+  }
+
+  /**
+   * Drop the cached days affected by the issue event.
+   *
+   * @param issueEvent
+   *          the {@link IssueEvent}.
+   */
+  @EventListener
+  public void onIssueEvent(final IssueEvent issueEvent) {
+    Long eventTypeId = issueEvent.getEventTypeId();
+    Worklog worklog = issueEvent.getWorklog();
+    if (EventType.ISSUE_MOVED_ID.equals(eventTypeId)
+        || EventType.ISSUE_DELETED_ID.equals(eventTypeId)) {
+      invalidateAll();
+    } else if (EventType.ISSUE_WORKLOG_UPDATED_ID.equals(eventTypeId)) {
+      // the original start date is not known
+      if ((worklog == null) || (worklog.getAuthorKey() == null)) {
+        invalidateAll();
+      } else {
+        invalidateUser(worklog.getAuthorKey());
+      }
+    } else if (worklog != null) {
+      // also the worklogs logged on a transition or edit screen
+      if (worklog.getAuthorKey() == null) {
+        invalidateAll();
+      } else {
+        invalidateUserDay(worklog.getAuthorKey(), worklog.getStartDate());
+      }
+    } else if (EventType.ISSUE_WORKLOGGED_ID.equals(eventTypeId)
+        || EventType.ISSUE_WORKLOG_DELETED_ID.equals(eventTypeId)) {
+      invalidateAll();
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ofbiz.core.entity.GenericValue;
+
+import com.atlassian.event.api.EventListener;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.event.ProjectCreatedEvent;
+import com.atlassian.jira.event.ProjectDeletedEvent;
+
+/**
+ * Holds the ids of the JIRA projects. The ids are loaded on first use and reloaded after a project
+ * created or deleted event. The project events are not delivered to the other nodes of a cluster,
+ * so the loaded ids also expire after {@link #MAX_AGE_MILLIS}.
+ */
+public class ProjectIdRegistry {
+
+  /**
+   * The loaded project ids and the time of the loading.
+   */
+  private static final class Snapshot {
+
+    private final long loadTime;
+
+    private final List<String> projectIds;
+
+    Snapshot(final List<String> projectIds, final long loadTime) {
+      this.projectIds = projectIds;
+      this.loadTime = loadTime;
+    }
+  }
+
+  /**
+   * The maximum age of the loaded project ids in milliseconds.
+   */
+  public static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  private final AtomicInteger modificationCount = new AtomicInteger();
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * Give back the ids of the projects.
+   *
+   * @return the unmodifiable list of the project ids.
+   */
+  public List<String> getProjectIds() {
+    Snapshot actualSnapshot = snapshot;
+    if (isStale(actualSnapshot)) {
+      synchronized (this) {
+        actualSnapshot = snapshot;
+        if (isStale(actualSnapshot)) {
+          int expectedModificationCount = modificationCount.get();
+          actualSnapshot = new Snapshot(loadProjectIds(), System.currentTimeMillis());
+          // a project event arrived while loading, the next call loads again
+          if (expectedModificationCount == modificationCount.get()) {
+            snapshot = actualSnapshot;
+          }
+        }
+      }
+    }
+    return actualSnapshot.projectIds;
+  }
+
+  /**
+   * Drop the loaded project ids. The next {@link #getProjectIds()} call loads them again.
+   */
+  public void invalidate() {
+    modificationCount.incrementAndGet();
+    snapshot = null;
+  }
+
+  private boolean isStale(final Snapshot actualSnapshot) {
+    return (actualSnapshot == null)
+        || ((System.currentTimeMillis() - actualSnapshot.loadTime) > MAX_AGE_MILLIS);
+  }
+
+  private List<String> loadProjectIds() {
+    List<GenericValue> projectsGV = ComponentAccessor.getOfBizDelegator().findAll("Project");
+    List<String> projectIds = new ArrayList<>(projectsGV.size());
+    for (GenericValue project : projectsGV) {
+      projectIds.add(project.getString("id"));
+    }
+    return Collections.unmodifiableList(projectIds);
+  }
+
+  /**
+   * Drop the loaded project ids after a project created.
+   *
+   * @param event
+   *          the {@link ProjectCreatedEvent}.
+   */
+  @EventListener
+  public void onProjectCreated(final ProjectCreatedEvent event) {
+    invalidate();
+  }
+
+  /**
+   * Drop the loaded project ids after a project deleted.
+   *
+   * @param event
+   *          the {@link ProjectDeletedEvent}.
+   */
+  @EventListener
+  public void onProjectDeleted(final ProjectDeletedEvent event) {
+    invalidate();
+  }
+
+}
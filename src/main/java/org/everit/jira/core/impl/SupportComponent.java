@@ -17,44 +17,81 @@ package org.everit.jira.core.impl;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import org.everit.jira.core.SupportManager;
-import org.everit.jira.core.util.TimetrackerUtil;
-import org.everit.jira.core.util.WorklogUtil;
+import org.everit.jira.core.query.IssueWorklogSummaryQuery;
+import org.everit.jira.core.query.WorklogSummaryQuery;
+import org.everit.jira.core.util.IssueKeyMatcher;
+import org.everit.jira.core.util.WorkdayCalendar;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.reporting.plugin.dto.MissingsWorklogsDTO;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 import org.joda.time.DateTime;
-import org.joda.time.DateTimeConstants;
-import org.ofbiz.core.entity.EntityCondition;
+import org.joda.time.Days;
 import org.ofbiz.core.entity.GenericEntityException;
-import org.ofbiz.core.entity.GenericValue;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 
+import com.atlassian.event.api.EventPublisher;
 import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
 import com.atlassian.jira.component.ComponentAccessor;
-import com.atlassian.jira.issue.IssueManager;
-import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.security.JiraAuthenticationContext;
-import com.atlassian.jira.security.PermissionManager;
-import com.atlassian.jira.security.groups.GroupManager;
-import com.atlassian.jira.security.roles.ProjectRoleManager;
-import com.atlassian.jira.user.ApplicationUser;
 
 /**
  * Implementation of {@link SupportManager}.
  */
-public class SupportComponent implements SupportManager {
+public class SupportComponent implements SupportManager, InitializingBean, DisposableBean {
+
+  private final DailyWorklogCache dailyWorklogCache;
+
+  private EventPublisher eventPublisher;
+
+  private final ProjectIdRegistry projectIdRegistry = new ProjectIdRegistry();
+
+  private final QuerydslSupport querydslSupport;
 
   private TimeTrackingConfiguration timeTrackingConfiguration;
 
-  public SupportComponent(final TimeTrackingConfiguration timeTrackingConfiguration) {
+  /**
+   * Simple constructor.
+   *
+   * @param timeTrackingConfiguration
+   *          the {@link TimeTrackingConfiguration} instance.
+   * @param dailyWorklogCache
+   *          the shared {@link DailyWorklogCache} component.
+   * @param querydslSupport
+   *          the {@link QuerydslSupport} to run the worklog queries.
+   */
+  public SupportComponent(final TimeTrackingConfiguration timeTrackingConfiguration,
+      final DailyWorklogCache dailyWorklogCache, final QuerydslSupport querydslSupport) {
     this.timeTrackingConfiguration = timeTrackingConfiguration;
+    this.dailyWorklogCache = dailyWorklogCache;
+    this.querydslSupport = querydslSupport;
+  }
+
+  @Override
+  public void afterPropertiesSet() throws Exception {
+    eventPublisher = ComponentAccessor.getComponent(EventPublisher.class);
+    eventPublisher.register(projectIdRegistry);
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    if (eventPublisher != null) {
+      eventPublisher.unregister(projectIdRegistry);
+    }
+  }
+
+  @Override
+  public List<Map<String, Long>> getDailyWorklogTimes(final DateTime fromDate,
+      final int numberOfDays) {
+    String userKey = ComponentAccessor.getJiraAuthenticationContext().getUser().getKey();
+    return dailyWorklogCache.getDailyWorklogTimes(querydslSupport, userKey, fromDate,
+        numberOfDays);
   }
 
   @Override
@@ -62,130 +99,79 @@ public class SupportComponent implements SupportManager {
       final DateTimeServer to, final boolean workingHour, final boolean checkNonWorking,
       final TimeTrackerGlobalSettings settings)
       throws GenericEntityException {
+    DateTime fromDate = from.getUserTimeZone();
+    DateTime toDate = to.getUserTimeZone();
+    if (fromDate.isAfter(toDate)) {
+      return new ArrayList<MissingsWorklogsDTO>();
+    }
+    int numberOfDays =
+        Days.daysBetween(fromDate.toLocalDate(), toDate.toLocalDate()).getDays() + 1;
+    fromDate = DateTimeConverterUtil.setDateToDayStart(fromDate);
+    long[] timeSpentPerDay = new long[numberOfDays];
+    boolean[] loggedDays = new boolean[numberOfDays];
+    sumWorklogsPerDay(fromDate, numberOfDays,
+        workingHour && checkNonWorking
+            ? settings.getNonWorkingIssueMatcher()
+            : IssueKeyMatcher.EMPTY,
+        timeSpentPerDay, loggedDays);
+
+    double expectedTimeSpent = timeTrackingConfiguration.getHoursPerDay().doubleValue()
+        * DateTimeConverterUtil.SECONDS_PER_MINUTE * DateTimeConverterUtil.MINUTES_PER_HOUR;
+    WorkdayCalendar workdayCalendar = settings.getWorkdayCalendar();
+    DecimalFormat decimalFormat = new DecimalFormat("#.#");
     List<MissingsWorklogsDTO> datesWhereNoWorklog = new ArrayList<MissingsWorklogsDTO>();
-    DateTimeServer fromDate = from;
-    DateTimeServer toDate = to;
-    Set<DateTime> excludeDatesAsSet = settings.getExcludeDates();
-    Set<DateTime> includeDatesAsSet = settings.getIncludeDates();
-    while (!fromDate.getUserTimeZone().isAfter(toDate.getUserTimeZone())) {
-      if (TimetrackerUtil.containsSetTheSameDay(excludeDatesAsSet,
-          fromDate.getUserTimeZone())) {
-        fromDate =
-            DateTimeServer.getInstanceBasedOnUserTimeZone(fromDate.getUserTimeZone().plusDays(1));
-        continue;
-      }
-      // check includes - not check weekend
-      // check weekend - pass
-      if (!TimetrackerUtil.containsSetTheSameDay(includeDatesAsSet,
-          fromDate.getUserTimeZone())
-          && ((fromDate.getUserTimeZone().getDayOfWeek() == DateTimeConstants.SUNDAY)
-              || (fromDate.getUserTimeZone().getDayOfWeek() == DateTimeConstants.SATURDAY))) {
-        fromDate =
-            DateTimeServer.getInstanceBasedOnUserTimeZone(fromDate.getUserTimeZone().plusDays(1));
+    for (int i = numberOfDays - 1; i >= 0; i--) {
+      DateTime day = fromDate.plusDays(i);
+      // check excludes, includes and weekend - pass
+      if (!workdayCalendar.isWorkday(day)) {
         continue;
       }
-      // check worklog. if no worklog set result else ++ scanedDate
-      DecimalFormat decimalFormat = new DecimalFormat("#.#");
-
       if (workingHour) {
-        // fromDate = DateTimeConverterUtil.setDateToDayStart(fromDate);
-        double missingsTime =
-            isContainsEnoughWorklog(fromDate.getUserTimeZone().toDate(),
-                checkNonWorking, settings.getNonWorkingIssuePatterns());
+        double missingsTime = expectedTimeSpent - timeSpentPerDay[i];
         if (missingsTime > 0) {
           missingsTime = missingsTime / DateTimeConverterUtil.SECONDS_PER_MINUTE
               / DateTimeConverterUtil.MINUTES_PER_HOUR;
-          // BigDecimal bd =
-          // new BigDecimal(Double.toString(missingsTime)).setScale(2, RoundingMode.HALF_EVEN);
-          // missingsTime = bd.doubleValue();
-          datesWhereNoWorklog
-              .add(new MissingsWorklogsDTO(fromDate.getUserTimeZone().toDate(),
-                  decimalFormat.format(missingsTime)));
-        }
-      } else {
-        if (!TimetrackerUtil.isContainsWorklog(fromDate.getUserTimeZone().toDate())) {
           datesWhereNoWorklog
-              .add(new MissingsWorklogsDTO(fromDate.getUserTimeZone().toDate(),
-                  decimalFormat.format(timeTrackingConfiguration.getHoursPerDay().doubleValue())));
+              .add(new MissingsWorklogsDTO(day.toDate(), decimalFormat.format(missingsTime)));
         }
+      } else if (!loggedDays[i]) {
+        datesWhereNoWorklog
+            .add(new MissingsWorklogsDTO(day.toDate(),
+                decimalFormat.format(timeTrackingConfiguration.getHoursPerDay().doubleValue())));
       }
-      fromDate =
-          DateTimeServer.getInstanceBasedOnUserTimeZone(fromDate.getUserTimeZone().plusDays(1));
     }
-    Collections.reverse(datesWhereNoWorklog);
     return datesWhereNoWorklog;
   }
 
   @Override
   public List<String> getProjectsId() {
-    List<String> projectsId = new ArrayList<>();
-    List<GenericValue> projectsGV = ComponentAccessor.getOfBizDelegator().findAll("Project");
-    for (GenericValue project : projectsGV) {
-      projectsId.add(project.getString("id"));
-    }
-    return projectsId;
+    return new ArrayList<>(projectIdRegistry.getProjectIds());
   }
 
   /**
-   * Check the given date is contains enough worklog. The worklog spent time have to be equal or
-   * greater then 8 hours.
+   * Sum the spent time of the visible worklogs of the logged user per day.
    *
-   * @param date
-   *          The date what have to check. Set to the start of the day and in system Time Zone.
-   * @param checkNonWorking
-   *          Exclude or not the non-working issues.
-   * @return The number of missings hours.
-   * @throws GenericEntityException
-   *           If GenericEntity Exception.
+   * @param fromDate
+   *          the start of the first day.
+   * @param numberOfDays
+   *          the number of the days.
+   * @param nonWorkingIssueMatcher
+   *          the worklogs of the matching issues not counted in the spent time.
+   * @param timeSpentPerDay
+   *          the spent time in seconds per day.
+   * @param loggedDays
+   *          true for the days where the user has worklog.
    */
-  private double isContainsEnoughWorklog(final Date date,
-      final boolean checkNonWorking, final List<Pattern> nonWorkingIssuePatterns)
-      throws GenericEntityException {
-    JiraAuthenticationContext authenticationContext = ComponentAccessor
-        .getJiraAuthenticationContext();
-    ApplicationUser user = authenticationContext.getUser();
-    Calendar startDate = Calendar.getInstance();
-    startDate.setTime(date);
-    Calendar endDate = (Calendar) startDate.clone();
-    endDate.add(Calendar.DAY_OF_MONTH, 1);
-    double workHoursPerDay = timeTrackingConfiguration.getHoursPerDay().doubleValue();
-    double expectedTimeSpent = workHoursPerDay * DateTimeConverterUtil.SECONDS_PER_MINUTE
-        * DateTimeConverterUtil.MINUTES_PER_HOUR;
-
-    List<EntityCondition> exprList =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(user, startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-    List<GenericValue> worklogGVList =
-        ComponentAccessor.getOfBizDelegator().findByAnd("IssueWorklogView", exprList);
-    if ((worklogGVList == null) || worklogGVList.isEmpty()) {
-      return expectedTimeSpent;
-    }
-    if (checkNonWorking) {
-      removeNonWorkingIssues(worklogGVList, nonWorkingIssuePatterns);
-    }
-    long timeSpent = 0;
-    for (GenericValue worklog : worklogGVList) {
-      timeSpent += worklog.getLong("timeworked").longValue();
-    }
-    double missingsTime = expectedTimeSpent - timeSpent;
-    return missingsTime;
-  }
-
-  private void removeNonWorkingIssues(final List<GenericValue> worklogGVList,
-      final List<Pattern> nonWorkingIssuePatterns) {
-    List<GenericValue> worklogsCopy = new ArrayList<>(worklogGVList);
-    if ((nonWorkingIssuePatterns != null) && !nonWorkingIssuePatterns.isEmpty()) {
-      IssueManager issueManager = ComponentAccessor.getIssueManager();
-      for (GenericValue worklog : worklogsCopy) {
-        Long issueId = worklog.getLong("issue");
-        MutableIssue issue = issueManager.getIssueObject(issueId);
-        for (Pattern issuePattern : nonWorkingIssuePatterns) {
-          boolean issueMatches = issuePattern.matcher(issue.getKey()).matches();
-          // if match not count in summary
-          if (issueMatches) {
-            worklogGVList.remove(worklog);
-            break;
-          }
+  private void sumWorklogsPerDay(final DateTime fromDate, final int numberOfDays,
+      final IssueKeyMatcher nonWorkingIssueMatcher, final long[] timeSpentPerDay,
+      final boolean[] loggedDays) {
+    List<Map<String, Long>> dailyWorklogTimes = getDailyWorklogTimes(fromDate, numberOfDays);
+    for (int i = 0; i < numberOfDays; i++) {
+      Map<String, Long> worklogTimes = dailyWorklogTimes.get(i);
+      loggedDays[i] = !worklogTimes.isEmpty();
+      for (Map.Entry<String, Long> worklogTime : worklogTimes.entrySet()) {
+        if (!nonWorkingIssueMatcher.matches(worklogTime.getKey())) {
+          timeSpentPerDay[i] += worklogTime.getValue();
         }
       }
     }
@@ -193,54 +179,24 @@ public class SupportComponent implements SupportManager {
 
   @Override
   public long summary(final Date startSummary, final Date finishSummary,
-      final List<Pattern> issuePatterns) {
+      final IssueKeyMatcher nonWorkingIssueMatcher) {
     JiraAuthenticationContext authenticationContext = ComponentAccessor
         .getJiraAuthenticationContext();
-    ApplicationUser user = authenticationContext.getUser();
-
-    List<EntityCondition> exprList =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(user,
-            startSummary.getTime(), finishSummary.getTime());
-
-    List<GenericValue> worklogs;
-    // worklog query
-    worklogs = ComponentAccessor.getOfBizDelegator().findByAnd("IssueWorklogView", exprList);
-    List<GenericValue> worklogsCopy = new ArrayList<>();
-    worklogsCopy.addAll(worklogs);
-
-    IssueManager issueManager = ComponentAccessor.getIssueManager();
-    GroupManager groupManager = ComponentAccessor.getGroupManager();
-    PermissionManager permissionManager = ComponentAccessor.getPermissionManager();
-    ProjectRoleManager projectRoleManager =
-        ComponentAccessor.getComponent(ProjectRoleManager.class);
-    // if we have non-estimated issues
-    for (GenericValue worklog : worklogsCopy) {
-      Long issueId = worklog.getLong("issue");
-      MutableIssue issue = issueManager.getIssueObject(issueId);
-      if ((issuePatterns != null) && !issuePatterns.isEmpty()) {
-        for (Pattern issuePattern : issuePatterns) {
-          boolean issueMatches = issuePattern.matcher(issue.getKey())
-              .matches();
-          // if match not count in summary
-          if (issueMatches) {
-            worklogs.remove(worklog);
-            break;
-          }
-        }
-      }
-      boolean hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(user,
-          issueManager,
-          groupManager,
-          projectRoleManager,
-          permissionManager,
-          worklog);
-      if (!hasWorklogVisibility) {
-        worklogs.remove(worklog);
-      }
+    String userKey = authenticationContext.getUser().getKey();
+
+    if (nonWorkingIssueMatcher.isEmpty()) {
+      return querydslSupport.execute(
+          new WorklogSummaryQuery(userKey, startSummary, finishSummary));
     }
+
+    Map<String, Long> issueSummaries = querydslSupport.execute(
+        new IssueWorklogSummaryQuery(userKey, startSummary, finishSummary));
     long timeSpent = 0;
-    for (GenericValue worklog : worklogs) {
-      timeSpent += worklog.getLong("timeworked").longValue();
+    for (Map.Entry<String, Long> issueSummary : issueSummaries.entrySet()) {
+      // if match not count in summary
+      if (!nonWorkingIssueMatcher.matches(issueSummary.getKey())) {
+        timeSpent += issueSummary.getValue();
+      }
     }
     return timeSpent;
   }
@@ -16,84 +16,107 @@
 package org.everit.jira.core.impl;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.everit.jira.core.TimetrackerManager;
-import org.everit.jira.core.util.TimetrackerUtil;
+import org.everit.jira.core.util.WorkdayCalendar;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.everit.jira.settings.dto.TimeTrackerUserSettings;
 import org.everit.jira.timetracker.plugin.dto.EveritWorklog;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 import org.joda.time.DateTime;
-import org.joda.time.DateTimeConstants;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
 
 import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
+import com.atlassian.jira.component.ComponentAccessor;
 
 /**
  * Implementation of {@link TimetrackerManager}.
  */
 public class TimetrackerComponent implements TimetrackerManager {
 
+  private final DailyWorklogCache dailyWorklogCache;
+
+  private final QuerydslSupport querydslSupport;
+
   private final TimeTrackerSettingsHelper settingsHelper;
 
   private TimeTrackingConfiguration timeTrackingConfiguration;
 
   /**
-   * Default constructor.
+   * Simple constructor.
+   *
+   * @param timeTrackingConfiguration
+   *          the {@link TimeTrackingConfiguration} instance.
+   * @param settingsHelper
+   *          the {@link TimeTrackerSettingsHelper} instance.
+   * @param dailyWorklogCache
+   *          the shared {@link DailyWorklogCache} component.
+   * @param querydslSupport
+   *          the {@link QuerydslSupport} to run the worklog queries.
    */
   public TimetrackerComponent(
       final TimeTrackingConfiguration timeTrackingConfiguration,
-      final TimeTrackerSettingsHelper settingsHelper) {
+      final TimeTrackerSettingsHelper settingsHelper,
+      final DailyWorklogCache dailyWorklogCache,
+      final QuerydslSupport querydslSupport) {
     this.timeTrackingConfiguration = timeTrackingConfiguration;
     this.settingsHelper = settingsHelper;
+    this.dailyWorklogCache = dailyWorklogCache;
+    this.querydslSupport = querydslSupport;
   }
 
-  private int countDaysInDateTimeSet(final List<DateTime> weekDays, final Set<DateTime> dateSet) {
-    int counter = 0;
-    for (DateTime weekDay : weekDays) {
-      if (TimetrackerUtil.containsSetTheSameDay(dateSet, weekDay)) {
-        counter++;
-      }
-    }
-    return counter;
+  @Override
+  public double countRealWorkDaysInWeek(final List<DateTime> weekDays,
+      final Set<DateTime> excludeDatesSet, final Set<DateTime> includeDatesSet) {
+    return countRealWorkDaysInWeek(weekDays,
+        new WorkdayCalendar(excludeDatesSet, includeDatesSet));
   }
 
   @Override
   public double countRealWorkDaysInWeek(final List<DateTime> weekDays,
-      final Set<DateTime> excludeDatesSet, final Set<DateTime> includeDatesSet) {
-    int exludeDates = countDaysInDateTimeSet(weekDays, excludeDatesSet);
-    int includeDates = countDaysInDateTimeSet(weekDays, includeDatesSet);
+      final WorkdayCalendar workdayCalendar) {
+    int exludeDates = workdayCalendar.countExcludedDays(weekDays);
+    int includeDates = workdayCalendar.countIncludedDays(weekDays);
     return (timeTrackingConfiguration.getDaysPerWeek().doubleValue() - exludeDates) + includeDates;
   }
 
-  // TODO what about the lots of convert in the fMWD method
   @Override
   public DateTime firstMissingWorklogsDate(final Set<DateTime> excludeDatesSet,
       final Set<DateTime> includeDatesSet, final DateTime currentDay) {
-    DateTime scannedDate = currentDay;
-    // one week
-    scannedDate = scannedDate.minusDays(DateTimeConverterUtil.DAYS_PER_WEEK);
-    for (int i = 0; i < DateTimeConverterUtil.DAYS_PER_WEEK; i++) {
-      // check excludse - pass
-      if (TimetrackerUtil.containsSetTheSameDay(excludeDatesSet, scannedDate)) {
-        scannedDate = scannedDate.plusDays(1);
-        continue;
-      }
-      // check includes - not check weekend
-      // check weekend - pass
-      if (!TimetrackerUtil.containsSetTheSameDay(includeDatesSet, scannedDate)
-          && ((scannedDate.getDayOfWeek() == DateTimeConstants.SUNDAY)
-              || (scannedDate.getDayOfWeek() == DateTimeConstants.SATURDAY))) {
+    return firstMissingWorklogsDate(excludeDatesSet, includeDatesSet, currentDay,
+        DateTimeConverterUtil.DAYS_PER_WEEK);
+  }
+
+  @Override
+  public DateTime firstMissingWorklogsDate(final Set<DateTime> excludeDatesSet,
+      final Set<DateTime> includeDatesSet, final DateTime currentDay, final int scannedDays) {
+    return firstMissingWorklogsDate(new WorkdayCalendar(excludeDatesSet, includeDatesSet),
+        currentDay, scannedDays);
+  }
+
+  @Override
+  public DateTime firstMissingWorklogsDate(final WorkdayCalendar workdayCalendar,
+      final DateTime currentDay, final int scannedDays) {
+    DateTime scannedDate = currentDay.minusDays(scannedDays);
+    Set<LocalDate> loggedDays =
+        loadLoggedDays(DateTimeConverterUtil.setDateToDayStart(scannedDate),
+            DateTimeConverterUtil.setDateToDayStart(currentDay));
+    for (int i = 0; i < scannedDays; i++) {
+      // check excludes, includes and weekend - pass
+      if (!workdayCalendar.isWorkday(scannedDate)) {
         scannedDate = scannedDate.plusDays(1);
         continue;
       }
       // check worklog. if no worklog set result else ++ scanedDate
       scannedDate = DateTimeConverterUtil.setDateToDayStart(scannedDate);
-      boolean isDateContainsWorklog = TimetrackerUtil
-          .isContainsWorklog(new Date(scannedDate.getMillis()));
-      if (!isDateContainsWorklog) {
+      if (!loggedDays.contains(scannedDate.toLocalDate())) {
         return scannedDate;
       } else {
         scannedDate = scannedDate.plusDays(1);
@@ -130,25 +153,47 @@ public class TimetrackerComponent implements TimetrackerManager {
 
   @Override
   public List<String> getLoggedDaysOfTheMonth(final DateTimeServer date) {
+    DateTime monthStart =
+        DateTimeConverterUtil.setDateToDayStart(date.getUserTimeZone().withDayOfMonth(1));
+    Set<LocalDate> loggedDays = loadLoggedDays(monthStart, monthStart.plusMonths(1));
+
+    Set<Integer> loggedDaysOfMonth = new TreeSet<>();
+    for (LocalDate loggedDay : loggedDays) {
+      loggedDaysOfMonth.add(loggedDay.getDayOfMonth());
+    }
     List<String> resultDays = new ArrayList<>();
-    int dayOfMonth = 1;
-    int maxDayOfMonth = date.getUserTimeZone().dayOfMonth().getMaximumValue();
-    DateTimeServer startCalendar = DateTimeServer.getInstanceBasedOnUserTimeZone(
-        date.getUserTimeZone().withDayOfMonth(dayOfMonth));
-
-    while (dayOfMonth <= maxDayOfMonth) {
-      if (TimetrackerUtil.isContainsWorklog(
-          DateTimeConverterUtil.setDateToDayStart(startCalendar.getUserTimeZone()).toDate())) {
-        resultDays.add(Integer.toString(dayOfMonth));
-      }
-      DateTime plusDays = startCalendar.getUserTimeZone().plusDays(1);
-      startCalendar = DateTimeServer.getInstanceBasedOnUserTimeZone(plusDays);
-      dayOfMonth++;
+    for (Integer loggedDay : loggedDaysOfMonth) {
+      resultDays.add(loggedDay.toString());
     }
-
     return resultDays;
   }
 
+  /**
+   * Give back the days where the logged user has visible worklogs between the two dates. The days
+   * are calculated in the time zone of the start date.
+   *
+   * @param startDate
+   *          the start of the date range (inclusive).
+   * @param endDate
+   *          the end of the date range (exclusive).
+   * @return the set of the logged days.
+   */
+  private Set<LocalDate> loadLoggedDays(final DateTime startDate, final DateTime endDate) {
+    String userKey = ComponentAccessor.getJiraAuthenticationContext().getUser().getKey();
+    LocalDate firstDay = startDate.toLocalDate();
+    int numberOfDays = Days.daysBetween(firstDay, endDate.toLocalDate()).getDays();
+    List<Map<String, Long>> dailyWorklogTimes = dailyWorklogCache.getDailyWorklogTimes(
+        querydslSupport, userKey, startDate, numberOfDays);
+
+    Set<LocalDate> loggedDays = new HashSet<>();
+    for (int i = 0; i < numberOfDays; i++) {
+      if (!dailyWorklogTimes.get(i).isEmpty()) {
+        loggedDays.add(firstDay.plusDays(i));
+      }
+    }
+    return loggedDays;
+  }
+
   @Override
   public String lastEndTime(final List<EveritWorklog> worklogs)
       throws IllegalArgumentException {
@@ -158,11 +203,9 @@ public class TimetrackerComponent implements TimetrackerManager {
     }
     String endTime = worklogs.get(0).getEndTime();
     for (int i = 1; i < worklogs.size(); i++) {
-      Date endTimeDate = DateTimeConverterUtil.stringTimeToDateTime(endTime);
-      Date actualDate = DateTimeConverterUtil.stringTimeToDateTime(worklogs
-          .get(i).getEndTime());
-      if (endTimeDate.compareTo(actualDate) == -1) {
-        endTime = worklogs.get(i).getEndTime();
+      String actualEndTime = worklogs.get(i).getEndTime();
+      if (DateTimeConverterUtil.compareTimes(endTime, actualEndTime) < 0) {
+        endTime = actualEndTime;
       }
     }
     return endTime;
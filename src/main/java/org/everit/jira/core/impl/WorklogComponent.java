@@ -21,16 +21,20 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.everit.jira.core.EVWorklogManager;
 import org.everit.jira.core.RemainingEstimateType;
+import org.everit.jira.core.dto.WorklogDTO;
 import org.everit.jira.core.dto.WorklogParameter;
+import org.everit.jira.core.query.WorklogCountQuery;
+import org.everit.jira.core.query.WorklogsQuery;
+import org.everit.jira.core.util.WorklogPermissionEvaluator;
 import org.everit.jira.core.util.WorklogUtil;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.timetracker.plugin.dto.EveritWorklog;
 import org.everit.jira.timetracker.plugin.dto.EveritWorklogComparator;
 import org.everit.jira.timetracker.plugin.exception.WorklogException;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.GenericValue;
 
 import com.atlassian.jira.bc.JiraServiceContext;
 import com.atlassian.jira.bc.JiraServiceContextImpl;
@@ -49,8 +53,6 @@ import com.atlassian.jira.permission.ProjectPermissions;
 import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.Permissions;
-import com.atlassian.jira.security.groups.GroupManager;
-import com.atlassian.jira.security.roles.ProjectRoleManager;
 import com.atlassian.jira.user.ApplicationUser;
 
 /**
@@ -87,6 +89,18 @@ public class WorklogComponent implements EVWorklogManager {
     }
   }
 
+  private final QuerydslSupport querydslSupport;
+
+  /**
+   * Constructor with the {@link QuerydslSupport} to run the worklog queries.
+   *
+   * @param querydslSupport
+   *          the {@link QuerydslSupport} instance.
+   */
+  public WorklogComponent(final QuerydslSupport querydslSupport) {
+    this.querydslSupport = querydslSupport;
+  }
+
   private void checkPermissionOnIssueCreateWorklog(final ApplicationUser user,
       final MutableIssue issue) {
     PermissionManager permissionManager = ComponentAccessor.getPermissionManager();
@@ -115,14 +129,9 @@ public class WorklogComponent implements EVWorklogManager {
         .getJiraAuthenticationContext();
     ApplicationUser loggedInUser = authenticationContext.getUser();
 
-    List<EntityCondition> exprList =
-        WorklogUtil.createWorklogQueryExprList(startDateCalendar.getTimeInMillis(),
-            endDateCalendar.getTimeInMillis(),
-            loggedInUser.getKey());
-
-    List<GenericValue> worklogGVList = ComponentAccessor.getOfBizDelegator()
-        .findByAnd("IssueWorklogView", exprList);
-    return worklogGVList.size();
+    Long worklogCount = querydslSupport.execute(new WorklogCountQuery(loggedInUser.getKey(),
+        startDateCalendar.getTime(), endDateCalendar.getTime(), false));
+    return worklogCount == null ? 0 : worklogCount.longValue();
   }
 
   @Override
@@ -287,29 +296,19 @@ public class WorklogComponent implements EVWorklogManager {
       userKey = ComponentAccessor.getUserUtil().getUserByName(selectedUser).getKey();
     }
 
-    List<EntityCondition> exprList =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(userKey,
-            loggedInUser, startDateCalendar.getTimeInMillis(), endDateCalendar.getTimeInMillis());
-
-    List<GenericValue> worklogGVList = ComponentAccessor.getOfBizDelegator()
-        .findByAnd("IssueWorklogView", exprList);
+    List<WorklogDTO> worklogDTOs = querydslSupport.execute(new WorklogsQuery(userKey,
+        startDateCalendar.getTime(), endDateCalendar.getTime()));
 
     IssueManager issueManager = ComponentAccessor.getIssueManager();
-    GroupManager groupManager = ComponentAccessor.getGroupManager();
-    PermissionManager permissionManager = ComponentAccessor.getPermissionManager();
-    ProjectRoleManager projectRoleManager =
-        ComponentAccessor.getComponent(ProjectRoleManager.class);
-
-    for (GenericValue worklogGv : worklogGVList) {
-      boolean hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(loggedInUser,
-          issueManager,
-          groupManager,
-          projectRoleManager,
-          permissionManager,
-          worklogGv);
-      if (hasWorklogVisibility) {
-        EveritWorklog worklog = new EveritWorklog(worklogGv);
-        worklogs.add(worklog);
+    WorklogPermissionEvaluator permissionEvaluator = new WorklogPermissionEvaluator(loggedInUser,
+        ComponentAccessor.getPermissionManager());
+
+    Map<Long, MutableIssue> issues = WorklogUtil.loadWorklogIssues(issueManager, worklogDTOs);
+
+    for (WorklogDTO worklogDTO : worklogDTOs) {
+      MutableIssue issue = issues.get(worklogDTO.getIssueId());
+      if (issue != null) {
+        worklogs.add(new EveritWorklog(worklogDTO, issue, permissionEvaluator));
       }
     }
 
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.query;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.everit.jira.core.util.WorklogUtil;
+import org.everit.jira.querydsl.schema.QJiraissue;
+import org.everit.jira.querydsl.schema.QProject;
+import org.everit.jira.querydsl.schema.QWorklog;
+import org.everit.jira.querydsl.support.QuerydslCallable;
+import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.issue.security.IssueSecurityLevel;
+import com.atlassian.jira.user.ApplicationUser;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.sql.SQLQuery;
+
+/**
+ * Abstract implementation of {@link QuerydslCallable} to the worklog queries of the time tracker.
+ * Provide source (from), joins and the filter condition of the author, the date range and the
+ * worklog visibility of the logged user.
+ *
+ * @param <T>
+ *          Type of the return value.
+ */
+public abstract class AbstractWorklogQuery<T> implements QuerydslCallable<T> {
+
+  protected final Date endDate;
+
+  protected final boolean permissionCheck;
+
+  protected final QJiraissue qIssue;
+
+  protected final QProject qProject;
+
+  protected final QWorklog qWorklog;
+
+  protected final Date startDate;
+
+  protected final String userKey;
+
+  /**
+   * Simple constructor.
+   *
+   * @param userKey
+   *          the key of the worklog author.
+   * @param startDate
+   *          the start of the date range (inclusive).
+   * @param endDate
+   *          the end of the date range (exclusive).
+   */
+  protected AbstractWorklogQuery(final String userKey, final Date startDate,
+      final Date endDate) {
+    this(userKey, startDate, endDate, true);
+  }
+
+  /**
+   * Constructor to decide the worklog visibility is checked or not.
+   *
+   * @param userKey
+   *          the key of the worklog author.
+   * @param startDate
+   *          the start of the date range (inclusive).
+   * @param endDate
+   *          the end of the date range (exclusive).
+   * @param permissionCheck
+   *          if true only the worklogs visible to the logged user are selected.
+   */
+  protected AbstractWorklogQuery(final String userKey, final Date startDate,
+      final Date endDate, final boolean permissionCheck) {
+    this.userKey = userKey;
+    this.permissionCheck = permissionCheck;
+    this.startDate = startDate;
+    this.endDate = endDate;
+    qWorklog = new QWorklog("worklog");
+    qIssue = new QJiraissue("issue");
+    qProject = new QProject("project");
+  }
+
+  /**
+   * Append base from and joins to the given query.
+   *
+   * @param query
+   *          the {@link SQLQuery}.
+   */
+  protected void appendBaseFromAndJoin(final SQLQuery<?> query) {
+    query.from(qWorklog)
+        .join(qIssue).on(qWorklog.issueid.eq(qIssue.id))
+        .join(qProject).on(qIssue.project.eq(qProject.id));
+  }
+
+  /**
+   * Append the author, date range and (if permission check is required) the visibility filter
+   * condition to the given query.
+   *
+   * @param query
+   *          the {@link SQLQuery}.
+   */
+  protected void appendBaseWhere(final SQLQuery<?> query) {
+    BooleanExpression where = qWorklog.author.eq(userKey)
+        .and(qWorklog.startdate.goe(new Timestamp(startDate.getTime())))
+        .and(qWorklog.startdate.lt(new Timestamp(endDate.getTime())));
+    if (permissionCheck) {
+      where = where.and(createVisibilityExpression());
+    }
+    query.where(where);
+  }
+
+  private BooleanExpression createVisibilityExpression() {
+    ApplicationUser loggedUser = ComponentAccessor.getJiraAuthenticationContext().getUser();
+    List<Long> projectIds = WorklogUtil.createProjects(loggedUser);
+    if (projectIds.isEmpty()) {
+      return Expressions.ONE.ne(Expressions.ONE);
+    }
+    Collection<String> loggedUserGroupNames =
+        ComponentAccessor.getGroupManager().getGroupNamesForUser(loggedUser);
+
+    List<Long> securityLevelIds = new ArrayList<>();
+    Collection<IssueSecurityLevel> securityLevels = ComponentAccessor
+        .getIssueSecurityLevelManager().getAllSecurityLevelsForUser(loggedUser);
+    for (IssueSecurityLevel securityLevel : securityLevels) {
+      securityLevelIds.add(securityLevel.getId());
+    }
+    BooleanExpression securityExpression = qIssue.security.isNull();
+    if (!securityLevelIds.isEmpty()) {
+      securityExpression = securityExpression.or(qIssue.security.in(securityLevelIds));
+    }
+
+    return qProject.id.in(projectIds)
+        .and(securityExpression)
+        .and(QueryUtil.createWorklogVisibilityExpression(qWorklog, qProject.id, loggedUser,
+            loggedUserGroupNames));
+  }
+
+  public Date getEndDate() {
+    return endDate;
+  }
+
+  public Date getStartDate() {
+    return startDate;
+  }
+
+  public String getUserKey() {
+    return userKey;
+  }
+
+  public boolean isPermissionCheck() {
+    return permissionCheck;
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.SQLQuery;
+
+/**
+ * Query to sum the spent time (in seconds) of the visible worklogs of the user in the date range
+ * grouped by the issue key.
+ */
+public class IssueWorklogSummaryQuery extends AbstractWorklogQuery<Map<String, Long>> {
+
+  /**
+   * Simple constructor.
+   *
+   * @param userKey
+   *          the key of the worklog author.
+   * @param startDate
+   *          the start of the date range (inclusive).
+   * @param endDate
+   *          the end of the date range (exclusive).
+   */
+  public IssueWorklogSummaryQuery(final String userKey, final Date startDate,
+      final Date endDate) {
+    super(userKey, startDate, endDate);
+  }
+
+  @Override
+  public Map<String, Long> call(final Connection connection, final Configuration configuration)
+      throws SQLException {
+    StringExpression issueKey = QueryUtil.createIssueKeyExpression(qIssue, qProject);
+    NumberExpression<Long> timeWorkedSum = qWorklog.timeworked.sum();
+
+    SQLQuery<Tuple> query = new SQLQuery<Tuple>(connection, configuration)
+        .select(issueKey, timeWorkedSum);
+    appendBaseFromAndJoin(query);
+    appendBaseWhere(query);
+    query.groupBy(qProject.pkey, qIssue.issuenum);
+
+    List<Tuple> tuples = query.fetch();
+    Map<String, Long> result = new HashMap<>();
+    for (Tuple tuple : tuples) {
+      Long sum = tuple.get(timeWorkedSum);
+      result.put(tuple.get(issueKey), sum == null ? 0L : sum);
+    }
+    return result;
+  }
+
+}
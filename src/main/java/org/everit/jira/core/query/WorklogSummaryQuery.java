@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.SQLQuery;
+
+/**
+ * Query to sum the spent time (in seconds) of the visible worklogs of the user in the date range.
+ */
+public class WorklogSummaryQuery extends AbstractWorklogQuery<Long> {
+
+  /**
+   * Simple constructor.
+   *
+   * @param userKey
+   *          the key of the worklog author.
+   * @param startDate
+   *          the start of the date range (inclusive).
+   * @param endDate
+   *          the end of the date range (exclusive).
+   */
+  public WorklogSummaryQuery(final String userKey, final Date startDate, final Date endDate) {
+    super(userKey, startDate, endDate);
+  }
+
+  @Override
+  public Long call(final Connection connection, final Configuration configuration)
+      throws SQLException {
+    SQLQuery<Long> query = new SQLQuery<Long>(connection, configuration)
+        .select(qWorklog.timeworked.sum());
+    appendBaseFromAndJoin(query);
+    appendBaseWhere(query);
+    Long summary = query.fetchOne();
+    return summary == null ? 0L : summary;
+  }
+
+}
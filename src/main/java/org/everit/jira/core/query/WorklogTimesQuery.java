@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.query;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+
+import org.everit.jira.core.dto.WorklogTimeDTO;
+import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.SQLQuery;
+
+/**
+ * Query to sum the spent time of the visible worklogs of the user in the date range grouped by
+ * the worklog start date and the issue key. The rows are grouped to days by the caller, because
+ * the day boundaries depend on the time zone of the user.
+ */
+public class WorklogTimesQuery extends AbstractWorklogQuery<List<WorklogTimeDTO>> {
+
+  /**
+   * Simple constructor.
+   *
+   * @param userKey
+   *          the key of the worklog author.
+   * @param startDate
+   *          the start of the date range (inclusive).
+   * @param endDate
+   *          the end of the date range (exclusive).
+   */
+  public WorklogTimesQuery(final String userKey, final Date startDate, final Date endDate) {
+    super(userKey, startDate, endDate);
+  }
+
+  @Override
+  public List<WorklogTimeDTO> call(final Connection connection,
+      final Configuration configuration) throws SQLException {
+    SQLQuery<WorklogTimeDTO> query = new SQLQuery<WorklogTimeDTO>(connection, configuration)
+        .select(Projections.bean(WorklogTimeDTO.class,
+            QueryUtil.createIssueKeyExpression(qIssue, qProject)
+                .as(WorklogTimeDTO.AliasNames.ISSUE_KEY),
+            qWorklog.startdate.as(WorklogTimeDTO.AliasNames.START_DATE),
+            qWorklog.timeworked.sum().as(WorklogTimeDTO.AliasNames.TIME_WORKED)));
+    appendBaseFromAndJoin(query);
+    appendBaseWhere(query);
+    query.groupBy(qWorklog.startdate, qProject.pkey, qIssue.issuenum);
+    return query.fetch();
+  }
+
+}
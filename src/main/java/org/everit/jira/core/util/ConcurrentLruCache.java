@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache with least recently used eviction for concurrent readers. The reads do not lock,
+ * they only stamp the entry with the access order. When the cache grows over the maximum size,
+ * one thread evicts the least recently used quarter of the entries in one pass.
+ *
+ * @param <K>
+ *          the type of the keys.
+ * @param <V>
+ *          the type of the values.
+ */
+public final class ConcurrentLruCache<K, V> {
+
+  /**
+   * The cached value with the last access stamp.
+   */
+  private static final class Entry<V> {
+
+    private volatile long lastAccess;
+
+    private final V value;
+
+    Entry(final V value, final long lastAccess) {
+      this.value = value;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  private static final int EVICTION_RATIO = 4;
+
+  private final AtomicLong accessCounter = new AtomicLong();
+
+  private final ConcurrentMap<K, Entry<V>> entries;
+
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  private final int evictionTargetSize;
+
+  private final int maxSize;
+
+  /**
+   * Simple constructor.
+   *
+   * @param maxSize
+   *          the maximum number of the cached entries.
+   */
+  public ConcurrentLruCache(final int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("The maxSize must be positive.");
+    }
+    this.maxSize = maxSize;
+    evictionTargetSize = maxSize - (maxSize / EVICTION_RATIO);
+    entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Remove all entries.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      int excess = entries.size() - evictionTargetSize;
+      if (excess <= 0) {
+        return;
+      }
+      long[] lastAccesses = new long[entries.size()];
+      int size = 0;
+      for (Entry<V> entry : entries.values()) {
+        if (size == lastAccesses.length) {
+          break;
+        }
+        lastAccesses[size++] = entry.lastAccess;
+      }
+      if (size == 0) {
+        return;
+      }
+      Arrays.sort(lastAccesses, 0, size);
+      long evictedLastAccess = lastAccesses[Math.min(excess, size) - 1];
+      for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+        if (entry.getValue().lastAccess <= evictedLastAccess) {
+          entries.remove(entry.getKey(), entry.getValue());
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Get the cached value and mark it as the most recently used.
+   *
+   * @param key
+   *          the key.
+   * @return the cached value or <code>null</code> if not cached.
+   */
+  public V get(final K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.lastAccess = accessCounter.incrementAndGet();
+    return entry.value;
+  }
+
+  /**
+   * Put the value into the cache. Evicts the least recently used entries if the cache is full.
+   *
+   * @param key
+   *          the key.
+   * @param value
+   *          the value.
+   */
+  public void put(final K key, final V value) {
+    entries.put(key, new Entry<>(value, accessCounter.incrementAndGet()));
+    if (entries.size() > maxSize) {
+      evict();
+    }
+  }
+
+  /**
+   * Give back the number of the cached entries.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+}
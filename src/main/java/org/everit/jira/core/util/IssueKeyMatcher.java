@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches issue keys against a list of issue patterns (for example the collector or the non
+ * working issue patterns of the global settings). The patterns are compiled into one alternation
+ * if possible and the results are cached per issue key, so the patterns are evaluated once per
+ * distinct key. The instances are thread safe, build them once per settings snapshot (see
+ * {@link org.everit.jira.settings.dto.TimeTrackerGlobalSettings#getNonWorkingIssueMatcher()}).
+ */
+public class IssueKeyMatcher {
+
+  /**
+   * The numbered or named back references, which are renumbered or duplicated in an alternation.
+   */
+  private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
+  /**
+   * The maximum number of cached issue key results.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 1024;
+
+  /**
+   * The matcher without any pattern, it does not match any issue key.
+   */
+  public static final IssueKeyMatcher EMPTY = new IssueKeyMatcher(null);
+
+  private static Pattern combine(final List<Pattern> issuePatterns) {
+    if (issuePatterns.isEmpty()) {
+      return null;
+    }
+    if (issuePatterns.size() == 1) {
+      return issuePatterns.get(0);
+    }
+    StringBuilder sb = new StringBuilder();
+    for (Pattern issuePattern : issuePatterns) {
+      if ((issuePattern.flags() != 0)
+          || BACK_REFERENCE.matcher(issuePattern.pattern()).find()) {
+        return null;
+      }
+      if (sb.length() > 0) {
+        sb.append('|');
+      }
+      sb.append("(?:").append(issuePattern.pattern()).append(')');
+    }
+    try {
+      return Pattern.compile(sb.toString());
+    } catch (PatternSyntaxException e) {
+      // for example the same named group in more patterns
+      return null;
+    }
+  }
+
+  private final ConcurrentLruCache<String, Boolean> cache;
+
+  /**
+   * The alternation of the patterns. If <code>null</code> the patterns cannot be combined without
+   * changing their meaning and matched one by one.
+   */
+  private final Pattern combinedPattern;
+
+  private final List<Pattern> issuePatterns;
+
+  /**
+   * Simple constructor.
+   *
+   * @param issuePatterns
+   *          the issue patterns. Can be null.
+   */
+  public IssueKeyMatcher(final List<Pattern> issuePatterns) {
+    this(issuePatterns, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Simple constructor.
+   *
+   * @param issuePatterns
+   *          the issue patterns. Can be null.
+   * @param cacheSize
+   *          the maximum number of cached issue key results.
+   */
+  public IssueKeyMatcher(final List<Pattern> issuePatterns, final int cacheSize) {
+    this.issuePatterns = issuePatterns == null
+        ? Collections.<Pattern> emptyList()
+        : Collections.unmodifiableList(new ArrayList<>(issuePatterns));
+    combinedPattern = combine(this.issuePatterns);
+    cache = new ConcurrentLruCache<>(cacheSize);
+  }
+
+  /**
+   * Check there is no pattern to match.
+   *
+   * @return true if no pattern given, otherwise false.
+   */
+  public boolean isEmpty() {
+    return issuePatterns.isEmpty();
+  }
+
+  /**
+   * Check the issue key matches any of the patterns.
+   *
+   * @param issueKey
+   *          the issue key.
+   * @return true if matches, otherwise false.
+   */
+  public boolean matches(final String issueKey) {
+    if (issuePatterns.isEmpty() || (issueKey == null)) {
+      return false;
+    }
+    Boolean matches = cache.get(issueKey);
+    if (matches == null) {
+      matches = matchesAny(issueKey);
+      cache.put(issueKey, matches);
+    }
+    return matches;
+  }
+
+  private boolean matchesAny(final String issueKey) {
+    if (combinedPattern != null) {
+      return combinedPattern.matcher(issueKey).matches();
+    }
+    for (Pattern issuePattern : issuePatterns) {
+      if (issuePattern.matcher(issueKey).matches()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.util;
+
+import java.text.DateFormatSymbols;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.everit.jira.settings.TimeTrackerSettingsHelper;
+import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
+import org.everit.jira.settings.dto.TimeZoneTypes;
+import org.joda.time.DateTimeZone;
+
+import com.atlassian.jira.bc.JiraServiceContext;
+import com.atlassian.jira.bc.JiraServiceContextImpl;
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.config.properties.ApplicationProperties;
+import com.atlassian.jira.datetime.DateTimeFormatter;
+import com.atlassian.jira.datetime.DateTimeFormatterFactory;
+import com.atlassian.jira.datetime.DateTimeStyle;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.timezone.TimeZoneServiceImpl;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.util.I18nHelper;
+
+/**
+ * The logged user, the time zones, the locale, the global settings and the date patterns of one
+ * request. The values are resolved at the first use and kept until the end of the request. The
+ * context is bound to the request thread by {@link #begin()} and {@link #end()}, without bound
+ * context {@link #current()} gives back a new context for every call.
+ */
+public final class TimetrackerContext {
+
+  private static final ThreadLocal<TimetrackerContext> CURRENT_CONTEXT = new ThreadLocal<>();
+
+  /**
+   * Bind a new context to the current thread if there is no bound context.
+   *
+   * @return <code>true</code> if a new context was bound and the caller has to call
+   *         {@link #end()}, otherwise <code>false</code>.
+   */
+  public static boolean begin() {
+    if (CURRENT_CONTEXT.get() != null) {
+      return false;
+    }
+    CURRENT_CONTEXT.set(new TimetrackerContext());
+    return true;
+  }
+
+  /**
+   * Give back the context bound to the current thread or a new unbound context.
+   */
+  public static TimetrackerContext current() {
+    TimetrackerContext context = CURRENT_CONTEXT.get();
+    if (context == null) {
+      return new TimetrackerContext();
+    }
+    return context;
+  }
+
+  /**
+   * Remove the context from the current thread.
+   */
+  public static void end() {
+    CURRENT_CONTEXT.remove();
+  }
+
+  /**
+   * Drop the resolved values of the bound context. Called when the global settings changed during
+   * the request.
+   */
+  public static void resetCurrent() {
+    TimetrackerContext context = CURRENT_CONTEXT.get();
+    if (context != null) {
+      CURRENT_CONTEXT.set(new TimetrackerContext());
+    }
+  }
+
+  private String[] amPmMarkers;
+
+  private final Map<String, String> applicationProperties = new HashMap<>();
+
+  private JiraAuthenticationContext authenticationContext;
+
+  private TimeTrackerGlobalSettings globalSettings;
+
+  private I18nHelper i18nHelper;
+
+  private Locale locale;
+
+  private DateTimeZone systemTimeZone;
+
+  private DateTimeFormatter timeFormatter;
+
+  private TimeZoneServiceImpl timeZoneService;
+
+  private ApplicationUser user;
+
+  private boolean userLoaded;
+
+  private DateTimeZone userTimeZone;
+
+  private TimetrackerContext() {
+  }
+
+  /**
+   * Give back the AM and PM markers of the logged user locale in original and in lower case form.
+   * The AM markers are at the even, the PM markers are at the odd indexes.
+   */
+  public String[] getAmPmMarkers() {
+    if (amPmMarkers == null) {
+      Locale userLocale = getLocale();
+      String[] amPmStrings = DateFormatSymbols.getInstance(userLocale).getAmPmStrings();
+      String[] markers = new String[amPmStrings.length * 2];
+      for (int i = 0; i < amPmStrings.length; i++) {
+        markers[i] = amPmStrings[i];
+        markers[amPmStrings.length + i] = amPmStrings[i].toLowerCase(userLocale);
+      }
+      amPmMarkers = markers;
+    }
+    return amPmMarkers;
+  }
+
+  /**
+   * Give back the value of the application property with the given key or the default value of
+   * the property if it is not set.
+   */
+  public String getApplicationProperty(final String key) {
+    String value = applicationProperties.get(key);
+    if (value == null) {
+      ApplicationProperties jiraApplicationProperties =
+          ComponentAccessor.getComponent(ApplicationProperties.class);
+      value = jiraApplicationProperties.getDefaultBackedString(key);
+      applicationProperties.put(key, value);
+    }
+    return value;
+  }
+
+  private JiraAuthenticationContext getAuthenticationContext() {
+    if (authenticationContext == null) {
+      authenticationContext = ComponentAccessor.getJiraAuthenticationContext();
+    }
+    return authenticationContext;
+  }
+
+  /**
+   * Give back the global settings.
+   */
+  public TimeTrackerGlobalSettings getGlobalSettings() {
+    if (globalSettings == null) {
+      TimeTrackerSettingsHelper settingsHelper =
+          ComponentAccessor.getOSGiComponentInstanceOfType(TimeTrackerSettingsHelper.class);
+      globalSettings = settingsHelper.loadGlobalSettings();
+    }
+    return globalSettings;
+  }
+
+  /**
+   * Give back the i18n helper of the logged user.
+   */
+  public I18nHelper getI18nHelper() {
+    if (i18nHelper == null) {
+      i18nHelper = getAuthenticationContext().getI18nHelper();
+    }
+    return i18nHelper;
+  }
+
+  /**
+   * Give back the JIRA date pattern with the given application property key.
+   */
+  public String getJiraDatePattern(final String formatKey) {
+    return getApplicationProperty(formatKey);
+  }
+
+  /**
+   * Give back the locale of the logged user.
+   */
+  public Locale getLocale() {
+    if (locale == null) {
+      locale = getI18nHelper().getLocale();
+    }
+    return locale;
+  }
+
+  private JiraServiceContext getServiceContext() {
+    return new JiraServiceContextImpl(getUser());
+  }
+
+  /**
+   * Give back the system {@link DateTimeZone}.
+   */
+  public DateTimeZone getSystemTimeZone() {
+    if (systemTimeZone == null) {
+      systemTimeZone = DateTimeZone.forTimeZone(
+          getTimeZoneService().getJVMTimeZoneInfo(getServiceContext()).toTimeZone());
+    }
+    return systemTimeZone;
+  }
+
+  /**
+   * Give back the JIRA {@link DateTimeStyle#TIME} formatter of the logged user in the system time
+   * zone.
+   */
+  public DateTimeFormatter getTimeFormatter() {
+    if (timeFormatter == null) {
+      DateTimeFormatterFactory dateTimeFormatterFactory =
+          ComponentAccessor.getComponent(DateTimeFormatterFactory.class);
+      timeFormatter = dateTimeFormatterFactory
+          .formatter()
+          .forLoggedInUser()
+          .withSystemZone()
+          .withStyle(DateTimeStyle.TIME);
+    }
+    return timeFormatter;
+  }
+
+  private TimeZoneServiceImpl getTimeZoneService() {
+    if (timeZoneService == null) {
+      timeZoneService = new TimeZoneServiceImpl(ComponentAccessor.getApplicationProperties(),
+          ComponentAccessor.getPermissionManager(),
+          ComponentAccessor.getUserPreferencesManager());
+    }
+    return timeZoneService;
+  }
+
+  /**
+   * Give back the logged user or <code>null</code> if there is no logged user.
+   */
+  public ApplicationUser getUser() {
+    if (!userLoaded) {
+      user = getAuthenticationContext().getUser();
+      userLoaded = true;
+    }
+    return user;
+  }
+
+  /**
+   * Give back the logged user key or empty String if there is no logged user.
+   */
+  public String getUserKey() {
+    ApplicationUser loggedUser = getUser();
+    if (loggedUser == null) {
+      return "";
+    }
+    return loggedUser.getKey();
+  }
+
+  /**
+   * Give back the logged user {@link DateTimeZone} based on the time zone settings.
+   */
+  public DateTimeZone getUserTimeZone() {
+    if (userTimeZone == null) {
+      if (TimeZoneTypes.USER.equals(getGlobalSettings().getTimeZone())) {
+        userTimeZone = DateTimeZone.forTimeZone(
+            getTimeZoneService().getUserTimeZone(getServiceContext()));
+      } else {
+        userTimeZone = getSystemTimeZone();
+      }
+    }
+    return userTimeZone;
+  }
+}
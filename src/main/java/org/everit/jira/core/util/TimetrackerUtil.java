@@ -21,26 +21,17 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
-import java.util.TimeZone;
 import java.util.regex.Pattern;
 
-import org.everit.jira.settings.TimeTrackerSettingsHelper;
-import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
-import org.everit.jira.settings.dto.TimeZoneTypes;
+import org.everit.jira.core.query.WorklogCountQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.timetracker.plugin.dto.WorklogValues;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.GenericValue;
 
-import com.atlassian.jira.bc.JiraServiceContext;
-import com.atlassian.jira.bc.JiraServiceContextImpl;
-import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.issue.status.Status;
-import com.atlassian.jira.security.JiraAuthenticationContext;
-import com.atlassian.jira.timezone.TimeZoneServiceImpl;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.util.I18nHelper;
 import com.google.gson.Gson;
@@ -80,13 +71,22 @@ public final class TimetrackerUtil {
         }
       }
     }
-    Long estimated = issue.getEstimate();
-    Status issueStatus = issue.getStatusObject();
-    String issueStatusId = issueStatus.getId();
-    if (((estimated == null) || (estimated == 0)) && !"6".equals(issueStatusId)) {
-      return false;
-    }
-    return true;
+    return isEstimatedOrClosed(issue);
+  }
+
+  /**
+   * Check the issue original estimated time. If null then the original estimated time wasn't
+   * specified, else compare the spent time with the original estimated time.
+   *
+   * @param issue
+   *          The issue.
+   * @param collectorIssueMatcher
+   *          The matcher of the collector issues.
+   * @return True if not specified, bigger or equals whit spent time else false.
+   */
+  public static boolean checkIssueEstimatedTimeByMatcher(final MutableIssue issue,
+      final IssueKeyMatcher collectorIssueMatcher) {
+    return collectorIssueMatcher.matches(issue.getKey()) || isEstimatedOrClosed(issue);
   }
 
   /**
@@ -168,9 +168,7 @@ public final class TimetrackerUtil {
    * @return The property value or the key.
    */
   public static String getI18nText(final String i18nKey) {
-    JiraAuthenticationContext jiraAuthenticationContext =
-        ComponentAccessor.getJiraAuthenticationContext();
-    I18nHelper i18Helper = jiraAuthenticationContext.getI18nHelper();
+    I18nHelper i18Helper = TimetrackerContext.current().getI18nHelper();
 
     if (i18Helper.isKeyDefined(i18nKey)) {
       return i18Helper.getText(i18nKey);
@@ -178,25 +176,13 @@ public final class TimetrackerUtil {
     return i18nKey;
   }
 
-  private static TimeZoneServiceImpl getInitializedTimeZoneServeice() {
-    return new TimeZoneServiceImpl(ComponentAccessor.getApplicationProperties(),
-        ComponentAccessor.getPermissionManager(),
-        ComponentAccessor.getUserPreferencesManager());
-  }
-
   /**
    * Give back the logged user userKey.
    *
    * @return The logged application user userKey or empty String.
    */
   public static String getLoggedUserKey() {
-    JiraAuthenticationContext authenticationContext = ComponentAccessor
-        .getJiraAuthenticationContext();
-    ApplicationUser user = authenticationContext.getUser();
-    if (user == null) {
-      return "";
-    }
-    return user.getKey();
+    return TimetrackerContext.current().getUserKey();
   }
 
   /**
@@ -205,26 +191,7 @@ public final class TimetrackerUtil {
    * @return The logged user {@link DateTimeZone}.
    */
   public static DateTimeZone getLoggedUserTimeZone() {
-    TimeTrackerSettingsHelper settingsHelper =
-        ComponentAccessor.getOSGiComponentInstanceOfType(TimeTrackerSettingsHelper.class);
-    TimeTrackerGlobalSettings globalSettings = settingsHelper.loadGlobalSettings();
-    TimeZoneTypes timeZoneTypes = globalSettings.getTimeZone();
-    if (TimeZoneTypes.USER.equals(timeZoneTypes)) {
-      TimeZoneServiceImpl timeZoneServiceImpl = TimetrackerUtil.getInitializedTimeZoneServeice();
-      JiraServiceContext serviceContext = TimetrackerUtil.getServiceContext();
-      TimeZone timeZone = timeZoneServiceImpl.getUserTimeZone(serviceContext);
-      return DateTimeZone.forTimeZone(timeZone);
-    } else {
-      return TimetrackerUtil.getSystemTimeZone();
-    }
-
-  }
-
-  private static JiraServiceContext getServiceContext() {
-    JiraAuthenticationContext authenticationContext = ComponentAccessor
-        .getJiraAuthenticationContext();
-    ApplicationUser user = authenticationContext.getUser();
-    return new JiraServiceContextImpl(user);
+    return TimetrackerContext.current().getUserTimeZone();
   }
 
   /**
@@ -233,38 +200,42 @@ public final class TimetrackerUtil {
    * @return The system {@link DateTimeZone}.
    */
   public static DateTimeZone getSystemTimeZone() {
-    TimeZoneServiceImpl timeZoneServiceImpl = TimetrackerUtil.getInitializedTimeZoneServeice();
-    JiraServiceContext serviceContext = TimetrackerUtil.getServiceContext();
-    TimeZone timeZone = timeZoneServiceImpl.getJVMTimeZoneInfo(serviceContext).toTimeZone();
-    return DateTimeZone.forTimeZone(timeZone);
+    return TimetrackerContext.current().getSystemTimeZone();
   }
 
   /**
-   * Check the given date, the user have worklogs or not.
+   * Check the given date, the user have visible worklogs or not.
    *
+   * @param querydslSupport
+   *          the {@link QuerydslSupport} to run the query.
    * @param date
    *          The date what have to check. The date have to be set to day start and after that
    *          convert to system Time Zone.//No need to convert. It sends EPOCh milis.
    * @return If The user have worklogs the given date then true, esle false.
    */
-  public static boolean isContainsWorklog(final Date date) {
-    JiraAuthenticationContext authenticationContext = ComponentAccessor
-        .getJiraAuthenticationContext();
-    ApplicationUser user = authenticationContext.getUser();
+  public static boolean isContainsWorklog(final QuerydslSupport querydslSupport,
+      final Date date) {
+    ApplicationUser user = TimetrackerContext.current().getUser();
 
     Calendar startDate = Calendar.getInstance();
     startDate.setTime(date);
     Calendar endDate = (Calendar) startDate.clone();
     endDate.add(Calendar.DAY_OF_MONTH, 1);
 
-    List<EntityCondition> exprList =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(user, startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
+    Long worklogCount = querydslSupport.execute(
+        new WorklogCountQuery(user.getKey(), startDate.getTime(), endDate.getTime()));
 
-    List<GenericValue> worklogGVList =
-        ComponentAccessor.getOfBizDelegator().findByAnd("IssueWorklogView", exprList);
+    return (worklogCount != null) && (worklogCount > 0);
+  }
 
-    return !((worklogGVList == null) || worklogGVList.isEmpty());
+  private static boolean isEstimatedOrClosed(final MutableIssue issue) {
+    Long estimated = issue.getEstimate();
+    Status issueStatus = issue.getStatusObject();
+    String issueStatusId = issueStatus.getId();
+    if (((estimated == null) || (estimated == 0)) && !"6".equals(issueStatusId)) {
+      return false;
+    }
+    return true;
   }
 
   /**
@@ -273,9 +244,7 @@ public final class TimetrackerUtil {
    * @return True if we have logged user else false.
    */
   public static boolean isUserLogged() {
-    JiraAuthenticationContext authenticationContext = ComponentAccessor
-        .getJiraAuthenticationContext();
-    ApplicationUser user = authenticationContext.getUser();
+    ApplicationUser user = TimetrackerContext.current().getUser();
     if (user == null) {
       return false;
     }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.util;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Immutable calendar of the exclude and include dates. The dates are stored in bitsets indexed
+ * by the epoch day, so the lookups do not scan the date sets. The days of the checked dates are
+ * calculated in the time zone of the checked date, the exclude and include dates in their own
+ * time zone (UTC in the settings). The calendar of the global settings is built once per settings
+ * snapshot, see
+ * {@link org.everit.jira.settings.dto.TimeTrackerGlobalSettings#getWorkdayCalendar()}.
+ */
+public final class WorkdayCalendar {
+
+  private static final int DAYS_PER_WEEK = 7;
+
+  /**
+   * 1970-01-01 was a thursday.
+   */
+  private static final int EPOCH_DAY_OF_WEEK_OFFSET = 3;
+
+  private static int dayOfWeek(final long epochDay) {
+    int dayOfWeek = (int) ((epochDay + EPOCH_DAY_OF_WEEK_OFFSET) % DAYS_PER_WEEK);
+    if (dayOfWeek < 0) {
+      dayOfWeek += DAYS_PER_WEEK;
+    }
+    return dayOfWeek + 1;
+  }
+
+  private static boolean isWeekend(final long epochDay) {
+    int dayOfWeek = dayOfWeek(epochDay);
+    return (dayOfWeek == DateTimeConstants.SATURDAY) || (dayOfWeek == DateTimeConstants.SUNDAY);
+  }
+
+  private static long toEpochDay(final DateTime date) {
+    return date.toLocalDate().toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis()
+        / DateTimeConstants.MILLIS_PER_DAY;
+  }
+
+  private final long baseEpochDay;
+
+  private final BitSet excludeDays;
+
+  private final BitSet includeDays;
+
+  /**
+   * Simple constructor.
+   *
+   * @param excludeDates
+   *          the exclude dates.
+   * @param includeDates
+   *          the include dates.
+   */
+  public WorkdayCalendar(final Set<DateTime> excludeDates, final Set<DateTime> includeDates) {
+    long minEpochDay = Long.MAX_VALUE;
+    for (DateTime excludeDate : excludeDates) {
+      minEpochDay = Math.min(minEpochDay, toEpochDay(excludeDate));
+    }
+    for (DateTime includeDate : includeDates) {
+      minEpochDay = Math.min(minEpochDay, toEpochDay(includeDate));
+    }
+    baseEpochDay = minEpochDay == Long.MAX_VALUE ? 0 : minEpochDay;
+    excludeDays = toBitSet(excludeDates);
+    includeDays = toBitSet(includeDates);
+  }
+
+  /**
+   * Count the dates of the collection that are exclude dates.
+   *
+   * @param dates
+   *          the checked dates.
+   * @return the number of the exclude dates.
+   */
+  public int countExcludedDays(final Collection<DateTime> dates) {
+    int counter = 0;
+    for (DateTime date : dates) {
+      if (isExcluded(date)) {
+        counter++;
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Count the dates of the collection that are include dates.
+   *
+   * @param dates
+   *          the checked dates.
+   * @return the number of the include dates.
+   */
+  public int countIncludedDays(final Collection<DateTime> dates) {
+    int counter = 0;
+    for (DateTime date : dates) {
+      if (isIncluded(date)) {
+        counter++;
+      }
+    }
+    return counter;
+  }
+
+  private boolean isDaySet(final BitSet bitSet, final long epochDay) {
+    long index = epochDay - baseEpochDay;
+    return (index >= 0) && (index < bitSet.length()) && bitSet.get((int) index);
+  }
+
+  /**
+   * Check the day of the date is an exclude date.
+   *
+   * @param date
+   *          the checked date.
+   * @return true if excluded, otherwise false.
+   */
+  public boolean isExcluded(final DateTime date) {
+    return isDaySet(excludeDays, toEpochDay(date));
+  }
+
+  /**
+   * Check the day of the date is an include date.
+   *
+   * @param date
+   *          the checked date.
+   * @return true if included, otherwise false.
+   */
+  public boolean isIncluded(final DateTime date) {
+    return isDaySet(includeDays, toEpochDay(date));
+  }
+
+  /**
+   * Check the day of the date is a working day. The exclude dates are not working days, the
+   * include dates and the weekdays are working days.
+   *
+   * @param date
+   *          the checked date.
+   * @return true if working day, otherwise false.
+   */
+  public boolean isWorkday(final DateTime date) {
+    long epochDay = toEpochDay(date);
+    if (isDaySet(excludeDays, epochDay)) {
+      return false;
+    }
+    return isDaySet(includeDays, epochDay) || !isWeekend(epochDay);
+  }
+
+  private BitSet toBitSet(final Set<DateTime> dates) {
+    BitSet bitSet = new BitSet();
+    for (DateTime date : dates) {
+      bitSet.set((int) (toEpochDay(date) - baseEpochDay));
+    }
+    return bitSet;
+  }
+
+}
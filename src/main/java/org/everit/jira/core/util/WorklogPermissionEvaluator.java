@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.core.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.atlassian.jira.component.ComponentAccessor;
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.permission.ProjectPermissions;
+import com.atlassian.jira.security.PermissionManager;
+import com.atlassian.jira.security.plugin.ProjectPermissionKey;
+import com.atlassian.jira.user.ApplicationUser;
+
+/**
+ * Request scoped permission evaluator for worklogs. Memoizes the own worklog permission checks
+ * per issue. Do not keep an instance longer than one request, because it does not follow the
+ * permission changes.
+ */
+public class WorklogPermissionEvaluator {
+
+  /**
+   * Creates a new evaluator for the logged in user.
+   *
+   * @return the {@link WorklogPermissionEvaluator} instance.
+   */
+  public static WorklogPermissionEvaluator createForLoggedInUser() {
+    return new WorklogPermissionEvaluator(
+        ComponentAccessor.getJiraAuthenticationContext().getUser(),
+        ComponentAccessor.getPermissionManager());
+  }
+
+  private final Map<Long, Boolean> deleteOwnWorklogsPermissions = new HashMap<>();
+
+  private final Map<Long, Boolean> editOwnWorklogsPermissions = new HashMap<>();
+
+  private final PermissionManager permissionManager;
+
+  private final ApplicationUser user;
+
+  /**
+   * Simple constructor.
+   *
+   * @param user
+   *          the user whose permissions are evaluated.
+   * @param permissionManager
+   *          the {@link PermissionManager} instance.
+   */
+  public WorklogPermissionEvaluator(final ApplicationUser user,
+      final PermissionManager permissionManager) {
+    this.user = user;
+    this.permissionManager = permissionManager;
+  }
+
+  /**
+   * Check the user has delete own worklogs permission on the issue.
+   *
+   * @param issue
+   *          the issue.
+   * @return true if has permission, otherwise false.
+   */
+  public boolean canDeleteOwnWorklogs(final Issue issue) {
+    return hasPermission(deleteOwnWorklogsPermissions, ProjectPermissions.DELETE_OWN_WORKLOGS,
+        issue);
+  }
+
+  /**
+   * Check the user has edit own worklogs permission on the issue.
+   *
+   * @param issue
+   *          the issue.
+   * @return true if has permission, otherwise false.
+   */
+  public boolean canEditOwnWorklogs(final Issue issue) {
+    return hasPermission(editOwnWorklogsPermissions, ProjectPermissions.EDIT_OWN_WORKLOGS,
+        issue);
+  }
+
+  private boolean hasPermission(final Map<Long, Boolean> memo,
+      final ProjectPermissionKey permissionKey, final Issue issue) {
+    Long issueId = issue.getId();
+    Boolean hasPermission = memo.get(issueId);
+    if (hasPermission == null) {
+      hasPermission = permissionManager.hasPermission(permissionKey, issue, user);
+      memo.put(issueId, hasPermission);
+    }
+    return hasPermission;
+  }
+
+}
@@ -15,26 +15,21 @@
  */
 package org.everit.jira.core.util;
 
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
-import org.ofbiz.core.entity.EntityOperator;
-import org.ofbiz.core.entity.GenericValue;
+import org.everit.jira.core.dto.WorklogDTO;
 
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.IssueManager;
 import com.atlassian.jira.issue.MutableIssue;
-import com.atlassian.jira.permission.ProjectPermissions;
 import com.atlassian.jira.project.Project;
-import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.Permissions;
-import com.atlassian.jira.security.groups.GroupManager;
-import com.atlassian.jira.security.roles.ProjectRole;
-import com.atlassian.jira.security.roles.ProjectRoleManager;
 import com.atlassian.jira.user.ApplicationUser;
 
 /**
@@ -42,7 +37,14 @@ import com.atlassian.jira.user.ApplicationUser;
  */
 public final class WorklogUtil {
 
-  private static List<Long> createProjects(final ApplicationUser loggedInUser) {
+  /**
+   * Gives back the ids of the projects that the user can browse.
+   *
+   * @param loggedInUser
+   *          the logged user.
+   * @return the list of the project ids.
+   */
+  public static List<Long> createProjects(final ApplicationUser loggedInUser) {
     Collection<Project> projects = ComponentAccessor.getPermissionManager()
         .getProjects(Permissions.BROWSE, loggedInUser);
 
@@ -54,130 +56,29 @@ public final class WorklogUtil {
   }
 
   /**
-   * Creates worklog query expression list without permission check.
-   *
-   * @param startDate
-   *          the start date of the worklog in milliseconds.
-   * @param endDate
-   *          the end date of the worklog in milliseconds.
-   * @param userKey
-   *          the user key for author.
-   * @return the expression list.
-   */
-  public static List<EntityCondition> createWorklogQueryExprList(final long startDate,
-      final long endDate,
-      final String userKey) {
-    EntityExpr startExpr = new EntityExpr("startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate));
-    EntityExpr endExpr = new EntityExpr("startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate));
-    EntityExpr userExpr = new EntityExpr("author", EntityOperator.EQUALS,
-        userKey);
-    List<EntityCondition> exprList = new ArrayList<>();
-    exprList.add(userExpr);
-    exprList.add(startExpr);
-    exprList.add(endExpr);
-    return exprList;
-  }
-
-  /**
-   * Creates worklog query expression list with permission check.
+   * Loads the issues of the worklogs with one bulk lookup. The number of issue reads depends on
+   * the distinct issues and not on the number of worklogs.
    *
-   * @param user
-   *          the user who's the author in worklog.
-   * @param startDate
-   *          the start date of the worklog.
-   * @param endDate
-   *          the end date of the worklog.
-   * @return the expression list.
-   */
-  public static List<EntityCondition> createWorklogQueryExprListWithPermissionCheck(
-      final ApplicationUser user,
-      final long startDate, final long endDate) {
-
-    String userKey = user.getKey();
-
-    return WorklogUtil.createWorklogQueryExprListWithPermissionCheck(userKey, user,
-        startDate,
-        endDate);
-  }
-
-  /**
-   * Creates worklog query expression list with permission check.
-   *
-   * @param selectedUser
-   *          the selected user key who's the author in worklog.
-   * @param loggedInUser
-   *          the logged user.
-   * @param startDate
-   *          the start date of the worklog in milliseconds.
-   * @param endDate
-   *          the end date of the worklog in milliseconds.
-   * @return the expression list.
-   */
-  public static List<EntityCondition> createWorklogQueryExprListWithPermissionCheck(
-      final String selectedUser,
-      final ApplicationUser loggedInUser,
-      final long startDate, final long endDate) {
-    String userKey = ((selectedUser == null) || "".equals(selectedUser))
-        ? loggedInUser.getKey() : selectedUser;
-
-    List<Long> projects = WorklogUtil.createProjects(loggedInUser);
-
-    List<EntityCondition> exprList =
-        WorklogUtil.createWorklogQueryExprList(startDate, endDate, userKey);
-
-    EntityExpr projectExpr = new EntityExpr("project", EntityOperator.EQUALS, null);
-    if (!projects.isEmpty()) {
-      projectExpr = new EntityExpr("project", EntityOperator.IN, projects);
-    }
-    exprList.add(projectExpr);
-    return exprList;
-  }
-
-  /**
-   * Check has worklog visibility permission for the user.
-   *
-   * @param loggedInUser
-   *          the logged user.
    * @param issueManager
    *          the {@link IssueManager} instance.
-   * @param groupManager
-   *          the {@link GroupManager} instance.
-   * @param projectRoleManager
-   *          the {@link ProjectRoleManager} instance.
-   * @param permissionManager
-   *          the {@link PermissionManager} instance.}
-   * @param worklogGv
-   *          the {@link GenericValue} for the worklog.
-   * @return true if has worklog visibility, otherwise false.
+   * @param worklogs
+   *          the worklog rows.
+   * @return the issues mapped by the issue id.
    */
-  public static boolean hasWorklogVisibility(final ApplicationUser loggedInUser,
-      final IssueManager issueManager, final GroupManager groupManager,
-      final ProjectRoleManager projectRoleManager, final PermissionManager permissionManager,
-      final GenericValue worklogGv) {
-    Collection<String> loggedUserGroupNames = groupManager.getGroupNamesForUser(loggedInUser);
-    Long roleLevelId = worklogGv.getLong("rolelevel");
-    String groupLevel = worklogGv.getString("grouplevel");
-    Long issueId = worklogGv.getLong("issue");
-    MutableIssue issue = issueManager.getIssueObject(issueId);
-    if (!permissionManager.hasPermission(ProjectPermissions.BROWSE_PROJECTS, issue, loggedInUser)) {
-      return false;
+  public static Map<Long, MutableIssue> loadWorklogIssues(final IssueManager issueManager,
+      final List<WorklogDTO> worklogs) {
+    Set<Long> issueIds = new LinkedHashSet<>();
+    for (WorklogDTO worklog : worklogs) {
+      issueIds.add(worklog.getIssueId());
+    }
+    Map<Long, MutableIssue> issues = new HashMap<>();
+    if (issueIds.isEmpty()) {
+      return issues;
     }
-    boolean hasWorklogVisibility = true;
-    if ((roleLevelId != null)) {
-      hasWorklogVisibility = false;
-      Collection<ProjectRole> projectRoles =
-          projectRoleManager.getProjectRoles(loggedInUser, issue.getProjectObject());
-      for (ProjectRole projectRole : projectRoles) {
-        if (projectRole.getId().equals(roleLevelId)) {
-          hasWorklogVisibility = true;
-        }
-      }
-    } else if ((groupLevel != null) && !loggedUserGroupNames.contains(groupLevel)) {
-      hasWorklogVisibility = false;
+    for (MutableIssue issue : issueManager.getIssueObjects(issueIds)) {
+      issues.put(issue.getId(), issue);
     }
-    return hasWorklogVisibility;
+    return issues;
   }
 
   private WorklogUtil() {
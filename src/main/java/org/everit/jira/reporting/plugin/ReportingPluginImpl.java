@@ -17,11 +17,25 @@ package org.everit.jira.reporting.plugin;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLSyntaxErrorException;
 import java.util.List;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
 import org.everit.jira.querydsl.support.QuerydslCallable;
 import org.everit.jira.querydsl.support.QuerydslSupport;
-import org.everit.jira.querydsl.support.ri.QuerydslSupportImpl;
 import org.everit.jira.reporting.plugin.dto.IssueSummaryDTO;
 import org.everit.jira.reporting.plugin.dto.IssueSummaryReportDTO;
 import org.everit.jira.reporting.plugin.dto.OrderBy;
@@ -33,44 +47,143 @@ import org.everit.jira.reporting.plugin.dto.UserSummaryDTO;
 import org.everit.jira.reporting.plugin.dto.UserSummaryReportDTO;
 import org.everit.jira.reporting.plugin.dto.WorklogDetailsDTO;
 import org.everit.jira.reporting.plugin.dto.WorklogDetailsReportDTO;
+import org.everit.jira.reporting.plugin.exception.JTRPException;
 import org.everit.jira.reporting.plugin.query.IssueSummaryReportQueryBuilder;
 import org.everit.jira.reporting.plugin.query.ProjectSummaryReportQueryBuilder;
 import org.everit.jira.reporting.plugin.query.UserSummaryReportQueryBuilder;
 import org.everit.jira.reporting.plugin.query.WorklogDetailsReportQueryBuilder;
-import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
+import org.everit.jira.reporting.plugin.query.util.EpicSchemaCache;
+import org.everit.jira.timetracker.plugin.util.TimestampZoneConverter;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
+import com.querydsl.sql.Configuration;
+
 /**
- * The implementation of the {@link ReportingPlugin}.
+ * The implementation of the {@link ReportingPlugin}. The independent queries of a report (page,
+ * count and grand total) run in parallel on a bounded executor, each on its own connection. The
+ * worklog details report selects the count and grand total with the page in one window function
+ * query if the database supports it.
  */
 public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
     DisposableBean, Serializable {
 
   /**
-   * The plugin reporting settings groups that have browse user permission.
+   * The daemon threads of the report query executor.
+   */
+  private static final class ReportThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      Thread thread = new Thread(runnable, "jttp-report-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+  /**
+   * The default time limit of one report in seconds.
+   */
+  private static final long DEFAULT_REPORT_TIMEOUT_SECONDS = 120L;
+
+  private static final Logger LOGGER = Logger.getLogger(ReportingPluginImpl.class);
+
+  /**
+   * The maximum number of the waiting report queries. The queries over it run on the caller
+   * thread.
+   */
+  private static final int MAX_QUEUED_QUERIES = 32;
+
+  /**
+   * The maximum number of the threads that run report queries.
+   */
+  private static final int MAX_THREAD = 8;
+
+  /**
+   * The system property to override the time limit of one report in seconds.
+   */
+  public static final String REPORT_TIMEOUT_SECONDS_PROPERTY = "jttp.report.timeout.seconds";
+
+  /**
+   * The SQL state class of the feature not supported errors.
+   */
+  private static final String SQL_STATE_FEATURE_NOT_SUPPORTED = "0A";
+
+  /**
+   * The SQL state class of the syntax errors and access rule violations.
    */
+  private static final String SQL_STATE_SYNTAX_ERROR = "42";
 
   /**
    * Serial Version UID.
    */
   private static final long serialVersionUID = -3872710932298672883L;
 
-  private QuerydslSupport querydslSupport;
+  private final QuerydslSupport querydslSupport;
+
+  private transient ThreadPoolExecutor reportExecutor;
+
+  private final long reportTimeoutNanos;
 
   /**
-   * Default constructor.
+   * The database supports the window function query or <code>null</code> if not resolved yet.
    */
-  public ReportingPluginImpl() {
-    try {
-      querydslSupport = new QuerydslSupportImpl();
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  private transient volatile Boolean windowFunctionSupported;
+
+  /**
+   * Simple constructor. The time limit of the reports is read from the
+   * {@link #REPORT_TIMEOUT_SECONDS_PROPERTY} system property.
+   *
+   * @param querydslSupport
+   *          the {@link QuerydslSupport} instance.
+   */
+  public ReportingPluginImpl(final QuerydslSupport querydslSupport) {
+    this.querydslSupport = querydslSupport;
+    reportTimeoutNanos = TimeUnit.SECONDS.toNanos(
+        Long.getLong(REPORT_TIMEOUT_SECONDS_PROPERTY, DEFAULT_REPORT_TIMEOUT_SECONDS));
   }
 
   @Override
   public void afterPropertiesSet() throws Exception {
+    reportExecutor = new ThreadPoolExecutor(MAX_THREAD, MAX_THREAD, 1, TimeUnit.MINUTES,
+        new ArrayBlockingQueue<Runnable>(MAX_QUEUED_QUERIES), new ReportThreadFactory(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    reportExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Wait for the result of a query started by {@link #submit(QuerydslCallable)}.
+   *
+   * @param future
+   *          the future of the query.
+   * @param deadline
+   *          the deadline of the report in {@link System#nanoTime()}.
+   * @return the result of the query.
+   * @throws JTRPException
+   *           if the query did not finish until the deadline.
+   */
+  private <R> R await(final Future<R> future, final long deadline) {
+    try {
+      return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new JTRPException("jtrp.plugin.report_timeout");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new JTRPException("jtrp.plugin.report_timeout");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
   }
 
   private PagingDTO createPagingDTO(final Long offset, final Long limit, final Long count) {
@@ -99,8 +212,17 @@ public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
         .maxPageNumber(maxPageNumber);
   }
 
+  private long deadline() {
+    return System.nanoTime() + reportTimeoutNanos;
+  }
+
   @Override
   public void destroy() throws Exception {
+    if (reportExecutor != null) {
+      reportExecutor.shutdownNow();
+    }
+    // the Epic Name field may be created while the plugin is disabled
+    EpicSchemaCache.invalidate();
   }
 
   @Override
@@ -113,9 +235,18 @@ public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
 
     QuerydslCallable<Long> issueSummaryCountQuery = issueSummaryQueryBuilder.buildCountQuery();
 
-    List<IssueSummaryDTO> issueSummaries = querydslSupport.execute(issueSummaryQuery);
+    long deadline = deadline();
+    Future<Long> issueSummaryCountFuture = submit(issueSummaryCountQuery);
 
-    Long issueSummaryCount = querydslSupport.execute(issueSummaryCountQuery);
+    List<IssueSummaryDTO> issueSummaries;
+    Long issueSummaryCount;
+    try {
+      issueSummaries = querydslSupport.execute(issueSummaryQuery);
+
+      issueSummaryCount = await(issueSummaryCountFuture, deadline);
+    } finally {
+      issueSummaryCountFuture.cancel(true);
+    }
 
     PagingDTO paging = createPagingDTO(reportSearchParam.offset,
         reportSearchParam.limit,
@@ -138,9 +269,18 @@ public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
 
     QuerydslCallable<Long> projectSummaryCountQuery = projectSummaryQueryBuilder.buildCountQuery();
 
-    List<ProjectSummaryDTO> projectSummaries = querydslSupport.execute(projectSummaryQuery);
+    long deadline = deadline();
+    Future<Long> projectSummaryCountFuture = submit(projectSummaryCountQuery);
 
-    Long projectSummaryCount = querydslSupport.execute(projectSummaryCountQuery);
+    List<ProjectSummaryDTO> projectSummaries;
+    Long projectSummaryCount;
+    try {
+      projectSummaries = querydslSupport.execute(projectSummaryQuery);
+
+      projectSummaryCount = await(projectSummaryCountFuture, deadline);
+    } finally {
+      projectSummaryCountFuture.cancel(true);
+    }
 
     PagingDTO paging = createPagingDTO(reportSearchParam.offset,
         reportSearchParam.limit,
@@ -162,9 +302,18 @@ public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
 
     QuerydslCallable<Long> userSummaryCountQuery = userSummaryQueryBuilder.buildCountQuery();
 
-    List<UserSummaryDTO> userSummaries = querydslSupport.execute(userSummaryQuery);
+    long deadline = deadline();
+    Future<Long> userSummaryCountFuture = submit(userSummaryCountQuery);
 
-    Long userSummaryCount = querydslSupport.execute(userSummaryCountQuery);
+    List<UserSummaryDTO> userSummaries;
+    Long userSummaryCount;
+    try {
+      userSummaries = querydslSupport.execute(userSummaryQuery);
+
+      userSummaryCount = await(userSummaryCountFuture, deadline);
+    } finally {
+      userSummaryCountFuture.cancel(true);
+    }
 
     PagingDTO paging = createPagingDTO(reportSearchParam.offset,
         reportSearchParam.limit,
@@ -182,43 +331,149 @@ public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
     WorklogDetailsReportQueryBuilder worklogDetailsReportQueryBuilder =
         new WorklogDetailsReportQueryBuilder(reportSearchParam, orderBy);
 
-    QuerydslCallable<List<WorklogDetailsDTO>> worklogDetailsQuery = worklogDetailsReportQueryBuilder
-        .buildQuery();
+    WorklogDetailsReportDTO worklogDetailsReport =
+        queryWorklogDetails(worklogDetailsReportQueryBuilder);
 
-    QuerydslCallable<Long> worklogDetailsCountQuery =
-        worklogDetailsReportQueryBuilder.buildCountQuery();
+    List<WorklogDetailsDTO> worklogDetails = worklogDetailsReport.getWorklogDetails();
+    String nextPageCursor = worklogDetailsReportQueryBuilder.createNextPageCursor(worklogDetails);
 
-    QuerydslCallable<Long> grandTotalQuery =
-        worklogDetailsReportQueryBuilder.buildGrandTotalQuery();
-
-    List<WorklogDetailsDTO> worklogDetails = querydslSupport.execute(worklogDetailsQuery);
+    TimestampZoneConverter timestampZoneConverter = TimestampZoneConverter.forLoggedUser();
     for (WorklogDetailsDTO worklogDetail : worklogDetails) {
       worklogDetail.setIssueCreated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getIssueCreated()));
+          timestampZoneConverter.convert(worklogDetail.getIssueCreated()));
       worklogDetail.setIssueUpdated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getIssueUpdated()));
+          timestampZoneConverter.convert(worklogDetail.getIssueUpdated()));
       worklogDetail.setWorklogCreated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getWorklogCreated()));
+          timestampZoneConverter.convert(worklogDetail.getWorklogCreated()));
       worklogDetail.setWorklogStartDate(
-          DateTimeConverterUtil
-              .addTimeZoneToTimestamp(worklogDetail.getWorklogStartDate()));
+          timestampZoneConverter.convert(worklogDetail.getWorklogStartDate()));
       worklogDetail.setWorklogUpdated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getWorklogUpdated()));
+          timestampZoneConverter.convert(worklogDetail.getWorklogUpdated()));
     }
 
-    Long worklogDetailsCount = querydslSupport.execute(worklogDetailsCountQuery);
-
-    Long grandTotal = querydslSupport.execute(grandTotalQuery);
-
     PagingDTO paging = createPagingDTO(reportSearchParam.offset,
         reportSearchParam.limit,
-        worklogDetailsCount);
+        worklogDetailsReport.getWorklogDetailsCount());
+
+    return worklogDetailsReport
+        .nextPageCursor(nextPageCursor)
+        .paging(paging);
+  }
+
+  /**
+   * Check the exception is caused by a query the database cannot parse or run, so the same query
+   * would fail every time.
+   */
+  private static boolean isUnsupportedQuery(final Throwable exception) {
+    Throwable cause = exception;
+    while (cause != null) {
+      if ((cause instanceof SQLSyntaxErrorException)
+          || (cause instanceof SQLFeatureNotSupportedException)) {
+        return true;
+      }
+      if (cause instanceof SQLException) {
+        String sqlState = ((SQLException) cause).getSQLState();
+        if ((sqlState != null) && (sqlState.startsWith(SQL_STATE_SYNTAX_ERROR)
+            || sqlState.startsWith(SQL_STATE_FEATURE_NOT_SUPPORTED))) {
+          return true;
+        }
+      }
+      cause = cause.getCause() == cause ? null : cause.getCause();
+    }
+    return false;
+  }
+
+  /**
+   * Check the database supports the window function query of the worklog details report. The
+   * result is resolved once, the database type does not change while the plugin runs.
+   */
+  private boolean isWindowFunctionSupported() {
+    Boolean supported = windowFunctionSupported;
+    if (supported == null) {
+      supported = querydslSupport.execute(new QuerydslCallable<Boolean>() {
+        @Override
+        public Boolean call(final Connection connection, final Configuration configuration) {
+          return WorklogDetailsReportQueryBuilder
+              .isWindowFunctionSupported(configuration.getTemplates());
+        }
+      });
+      windowFunctionSupported = supported;
+    }
+    return Boolean.TRUE.equals(supported);
+  }
+
+  /**
+   * Query the worklog details page, count and grand total. Use the single window function query
+   * if the database supports it and the page is not selected by a keyset cursor, otherwise (or if
+   * the page is empty after the last worklog) run the count and grand total queries in parallel
+   * with the page query.
+   */
+  private WorklogDetailsReportDTO queryWorklogDetails(
+      final WorklogDetailsReportQueryBuilder worklogDetailsReportQueryBuilder) {
+    long deadline = deadline();
+    List<WorklogDetailsDTO> worklogDetails = null;
+    if (!worklogDetailsReportQueryBuilder.isKeysetPaging() && isWindowFunctionSupported()) {
+      WorklogDetailsReportDTO windowResult = queryWorklogDetailsWindow(
+          worklogDetailsReportQueryBuilder, deadline);
+      if ((windowResult != null) && (windowResult.getWorklogDetailsCount() != null)) {
+        return windowResult;
+      }
+      if (windowResult != null) {
+        worklogDetails = windowResult.getWorklogDetails();
+      }
+    }
+
+    Future<Long> worklogDetailsCountFuture =
+        submit(worklogDetailsReportQueryBuilder.buildCountQuery());
+    Future<Long> grandTotalFuture =
+        submit(worklogDetailsReportQueryBuilder.buildGrandTotalQuery());
+
+    Long worklogDetailsCount;
+    Long grandTotal;
+    try {
+      if (worklogDetails == null) {
+        worklogDetails = querydslSupport.execute(worklogDetailsReportQueryBuilder.buildQuery());
+      }
+
+      worklogDetailsCount = await(worklogDetailsCountFuture, deadline);
+
+      grandTotal = await(grandTotalFuture, deadline);
+    } finally {
+      worklogDetailsCountFuture.cancel(true);
+      grandTotalFuture.cancel(true);
+    }
 
     return new WorklogDetailsReportDTO()
         .worklogDetails(worklogDetails)
         .worklogDetailsCount(worklogDetailsCount)
-        .grandTotal(grandTotal)
-        .paging(paging);
+        .grandTotal(grandTotal);
+  }
+
+  /**
+   * Run the window function query on the report executor. Give back <code>null</code> if the query
+   * failed, so the report queries run separately. The window function queries are switched off if
+   * the database cannot parse or run the query.
+   *
+   * @throws JTRPException
+   *           if the query did not finish until the deadline.
+   */
+  private WorklogDetailsReportDTO queryWorklogDetailsWindow(
+      final WorklogDetailsReportQueryBuilder worklogDetailsReportQueryBuilder,
+      final long deadline) {
+    try {
+      return await(submit(worklogDetailsReportQueryBuilder.buildWindowQuery()), deadline);
+    } catch (JTRPException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      if (isUnsupportedQuery(e)) {
+        LOGGER.warn("Window function query is not supported, the report queries run separately.",
+            e);
+        windowFunctionSupported = Boolean.FALSE;
+      } else {
+        LOGGER.warn("Window function query failed, the report queries run separately.", e);
+      }
+      return null;
+    }
   }
 
   private void readObject(final java.io.ObjectInputStream stream) throws IOException,
@@ -227,6 +482,25 @@ public class ReportingPluginImpl implements ReportingPlugin, InitializingBean,
     throw new java.io.NotSerializableException(getClass().getName());
   }
 
+  /**
+   * Start the query on the report executor. The query runs on the caller thread if the executor
+   * is not initialized or it is saturated.
+   */
+  private <R> Future<R> submit(final QuerydslCallable<R> query) {
+    Callable<R> task = new Callable<R>() {
+      @Override
+      public R call() {
+        return querydslSupport.execute(query);
+      }
+    };
+    if (reportExecutor == null) {
+      FutureTask<R> futureTask = new FutureTask<>(task);
+      futureTask.run();
+      return futureTask;
+    }
+    return reportExecutor.submit(task);
+  }
+
   private void writeObject(final java.io.ObjectOutputStream stream) throws IOException {
     stream.close();
     throw new java.io.NotSerializableException(getClass().getName());
@@ -60,6 +60,8 @@ public class ReportSearchParam {
 
   public Long offset;
 
+  public String pageCursor;
+
   public List<Long> projectIds = Collections.emptyList();
 
   public boolean selectNoAffectedVersionIssue = false;
@@ -172,6 +174,11 @@ public class ReportSearchParam {
     return this;
   }
 
+  public ReportSearchParam pageCursor(final String pageCursor) {
+    this.pageCursor = pageCursor;
+    return this;
+  }
+
   public ReportSearchParam projectIds(final List<Long> projectIds) {
     this.projectIds = projectIds;
     return this;
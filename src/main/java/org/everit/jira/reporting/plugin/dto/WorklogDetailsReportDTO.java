@@ -25,6 +25,8 @@ public class WorklogDetailsReportDTO {
 
   private Long grandTotal = 0L;
 
+  private String nextPageCursor;
+
   private PagingDTO paging = new PagingDTO();
 
   private List<WorklogDetailsDTO> worklogDetails = Collections.emptyList();
@@ -35,6 +37,10 @@ public class WorklogDetailsReportDTO {
     return grandTotal;
   }
 
+  public String getNextPageCursor() {
+    return nextPageCursor;
+  }
+
   public PagingDTO getPaging() {
     return paging;
   }
@@ -52,6 +58,11 @@ public class WorklogDetailsReportDTO {
     return this;
   }
 
+  public WorklogDetailsReportDTO nextPageCursor(final String nextPageCursor) {
+    this.nextPageCursor = nextPageCursor;
+    return this;
+  }
+
   public WorklogDetailsReportDTO paging(final PagingDTO paging) {
     this.paging = paging;
     return this;
@@ -42,6 +42,8 @@ public abstract class AbstractExportListReport {
 
   private HSSFCellStyle bodyCellStyle;
 
+  private DurationFormatter durationFormatter;
+
   private HSSFCellStyle headerCellStyle;
 
   protected I18nHelper i18nHelper;
@@ -247,7 +249,6 @@ public abstract class AbstractExportListReport {
    *          worklog in seconds
    */
   protected String worklogInSec(final Long worklog) {
-    DurationFormatter durationFormatter = new DurationFormatter();
     isWorklogInSec = true;
     if (!userSettings.getWorklogTimeInSeconds()) {
       isWorklogInSec = false;
@@ -256,6 +257,9 @@ public abstract class AbstractExportListReport {
       if (isWorklogInSec) {
         return worklog.toString();
       }
+      if (durationFormatter == null) {
+        durationFormatter = DurationFormatter.getInstance();
+      }
       return durationFormatter.exactDuration(worklog);
     }
     return "";
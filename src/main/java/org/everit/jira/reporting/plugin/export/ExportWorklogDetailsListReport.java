@@ -28,7 +28,7 @@ import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
 import org.everit.jira.reporting.plugin.dto.WorklogDetailsDTO;
 import org.everit.jira.reporting.plugin.query.WorklogDetailsReportQueryBuilder;
 import org.everit.jira.settings.dto.TimeTrackerUserSettings;
-import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
+import org.everit.jira.timetracker.plugin.util.TimestampZoneConverter;
 
 /**
  * Class that export worklog details list report.
@@ -78,18 +78,18 @@ public class ExportWorklogDetailsListReport extends AbstractExportListReport {
         querydslSupport.execute(new WorklogDetailsReportQueryBuilder(reportSearchParam,
             orderBy)
                 .buildQuery());
+    TimestampZoneConverter timestampZoneConverter = TimestampZoneConverter.forLoggedUser();
     for (WorklogDetailsDTO worklogDetail : worklogDetails) {
       worklogDetail.setIssueCreated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getIssueCreated()));
+          timestampZoneConverter.convert(worklogDetail.getIssueCreated()));
       worklogDetail.setIssueUpdated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getIssueUpdated()));
+          timestampZoneConverter.convert(worklogDetail.getIssueUpdated()));
       worklogDetail.setWorklogCreated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getWorklogCreated()));
+          timestampZoneConverter.convert(worklogDetail.getWorklogCreated()));
       worklogDetail.setWorklogStartDate(
-          DateTimeConverterUtil
-              .addTimeZoneToTimestamp(worklogDetail.getWorklogStartDate()));
+          timestampZoneConverter.convert(worklogDetail.getWorklogStartDate()));
       worklogDetail.setWorklogUpdated(
-          DateTimeConverterUtil.addTimeZoneToTimestamp(worklogDetail.getWorklogUpdated()));
+          timestampZoneConverter.convert(worklogDetail.getWorklogUpdated()));
     }
     for (WorklogDetailsDTO worklogDetailsDTO : worklogDetails) {
       insertBodyRow(worklogDetailsSheet, worklogDetailsDTO);
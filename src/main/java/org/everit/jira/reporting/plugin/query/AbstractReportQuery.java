@@ -18,7 +18,6 @@ package org.everit.jira.reporting.plugin.query;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -38,13 +37,13 @@ import org.everit.jira.querydsl.schema.QLabel;
 import org.everit.jira.querydsl.schema.QNodeassociation;
 import org.everit.jira.querydsl.schema.QPriority;
 import org.everit.jira.querydsl.schema.QProject;
-import org.everit.jira.querydsl.schema.QProjectroleactor;
 import org.everit.jira.querydsl.schema.QProjectversion;
 import org.everit.jira.querydsl.schema.QResolution;
 import org.everit.jira.querydsl.schema.QWorklog;
 import org.everit.jira.querydsl.support.QuerydslCallable;
 import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
 import org.everit.jira.reporting.plugin.exception.JTRPException;
+import org.everit.jira.reporting.plugin.query.util.QueryUtil;
 
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.entity.Entity;
@@ -73,6 +72,13 @@ public abstract class AbstractReportQuery<T> {
 
   protected BooleanExpression expressionTrue;
 
+  /**
+   * The logged user, resolved in the constructor because the queries may run on other threads.
+   */
+  private final ApplicationUser loggedUser;
+
+  private final Collection<String> loggedUserGroupNames;
+
   protected final QJiraissue qIssue;
 
   protected final QIssuestatus qIssuestatus;
@@ -112,6 +118,8 @@ public abstract class AbstractReportQuery<T> {
     qResolution = new QResolution("resolution");
     expressionTrue = Expressions.ONE.eq(Expressions.ONE);
     expressionFalse = Expressions.ONE.ne(Expressions.ONE);
+    loggedUser = ComponentAccessor.getJiraAuthenticationContext().getUser();
+    loggedUserGroupNames = ComponentAccessor.getGroupManager().getGroupNamesForUser(loggedUser);
   }
 
   /**
@@ -606,27 +614,8 @@ public abstract class AbstractReportQuery<T> {
 
   private BooleanExpression filterToWorklogVisibility(final QWorklog qWorklog,
       final BooleanExpression where) {
-    BooleanExpression nullExpressions =
-        qWorklog.rolelevel.isNull().and(qWorklog.grouplevel.isNull());
-
-    ApplicationUser loggedUser = ComponentAccessor.getJiraAuthenticationContext().getUser();
-    Collection<String> loggedUserGroupNames =
-        ComponentAccessor.getGroupManager().getGroupNamesForUser(loggedUser);
-
-    ArrayList<String> roleTypeParameters = new ArrayList<>(loggedUserGroupNames);
-    roleTypeParameters.add(loggedUser.getKey());
-
-    QProjectroleactor qProjectroleactor = new QProjectroleactor("practor");
-    BooleanExpression roleLevelExpression = SQLExpressions.select(qProjectroleactor.id)
-        .from(qProjectroleactor)
-        .where(qProjectroleactor.projectroleid.eq(qWorklog.rolelevel)
-            .and(qProjectroleactor.pid.eq(qProject.id))
-            .and(qProjectroleactor.roletypeparameter.in(roleTypeParameters)))
-        .exists();
-
-    BooleanExpression groupLevelExpression = qWorklog.grouplevel.in(loggedUserGroupNames);
-
-    return where.and(nullExpressions.or(roleLevelExpression).or(groupLevelExpression));
+    return where.and(QueryUtil.createWorklogVisibilityExpression(qWorklog, qProject.id,
+        loggedUser, loggedUserGroupNames));
   }
 
   protected abstract QuerydslCallable<Long> getCountQuery();
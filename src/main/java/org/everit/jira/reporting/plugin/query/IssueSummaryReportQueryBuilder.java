@@ -17,19 +17,22 @@ package org.everit.jira.reporting.plugin.query;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.everit.jira.querydsl.support.QuerydslCallable;
 import org.everit.jira.reporting.plugin.dto.IssueSummaryDTO;
 import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
 import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+import org.everit.jira.reporting.plugin.query.util.UserDisplayNameResolver;
 
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.PathMetadata;
 import com.querydsl.core.types.PathType;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.QBean;
-import com.querydsl.core.types.dsl.CaseBuilder;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.core.types.dsl.NumberPath;
 import com.querydsl.core.types.dsl.StringExpression;
@@ -46,7 +49,7 @@ public class IssueSummaryReportQueryBuilder extends AbstractReportQuery<IssueSum
     super(reportSearchParam);
   }
 
-  private Expression<?>[] createQueryGroupBy(final StringPath userPath) {
+  private Expression<?>[] createQueryGroupBy() {
     return new Expression<?>[] {
         qProject.pkey,
         qIssue.issuenum,
@@ -57,7 +60,7 @@ public class IssueSummaryReportQueryBuilder extends AbstractReportQuery<IssueSum
         qPriority.pname,
         qPriority.iconurl,
         qIssuestatus.pname,
-        userPath };
+        qIssue.assignee };
   }
 
   private QBean<IssueSummaryDTO> createQuerySelectProjection(final StringExpression issueKey,
@@ -71,11 +74,7 @@ public class IssueSummaryReportQueryBuilder extends AbstractReportQuery<IssueSum
         qPriority.pname.as(IssueSummaryDTO.AliasNames.PRIORITY_NAME),
         qPriority.iconurl.as(IssueSummaryDTO.AliasNames.PRIORITY_ICON_URL),
         qIssuestatus.pname.as(IssueSummaryDTO.AliasNames.STATUS_NAME),
-        new CaseBuilder()
-            .when(QueryUtil.selectDisplayNameForUserExist(qIssue.assignee))
-            .then(QueryUtil.selectDisplayNameForUserByUserKey(qIssue.assignee))
-            .otherwise(qIssue.assignee)
-            .as(userPath),
+        qIssue.assignee.as(userPath),
         qIssue.timeoriginalestimate.min()
             .as(IssueSummaryDTO.AliasNames.ISSUE_ORIGINAL_ESTIMATE_SUM),
         qIssue.timeestimate.min().as(IssueSummaryDTO.AliasNames.ISSUE_TIME_ESTIMATE_SUM),
@@ -126,11 +125,24 @@ public class IssueSummaryReportQueryBuilder extends AbstractReportQuery<IssueSum
         appendBaseWhere(query);
         appendQueryRange(query);
 
-        query.groupBy(createQueryGroupBy(userPath));
+        query.groupBy(createQueryGroupBy());
 
         query.orderBy(issueKey.asc());
 
-        return query.fetch();
+        List<IssueSummaryDTO> result = query.fetch();
+
+        Set<String> assignees = new HashSet<>();
+        for (IssueSummaryDTO issueSummaryDTO : result) {
+          assignees.add(issueSummaryDTO.getAssignee());
+        }
+        Map<String, String> assigneeDisplayNames =
+            UserDisplayNameResolver.resolve(connection, configuration, assignees);
+        for (IssueSummaryDTO issueSummaryDTO : result) {
+          if (issueSummaryDTO.getAssignee() != null) {
+            issueSummaryDTO.setAssignee(assigneeDisplayNames.get(issueSummaryDTO.getAssignee()));
+          }
+        }
+        return result;
       }
     };
   }
@@ -17,20 +17,24 @@ package org.everit.jira.reporting.plugin.query;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.everit.jira.querydsl.support.QuerydslCallable;
 import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
 import org.everit.jira.reporting.plugin.dto.UserSummaryDTO;
 import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+import org.everit.jira.reporting.plugin.query.util.UserDisplayNameResolver;
 
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.PathMetadata;
 import com.querydsl.core.types.PathType;
 import com.querydsl.core.types.Projections;
-import com.querydsl.core.types.dsl.CaseBuilder;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.sql.Configuration;
 import com.querydsl.sql.SQLExpressions;
@@ -83,17 +87,17 @@ public class UserSummaryReportQueryBuilder extends AbstractReportQuery<UserSumma
             UserSummaryDTO.AliasNames.USER_DISPLAY_NAME,
             PathType.VARIABLE));
 
+        StringPath authorPath = Expressions.stringPath(new PathMetadata(null,
+            "worklogAuthor",
+            PathType.VARIABLE));
+
         NumberPath<Long> worklogTimeSumPath = Expressions.numberPath(Long.class,
             new PathMetadata(null,
                 UserSummaryDTO.AliasNames.WORKLOGGED_TIME_SUM,
                 PathType.VARIABLE));
 
         SQLQuery<Tuple> fromQuery = SQLExpressions.select(
-            new CaseBuilder()
-                .when(QueryUtil.selectDisplayNameForUserExist(qWorklog.author))
-                .then(QueryUtil.selectDisplayNameForUserByUserKey(qWorklog.author))
-                .otherwise(qWorklog.author)
-                .as(userPath),
+            qWorklog.author.as(authorPath),
             qWorklog.timeworked.sum().as(worklogTimeSumPath));
 
         appendBaseFromAndJoin(fromQuery);
@@ -102,14 +106,31 @@ public class UserSummaryReportQueryBuilder extends AbstractReportQuery<UserSumma
 
         SQLQuery<UserSummaryDTO> query = new SQLQuery<UserSummaryDTO>(connection, configuration)
             .select(Projections.bean(UserSummaryDTO.class,
-                userPath,
+                authorPath.as(userPath),
                 worklogTimeSumPath));
-        query.from(fromQuery.as("fromQuery"));
-        query.orderBy(userPath.asc());
+        PathBuilder<Object> userSort = new PathBuilder<>(Object.class, "userSort");
+        query.from(fromQuery.as("fromQuery"))
+            .leftJoin(QueryUtil.createUserDisplayNameQuery(), userSort)
+            .on(userSort.getString(QueryUtil.USER_DISPLAY_NAME_USER_KEY).eq(authorPath));
+        query.orderBy(QueryUtil.createUserDisplayNameSortKey(userSort, authorPath).asc());
 
         appendQueryRange(query);
 
-        return query.fetch();
+        // the user keys are selected, resolve the display names of the page
+        List<UserSummaryDTO> result = query.fetch();
+        Set<String> userKeys = new HashSet<>();
+        for (UserSummaryDTO userSummaryDTO : result) {
+          userKeys.add(userSummaryDTO.getUserDisplayName());
+        }
+        Map<String, String> userDisplayNames =
+            UserDisplayNameResolver.resolve(connection, configuration, userKeys);
+        for (UserSummaryDTO userSummaryDTO : result) {
+          if (userSummaryDTO.getUserDisplayName() != null) {
+            userSummaryDTO.setUserDisplayName(
+                userDisplayNames.get(userSummaryDTO.getUserDisplayName()));
+          }
+        }
+        return result;
       }
     };
   }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.reporting.plugin.query;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+import javax.xml.bind.DatatypeConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * The keyset cursor of a worklog details report page. Holds the order of the report and the sort
+ * key of the last worklog before the page, so the page is selected with a seek condition instead
+ * of an offset. The cursor is opaque to the client.
+ */
+final class WorklogDetailsPageCursor {
+
+  private static final Gson GSON = new Gson();
+
+  /**
+   * Decode the cursor.
+   *
+   * @param encodedCursor
+   *          the cursor from {@link #encode()}.
+   * @return the cursor or <code>null</code> if the parameter is empty or not a valid cursor.
+   */
+  public static WorklogDetailsPageCursor decode(final String encodedCursor) {
+    if ((encodedCursor == null) || encodedCursor.isEmpty()) {
+      return null;
+    }
+    try {
+      String json = new String(DatatypeConverter.parseBase64Binary(
+          encodedCursor.replace('-', '+').replace('_', '/')),
+          StandardCharsets.UTF_8);
+      WorklogDetailsPageCursor cursor = GSON.fromJson(json, WorklogDetailsPageCursor.class);
+      if ((cursor == null) || (cursor.columnName == null) || (cursor.worklogId == null)
+          || (cursor.offset == null) || (cursor.getValue() == null)) {
+        return null;
+      }
+      return cursor;
+    } catch (IllegalArgumentException | JsonParseException e) {
+      return null;
+    }
+  }
+
+  private boolean asc;
+
+  private String columnName;
+
+  private Long longValue;
+
+  private Integer nanos;
+
+  private Long offset;
+
+  private String stringValue;
+
+  private Long worklogId;
+
+  private WorklogDetailsPageCursor() {
+  }
+
+  /**
+   * Create the cursor of the page after the given worklog.
+   *
+   * @param columnName
+   *          the order column.
+   * @param asc
+   *          the order direction.
+   * @param offset
+   *          the offset of the page that the cursor points to.
+   * @param value
+   *          the value of the order column of the last worklog before the page. A {@link String},
+   *          a {@link Long} or a {@link Timestamp}.
+   * @param worklogId
+   *          the identifier of the last worklog before the page.
+   */
+  WorklogDetailsPageCursor(final String columnName, final boolean asc, final long offset,
+      final Object value, final long worklogId) {
+    this.columnName = columnName;
+    this.asc = asc;
+    this.offset = offset;
+    this.worklogId = worklogId;
+    if (value instanceof Timestamp) {
+      Timestamp timestamp = (Timestamp) value;
+      longValue = timestamp.getTime();
+      nanos = timestamp.getNanos();
+    } else if (value instanceof Long) {
+      longValue = (Long) value;
+    } else {
+      stringValue = (String) value;
+    }
+  }
+
+  /**
+   * Encode the cursor to an opaque string.
+   */
+  public String encode() {
+    return DatatypeConverter.printBase64Binary(GSON.toJson(this).getBytes(StandardCharsets.UTF_8))
+        .replace('+', '-')
+        .replace('/', '_');
+  }
+
+  public Object getValue() {
+    if (stringValue != null) {
+      return stringValue;
+    }
+    if ((longValue != null) && (nanos != null)) {
+      Timestamp timestamp = new Timestamp(longValue);
+      timestamp.setNanos(nanos);
+      return timestamp;
+    }
+    return longValue;
+  }
+
+  public long getWorklogId() {
+    return worklogId;
+  }
+
+  /**
+   * Check the cursor points to the given page of the given order.
+   */
+  public boolean matches(final String columnName, final boolean asc, final Long offset) {
+    return this.columnName.equals(columnName) && (this.asc == asc)
+        && this.offset.equals(offset);
+  }
+
+}
@@ -17,17 +17,19 @@ package org.everit.jira.reporting.plugin.query;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 import org.everit.jira.querydsl.schema.QComponent;
-import org.everit.jira.querydsl.schema.QCustomfield;
 import org.everit.jira.querydsl.schema.QCustomfieldvalue;
 import org.everit.jira.querydsl.schema.QIssuelink;
-import org.everit.jira.querydsl.schema.QIssuelinktype;
 import org.everit.jira.querydsl.schema.QJiraissue;
 import org.everit.jira.querydsl.schema.QNodeassociation;
 import org.everit.jira.querydsl.schema.QProjectversion;
@@ -36,12 +38,18 @@ import org.everit.jira.reporting.plugin.column.WorklogDetailsColumns;
 import org.everit.jira.reporting.plugin.dto.OrderBy;
 import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
 import org.everit.jira.reporting.plugin.dto.WorklogDetailsDTO;
+import org.everit.jira.reporting.plugin.dto.WorklogDetailsReportDTO;
+import org.everit.jira.reporting.plugin.query.util.EpicSchemaCache;
 import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+import org.everit.jira.reporting.plugin.query.util.UserDisplayNameResolver;
 
 import com.atlassian.jira.entity.Entity;
 import com.atlassian.jira.issue.IssueRelationConstants;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.group.GroupBy;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
 import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.PathMetadata;
@@ -49,23 +57,57 @@ import com.querydsl.core.types.PathType;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.QBean;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.CaseBuilder;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.SimpleExpression;
 import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.OracleTemplates;
+import com.querydsl.sql.PostgreSQLTemplates;
 import com.querydsl.sql.SQLExpressions;
 import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLServerTemplates;
+import com.querydsl.sql.SQLTemplates;
 
 /**
  * Queries for worklog details report.
  */
 public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<WorklogDetailsDTO> {
 
-  private SimpleExpression<String> epicLink;
+  private static final String EPIC_SORT_ISSUE_ID = "epicSortIssueId";
 
-  private SimpleExpression<String> epicName;
+  private static final String EPIC_SORT_NAME = "epicSortName";
+
+  /**
+   * The order columns that support keyset paging. Jira fills these columns for every worklog, so
+   * no worklog is skipped because of the different NULL ordering of the databases.
+   */
+  private static final Set<String> KEYSET_COLUMNS = new HashSet<>(Arrays.asList(
+      WorklogDetailsColumns.CREATED,
+      WorklogDetailsColumns.ISSUE_KEY,
+      WorklogDetailsColumns.PROJECT,
+      WorklogDetailsColumns.START_TIME,
+      WorklogDetailsColumns.TIME_SPENT,
+      WorklogDetailsColumns.WORKLOG_CREATED));
+
+  /**
+   * Check the database supports the window functions used by {@link #buildWindowQuery()}.
+   *
+   * @param templates
+   *          the SQL templates of the database.
+   * @return <code>true</code> on PostgreSQL, Oracle, SQL Server and H2.
+   */
+  public static boolean isWindowFunctionSupported(final SQLTemplates templates) {
+    return (templates instanceof PostgreSQLTemplates)
+        || (templates instanceof OracleTemplates)
+        || (templates instanceof SQLServerTemplates)
+        || (templates instanceof H2Templates);
+  }
+
+  private final PathBuilder<Object> epicSort = new PathBuilder<>(Object.class, "epicSort");
 
   private SimpleExpression<String> issueAssigneeExpression;
 
@@ -73,11 +115,15 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
 
   private SimpleExpression<String> issueReporterExpression;
 
-  private OrderBy orderBy;
+  private boolean orderAsc;
 
   private HashMap<String, Expression<?>> orderByMap;
 
-  private QCustomfieldvalue qCustomfieldValue = new QCustomfieldvalue("customfieldvalue");
+  private String orderColumnName;
+
+  private WorklogDetailsPageCursor pageCursor;
+
+  private final PathBuilder<Object> userSort = new PathBuilder<>(Object.class, "userSort");
 
   private SimpleExpression<String> worklogAuthorExpression;
 
@@ -92,17 +138,125 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
   public WorklogDetailsReportQueryBuilder(final ReportSearchParam reportSearchParam,
       final OrderBy orderBy) {
     super(reportSearchParam);
-    epicLink = epicLinkExpression();
-    epicName = epicNameExpression();
 
-    if (orderBy != null) {
-      this.orderBy = orderBy;
+    createExpressions();
+    createOrderByMap();
+
+    if ((orderBy != null) && orderByMap.containsKey(orderBy.columnName)) {
+      orderColumnName = orderBy.columnName;
+      orderAsc = orderBy.asc;
     } else {
-      this.orderBy = OrderBy.DEFAULT;
+      orderColumnName = OrderBy.DEFAULT.columnName;
+      orderAsc = true;
     }
 
-    createExpressions();
-    createOrderByMap();
+    pageCursor = WorklogDetailsPageCursor.decode(reportSearchParam.pageCursor);
+    if ((pageCursor != null) && (!KEYSET_COLUMNS.contains(orderColumnName)
+        || !pageCursor.matches(orderColumnName, orderAsc, reportSearchParam.offset))) {
+      pageCursor = null;
+    }
+  }
+
+  private void appendPageQuery(final Connection connection, final Configuration configuration,
+      final SQLQuery<?> query) {
+    appendBaseFromAndJoin(query);
+    appendBaseWhere(query);
+
+    Expression<?> expression = orderByMap.get(orderColumnName);
+    if (WorklogDetailsColumns.ISSUE_EPIC_LINK.equals(orderColumnName)
+        || WorklogDetailsColumns.ISSUE_EPIC_NAME.equals(orderColumnName)) {
+      SQLQuery<Tuple> epicSortQuery = createEpicSortQuery(connection, configuration);
+      if (epicSortQuery != null) {
+        query.leftJoin(epicSortQuery, epicSort)
+            .on(epicSort.getNumber(EPIC_SORT_ISSUE_ID, Long.class).eq(qIssue.id));
+      } else {
+        // without Epic Name field or Epic-Story link type every epic is null
+        expression = null;
+      }
+    }
+
+    StringPath sortUserKey = getSortUserKey();
+    if (sortUserKey != null) {
+      query.leftJoin(QueryUtil.createUserDisplayNameQuery(), userSort)
+          .on(userSort.getString(QueryUtil.USER_DISPLAY_NAME_USER_KEY).eq(sortUserKey));
+    }
+
+    Order order = Order.DESC;
+    if (orderAsc) {
+      order = Order.ASC;
+    }
+
+    if (pageCursor != null) {
+      query.where(keysetCondition(expression, order));
+      if (reportSearchParam.limit != null) {
+        query.limit(reportSearchParam.limit);
+      }
+    } else {
+      appendQueryRange(query);
+    }
+
+    if (expression != null) {
+      query.orderBy(new OrderSpecifier(order, expression));
+    }
+    query.orderBy(new OrderSpecifier<>(order, qWorklog.id));
+  }
+
+  /**
+   * Build the page query that selects the count and the grand total of all matching worklogs
+   * with window functions in the same statement. Use only if
+   * {@link #isWindowFunctionSupported(SQLTemplates)}. The count and the grand total of the result
+   * are <code>null</code> if the page is empty but there may be matching worklogs before the
+   * offset.
+   */
+  public QuerydslCallable<WorklogDetailsReportDTO> buildWindowQuery() {
+    return new QuerydslCallable<WorklogDetailsReportDTO>() {
+      @Override
+      public WorklogDetailsReportDTO call(final Connection connection,
+          final Configuration configuration) throws SQLException {
+        if (((reportSearchParam.issueKeys == null) && (reportSearchParam.issueIds == null))
+            || reportSearchParam.groupsHasNoMembers) {
+          return new WorklogDetailsReportDTO()
+              .worklogDetails(Collections.<WorklogDetailsDTO> emptyList())
+              .worklogDetailsCount(0L)
+              .grandTotal(0L);
+        }
+        QBean<WorklogDetailsDTO> projection = createQuerySelectProjection();
+        SimpleExpression<Long> worklogCount =
+            SQLExpressions.count().over().as("worklogTotalCount");
+        SimpleExpression<Long> worklogTimeSum =
+            SQLExpressions.sum(qWorklog.timeworked).over().as("worklogTotalTimeSum");
+
+        SQLQuery<Tuple> query = new SQLQuery<>(connection, configuration)
+            .select(projection, worklogCount, worklogTimeSum);
+
+        appendPageQuery(connection, configuration, query);
+
+        List<Tuple> rows = query.fetch();
+        List<WorklogDetailsDTO> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+          result.add(row.get(projection));
+        }
+
+        extendResult(connection, configuration, result);
+
+        WorklogDetailsReportDTO worklogDetailsReport = new WorklogDetailsReportDTO()
+            .worklogDetails(result);
+        if (!rows.isEmpty()) {
+          Long grandTotal = rows.get(0).get(worklogTimeSum);
+          return worklogDetailsReport
+              .worklogDetailsCount(rows.get(0).get(worklogCount))
+              .grandTotal(grandTotal == null ? Long.valueOf(0L) : grandTotal);
+        }
+        if ((reportSearchParam.offset == null) || (reportSearchParam.offset == 0)) {
+          return worklogDetailsReport
+              .worklogDetailsCount(0L)
+              .grandTotal(0L);
+        }
+        return worklogDetailsReport
+            .worklogDetailsCount(null)
+            .grandTotal(null);
+      }
+    };
   }
 
   private ConcurrentSkipListSet<Long> collectIssueIds(final List<WorklogDetailsDTO> result) {
@@ -113,31 +267,90 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
     return issueIds;
   }
 
+  private Set<String> collectUserKeys(final List<WorklogDetailsDTO> result) {
+    Set<String> userKeys = new HashSet<>();
+    for (WorklogDetailsDTO worklogDetailsDTO : result) {
+      userKeys.add(worklogDetailsDTO.getIssueAssignee());
+      userKeys.add(worklogDetailsDTO.getIssueReporter());
+      userKeys.add(worklogDetailsDTO.getWorklogUser());
+    }
+    return userKeys;
+  }
+
+  /**
+   * Create the derived table to sort by the epic link or the epic name column. The table gives the
+   * lowest Epic Name of the epic linked to the issue (epic link) or of the issue itself if it is an
+   * epic with stories (epic name), one row per issue.
+   *
+   * @return the derived table or <code>null</code> if there is no Epic Name field or Epic-Story
+   *         link type.
+   */
+  private SQLQuery<Tuple> createEpicSortQuery(final Connection connection,
+      final Configuration configuration) {
+    List<Long> epicNameFieldIds = EpicSchemaCache.getEpicNameFieldIds(connection, configuration);
+    List<Long> epicStoryLinkTypeIds =
+        EpicSchemaCache.getEpicStoryLinkTypeIds(connection, configuration);
+    if (epicNameFieldIds.isEmpty() || epicStoryLinkTypeIds.isEmpty()) {
+      return null;
+    }
+
+    QIssuelink qIssueLink = new QIssuelink("epicSortLink");
+    QCustomfieldvalue qEpicNameValue = new QCustomfieldvalue("epicSortNameValue");
+
+    NumberPath<Long> issueId = qIssueLink.source;
+    if (WorklogDetailsColumns.ISSUE_EPIC_LINK.equals(orderColumnName)) {
+      issueId = qIssueLink.destination;
+    }
+    return SQLExpressions.select(issueId.as(EPIC_SORT_ISSUE_ID),
+        qEpicNameValue.stringvalue.min().as(EPIC_SORT_NAME))
+        .from(qIssueLink)
+        .join(qEpicNameValue).on(qIssueLink.source.eq(qEpicNameValue.issue))
+        .where(qIssueLink.linktype.in(epicStoryLinkTypeIds)
+            .and(qEpicNameValue.customfield.in(epicNameFieldIds)))
+        .groupBy(issueId);
+  }
+
   private void createExpressions() {
     issueKey = QueryUtil.createIssueKeyExpression(qIssue, qProject);
 
-    issueAssigneeExpression = new CaseBuilder()
-        .when(QueryUtil.selectDisplayNameForUserExist(qIssue.assignee))
-        .then(QueryUtil.selectDisplayNameForUserByUserKey(qIssue.assignee))
-        .otherwise(qIssue.assignee)
-        .as(WorklogDetailsDTO.AliasNames.ISSUE_ASSIGNEE);
-
-    issueReporterExpression = new CaseBuilder()
-        .when(QueryUtil.selectDisplayNameForUserExist(qIssue.reporter))
-        .then(QueryUtil.selectDisplayNameForUserByUserKey(qIssue.reporter))
-        .otherwise(qIssue.reporter)
-        .as(WorklogDetailsDTO.AliasNames.ISSUE_REPORTER);
-
-    worklogAuthorExpression = new CaseBuilder()
-        .when(QueryUtil.selectDisplayNameForUserExist(qWorklog.author))
-        .then(QueryUtil.selectDisplayNameForUserByUserKey(qWorklog.author))
-        .otherwise(qWorklog.author)
-        .as(WorklogDetailsDTO.AliasNames.WORKLOG_USER);
+    // the user keys are selected, the display names are resolved by extendResult
+    issueAssigneeExpression = qIssue.assignee.as(WorklogDetailsDTO.AliasNames.ISSUE_ASSIGNEE);
+
+    issueReporterExpression = qIssue.reporter.as(WorklogDetailsDTO.AliasNames.ISSUE_REPORTER);
+
+    worklogAuthorExpression = qWorklog.author.as(WorklogDetailsDTO.AliasNames.WORKLOG_USER);
+  }
+
+  /**
+   * Create the keyset cursor of the page after the given page.
+   *
+   * @param worklogDetails
+   *          the worklogs of the page in the order of the query, before any conversion.
+   * @return the opaque cursor or <code>null</code> if there is no next page or the order column
+   *         does not support keyset paging.
+   */
+  public String createNextPageCursor(final List<WorklogDetailsDTO> worklogDetails) {
+    if ((reportSearchParam.limit == null) || worklogDetails.isEmpty()
+        || (worklogDetails.size() < reportSearchParam.limit)) {
+      return null;
+    }
+    WorklogDetailsDTO lastWorklogDetails = worklogDetails.get(worklogDetails.size() - 1);
+    Object value = keysetValue(lastWorklogDetails);
+    if ((value == null) || (lastWorklogDetails.getWorklogId() == null)) {
+      return null;
+    }
+    long offset = worklogDetails.size();
+    if (reportSearchParam.offset != null) {
+      offset += reportSearchParam.offset;
+    }
+    return new WorklogDetailsPageCursor(orderColumnName, orderAsc, offset, value,
+        lastWorklogDetails.getWorklogId()).encode();
   }
 
   private void createOrderByMap() {
     orderByMap = new HashMap<>();
-    orderByMap.put(WorklogDetailsColumns.ASSIGNEE, issueAssigneeExpression);
+    orderByMap.put(WorklogDetailsColumns.ASSIGNEE,
+        QueryUtil.createUserDisplayNameSortKey(userSort, qIssue.assignee));
     orderByMap.put(WorklogDetailsColumns.CREATED, qIssue.created);
     orderByMap.put(WorklogDetailsColumns.ESTIMATED, qIssue.timeoriginalestimate);
     orderByMap.put(WorklogDetailsColumns.ISSUE_KEY, issueKey);
@@ -145,18 +358,20 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
     orderByMap.put(WorklogDetailsColumns.PRIORITY, qPriority.sequence);
     orderByMap.put(WorklogDetailsColumns.PROJECT, qProject.pname);
     orderByMap.put(WorklogDetailsColumns.REMAINING, qIssue.timeestimate);
-    orderByMap.put(WorklogDetailsColumns.REPORTER, issueReporterExpression);
+    orderByMap.put(WorklogDetailsColumns.REPORTER,
+        QueryUtil.createUserDisplayNameSortKey(userSort, qIssue.reporter));
     orderByMap.put(WorklogDetailsColumns.RESOLUTION, qResolution.sequence);
     orderByMap.put(WorklogDetailsColumns.START_TIME, qWorklog.startdate);
     orderByMap.put(WorklogDetailsColumns.STATUS, qIssuestatus.sequence);
     orderByMap.put(WorklogDetailsColumns.TIME_SPENT, qWorklog.timeworked);
     orderByMap.put(WorklogDetailsColumns.TYPE, qIssuetype.sequence);
     orderByMap.put(WorklogDetailsColumns.UPDATED, qIssue.updated);
-    orderByMap.put(WorklogDetailsColumns.USER, worklogAuthorExpression);
+    orderByMap.put(WorklogDetailsColumns.USER,
+        QueryUtil.createUserDisplayNameSortKey(userSort, qWorklog.author));
     orderByMap.put(WorklogDetailsColumns.WORKLOG_CREATED, qWorklog.created);
     orderByMap.put(WorklogDetailsColumns.WORKLOG_UPDATED, qWorklog.updated);
-    orderByMap.put(WorklogDetailsColumns.ISSUE_EPIC_NAME, epicName);
-    orderByMap.put(WorklogDetailsColumns.ISSUE_EPIC_LINK, epicLink);
+    orderByMap.put(WorklogDetailsColumns.ISSUE_EPIC_NAME, epicSort.getString(EPIC_SORT_NAME));
+    orderByMap.put(WorklogDetailsColumns.ISSUE_EPIC_LINK, epicSort.getString(EPIC_SORT_NAME));
   }
 
   private QBean<WorklogDetailsDTO> createQuerySelectProjection() {
@@ -185,40 +400,11 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
         qWorklog.startdate.as(WorklogDetailsDTO.AliasNames.WORKLOG_START_DATE),
         qWorklog.created.as(WorklogDetailsDTO.AliasNames.WORKLOG_CREATED),
         qWorklog.updated.as(WorklogDetailsDTO.AliasNames.WORKLOG_UPDATED),
-        worklogAuthorExpression,
-        epicLink,
-        epicName);
+        qWorklog.id.as(WorklogDetailsDTO.AliasNames.WORKLOG_ID),
+        worklogAuthorExpression);
 
   }
 
-  private SimpleExpression<String> epicLinkExpression() {
-    QIssuelink qIssueLink = new QIssuelink("issueLink");
-    return epicProjection(qIssueLink.destination.eq(qIssue.id), qIssueLink)
-        .as(WorklogDetailsDTO.AliasNames.ISSUE_EPIC_LINK);
-  }
-
-  private SimpleExpression<String> epicNameExpression() {
-    QIssuelink qIssueLink = new QIssuelink("issueLink");
-    return epicProjection(qIssueLink.source.eq(qIssue.id), qIssueLink)
-        .as(WorklogDetailsDTO.AliasNames.ISSUE_EPIC_NAME);
-  }
-
-  private SQLQuery<String> epicProjection(final BooleanExpression epicExpression,
-      final QIssuelink qIssueLink) {
-    QCustomfield qCustomfield = new QCustomfield("customfield");
-
-    QIssuelinktype qIssueLinkType = new QIssuelinktype("issueLinkType");
-    return SQLExpressions.select(qCustomfieldValue.stringvalue)
-        .from(qIssueLink)
-        .join(qIssueLinkType).on(qIssueLink.linktype.eq(qIssueLinkType.id))
-        .join(qCustomfieldValue).on(qIssueLink.source.eq(qCustomfieldValue.issue))
-        .join(qCustomfield).on(qCustomfield.id.eq(qCustomfieldValue.customfield))
-        .where(epicExpression
-            .and(qIssueLinkType.linkname.eq("Epic-Story Link"))
-            .and(qCustomfield.cfname.eq("Epic Name")))
-        .groupBy(qCustomfieldValue.stringvalue);
-  }
-
   private void extendResult(final Connection connection, final Configuration configuration,
       final List<WorklogDetailsDTO> result) {
     ConcurrentSkipListSet<Long> collectIssueIds = collectIssueIds(result);
@@ -232,9 +418,28 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
     Map<Long, List<String>> issueAffectedVersions = selectAffectedVersions(connection,
         configuration, collectIssueIds);
 
+    Map<Long, String> issueEpicLinks = selectIssueEpicNames(connection, configuration,
+        collectIssueIds, true);
+
+    Map<Long, String> issueEpicNames = selectIssueEpicNames(connection, configuration,
+        collectIssueIds, false);
+
+    Map<String, String> userDisplayNames = UserDisplayNameResolver.resolve(connection,
+        configuration, collectUserKeys(result));
+
     for (WorklogDetailsDTO worklogDetailsDTO : result) {
       Long issueId = worklogDetailsDTO.getIssueId();
 
+      worklogDetailsDTO.setIssueAssignee(
+          userDisplayName(userDisplayNames, worklogDetailsDTO.getIssueAssignee()));
+      worklogDetailsDTO.setIssueReporter(
+          userDisplayName(userDisplayNames, worklogDetailsDTO.getIssueReporter()));
+      worklogDetailsDTO.setWorklogUser(
+          userDisplayName(userDisplayNames, worklogDetailsDTO.getWorklogUser()));
+
+      worklogDetailsDTO.setIssueEpicLink(issueEpicLinks.get(issueId));
+      worklogDetailsDTO.setIssueEpicName(issueEpicNames.get(issueId));
+
       List<String> components = issueComponents.get(issueId);
       if (components != null) {
         worklogDetailsDTO.setIssueComponents(components);
@@ -290,21 +495,7 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
             new SQLQuery<WorklogDetailsDTO>(connection, configuration)
                 .select(createQuerySelectProjection());
 
-        appendBaseFromAndJoin(query);
-        appendBaseWhere(query);
-        appendQueryRange(query);
-
-        Expression<?> expression = orderByMap.get(orderBy.columnName);
-        Order order = Order.DESC;
-        if (expression == null) {
-          expression = orderByMap.get(OrderBy.DEFAULT.columnName);
-          order = Order.ASC;
-        } else {
-          if (orderBy.asc) {
-            order = Order.ASC;
-          }
-        }
-        query.orderBy(new OrderSpecifier(order, expression));
+        appendPageQuery(connection, configuration, query);
 
         List<WorklogDetailsDTO> result = query.fetch();
 
@@ -316,6 +507,61 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
     };
   }
 
+  /**
+   * Give back the user key path of the order column if the report is ordered by a user column,
+   * otherwise <code>null</code>.
+   */
+  private StringPath getSortUserKey() {
+    switch (orderColumnName) {
+      case WorklogDetailsColumns.ASSIGNEE:
+        return qIssue.assignee;
+      case WorklogDetailsColumns.REPORTER:
+        return qIssue.reporter;
+      case WorklogDetailsColumns.USER:
+        return qWorklog.author;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Check the page is selected with the keyset cursor instead of the offset.
+   */
+  public boolean isKeysetPaging() {
+    return pageCursor != null;
+  }
+
+  private BooleanExpression keysetCondition(final Expression<?> expression, final Order order) {
+    Operator seekOperator = Ops.LT;
+    if (order == Order.ASC) {
+      seekOperator = Ops.GT;
+    }
+    Expression<Object> value = Expressions.constant(pageCursor.getValue());
+    return Expressions.booleanOperation(seekOperator, expression, value)
+        .or(Expressions.booleanOperation(Ops.EQ, expression, value)
+            .and(Expressions.booleanOperation(seekOperator, qWorklog.id,
+                Expressions.constant(pageCursor.getWorklogId()))));
+  }
+
+  private Object keysetValue(final WorklogDetailsDTO worklogDetails) {
+    switch (orderColumnName) {
+      case WorklogDetailsColumns.CREATED:
+        return worklogDetails.getIssueCreated();
+      case WorklogDetailsColumns.ISSUE_KEY:
+        return worklogDetails.getIssueKey();
+      case WorklogDetailsColumns.PROJECT:
+        return worklogDetails.getProjectName();
+      case WorklogDetailsColumns.START_TIME:
+        return worklogDetails.getWorklogStartDate();
+      case WorklogDetailsColumns.TIME_SPENT:
+        return worklogDetails.getWorklogTimeWorked();
+      case WorklogDetailsColumns.WORKLOG_CREATED:
+        return worklogDetails.getWorklogCreated();
+      default:
+        return null;
+    }
+  }
+
   private Map<Long, List<String>> selectAffectedVersions(final Connection connection,
       final Configuration configuration, final Set<Long> issueIds) {
     QJiraissue qIssue = new QJiraissue("na_issue");
@@ -352,6 +598,38 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
         .transform(GroupBy.groupBy(qIssue.id).as(GroupBy.list(qComponent.cname)));
   }
 
+  /**
+   * Select the Epic Name of the epics linked to the issues (epic link) or of the issues that are
+   * epics with stories (epic name) in one query. If there are more Epic Names, the lowest one is
+   * selected, the same as by the epic sort.
+   */
+  private Map<Long, String> selectIssueEpicNames(final Connection connection,
+      final Configuration configuration, final Set<Long> issueIds, final boolean epicLink) {
+    List<Long> epicNameFieldIds = EpicSchemaCache.getEpicNameFieldIds(connection, configuration);
+    List<Long> epicStoryLinkTypeIds =
+        EpicSchemaCache.getEpicStoryLinkTypeIds(connection, configuration);
+    if (issueIds.isEmpty() || epicNameFieldIds.isEmpty() || epicStoryLinkTypeIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    QIssuelink qIssueLink = new QIssuelink("epicIssueLink");
+    QCustomfieldvalue qEpicNameValue = new QCustomfieldvalue("epicNameValue");
+
+    NumberPath<Long> issueId = qIssueLink.source;
+    if (epicLink) {
+      issueId = qIssueLink.destination;
+    }
+    return new SQLQuery<>(connection, configuration)
+        .select(issueId, qEpicNameValue.stringvalue)
+        .from(qIssueLink)
+        .join(qEpicNameValue).on(qIssueLink.source.eq(qEpicNameValue.issue))
+        .where(qIssueLink.linktype.in(epicStoryLinkTypeIds)
+            .and(qEpicNameValue.customfield.in(epicNameFieldIds))
+            .and(issueId.in(issueIds)))
+        .groupBy(issueId)
+        .transform(GroupBy.groupBy(issueId).as(qEpicNameValue.stringvalue.min()));
+  }
+
   private Map<Long, List<String>> selectIssueFixedVersions(final Connection connection,
       final Configuration configuration, final Set<Long> issueIds) {
     QJiraissue qIssue = new QJiraissue("na_issue");
@@ -369,4 +647,12 @@ public class WorklogDetailsReportQueryBuilder extends AbstractReportQuery<Worklo
             .and(qIssue.id.in(issueIds)))
         .transform(GroupBy.groupBy(qIssue.id).as(GroupBy.list(qProjectversion.vname)));
   }
+
+  private String userDisplayName(final Map<String, String> userDisplayNames,
+      final String userKey) {
+    if (userKey == null) {
+      return null;
+    }
+    return userDisplayNames.get(userKey);
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.reporting.plugin.query.util;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.everit.jira.querydsl.schema.QCustomfield;
+import org.everit.jira.querydsl.schema.QIssuelinktype;
+
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.SQLQuery;
+
+/**
+ * Per node cache of the identifiers of the Epic Name custom fields and the Epic-Story link types.
+ * The identifiers are reloaded after {@link #MAX_AGE_MILLIS}, because the fields and the link
+ * types are created when Jira Agile is installed.
+ */
+public final class EpicSchemaCache {
+
+  /**
+   * The loaded identifiers.
+   */
+  private static final class Entry {
+
+    private final List<Long> epicNameFieldIds;
+
+    private final List<Long> epicStoryLinkTypeIds;
+
+    private final long loadTime;
+
+    Entry(final List<Long> epicNameFieldIds, final List<Long> epicStoryLinkTypeIds,
+        final long loadTime) {
+      this.epicNameFieldIds = epicNameFieldIds;
+      this.epicStoryLinkTypeIds = epicStoryLinkTypeIds;
+      this.loadTime = loadTime;
+    }
+  }
+
+  /**
+   * The name of the Epic Name custom field.
+   */
+  public static final String EPIC_NAME_FIELD_NAME = "Epic Name";
+
+  /**
+   * The name of the link type between the epic (source) and the story (destination).
+   */
+  public static final String EPIC_STORY_LINK_TYPE_NAME = "Epic-Story Link";
+
+  /**
+   * The maximum age of the loaded identifiers in milliseconds.
+   */
+  public static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static volatile Entry entry;
+
+  /**
+   * Gives back the identifiers of the Epic Name custom fields.
+   *
+   * @param connection
+   *          the database connection to load the identifiers.
+   * @param configuration
+   *          the Querydsl configuration.
+   * @return the identifiers. Empty list if Jira Agile was never installed.
+   */
+  public static List<Long> getEpicNameFieldIds(final Connection connection,
+      final Configuration configuration) {
+    return getEntry(connection, configuration).epicNameFieldIds;
+  }
+
+  /**
+   * Gives back the identifiers of the Epic-Story link types.
+   *
+   * @param connection
+   *          the database connection to load the identifiers.
+   * @param configuration
+   *          the Querydsl configuration.
+   * @return the identifiers. Empty list if Jira Agile was never installed.
+   */
+  public static List<Long> getEpicStoryLinkTypeIds(final Connection connection,
+      final Configuration configuration) {
+    return getEntry(connection, configuration).epicStoryLinkTypeIds;
+  }
+
+  private static Entry getEntry(final Connection connection,
+      final Configuration configuration) {
+    long now = System.currentTimeMillis();
+    Entry result = entry;
+    if ((result == null) || ((now - result.loadTime) > MAX_AGE_MILLIS)) {
+      QCustomfield qCustomfield = new QCustomfield("epicNameField");
+      List<Long> epicNameFieldIds = new SQLQuery<Long>(connection, configuration)
+          .select(qCustomfield.id)
+          .from(qCustomfield)
+          .where(qCustomfield.cfname.eq(EPIC_NAME_FIELD_NAME))
+          .fetch();
+
+      QIssuelinktype qIssueLinkType = new QIssuelinktype("epicStoryLinkType");
+      List<Long> epicStoryLinkTypeIds = new SQLQuery<Long>(connection, configuration)
+          .select(qIssueLinkType.id)
+          .from(qIssueLinkType)
+          .where(qIssueLinkType.linkname.eq(EPIC_STORY_LINK_TYPE_NAME))
+          .fetch();
+
+      result = new Entry(Collections.unmodifiableList(epicNameFieldIds),
+          Collections.unmodifiableList(epicStoryLinkTypeIds), now);
+      entry = result;
+    }
+    return result;
+  }
+
+  /**
+   * Drop the loaded identifiers. Called when the reporting plugin component is destroyed, so the
+   * identifiers are loaded again after the plugin is enabled.
+   */
+  public static void invalidate() {
+    entry = null;
+  }
+
+  private EpicSchemaCache() {
+  }
+}
@@ -15,14 +15,26 @@
  */
 package org.everit.jira.reporting.plugin.query.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 import org.everit.jira.querydsl.schema.QAppUser;
 import org.everit.jira.querydsl.schema.QCwdDirectory;
 import org.everit.jira.querydsl.schema.QCwdUser;
 import org.everit.jira.querydsl.schema.QJiraissue;
 import org.everit.jira.querydsl.schema.QProject;
+import org.everit.jira.querydsl.schema.QProjectroleactor;
+import org.everit.jira.querydsl.schema.QWorklog;
 
+import com.atlassian.jira.user.ApplicationUser;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Ops;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Coalesce;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.core.types.dsl.StringExpression;
 import com.querydsl.core.types.dsl.StringPath;
 import com.querydsl.sql.SQLExpressions;
@@ -33,6 +45,20 @@ import com.querydsl.sql.SQLQuery;
  */
 public final class QueryUtil {
 
+  private static final String MIN_DIRECTORY_POSITION = "dnMinPosition";
+
+  private static final String MIN_DIRECTORY_USER_NAME = "dnMinUserName";
+
+  /**
+   * The display name column of {@link #createUserDisplayNameQuery()}.
+   */
+  public static final String USER_DISPLAY_NAME = "dnDisplayName";
+
+  /**
+   * The user key column of {@link #createUserDisplayNameQuery()}.
+   */
+  public static final String USER_DISPLAY_NAME_USER_KEY = "dnUserKey";
+
   /**
    * Create issue key String expression.
    */
@@ -43,32 +69,88 @@ public final class QueryUtil {
   }
 
   /**
-   * Select user displayName for user.
+   * Create the derived table of the user display names. The table gives the display name of the
+   * user of the directory with the lowest position, one row per user key. Left join it once to
+   * the query to sort by a user column.
+   */
+  public static SQLQuery<Tuple> createUserDisplayNameQuery() {
+    QAppUser qAppUser = new QAppUser("dnAppUser");
+    QCwdUser qCwdUser = new QCwdUser("dnCwdUser");
+    QCwdDirectory qCwdDirectory = new QCwdDirectory("dnCwdDirectory");
+    QCwdUser qCwdUserMin = new QCwdUser("dnCwdUserMin");
+    QCwdDirectory qCwdDirectoryMin = new QCwdDirectory("dnCwdDirectoryMin");
+    PathBuilder<Object> minDirectory = new PathBuilder<>(Object.class, "dnMinDirectory");
+
+    SQLQuery<Tuple> minDirectoryQuery = SQLExpressions
+        .select(qCwdUserMin.lowerUserName.as(MIN_DIRECTORY_USER_NAME),
+            qCwdDirectoryMin.directoryPosition.min().as(MIN_DIRECTORY_POSITION))
+        .from(qCwdUserMin)
+        .join(qCwdDirectoryMin).on(qCwdDirectoryMin.id.eq(qCwdUserMin.directoryId))
+        .groupBy(qCwdUserMin.lowerUserName);
+
+    return SQLExpressions.select(qAppUser.userKey.as(USER_DISPLAY_NAME_USER_KEY),
+        qCwdUser.displayName.min().as(USER_DISPLAY_NAME))
+        .from(qAppUser)
+        .join(qCwdUser).on(qCwdUser.lowerUserName.eq(qAppUser.lowerUserName))
+        .join(qCwdDirectory).on(qCwdDirectory.id.eq(qCwdUser.directoryId))
+        .join(minDirectoryQuery, minDirectory)
+        .on(minDirectory.getString(MIN_DIRECTORY_USER_NAME).eq(qCwdUser.lowerUserName)
+            .and(Expressions.booleanOperation(Ops.EQ, qCwdDirectory.directoryPosition,
+                minDirectory.get(MIN_DIRECTORY_POSITION))))
+        .groupBy(qAppUser.userKey);
+  }
+
+  /**
+   * Create the sort key of a user column. The sort key is the display name of the user or the user
+   * key if the user or the display name does not exist, the same as the name given by
+   * {@link UserDisplayNameResolver}.
    *
-   * @param stringPath
-   *          The StringPath of the checked user parameter.
+   * @param userDisplayNames
+   *          the alias of the {@link #createUserDisplayNameQuery()} table left joined on the user
+   *          key.
+   * @param userKey
+   *          the StringPath of the user key.
    */
-  public static SQLQuery<String> selectDisplayNameForUserByLowerUserName(
-      final StringPath stringPath) {
-    QCwdUser qCwdUser = new QCwdUser("issueUser");
-    QAppUser qAppUser = new QAppUser("appUserForIssue");
-    QCwdDirectory qCwdDirectory = new QCwdDirectory("cwdDirectoryForIssue");
-    QCwdDirectory qCwdDirectoryMin = new QCwdDirectory("cwdDirMin");
-    QCwdUser qCwdUserMin = new QCwdUser("cwdUMin");
-    return SQLExpressions
-        .select(new CaseBuilder()
-            .when(qCwdUser.displayName.isNotNull())
-            .then(qCwdUser.displayName)
-            .otherwise(stringPath))
-        .from(qCwdUser)
-        .leftJoin(qAppUser).on(qAppUser.lowerUserName.eq(qCwdUser.lowerUserName))
-        .leftJoin(qCwdDirectory).on(qCwdUser.directoryId.eq(qCwdDirectory.id))
-        .where(qAppUser.lowerUserName.eq(stringPath)
-            .and(qCwdDirectory.directoryPosition.eq(
-                SQLExpressions.select(qCwdDirectoryMin.directoryPosition.min())
-                    .from(qCwdDirectoryMin)
-                    .leftJoin(qCwdUserMin).on(qCwdUserMin.directoryId.eq(qCwdDirectoryMin.id))
-                    .where(qCwdUserMin.lowerUserName.eq(qAppUser.lowerUserName)))));
+  public static Coalesce<String> createUserDisplayNameSortKey(
+      final PathBuilder<Object> userDisplayNames, final StringPath userKey) {
+    return new Coalesce<String>(String.class, userDisplayNames.getString(USER_DISPLAY_NAME),
+        userKey);
+  }
+
+  /**
+   * Create the worklog visibility condition. The worklog is visible if it has no role and group
+   * level, or the user is in the project role (directly or by group) or in the group of the
+   * worklog.
+   *
+   * @param qWorklog
+   *          the worklog.
+   * @param projectId
+   *          the path of the project id of the worklog issue.
+   * @param user
+   *          the user who wants to see the worklog.
+   * @param userGroupNames
+   *          the group names of the user.
+   */
+  public static BooleanExpression createWorklogVisibilityExpression(final QWorklog qWorklog,
+      final NumberPath<Long> projectId, final ApplicationUser user,
+      final Collection<String> userGroupNames) {
+    BooleanExpression nullExpressions =
+        qWorklog.rolelevel.isNull().and(qWorklog.grouplevel.isNull());
+
+    ArrayList<String> roleTypeParameters = new ArrayList<>(userGroupNames);
+    roleTypeParameters.add(user.getKey());
+
+    QProjectroleactor qProjectroleactor = new QProjectroleactor("practor");
+    BooleanExpression roleLevelExpression = SQLExpressions.select(qProjectroleactor.id)
+        .from(qProjectroleactor)
+        .where(qProjectroleactor.projectroleid.eq(qWorklog.rolelevel)
+            .and(qProjectroleactor.pid.eq(projectId))
+            .and(qProjectroleactor.roletypeparameter.in(roleTypeParameters)))
+        .exists();
+
+    BooleanExpression groupLevelExpression = qWorklog.grouplevel.in(userGroupNames);
+
+    return nullExpressions.or(roleLevelExpression).or(groupLevelExpression);
   }
 
   /**
@@ -77,7 +159,8 @@ public final class QueryUtil {
    * @param stringPath
    *          The StringPath of the checked user parameter.
    */
-  public static SQLQuery<String> selectDisplayNameForUserByUserKey(final StringPath stringPath) {
+  public static SQLQuery<String> selectDisplayNameForUserByLowerUserName(
+      final StringPath stringPath) {
     QCwdUser qCwdUser = new QCwdUser("issueUser");
     QAppUser qAppUser = new QAppUser("appUserForIssue");
     QCwdDirectory qCwdDirectory = new QCwdDirectory("cwdDirectoryForIssue");
@@ -91,7 +174,7 @@ public final class QueryUtil {
         .from(qCwdUser)
         .leftJoin(qAppUser).on(qAppUser.lowerUserName.eq(qCwdUser.lowerUserName))
         .leftJoin(qCwdDirectory).on(qCwdUser.directoryId.eq(qCwdDirectory.id))
-        .where(qAppUser.userKey.eq(stringPath)
+        .where(qAppUser.lowerUserName.eq(stringPath)
             .and(qCwdDirectory.directoryPosition.eq(
                 SQLExpressions.select(qCwdDirectoryMin.directoryPosition.min())
                     .from(qCwdDirectoryMin)
@@ -99,32 +182,6 @@ public final class QueryUtil {
                     .where(qCwdUserMin.lowerUserName.eq(qAppUser.lowerUserName)))));
   }
 
-  /**
-   * Select and check user exists.
-   *
-   * @param stringPath
-   *          The StringPath of the checked user parameter.
-   */
-  public static BooleanExpression selectDisplayNameForUserExist(final StringPath stringPath) {
-    QCwdUser qCwdUser = new QCwdUser("issueUser");
-    QAppUser qAppUser = new QAppUser("appUserForIssue");
-    QCwdDirectory qCwdDirectory = new QCwdDirectory("cwdDirectoryForIssue");
-    QCwdDirectory qCwdDirectoryMin = new QCwdDirectory("cwdDirMin");
-    QCwdUser qCwdUserMin = new QCwdUser("cwdUMin");
-    return SQLExpressions
-        .select(qCwdUser.displayName)
-        .from(qCwdUser)
-        .leftJoin(qAppUser).on(qAppUser.lowerUserName.eq(qCwdUser.lowerUserName))
-        .leftJoin(qCwdDirectory).on(qCwdUser.directoryId.eq(qCwdDirectory.id))
-        .where(qAppUser.userKey.eq(stringPath)
-            .and(qCwdDirectory.directoryPosition.eq(
-                SQLExpressions.select(qCwdDirectoryMin.directoryPosition.min())
-                    .from(qCwdDirectoryMin)
-                    .join(qCwdUserMin).on(qCwdUserMin.directoryId.eq(qCwdDirectoryMin.id))
-                    .where(qCwdUserMin.lowerUserName.eq(qAppUser.lowerUserName)))))
-        .exists();
-  }
-
   private QueryUtil() {
   }
 }
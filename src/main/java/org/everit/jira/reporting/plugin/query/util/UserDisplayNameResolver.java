@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.reporting.plugin.query.util;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.everit.jira.querydsl.schema.QAppUser;
+import org.everit.jira.querydsl.schema.QCwdDirectory;
+import org.everit.jira.querydsl.schema.QCwdUser;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.SQLQuery;
+
+/**
+ * Resolves the display names of users by user key in bulk. The display name comes from the user
+ * of the directory with the lowest position, like in Jira. If the user or the display name does
+ * not exist the user key is the display name. The resolved names are cached on the node for
+ * {@link #MAX_AGE_MILLIS} and there is no invalidation, so a renamed user may show the previous
+ * display name in the reports until the cached name expires.
+ */
+public final class UserDisplayNameResolver {
+
+  /**
+   * The cached display name of a user.
+   */
+  private static final class CacheEntry {
+
+    private final String displayName;
+
+    private final long loadTime;
+
+    CacheEntry(final String displayName, final long loadTime) {
+      this.displayName = displayName;
+      this.loadTime = loadTime;
+    }
+  }
+
+  private static final Map<String, CacheEntry> CACHE =
+      new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 2905297407236958187L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+          return size() > MAX_SIZE;
+        }
+      };
+
+  /**
+   * The maximum age of a cached display name in milliseconds.
+   */
+  public static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  /**
+   * The maximum number of user keys in one query.
+   */
+  private static final int MAX_KEYS_PER_QUERY = 500;
+
+  /**
+   * The maximum number of cached display names.
+   */
+  public static final int MAX_SIZE = 10000;
+
+  private static void loadDisplayNames(final Connection connection,
+      final Configuration configuration, final List<String> userKeys,
+      final Map<String, String> displayNames) {
+    QAppUser qAppUser = new QAppUser("appUser");
+    QCwdUser qCwdUser = new QCwdUser("cwdUser");
+    QCwdDirectory qCwdDirectory = new QCwdDirectory("cwdDirectory");
+    Map<String, Long> directoryPositions = new HashMap<>();
+    for (int from = 0; from < userKeys.size(); from += MAX_KEYS_PER_QUERY) {
+      List<String> keys =
+          userKeys.subList(from, Math.min(from + MAX_KEYS_PER_QUERY, userKeys.size()));
+      List<Tuple> rows = new SQLQuery<Tuple>(connection, configuration)
+          .select(qAppUser.userKey, qCwdUser.displayName, qCwdDirectory.directoryPosition)
+          .from(qAppUser)
+          .join(qCwdUser).on(qCwdUser.lowerUserName.eq(qAppUser.lowerUserName))
+          .join(qCwdDirectory).on(qCwdDirectory.id.eq(qCwdUser.directoryId))
+          .where(qAppUser.userKey.in(keys))
+          .fetch();
+      for (Tuple row : rows) {
+        String userKey = row.get(qAppUser.userKey);
+        Number position = row.get(qCwdDirectory.directoryPosition);
+        long directoryPosition = position == null ? Long.MAX_VALUE : position.longValue();
+        Long resolvedPosition = directoryPositions.get(userKey);
+        if ((resolvedPosition == null) || (directoryPosition < resolvedPosition)) {
+          directoryPositions.put(userKey, directoryPosition);
+          String displayName = row.get(qCwdUser.displayName);
+          displayNames.put(userKey, displayName == null ? userKey : displayName);
+        }
+      }
+    }
+    for (String userKey : userKeys) {
+      if (!displayNames.containsKey(userKey)) {
+        displayNames.put(userKey, userKey);
+      }
+    }
+  }
+
+  /**
+   * Resolve the display names of the users. The not cached names are selected in one query per
+   * {@link #MAX_KEYS_PER_QUERY} user keys.
+   *
+   * @param connection
+   *          the database connection.
+   * @param configuration
+   *          the Querydsl configuration.
+   * @param userKeys
+   *          the user keys. The <code>null</code> keys are ignored.
+   * @return the display names by user key.
+   */
+  public static Map<String, String> resolve(final Connection connection,
+      final Configuration configuration, final Collection<String> userKeys) {
+    Map<String, String> displayNames = new HashMap<>();
+    Set<String> missingUserKeys = new LinkedHashSet<>();
+    long now = System.currentTimeMillis();
+    synchronized (CACHE) {
+      for (String userKey : userKeys) {
+        if ((userKey == null) || displayNames.containsKey(userKey)) {
+          continue;
+        }
+        CacheEntry entry = CACHE.get(userKey);
+        if ((entry == null) || ((now - entry.loadTime) > MAX_AGE_MILLIS)) {
+          missingUserKeys.add(userKey);
+        } else {
+          displayNames.put(userKey, entry.displayName);
+        }
+      }
+    }
+    if (missingUserKeys.isEmpty()) {
+      return displayNames;
+    }
+
+    Map<String, String> loadedDisplayNames = new HashMap<>();
+    loadDisplayNames(connection, configuration, new ArrayList<>(missingUserKeys),
+        loadedDisplayNames);
+    synchronized (CACHE) {
+      for (Map.Entry<String, String> loaded : loadedDisplayNames.entrySet()) {
+        CACHE.put(loaded.getKey(), new CacheEntry(loaded.getValue(), now));
+      }
+    }
+    displayNames.putAll(loadedDisplayNames);
+    return displayNames;
+  }
+
+  private UserDisplayNameResolver() {
+  }
+}
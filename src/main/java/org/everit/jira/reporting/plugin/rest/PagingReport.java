@@ -28,6 +28,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 
 import org.everit.jira.reporting.plugin.ReportingPlugin;
 import org.everit.jira.reporting.plugin.dto.ConvertedSearchParam;
@@ -37,6 +38,7 @@ import org.everit.jira.reporting.plugin.dto.OrderBy;
 import org.everit.jira.reporting.plugin.dto.ProjectSummaryReportDTO;
 import org.everit.jira.reporting.plugin.dto.UserSummaryReportDTO;
 import org.everit.jira.reporting.plugin.dto.WorklogDetailsReportDTO;
+import org.everit.jira.reporting.plugin.exception.JTRPException;
 import org.everit.jira.reporting.plugin.util.ConverterUtil;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.everit.jira.timetracker.plugin.DurationFormatter;
@@ -59,6 +61,8 @@ import com.google.gson.Gson;
 @Path("/paging-report")
 public class PagingReport {
 
+  private static final String REPORT_TIMEOUT_KEY = "jtrp.plugin.report_timeout";
+
   private static final String TEMPLATE_DIRECTORY = "/templates/reporting/";
 
   private Gson gson;
@@ -82,7 +86,7 @@ public class PagingReport {
 
   private void appendRequiredContextParameters(final Map<String, Object> contextParameters,
       final FilterCondition filterCondition) {
-    contextParameters.put("durationFormatter", new DurationFormatter());
+    contextParameters.put("durationFormatter", DurationFormatter.getInstance());
     contextParameters.put("filterCondition", filterCondition);
 
     contextParameters.put("dateTimeFormatterDate", getDateTimeFormatterDate());
@@ -103,6 +107,24 @@ public class PagingReport {
     contextParameters.put("i18n", i18nHelper);
   }
 
+  /**
+   * Build the response of a failed report with the localized message. The status is
+   * {@link Status#SERVICE_UNAVAILABLE} if the report did not finish in time, otherwise
+   * {@link Status#BAD_REQUEST}.
+   */
+  private Response buildErrorResponse(final JTRPException e) {
+    Status status = Status.BAD_REQUEST;
+    if (REPORT_TIMEOUT_KEY.equals(e.getMessage())) {
+      status = Status.SERVICE_UNAVAILABLE;
+    }
+    Locale locale = ComponentAccessor.getJiraAuthenticationContext().getLocale();
+    I18nHelper i18nHelper = ComponentAccessor.getI18nHelperFactory().getInstance(locale);
+    return Response.status(status)
+        .type(MediaType.TEXT_PLAIN)
+        .entity(i18nHelper.getText(e.getMessage()))
+        .build();
+  }
+
   private Response buildResponse(final String templateFileName,
       final Map<String, Object> contextParameters) {
     StringWriter sw = new StringWriter();
@@ -147,11 +169,16 @@ public class PagingReport {
       @QueryParam("filterConditionJson") final String filterConditionJson) {
     FilterCondition filterCondition = convertJsonToFilterCondition(filterConditionJson);
 
-    ConvertedSearchParam converSearchParam = ConverterUtil
-        .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
+    IssueSummaryReportDTO issueSummaryReport;
+    try {
+      ConvertedSearchParam converSearchParam = ConverterUtil
+          .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
 
-    IssueSummaryReportDTO issueSummaryReport =
-        reportingPlugin.getIssueSummaryReport(converSearchParam.reportSearchParam);
+      issueSummaryReport =
+          reportingPlugin.getIssueSummaryReport(converSearchParam.reportSearchParam);
+    } catch (JTRPException e) {
+      return buildErrorResponse(e);
+    }
 
     Map<String, Object> contextParameters = new HashMap<>();
     contextParameters.put("issueSummaryReport", issueSummaryReport);
@@ -176,11 +203,16 @@ public class PagingReport {
       @QueryParam("filterConditionJson") final String filterConditionJson) {
     FilterCondition filterCondition = convertJsonToFilterCondition(filterConditionJson);
 
-    ConvertedSearchParam converSearchParam = ConverterUtil
-        .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
+    ProjectSummaryReportDTO projectSummaryReport;
+    try {
+      ConvertedSearchParam converSearchParam = ConverterUtil
+          .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
 
-    ProjectSummaryReportDTO projectSummaryReport =
-        reportingPlugin.getProjectSummaryReport(converSearchParam.reportSearchParam);
+      projectSummaryReport =
+          reportingPlugin.getProjectSummaryReport(converSearchParam.reportSearchParam);
+    } catch (JTRPException e) {
+      return buildErrorResponse(e);
+    }
 
     HashMap<String, Object> contextParameters = new HashMap<>();
     contextParameters.put("projectSummaryReport", projectSummaryReport);
@@ -205,11 +237,15 @@ public class PagingReport {
       @QueryParam("filterConditionJson") final String filterConditionJson) {
     FilterCondition filterCondition = convertJsonToFilterCondition(filterConditionJson);
 
-    ConvertedSearchParam converSearchParam = ConverterUtil
-        .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
+    UserSummaryReportDTO userSummaryReport;
+    try {
+      ConvertedSearchParam converSearchParam = ConverterUtil
+          .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
 
-    UserSummaryReportDTO userSummaryReport =
-        reportingPlugin.getUserSummaryReport(converSearchParam.reportSearchParam);
+      userSummaryReport = reportingPlugin.getUserSummaryReport(converSearchParam.reportSearchParam);
+    } catch (JTRPException e) {
+      return buildErrorResponse(e);
+    }
 
     HashMap<String, Object> contextParameters = new HashMap<>();
     contextParameters.put("userSummaryReport", userSummaryReport);
@@ -226,6 +262,9 @@ public class PagingReport {
    *          the {@link FilterCondition} in JSON format.
    * @param selectedColumnsJson
    *          the JSON array from the selected columns.
+   * @param cursor
+   *          the opaque keyset cursor of the requested page from the previous page. Optional, the
+   *          offset of the filter condition is used without it.
    *
    * @return the page content in HTML.
    */
@@ -235,18 +274,26 @@ public class PagingReport {
   public Response pageWorklogDetails(
       @QueryParam("filterConditionJson") final String filterConditionJson,
       @QueryParam("selectedColumnsJson") final String selectedColumnsJson,
-      @QueryParam("orderBy") final String orderByString) {
+      @QueryParam("orderBy") final String orderByString,
+      @QueryParam("cursor") final String cursor) {
     FilterCondition filterCondition = convertJsonToFilterCondition(filterConditionJson);
 
     String[] selectedColumns = gson.fromJson(selectedColumnsJson, String[].class);
 
-    ConvertedSearchParam converSearchParam = ConverterUtil
-        .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
-
     OrderBy orderBy = ConverterUtil.convertToOrderBy(orderByString);
 
-    WorklogDetailsReportDTO worklogDetailsReport =
-        reportingPlugin.getWorklogDetailsReport(converSearchParam.reportSearchParam, orderBy);
+    WorklogDetailsReportDTO worklogDetailsReport;
+    try {
+      ConvertedSearchParam converSearchParam = ConverterUtil
+          .convertFilterConditionToConvertedSearchParam(filterCondition, settingsHelper);
+
+      converSearchParam.reportSearchParam.pageCursor(cursor);
+
+      worklogDetailsReport =
+          reportingPlugin.getWorklogDetailsReport(converSearchParam.reportSearchParam, orderBy);
+    } catch (JTRPException e) {
+      return buildErrorResponse(e);
+    }
 
     HashMap<String, Object> contextParameters = new HashMap<>();
     contextParameters.put("worklogDetailsReport", worklogDetailsReport);
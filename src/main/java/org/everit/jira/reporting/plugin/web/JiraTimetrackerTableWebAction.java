@@ -36,10 +36,12 @@ import org.apache.log4j.Logger;
 import org.everit.jira.analytics.AnalyticsDTO;
 import org.everit.jira.core.EVWorklogManager;
 import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.util.IssueKeyMatcher;
 import org.everit.jira.core.util.TimetrackerUtil;
 import org.everit.jira.reporting.plugin.ReportingCondition;
 import org.everit.jira.reporting.plugin.util.PermissionUtil;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
+import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.everit.jira.timetracker.plugin.DurationFormatter;
 import org.everit.jira.timetracker.plugin.JiraTimetrackerAnalytics;
 import org.everit.jira.timetracker.plugin.PluginCondition;
@@ -169,6 +171,8 @@ public class JiraTimetrackerTableWebAction extends JiraWebActionSupport {
 
   private List<Pattern> issuesRegex;
 
+  private IssueKeyMatcher nonWorkingIssueMatcher;
+
   private DateTimeServer lastDate;
 
   /**
@@ -298,7 +302,9 @@ public class JiraTimetrackerTableWebAction extends JiraWebActionSupport {
     loadIssueCollectorSrc();
     normalizeContextPath();
 
-    issuesRegex = settingsHelper.loadGlobalSettings().getNonWorkingIssuePatterns();
+    TimeTrackerGlobalSettings globalSettings = settingsHelper.loadGlobalSettings();
+    issuesRegex = globalSettings.getNonWorkingIssuePatterns();
+    nonWorkingIssueMatcher = globalSettings.getNonWorkingIssueMatcher();
 
     hasBrowseUsersPermission =
         PermissionUtil.hasBrowseUserPermission(getLoggedInApplicationUser(),
@@ -327,7 +333,7 @@ public class JiraTimetrackerTableWebAction extends JiraWebActionSupport {
   }
 
   private void createDurationFormatter() {
-    durationFormatter = new DurationFormatter();
+    durationFormatter = DurationFormatter.getInstance();
   }
 
   @Override
@@ -540,18 +546,8 @@ public class JiraTimetrackerTableWebAction extends JiraWebActionSupport {
   }
 
   private boolean isRealWorklog(final EveritWorklog worklog) {
-    boolean isRealWorklog = true;
-    if (issuesRegex != null) {
-      for (Pattern issuePattern : issuesRegex) {
-        boolean issueMatches = issuePattern.matcher(worklog.getIssue()).matches();
-        // if match not count in summary
-        if (issueMatches) {
-          isRealWorklog = false;
-          break;
-        }
-      }
-    }
-    return isRealWorklog;
+    // if match not count in summary
+    return !nonWorkingIssueMatcher.matches(worklog.getIssue());
   }
 
   private boolean loadDataFromSession() {
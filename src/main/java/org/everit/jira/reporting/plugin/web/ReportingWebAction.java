@@ -129,7 +129,7 @@ public class ReportingWebAction extends JiraWebActionSupport {
 
   private boolean defaultCommand = false;
 
-  private DurationFormatter durationFormatter = new DurationFormatter();
+  private DurationFormatter durationFormatter = DurationFormatter.getInstance();
 
   public List<SearchRequest> favouriteFilters;
 
@@ -24,6 +24,20 @@ import org.everit.jira.settings.dto.TimeTrackerUserSettings;
  * configurations.
  */
 public interface TimeTrackerSettingsHelper {
+  /**
+   * Give back the number of the user settings loads which served from the cache.
+   *
+   * @return the number of the cache hits.
+   */
+  long getUserSettingsCacheHitCount();
+
+  /**
+   * Give back the number of the user settings loads which read the plugin settings.
+   *
+   * @return the number of the cache misses.
+   */
+  long getUserSettingsCacheMissCount();
+
   /**
    * Load all timetracker global configuration from the
    * {@link com.atlassian.sal.api.pluginsettings.PluginSettings}.
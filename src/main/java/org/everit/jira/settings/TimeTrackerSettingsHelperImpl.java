@@ -21,6 +21,8 @@ import java.text.ParseException;
 import java.util.Date;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.everit.jira.analytics.AnalyticsSender;
 import org.everit.jira.analytics.event.ActiveFieldDurationChangedEvent;
@@ -29,6 +31,7 @@ import org.everit.jira.analytics.event.ProgressIndicatorChangedEvent;
 import org.everit.jira.analytics.event.ShowFutureLogWarningChangedEvent;
 import org.everit.jira.analytics.event.ShowIssueSummaryChangedEvent;
 import org.everit.jira.analytics.event.ShowRemaningEstimateChangedEvent;
+import org.everit.jira.core.util.TimetrackerContext;
 import org.everit.jira.settings.dto.GlobalSettingsKey;
 import org.everit.jira.settings.dto.JTTPSettingsKey;
 import org.everit.jira.settings.dto.ReportingGlobalSettings;
@@ -39,6 +42,10 @@ import org.everit.jira.settings.dto.UserSettingKey;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 import org.springframework.beans.factory.InitializingBean;
 
+import com.atlassian.cache.Cache;
+import com.atlassian.cache.CacheLoader;
+import com.atlassian.cache.CacheManager;
+import com.atlassian.cache.CacheSettingsBuilder;
 import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.user.ApplicationUser;
@@ -51,19 +58,91 @@ import com.atlassian.sal.api.pluginsettings.PluginSettingsFactory;
 public class TimeTrackerSettingsHelperImpl
     implements TimeTrackerSettingsHelper, InitializingBean, Serializable {
 
+  private static final String GLOBAL_SETTINGS_CACHE_NAME =
+      TimeTrackerSettingsHelperImpl.class.getName() + ".globalSettings";
+
+  private static final String REPORTING_SETTINGS_CACHE_NAME =
+      TimeTrackerSettingsHelperImpl.class.getName() + ".reportingGlobalSettings";
+
+  private static final String SETTINGS_CACHE_KEY = "settings";
+
   private static final long serialVersionUID = 8873665767837959963L;
 
+  private static final int USER_SETTINGS_CACHE_EXPIRE_MINUTES = 30;
+
+  private static final int USER_SETTINGS_CACHE_MAX_ENTRIES = 1000;
+
+  private static final String USER_SETTINGS_CACHE_NAME =
+      TimeTrackerSettingsHelperImpl.class.getName() + ".userSettings";
+
   private transient AnalyticsSender analyticsSender;
 
+  /**
+   * The cached read-only global settings snapshot. If <code>null</code> the settings loaded on every call.
+   */
+  private transient Cache<String, TimeTrackerGlobalSettings> globalSettingsCache;
+
+  /**
+   * The cached read-only reporting settings snapshot. If <code>null</code> the settings loaded on every
+   * call.
+   */
+  private transient Cache<String, ReportingGlobalSettings> reportingSettingsCache;
+
   private transient PluginSettingsFactory settingsFactory;
 
   /**
-   * Crate the settings helper. Set the plugin UUID in global settings.
+   * The cached user settings by user name. If <code>null</code> the settings loaded on every call.
+   */
+  private transient Cache<String, TimeTrackerUserSettings> userSettingsCache;
+
+  private final AtomicLong userSettingsLoadCount = new AtomicLong();
+
+  private final AtomicLong userSettingsMissCount = new AtomicLong();
+
+  /**
+   * Crate the settings helper without cache. Set the plugin UUID in global settings.
    */
   public TimeTrackerSettingsHelperImpl(final PluginSettingsFactory settingsFactory,
       final AnalyticsSender analyticsSender) {
+    this(settingsFactory, analyticsSender, null);
+  }
+
+  /**
+   * Crate the settings helper. The global and reporting settings are cached in cluster wide
+   * invalidated caches. Set the plugin UUID in global settings.
+   */
+  public TimeTrackerSettingsHelperImpl(final PluginSettingsFactory settingsFactory,
+      final AnalyticsSender analyticsSender, final CacheManager cacheManager) {
     this.settingsFactory = settingsFactory;
     this.analyticsSender = analyticsSender;
+    if (cacheManager != null) {
+      globalSettingsCache = cacheManager.getCache(GLOBAL_SETTINGS_CACHE_NAME,
+          new CacheLoader<String, TimeTrackerGlobalSettings>() {
+            @Override
+            public TimeTrackerGlobalSettings load(final String key) {
+              return readGlobalSettings();
+            }
+          }, new CacheSettingsBuilder().replicateViaInvalidation().build());
+      reportingSettingsCache = cacheManager.getCache(REPORTING_SETTINGS_CACHE_NAME,
+          new CacheLoader<String, ReportingGlobalSettings>() {
+            @Override
+            public ReportingGlobalSettings load(final String key) {
+              return readReportingGlobalSettings();
+            }
+          }, new CacheSettingsBuilder().replicateViaInvalidation().build());
+      userSettingsCache = cacheManager.getCache(USER_SETTINGS_CACHE_NAME,
+          new CacheLoader<String, TimeTrackerUserSettings>() {
+            @Override
+            public TimeTrackerUserSettings load(final String userName) {
+              userSettingsMissCount.incrementAndGet();
+              return readUserSettings(createUserPluginSettings(userName));
+            }
+          }, new CacheSettingsBuilder()
+              .replicateViaInvalidation()
+              .maxEntries(USER_SETTINGS_CACHE_MAX_ENTRIES)
+              .expireAfterAccess(USER_SETTINGS_CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+              .build());
+    }
     generateAndSavePluginUUID();
   }
 
@@ -75,6 +154,7 @@ public class TimeTrackerSettingsHelperImpl
             + GlobalSettingsKey.EXCLUDE_DATES.getSettingsKey());
     if ((tempExcludeDates != null) && !tempExcludeDates.isEmpty()) {
       if (tempExcludeDates.matches("^[0-9,]+$")) { // CONVERSATION ALREADY DONE NOThing to do
+        invalidateGlobalSettings();
         return;
       }
       StringBuilder sb = new StringBuilder();
@@ -107,6 +187,7 @@ public class TimeTrackerSettingsHelperImpl
       globalSettings.put(JTTPSettingsKey.JTTP_PLUGIN_SETTINGS_KEY_PREFIX
           + GlobalSettingsKey.INCLUDE_DATES.getSettingsKey(), sb.toString());
     }
+    invalidateGlobalSettings();
   }
 
   private void checkAnalyticsForActiveFieldDuration(final PluginSettings pluginSettings,
@@ -214,18 +295,67 @@ public class TimeTrackerSettingsHelperImpl
     }
   }
 
-  private PluginSettings getUserPluginSettings() {
+  private PluginSettings createUserPluginSettings(final String userName) {
+    return settingsFactory
+        .createSettingsForKey(JTTPSettingsKey.JTTP_PLUGIN_SETTINGS_KEY_PREFIX + userName);
+  }
+
+  private String getLoggedUserName() {
     JiraAuthenticationContext authenticationContext = ComponentAccessor
         .getJiraAuthenticationContext();
     ApplicationUser user = authenticationContext.getUser();
-    PluginSettings pluginSettings = settingsFactory
-        .createSettingsForKey(JTTPSettingsKey.JTTP_PLUGIN_SETTINGS_KEY_PREFIX
-            + user.getName());
-    return pluginSettings;
+    return user.getName();
+  }
+
+  @Override
+  public long getUserSettingsCacheHitCount() {
+    return userSettingsLoadCount.get() - userSettingsMissCount.get();
+  }
+
+  @Override
+  public long getUserSettingsCacheMissCount() {
+    return userSettingsMissCount.get();
+  }
+
+  private void invalidateGlobalSettings() {
+    if (globalSettingsCache != null) {
+      globalSettingsCache.remove(SETTINGS_CACHE_KEY);
+    }
+  }
+
+  private void invalidateReportingGlobalSettings() {
+    if (reportingSettingsCache != null) {
+      reportingSettingsCache.remove(SETTINGS_CACHE_KEY);
+    }
   }
 
   @Override
   public TimeTrackerGlobalSettings loadGlobalSettings() {
+    if (globalSettingsCache == null) {
+      return readGlobalSettings();
+    }
+    return globalSettingsCache.get(SETTINGS_CACHE_KEY);
+  }
+
+  @Override
+  public ReportingGlobalSettings loadReportingGlobalSettings() {
+    if (reportingSettingsCache == null) {
+      return readReportingGlobalSettings();
+    }
+    return reportingSettingsCache.get(SETTINGS_CACHE_KEY);
+  }
+
+  @Override
+  public TimeTrackerUserSettings loadUserSettings() {
+    String userName = getLoggedUserName();
+    if (userSettingsCache == null) {
+      return readUserSettings(createUserPluginSettings(userName));
+    }
+    userSettingsLoadCount.incrementAndGet();
+    return userSettingsCache.get(userName);
+  }
+
+  private TimeTrackerGlobalSettings readGlobalSettings() {
     PluginSettings globalSettings = settingsFactory.createGlobalSettings();
     TimeTrackerGlobalSettings timeTrackerGlobalSettings = new TimeTrackerGlobalSettings();
     for (GlobalSettingsKey settingKey : GlobalSettingsKey.values()) {
@@ -233,11 +363,10 @@ public class TimeTrackerSettingsHelperImpl
           globalSettings.get(
               JTTPSettingsKey.JTTP_PLUGIN_SETTINGS_KEY_PREFIX + settingKey.getSettingsKey()));
     }
-    return timeTrackerGlobalSettings;
+    return timeTrackerGlobalSettings.readOnlyCopy();
   }
 
-  @Override
-  public ReportingGlobalSettings loadReportingGlobalSettings() {
+  private ReportingGlobalSettings readReportingGlobalSettings() {
     PluginSettings reportingSettings = settingsFactory
         .createSettingsForKey(JTTPSettingsKey.JTTP_PLUGIN_REPORTING_SETTINGS_KEY_PREFIX);
     ReportingGlobalSettings reportingGlobalSettings = new ReportingGlobalSettings();
@@ -246,12 +375,10 @@ public class TimeTrackerSettingsHelperImpl
           reportingSettings.get(JTTPSettingsKey.JTTP_PLUGIN_REPORTING_SETTINGS_KEY_PREFIX
               + reportingSettingsKey.getSettingsKey()));
     }
-    return reportingGlobalSettings;
+    return reportingGlobalSettings.readOnlyCopy();
   }
 
-  @Override
-  public TimeTrackerUserSettings loadUserSettings() {
-    PluginSettings pluginSettings = getUserPluginSettings();
+  private TimeTrackerUserSettings readUserSettings(final PluginSettings pluginSettings) {
     TimeTrackerUserSettings timeTrackerUserSettings = new TimeTrackerUserSettings();
     for (UserSettingKey settingKey : UserSettingKey.values()) {
       // FIXME JIRA store everything in string but returns in object
@@ -281,6 +408,8 @@ public class TimeTrackerSettingsHelperImpl
           + globalSettingEntry.getKey().getSettingsKey(),
           globalSettingEntry.getValue());
     }
+    invalidateGlobalSettings();
+    TimetrackerContext.resetCurrent();
   }
 
   @Override
@@ -293,12 +422,13 @@ public class TimeTrackerSettingsHelperImpl
           + settingEntry.getKey().getSettingsKey(),
           settingEntry.getValue());
     }
-
+    invalidateReportingGlobalSettings();
   }
 
   @Override
   public void saveUserSettings(final TimeTrackerUserSettings userSettings) {
-    PluginSettings pluginSettings = getUserPluginSettings();
+    String userName = getLoggedUserName();
+    PluginSettings pluginSettings = createUserPluginSettings(userName);
     checkAnalyticsForProgressIndicator(pluginSettings,
         userSettings.getUserSettingValue(UserSettingKey.PROGRESS_INDICATOR));
     checkAnalyticsForShowFutureLogWarning(pluginSettings, userSettings.isShowFutureLogWarning());
@@ -310,7 +440,9 @@ public class TimeTrackerSettingsHelperImpl
       pluginSettings.put(settingEntry.getKey().getSettingsKey(),
           settingEntry.getValue());
     }
-
+    if (userSettingsCache != null) {
+      userSettingsCache.put(userName, readUserSettings(pluginSettings));
+    }
   }
 
 }
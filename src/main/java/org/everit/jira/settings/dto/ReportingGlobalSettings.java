@@ -16,25 +16,54 @@
 package org.everit.jira.settings.dto;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Mapping and converter class for the reporting global settings.
+ * Mapping and converter class for the reporting global settings. The {@link #readOnlyCopy()}
+ * snapshot can be shared between threads.
  */
 public class ReportingGlobalSettings {
 
-  private Map<ReportingSettingKey, Object> pluginSettingsKeyValues = new HashMap<>();
+  private final Map<ReportingSettingKey, Object> pluginSettingsKeyValues;
+
+  private final boolean readOnly;
 
   public ReportingGlobalSettings() {
+    pluginSettingsKeyValues = new HashMap<>();
+    readOnly = false;
   }
 
+  private ReportingGlobalSettings(final Map<ReportingSettingKey, Object> source) {
+    Map<ReportingSettingKey, Object> values = new HashMap<>();
+    for (Map.Entry<ReportingSettingKey, Object> entry : source.entrySet()) {
+      Object value = entry.getValue();
+      if (value instanceof List) {
+        value = Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+      }
+      values.put(entry.getKey(), value);
+    }
+    pluginSettingsKeyValues = Collections.unmodifiableMap(values);
+    readOnly = true;
+  }
+
+  /**
+   * Put the browse groups.
+   */
   public ReportingGlobalSettings browseGroups(final List<String> browseGroups) {
+    checkModifiable();
     pluginSettingsKeyValues.put(ReportingSettingKey.BROWSE_GROUPS, browseGroups);
     return this;
   }
 
+  private void checkModifiable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException("The settings snapshot is read-only.");
+    }
+  }
+
   /**
    * Convert and get the browse groups. Default is empty list.
    */
@@ -65,12 +94,29 @@ public class ReportingGlobalSettings {
     return reportingGroups;
   }
 
+  /**
+   * Put a settings value with the specified key.
+   */
   public void putSettings(final ReportingSettingKey reportingSettingsKey, final Object object) {
+    checkModifiable();
     pluginSettingsKeyValues.put(reportingSettingsKey, object);
 
   }
 
+  /**
+   * Create a read-only copy of the settings, which can be cached and shared between threads.
+   *
+   * @return the read-only {@link ReportingGlobalSettings}.
+   */
+  public ReportingGlobalSettings readOnlyCopy() {
+    return new ReportingGlobalSettings(pluginSettingsKeyValues);
+  }
+
+  /**
+   * Put the reporting groups.
+   */
   public ReportingGlobalSettings reportingGroups(final List<String> reportingGroups) {
+    checkModifiable();
     pluginSettingsKeyValues.put(ReportingSettingKey.GROUPS, reportingGroups);
     return this;
   }
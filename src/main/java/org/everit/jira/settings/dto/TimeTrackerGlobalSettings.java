@@ -17,6 +17,7 @@ package org.everit.jira.settings.dto;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -26,20 +27,72 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
 
+import org.everit.jira.core.util.IssueKeyMatcher;
+import org.everit.jira.core.util.WorkdayCalendar;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
 /**
- * Mapping and converter class for the timetracker global settings.
+ * Mapping and converter class for the timetracker global settings. The parsed dates and the
+ * compiled patterns are kept until the next modification of the settings. The
+ * {@link #readOnlyCopy()} snapshot parses everything eagerly and can be shared between threads.
  */
 public class TimeTrackerGlobalSettings {
 
-  private Map<GlobalSettingsKey, Object> pluginSettingsKeyValues = new HashMap<>();
+  private static Object copyValue(final Object value) {
+    if (value instanceof List) {
+      return Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+    }
+    return value;
+  }
+
+  private volatile IssueKeyMatcher collectorIssueMatcher;
+
+  private volatile IssueKeyMatcher nonWorkingIssueMatcher;
+
+  private volatile Set<DateTime> parsedExcludeDates;
+
+  private volatile Set<DateTime> parsedIncludeDates;
+
+  private volatile List<Pattern> parsedIssuePatterns;
+
+  private volatile List<Pattern> parsedNonWorkingIssuePatterns;
+
+  private final Map<GlobalSettingsKey, Object> pluginSettingsKeyValues;
+
+  private final boolean readOnly;
+
+  private volatile WorkdayCalendar workdayCalendar;
+
+  /**
+   * Create an empty modifiable settings.
+   */
+  public TimeTrackerGlobalSettings() {
+    pluginSettingsKeyValues = new HashMap<>();
+    readOnly = false;
+  }
+
+  private TimeTrackerGlobalSettings(final Map<GlobalSettingsKey, Object> source) {
+    Map<GlobalSettingsKey, Object> values = new HashMap<>();
+    for (Map.Entry<GlobalSettingsKey, Object> entry : source.entrySet()) {
+      values.put(entry.getKey(), copyValue(entry.getValue()));
+    }
+    pluginSettingsKeyValues = Collections.unmodifiableMap(values);
+    readOnly = true;
+    parsedExcludeDates = parseDates(GlobalSettingsKey.EXCLUDE_DATES);
+    parsedIncludeDates = parseDates(GlobalSettingsKey.INCLUDE_DATES);
+    parsedIssuePatterns = compilePatterns(GlobalSettingsKey.NON_ESTIMATED_ISSUES);
+    parsedNonWorkingIssuePatterns = compilePatterns(GlobalSettingsKey.SUMMARY_FILTERS);
+    collectorIssueMatcher = new IssueKeyMatcher(parsedIssuePatterns);
+    nonWorkingIssueMatcher = new IssueKeyMatcher(parsedNonWorkingIssuePatterns);
+    workdayCalendar = new WorkdayCalendar(parsedExcludeDates, parsedIncludeDates);
+  }
 
   /**
    * Put the analytics check value.
    */
   public TimeTrackerGlobalSettings analyticsCheck(final boolean analyticsCheck) {
+    checkModifiable();
     pluginSettingsKeyValues.put(GlobalSettingsKey.ANALYTICS_CHECK_CHANGE,
         String.valueOf(analyticsCheck));
     return this;
@@ -49,8 +102,11 @@ public class TimeTrackerGlobalSettings {
    * Put collector issues.
    */
   public TimeTrackerGlobalSettings collectorIssues(final List<Pattern> collectorIssues) {
+    checkModifiable();
     // TODO in pattern out string
     pluginSettingsKeyValues.put(GlobalSettingsKey.NON_ESTIMATED_ISSUES, collectorIssues);
+    parsedIssuePatterns = null;
+    collectorIssueMatcher = null;
     return this;
   }
 
@@ -58,11 +114,14 @@ public class TimeTrackerGlobalSettings {
    * Put exclude dates.
    */
   public TimeTrackerGlobalSettings excludeDates(final Collection<Long> excludeDates) {
+    checkModifiable();
     StringBuilder sb = new StringBuilder();
     for (Long date : excludeDates) {
       sb.append(date).append(",");
     }
     pluginSettingsKeyValues.put(GlobalSettingsKey.EXCLUDE_DATES, sb.toString());
+    parsedExcludeDates = null;
+    workdayCalendar = null;
     return this;
   }
 
@@ -71,11 +130,14 @@ public class TimeTrackerGlobalSettings {
    */
   public TimeTrackerGlobalSettings filteredSummaryIssues(
       final List<Pattern> filteredSummaryIssues) {
+    checkModifiable();
     List<String> list = new ArrayList<>();
     for (Pattern pattern : filteredSummaryIssues) {
       list.add(pattern.toString());
     }
     pluginSettingsKeyValues.put(GlobalSettingsKey.SUMMARY_FILTERS, list);
+    parsedNonWorkingIssuePatterns = null;
+    nonWorkingIssueMatcher = null;
     return this;
   }
 
@@ -92,20 +154,57 @@ public class TimeTrackerGlobalSettings {
     return analyticsCheckValue;
   }
 
+  private void checkModifiable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException("The settings snapshot is read-only.");
+    }
+  }
+
+  private void clearParsedValues() {
+    collectorIssueMatcher = null;
+    nonWorkingIssueMatcher = null;
+    parsedExcludeDates = null;
+    parsedIncludeDates = null;
+    parsedIssuePatterns = null;
+    parsedNonWorkingIssuePatterns = null;
+    workdayCalendar = null;
+  }
+
+  private List<Pattern> compilePatterns(final GlobalSettingsKey key) {
+    List<String> patternStrings = (List<String>) pluginSettingsKeyValues.get(key);
+    List<Pattern> patterns = new ArrayList<>();
+    if (patternStrings != null) {
+      for (String patternString : patternStrings) {
+        patterns.add(Pattern.compile(patternString));
+      }
+    }
+    return Collections.unmodifiableList(patterns);
+  }
+
   /**
-   * Get the exclude dates as Set. Faster solution for check element exists or not in the set.
+   * Get the matcher of the collector issue patterns. The matcher is built once per settings
+   * snapshot.
    */
-  public Set<DateTime> getExcludeDates() {
-    String excludeDatesString =
-        (String) pluginSettingsKeyValues.get(GlobalSettingsKey.EXCLUDE_DATES);
-    Set<DateTime> excludeDatesSet = new HashSet<>();
-    if ((excludeDatesString == null) || excludeDatesString.isEmpty()) {
-      return excludeDatesSet;
+  public IssueKeyMatcher getCollectorIssueMatcher() {
+    IssueKeyMatcher matcher = collectorIssueMatcher;
+    if (matcher == null) {
+      matcher = new IssueKeyMatcher(getIssuePatterns());
+      collectorIssueMatcher = matcher;
     }
-    for (String excludeDate : excludeDatesString.split(",")) {
-      excludeDatesSet.add(new DateTime(Long.parseLong(excludeDate), DateTimeZone.UTC));
+    return matcher;
+  }
+
+  /**
+   * Get the exclude dates as Set. Faster solution for check element exists or not in the set. The
+   * returned set is unmodifiable.
+   */
+  public Set<DateTime> getExcludeDates() {
+    Set<DateTime> excludeDates = parsedExcludeDates;
+    if (excludeDates == null) {
+      excludeDates = parseDates(GlobalSettingsKey.EXCLUDE_DATES);
+      parsedExcludeDates = excludeDates;
     }
-    return excludeDatesSet;
+    return excludeDates;
   }
 
   /**
@@ -126,19 +225,15 @@ public class TimeTrackerGlobalSettings {
 
   /**
    * Get include dates as Set. The dates not sorted. The dates are stored in long with 00:00 hour
-   * and minute in UTC.
+   * and minute in UTC. The returned set is unmodifiable.
    */
   public Set<DateTime> getIncludeDates() {
-    String tempSpecialDates =
-        (String) pluginSettingsKeyValues.get(GlobalSettingsKey.INCLUDE_DATES);
-    Set<DateTime> includeDatesSet = new HashSet<>();
-    if ((tempSpecialDates == null) || tempSpecialDates.isEmpty()) {
-      return includeDatesSet;
+    Set<DateTime> includeDates = parsedIncludeDates;
+    if (includeDates == null) {
+      includeDates = parseDates(GlobalSettingsKey.INCLUDE_DATES);
+      parsedIncludeDates = includeDates;
     }
-    for (String includeDate : tempSpecialDates.split(",")) {
-      includeDatesSet.add(new DateTime(Long.parseLong(includeDate), DateTimeZone.UTC));
-    }
-    return includeDatesSet;
+    return includeDates;
   }
 
   /**
@@ -158,18 +253,14 @@ public class TimeTrackerGlobalSettings {
   }
 
   /**
-   * Get the issue patterns.
+   * Get the issue patterns. The returned list is unmodifiable.
    */
   public List<Pattern> getIssuePatterns() {
     // TODO in pattern out string
-    List<String> tempIssuePatternList = (List<String>) pluginSettingsKeyValues.get(
-        GlobalSettingsKey.NON_ESTIMATED_ISSUES);
-    List<Pattern> collectorIssuePatterns = new ArrayList<>();
-    if (tempIssuePatternList != null) {
-      // add collector issues
-      for (String tempIssuePattern : tempIssuePatternList) {
-        collectorIssuePatterns.add(Pattern.compile(tempIssuePattern));
-      }
+    List<Pattern> collectorIssuePatterns = parsedIssuePatterns;
+    if (collectorIssuePatterns == null) {
+      collectorIssuePatterns = compilePatterns(GlobalSettingsKey.NON_ESTIMATED_ISSUES);
+      parsedIssuePatterns = collectorIssuePatterns;
     }
     return collectorIssuePatterns;
   }
@@ -192,17 +283,26 @@ public class TimeTrackerGlobalSettings {
   }
 
   /**
-   * Get the non working issue filters.
+   * Get the matcher of the non working issue patterns. The matcher is built once per settings
+   * snapshot.
+   */
+  public IssueKeyMatcher getNonWorkingIssueMatcher() {
+    IssueKeyMatcher matcher = nonWorkingIssueMatcher;
+    if (matcher == null) {
+      matcher = new IssueKeyMatcher(getNonWorkingIssuePatterns());
+      nonWorkingIssueMatcher = matcher;
+    }
+    return matcher;
+  }
+
+  /**
+   * Get the non working issue filters. The returned list is unmodifiable.
    */
   public List<Pattern> getNonWorkingIssuePatterns() {
-    List<String> tempSummaryFilter =
-        (List<String>) pluginSettingsKeyValues.get(GlobalSettingsKey.SUMMARY_FILTERS);
-    List<Pattern> nonWorkingIssuePatterns = new ArrayList<>();
-    if (tempSummaryFilter != null) {
-      // add non working issues
-      for (String tempIssuePattern : tempSummaryFilter) {
-        nonWorkingIssuePatterns.add(Pattern.compile(tempIssuePattern));
-      }
+    List<Pattern> nonWorkingIssuePatterns = parsedNonWorkingIssuePatterns;
+    if (nonWorkingIssuePatterns == null) {
+      nonWorkingIssuePatterns = compilePatterns(GlobalSettingsKey.SUMMARY_FILTERS);
+      parsedNonWorkingIssuePatterns = nonWorkingIssuePatterns;
     }
     return nonWorkingIssuePatterns;
   }
@@ -255,15 +355,42 @@ public class TimeTrackerGlobalSettings {
     return timeZoneTypes;
   }
 
+  /**
+   * Get the calendar of the exclude and include dates. The calendar is built once per settings
+   * snapshot.
+   */
+  public WorkdayCalendar getWorkdayCalendar() {
+    WorkdayCalendar calendar = workdayCalendar;
+    if (calendar == null) {
+      calendar = new WorkdayCalendar(getExcludeDates(), getIncludeDates());
+      workdayCalendar = calendar;
+    }
+    return calendar;
+  }
+
+  private Set<DateTime> parseDates(final GlobalSettingsKey key) {
+    String datesString = (String) pluginSettingsKeyValues.get(key);
+    Set<DateTime> dates = new HashSet<>();
+    if ((datesString != null) && !datesString.isEmpty()) {
+      for (String date : datesString.split(",")) {
+        dates.add(new DateTime(Long.parseLong(date), DateTimeZone.UTC));
+      }
+    }
+    return Collections.unmodifiableSet(dates);
+  }
+
   /**
    * Put the include dates.
    */
   public TimeTrackerGlobalSettings includeDates(final Collection<Long> includeDates) {
+    checkModifiable();
     StringBuilder sb = new StringBuilder();
     for (Long date : includeDates) {
       sb.append(date).append(",");
     }
     pluginSettingsKeyValues.put(GlobalSettingsKey.INCLUDE_DATES, sb.toString());
+    parsedIncludeDates = null;
+    workdayCalendar = null;
     return this;
   }
 
@@ -271,6 +398,7 @@ public class TimeTrackerGlobalSettings {
    * Put the update notifier last update time.
    */
   public TimeTrackerGlobalSettings lastUpdateTime(final long time) {
+    checkModifiable();
     pluginSettingsKeyValues.put(
         GlobalSettingsKey.UPDATE_NOTIFIER_LAST_UPDATE, String.valueOf(time));
     return this;
@@ -280,6 +408,7 @@ public class TimeTrackerGlobalSettings {
    * Put the latest version of the JTTP plugin.
    */
   public TimeTrackerGlobalSettings latestVersion(final String latestVersion) {
+    checkModifiable();
     pluginSettingsKeyValues.put(GlobalSettingsKey.UPDATE_NOTIFIER_LATEST_VERSION, latestVersion);
     return this;
   }
@@ -288,6 +417,7 @@ public class TimeTrackerGlobalSettings {
    * Put the JTTP plugin groups.
    */
   public TimeTrackerGlobalSettings pluginGroups(final List<String> pluginGroups) {
+    checkModifiable();
     pluginSettingsKeyValues.put(GlobalSettingsKey.PLUGIN_PERMISSION, pluginGroups);
     return this;
   }
@@ -296,6 +426,7 @@ public class TimeTrackerGlobalSettings {
    * Put the plugin UUID.
    */
   public TimeTrackerGlobalSettings pluginUUID(final String pluginUUID) {
+    checkModifiable();
     pluginSettingsKeyValues.put(GlobalSettingsKey.PLUGIN_UUID, pluginUUID);
     return this;
   }
@@ -304,13 +435,26 @@ public class TimeTrackerGlobalSettings {
    * Put a settings value with the specified key.
    */
   public void putGlobalSettingValue(final GlobalSettingsKey key, final Object value) {
+    checkModifiable();
     pluginSettingsKeyValues.put(key, value);
+    clearParsedValues();
+  }
+
+  /**
+   * Create a read-only copy of the settings. The values are copied, the dates parsed and the
+   * patterns compiled during the copy, so the copy can be cached and shared between threads.
+   *
+   * @return the read-only {@link TimeTrackerGlobalSettings}.
+   */
+  public TimeTrackerGlobalSettings readOnlyCopy() {
+    return new TimeTrackerGlobalSettings(pluginSettingsKeyValues);
   }
 
   /**
    * Put the timetracking groups.
    */
   public TimeTrackerGlobalSettings timetrackerGroups(final List<String> timetrackingGroups) {
+    checkModifiable();
     pluginSettingsKeyValues.put(GlobalSettingsKey.TIMETRACKER_PERMISSION, timetrackingGroups);
     return this;
   }
@@ -319,6 +463,7 @@ public class TimeTrackerGlobalSettings {
    * Put the time zone usage type value.
    */
   public TimeTrackerGlobalSettings timeZone(final TimeZoneTypes timeZoneType) {
+    checkModifiable();
     pluginSettingsKeyValues.put(GlobalSettingsKey.TIME_ZONE,
         timeZoneType.name());
     return this;
@@ -20,14 +20,14 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
-import java.util.LinkedHashMap;
 
+import org.everit.jira.core.util.ConcurrentLruCache;
+import org.everit.jira.core.util.TimetrackerContext;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 
 import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
 import com.atlassian.jira.component.ComponentAccessor;
-import com.atlassian.jira.config.properties.ApplicationProperties;
-import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.config.properties.APKeys;
 import com.atlassian.jira.util.I18nHelper;
 import com.atlassian.jira.util.JiraDurationUtils.DaysDurationFormatter;
 import com.atlassian.jira.util.JiraDurationUtils.HoursDurationFormatter;
@@ -37,163 +37,175 @@ import com.atlassian.jira.util.JiraDurationUtils.PrettyDurationFormatter;
  * Used for creating the string representation of
  * {@link org.everit.jira.timetracker.plugin.dto.EveritWorklog#getExactRemaining()} and
  * {@link org.everit.jira.timetracker.plugin.dto.EveritWorklog#getRoundedRemaining()} properties.
+ * The formatter is immutable and thread-safe, the shared instance of the current settings is
+ * available via {@link #getInstance()}.
  */
 public class DurationFormatter implements Serializable {
 
   /**
-   * Time format names in JIRA system.
+   * The key of the shared formatters. The I18n helper is compared by identity.
    */
-  private static final class TimeFormat {
+  private static final class FormatterKey {
 
-    public static final String DAYS = "days";
+    private final int hashCode;
 
-    public static final String HOURS = "hours";
+    private final I18nHelper i18nHelper;
 
-    public static final String PRETTY = "pretty";
-  }
+    private final String timeFormat;
 
-  private static final String DAY = "d ";
+    private final double workDaysPerWeek;
 
-  private static final int DAYIDX = 1;
+    private final double workHoursPerDay;
 
-  private static final String HOUR = "h ";
-
-  private static final int HOURIDX = 2;
+    FormatterKey(final String timeFormat, final double workHoursPerDay,
+        final double workDaysPerWeek, final I18nHelper i18nHelper) {
+      this.timeFormat = timeFormat;
+      this.workHoursPerDay = workHoursPerDay;
+      this.workDaysPerWeek = workDaysPerWeek;
+      this.i18nHelper = i18nHelper;
+      int result = timeFormat == null ? 0 : timeFormat.hashCode();
+      result = (PRIME * result) + Double.valueOf(workHoursPerDay).hashCode();
+      result = (PRIME * result) + Double.valueOf(workDaysPerWeek).hashCode();
+      result = (PRIME * result) + System.identityHashCode(i18nHelper);
+      hashCode = result;
+    }
 
-  private static final String MIN = "m ";
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof FormatterKey)) {
+        return false;
+      }
+      FormatterKey other = (FormatterKey) obj;
+      return (timeFormat == null ? other.timeFormat == null : timeFormat.equals(other.timeFormat))
+          && (Double.compare(workHoursPerDay, other.workHoursPerDay) == 0)
+          && (Double.compare(workDaysPerWeek, other.workDaysPerWeek) == 0)
+          && (i18nHelper == other.i18nHelper);
+    }
 
-  private static final int MINIDX = 3;
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 
-  private static final long serialVersionUID = 8497858288910306739L;
+  /**
+   * Time format names in JIRA system.
+   */
+  private static final class TimeFormat {
 
-  private static final String WEEK = "w ";
+    public static final String DAYS = "days";
 
-  private static final int WEEKIDX = 0;
+    public static final String HOURS = "hours";
 
-  private DaysDurationFormatter daysDurationFormatter;
+    public static final String PRETTY = "pretty";
+  }
 
-  private long durationInSeconds;
+  private static final String[] FRAGMENT_UNITS = { "w", "d", "h", "m" };
 
-  private LinkedHashMap<String, Long> fragments = new LinkedHashMap<>();
+  private static final ThreadLocal<DecimalFormat> INDUSTRY_FORMAT =
+      new ThreadLocal<DecimalFormat>() {
+        @Override
+        protected DecimalFormat initialValue() {
+          DecimalFormat decimalFormat = new DecimalFormat("#.#");
+          decimalFormat.setRoundingMode(RoundingMode.FLOOR);
+          return decimalFormat;
+        }
+      };
 
-  private HoursDurationFormatter hoursDurationFormatter;
+  /**
+   * The maximum number of the shared formatters. The least recently used formatters are dropped
+   * if it grows over.
+   */
+  private static final int MAX_SIZE = 64;
 
-  private PrettyDurationFormatter prettyDurationFormatter;
+  private static final ConcurrentLruCache<FormatterKey, DurationFormatter> FORMATTERS =
+      new ConcurrentLruCache<>(MAX_SIZE);
 
-  private String timeFormat;
+  private static final int MINIDX = 3;
 
-  private double workDaysPerWeek;
+  private static final int PRIME = 31;
 
-  private double workHoursPerDay;
+  private static final long serialVersionUID = 8497858288910306739L;
 
   /**
-   * Simple constructor.
+   * Give back the shared formatter of the current time tracking settings and the logged user
+   * I18n helper.
+   *
+   * @return the shared formatter.
    */
-  public DurationFormatter() {
-
+  public static DurationFormatter getInstance() {
     TimeTrackingConfiguration timeTrackingConfiguration =
         ComponentAccessor.getComponent(TimeTrackingConfiguration.class);
+    TimetrackerContext context = TimetrackerContext.current();
+    FormatterKey key = new FormatterKey(
+        context.getApplicationProperty(APKeys.JIRA_TIMETRACKING_FORMAT),
+        timeTrackingConfiguration.getHoursPerDay().doubleValue(),
+        timeTrackingConfiguration.getDaysPerWeek().doubleValue(),
+        context.getI18nHelper());
+    DurationFormatter formatter = FORMATTERS.get(key);
+    if (formatter == null) {
+      formatter = new DurationFormatter(key.timeFormat, key.workHoursPerDay,
+          key.workDaysPerWeek, key.i18nHelper);
+      FORMATTERS.put(key, formatter);
+    }
+    return formatter;
+  }
 
-    ApplicationProperties applicationProperties = ComponentAccessor.getApplicationProperties();
-    timeFormat = applicationProperties.getDefaultBackedString("jira.timetracking.format");
-
-    workDaysPerWeek = timeTrackingConfiguration.getDaysPerWeek().doubleValue();
-    workHoursPerDay = timeTrackingConfiguration.getHoursPerDay().doubleValue();
+  private final com.atlassian.jira.util.JiraDurationUtils.DurationFormatter exactFormatter;
 
-    JiraAuthenticationContext jiraAuthenticationContext =
-        ComponentAccessor.getJiraAuthenticationContext();
-    I18nHelper i18nHelper = jiraAuthenticationContext.getI18nHelper();
+  private final boolean prettyFormat;
 
-    daysDurationFormatter = new DaysDurationFormatter(
-        new BigDecimal(workHoursPerDay).setScale(2, RoundingMode.HALF_UP), i18nHelper);
-    hoursDurationFormatter = new HoursDurationFormatter(i18nHelper);
-    prettyDurationFormatter = new PrettyDurationFormatter(
-        new BigDecimal(workHoursPerDay).setScale(2, RoundingMode.HALF_UP),
-        new BigDecimal(workDaysPerWeek).setScale(2, RoundingMode.HALF_UP), i18nHelper);
+  private final double workDaysPerWeek;
 
-  }
+  private final double workHoursPerDay;
 
-  private boolean appendValue(final StringBuilder rval, final Long value, final String key,
-      final boolean nonzeroFragmentVisited) {
-    if (value == null) {
-      return nonzeroFragmentVisited;
-    }
-    if (nonzeroFragmentVisited || (value.longValue() > 0)) {
-      rval.append(value.longValue()).append(key);
-      return true;
-    }
-    return false;
+  /**
+   * Simple constructor.
+   */
+  public DurationFormatter() {
+    this(ComponentAccessor.getApplicationProperties()
+        .getDefaultBackedString(APKeys.JIRA_TIMETRACKING_FORMAT),
+        ComponentAccessor.getComponent(TimeTrackingConfiguration.class).getHoursPerDay()
+            .doubleValue(),
+        ComponentAccessor.getComponent(TimeTrackingConfiguration.class).getDaysPerWeek()
+            .doubleValue(),
+        ComponentAccessor.getJiraAuthenticationContext().getI18nHelper());
   }
 
-  private String buildFromFragments(final boolean needsTilde) {
-    StringBuilder rval = new StringBuilder(needsTilde ? "~" : "");
-    boolean nonzeroFragmentVisited = false;
-    nonzeroFragmentVisited = appendValue(rval, fragments.get(WEEK), WEEK, nonzeroFragmentVisited);
-    nonzeroFragmentVisited = appendValue(rval, fragments.get(DAY), DAY, nonzeroFragmentVisited);
-    nonzeroFragmentVisited = appendValue(rval, fragments.get(HOUR), HOUR, nonzeroFragmentVisited);
-    nonzeroFragmentVisited = appendValue(rval, fragments.get(MIN), MIN, nonzeroFragmentVisited);
-    if (nonzeroFragmentVisited) {
-      return rval.toString().trim();
+  private DurationFormatter(final String timeFormat, final double workHoursPerDay,
+      final double workDaysPerWeek, final I18nHelper i18nHelper) {
+    this.workHoursPerDay = workHoursPerDay;
+    this.workDaysPerWeek = workDaysPerWeek;
+    prettyFormat = TimeFormat.PRETTY.equals(timeFormat);
+    if (TimeFormat.DAYS.equals(timeFormat)) {
+      exactFormatter = new DaysDurationFormatter(
+          new BigDecimal(workHoursPerDay).setScale(2, RoundingMode.HALF_UP), i18nHelper);
+    } else if (TimeFormat.HOURS.equals(timeFormat)) {
+      exactFormatter = new HoursDurationFormatter(i18nHelper);
     } else {
-      return "0m";
+      exactFormatter = new PrettyDurationFormatter(
+          new BigDecimal(workHoursPerDay).setScale(2, RoundingMode.HALF_UP),
+          new BigDecimal(workDaysPerWeek).setScale(2, RoundingMode.HALF_UP), i18nHelper);
     }
   }
 
-  private String buildRoundedEstimateString(final int firstNonzeroIdx, final int lastNonzeroIdx) {
-    LinkedHashMap<String, Long> truncatedFragments = new LinkedHashMap<>();
-    int handledFragmentCount = 0;
-    boolean needsTilde = false;
-    needsTilde = needsTildeValue(firstNonzeroIdx, lastNonzeroIdx, truncatedFragments,
-        handledFragmentCount, needsTilde, fragments.get(WEEK), WEEK);
-    handledFragmentCount =
-        fragmentCount(firstNonzeroIdx, lastNonzeroIdx, handledFragmentCount, WEEKIDX);
-    needsTilde = needsTildeValue(firstNonzeroIdx, lastNonzeroIdx, truncatedFragments,
-        handledFragmentCount, needsTilde, fragments.get(DAY), DAY);
-    handledFragmentCount =
-        fragmentCount(firstNonzeroIdx, lastNonzeroIdx, handledFragmentCount, DAYIDX);
-    needsTilde = needsTildeValue(firstNonzeroIdx, lastNonzeroIdx, truncatedFragments,
-        handledFragmentCount, needsTilde, fragments.get(HOUR), HOUR);
-    handledFragmentCount =
-        fragmentCount(firstNonzeroIdx, lastNonzeroIdx, handledFragmentCount, HOURIDX);
-    needsTilde = needsTildeValue(firstNonzeroIdx, lastNonzeroIdx, truncatedFragments,
-        handledFragmentCount, needsTilde, fragments.get(MIN), MIN);
-    fragments = truncatedFragments;
-    return buildFromFragments(needsTilde);
-  }
-
-  private String calculateFormattedRemaining() {
-    constructFragmentsOfRemainingEstimate();
-    int firstNonzeroIdx = -1;
-    int lastNonzeroIdx = 0;
-    if (fragments.get(WEEK).longValue() != 0) {
-      if (firstNonzeroIdx == -1) {
-        firstNonzeroIdx = WEEKIDX;
-      }
-      lastNonzeroIdx = WEEKIDX;
-    }
-    if (fragments.get(DAY).longValue() != 0) {
-      if (firstNonzeroIdx == -1) {
-        firstNonzeroIdx = DAYIDX;
-      }
-      lastNonzeroIdx = DAYIDX;
-    }
-    if (fragments.get(HOUR).longValue() != 0) {
-      if (firstNonzeroIdx == -1) {
-        firstNonzeroIdx = HOURIDX;
-      }
-      lastNonzeroIdx = HOURIDX;
-    }
-    if (fragments.get(MIN).longValue() != 0) {
-      if (firstNonzeroIdx == -1) {
-        firstNonzeroIdx = MINIDX;
-      }
-      lastNonzeroIdx = MINIDX;
+  /**
+   * Append the seconds in jira rounded format (1h 30m) to the builder.
+   *
+   * @param builder
+   *          the builder to append to.
+   * @param durationInSeconds
+   *          dutation in seconds.
+   * @return the builder.
+   */
+  public StringBuilder appendRoundedDuration(final StringBuilder builder,
+      final long durationInSeconds) {
+    if (!prettyFormat) {
+      return builder.append(exactFormatter.shortFormat(durationInSeconds));
     }
-    lastNonzeroIdx = Math.max(lastNonzeroIdx, firstNonzeroIdx + 1);
-    return buildRoundedEstimateString(firstNonzeroIdx, lastNonzeroIdx);
-  }
-
-  private void constructFragmentsOfRemainingEstimate() {
     long estimate = durationInSeconds / DateTimeConverterUtil.MINUTES_PER_HOUR;
     double weekInMin =
         workDaysPerWeek * workHoursPerDay * DateTimeConverterUtil.MINUTES_PER_HOUR;
@@ -204,10 +216,46 @@ public class DurationFormatter implements Serializable {
     estimate %= dayInMin;
     long hours = estimate / DateTimeConverterUtil.MINUTES_PER_HOUR;
     long minutes = estimate % DateTimeConverterUtil.MINUTES_PER_HOUR;
-    fragments.put("w ", weeks);
-    fragments.put("d ", days);
-    fragments.put("h ", hours);
-    fragments.put("m ", minutes);
+
+    int firstNonzeroIdx = -1;
+    int lastNonzeroIdx = 0;
+    for (int idx = 0; idx <= MINIDX; idx++) {
+      if (fragment(idx, weeks, days, hours, minutes) != 0) {
+        if (firstNonzeroIdx == -1) {
+          firstNonzeroIdx = idx;
+        }
+        lastNonzeroIdx = idx;
+      }
+    }
+    lastNonzeroIdx = Math.min(Math.max(lastNonzeroIdx, firstNonzeroIdx + 1), MINIDX);
+
+    // Only the first two fragments of the nonzero range are shown, the rest is marked by tilde.
+    int start = builder.length();
+    builder.append('~');
+    boolean needsTilde = false;
+    boolean nonzeroFragmentVisited = false;
+    for (int idx = Math.max(firstNonzeroIdx, 0); idx <= lastNonzeroIdx; idx++) {
+      long value = fragment(idx, weeks, days, hours, minutes);
+      if (value > 0) {
+        if ((idx - firstNonzeroIdx) < 2) {
+          if (nonzeroFragmentVisited) {
+            builder.append(' ');
+          }
+          builder.append(value).append(FRAGMENT_UNITS[idx]);
+          nonzeroFragmentVisited = true;
+        } else {
+          needsTilde = true;
+        }
+      }
+    }
+    if (!nonzeroFragmentVisited) {
+      builder.setLength(start);
+      return builder.append("0m");
+    }
+    if (!needsTilde) {
+      builder.deleteCharAt(start);
+    }
+    return builder;
   }
 
   /**
@@ -218,40 +266,20 @@ public class DurationFormatter implements Serializable {
    * @return the formatted duration string.
    */
   public String exactDuration(final long durationInSeconds) {
-    this.durationInSeconds = durationInSeconds;
-
-    com.atlassian.jira.util.JiraDurationUtils.DurationFormatter formatter = null;
-    if (TimeFormat.DAYS.equals(timeFormat)) {
-      formatter = daysDurationFormatter;
-    } else if (TimeFormat.HOURS.equals(timeFormat)) {
-      formatter = hoursDurationFormatter;
-    } else {
-      formatter = prettyDurationFormatter;
-    }
-    return formatter.shortFormat(durationInSeconds);
-  }
-
-  private int fragmentCount(final int firstNonzeroIdx, final int lastNonzeroIdx,
-      final int handledFragmentCount, final int idx) {
-    int count = handledFragmentCount;
-    if ((firstNonzeroIdx <= idx) && (idx <= lastNonzeroIdx)) {
-      ++count;
-    }
-    return count;
+    return exactFormatter.shortFormat(durationInSeconds);
   }
 
-  private int getIdx(final String key) {
-    switch (key) {
-      case WEEK:
-        return WEEKIDX;
-      case DAY:
-        return DAYIDX;
-      case HOUR:
-        return HOURIDX;
-      case MIN:
-        return MINIDX;
+  private long fragment(final int idx, final long weeks, final long days, final long hours,
+      final long minutes) {
+    switch (idx) {
+      case 0:
+        return weeks;
+      case 1:
+        return days;
+      case 2:
+        return hours;
       default:
-        return -1;
+        return minutes;
     }
   }
 
@@ -269,26 +297,7 @@ public class DurationFormatter implements Serializable {
   }
 
   private String industryFormat(final double hours) {
-    DecimalFormat df = new DecimalFormat("#.#");
-    df.setRoundingMode(RoundingMode.FLOOR);
-    return df.format(hours) + "h";
-  }
-
-  private boolean needsTildeValue(final int firstNonzeroIdx, final int lastNonzeroIdx,
-      final LinkedHashMap<String, Long> truncatedFragments,
-      final int handledFragmentCount,
-      final boolean needsTilde, final Long value, final String key) {
-    boolean tilde = needsTilde;
-    long longValue = value.longValue();
-    int idx = getIdx(key);
-    if ((firstNonzeroIdx <= idx) && (idx <= lastNonzeroIdx) && (longValue > 0)) {
-      if (handledFragmentCount < 2) {
-        truncatedFragments.put(key, value);
-      } else {
-        tilde = true;
-      }
-    }
-    return tilde;
+    return INDUSTRY_FORMAT.get().format(hours) + "h";
   }
 
   private void readObject(final java.io.ObjectInputStream stream) throws IOException,
@@ -305,13 +314,10 @@ public class DurationFormatter implements Serializable {
    * @return the formatted duration string.
    */
   public String roundedDuration(final long durationInSeconds) {
-    this.durationInSeconds = durationInSeconds;
-    if (TimeFormat.PRETTY.equals(timeFormat)) {
-      constructFragmentsOfRemainingEstimate();
-      return calculateFormattedRemaining();
-    } else {
+    if (!prettyFormat) {
       return exactDuration(durationInSeconds);
     }
+    return appendRoundedDuration(new StringBuilder(), durationInSeconds).toString();
   }
 
   /**
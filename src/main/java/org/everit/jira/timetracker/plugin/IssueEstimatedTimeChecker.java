@@ -22,8 +22,8 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 
+import org.everit.jira.core.util.IssueKeyMatcher;
 import org.everit.jira.core.util.TimetrackerUtil;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.ofbiz.core.entity.EntityCondition;
@@ -121,12 +121,13 @@ public class IssueEstimatedTimeChecker implements Runnable {
       Long issueId = Long.valueOf(worklogGv.getString("issue"));
       issueIdSet.add(issueId);
     }
-    List<Pattern> issuePatterns = settingsHelper.loadGlobalSettings().getIssuePatterns();
+    IssueKeyMatcher collectorIssueMatcher =
+        settingsHelper.loadGlobalSettings().getCollectorIssueMatcher();
     IssueManager issueManager = ComponentAccessor.getIssueManager();
     for (Long issueId : issueIdSet) {
       MutableIssue issueObject = issueManager.getIssueObject(issueId);
-      if (!TimetrackerUtil.checkIssueEstimatedTime(issueObject,
-          issuePatterns)) {
+      if (!TimetrackerUtil.checkIssueEstimatedTimeByMatcher(issueObject,
+          collectorIssueMatcher)) {
         // send mail
         sendNotificationEmail(issueObject.getReporterUser().getEmailAddress(), issueObject
             .getProjectObject()
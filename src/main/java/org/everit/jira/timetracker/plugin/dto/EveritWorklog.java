@@ -23,26 +23,32 @@ import java.io.Serializable;
 import java.text.ParseException;
 import java.util.Date;
 
-import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.dto.WorklogDTO;
+import org.everit.jira.core.util.TimetrackerUtil;
+import org.everit.jira.core.util.WorklogPermissionEvaluator;
 import org.everit.jira.timetracker.plugin.DurationFormatter;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.ofbiz.core.entity.GenericValue;
 
 import com.atlassian.jira.avatar.Avatar;
 import com.atlassian.jira.component.ComponentAccessor;
-import com.atlassian.jira.issue.IssueManager;
 import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.issue.status.category.StatusCategory;
 import com.atlassian.jira.issue.worklog.Worklog;
-import com.atlassian.jira.permission.ProjectPermissions;
-import com.atlassian.jira.security.PermissionManager;
-import com.atlassian.jira.user.ApplicationUser;
 
 /**
- * The Everit Worklog.
+ * The Everit Worklog. The date, the spent time and the remaining estimate are stored as primitives
+ * and their display strings are formatted at the first access.
  */
 public class EveritWorklog implements Serializable {
 
+  /**
+   * The remaining estimate value of the worklogs without remaining estimate.
+   */
+  private static final long NO_REMAINING = -1L;
+
   /**
    * Serial version UID.
    */
@@ -53,7 +59,10 @@ public class EveritWorklog implements Serializable {
    */
   private String body;
 
-  private DateTimeServer date;
+  /**
+   * The start date in user time zone as {@link Date} milliseconds.
+   */
+  private long dateInMillis;
 
   private int dayNo;
 
@@ -73,6 +82,11 @@ public class EveritWorklog implements Serializable {
 
   private String exactRemaining;
 
+  /**
+   * The spent time is formatted as "HH:mm" time instead of JIRA duration.
+   */
+  private boolean fixFormatDuration;
+
   /**
    * The issue closed.
    */
@@ -116,6 +130,11 @@ public class EveritWorklog implements Serializable {
 
   private int monthNo;
 
+  /**
+   * Remaining time on the issue in seconds or {@link #NO_REMAINING}.
+   */
+  private long remainingInSeconds = NO_REMAINING;
+
   /**
    * Remaining time on the issue.
    */
@@ -150,20 +169,22 @@ public class EveritWorklog implements Serializable {
    */
   public EveritWorklog(final GenericValue worklogGv)
       throws ParseException, IllegalArgumentException {
-    worklogId = worklogGv.getLong("id");
-    startTime = worklogGv.getString("startdate");
-    date = DateTimeServer.getInstanceBasedOnSystemTimeZone(
-        DateTimeConverterUtil.stringToDateAndTime(startTime).getTime());
-    startTime =
-        DateTimeConverterUtil.dateTimeToString(date.getUserTimeZoneDate());
-    startDate =
-        DateTimeConverterUtil.dateToString(date.getUserTimeZoneDate());
-    weekNo = date.getUserTimeZone().getWeekOfWeekyear();
-    monthNo = date.getUserTimeZone().getMonthOfYear() + 1;
-    dayNo = date.getUserTimeZone().getDayOfYear();
-    issueId = Long.valueOf(worklogGv.getString("issue"));
-    IssueManager issueManager = ComponentAccessor.getIssueManager();
-    MutableIssue issueObject = issueManager.getIssueObject(issueId);
+    this(worklogGv.getLong("id"),
+        DateTimeConverterUtil.stringToDateAndTime(worklogGv.getString("startdate")).getTime(),
+        Long.valueOf(worklogGv.getString("issue")),
+        worklogGv.getString("body"),
+        worklogGv.getLong("timeworked").longValue(),
+        ComponentAccessor.getIssueManager()
+            .getIssueObject(Long.valueOf(worklogGv.getString("issue"))),
+        WorklogPermissionEvaluator.createForLoggedInUser());
+  }
+
+  private EveritWorklog(final Long worklogId, final long startDateInMillis, final Long issueId,
+      final String body, final long timeSpentInSec, final MutableIssue issueObject,
+      final WorklogPermissionEvaluator permissionEvaluator) {
+    this.worklogId = worklogId;
+    initDate(startDateInMillis);
+    this.issueId = issueId;
     issue = issueObject.getKey();
     issueSummary = issueObject.getSummary();
     if (StatusCategory.COMPLETE
@@ -187,28 +208,36 @@ public class EveritWorklog implements Serializable {
       // fix issueObject.getEstimate(); null or negative value problem.
       issueEstimate = 0L;
     }
-    body = worklogGv.getString("body");
-    if (body == null) {
-      body = "";
-    }
-    DurationFormatter durationFormatter = new DurationFormatter();
-    long timeSpentInSec = worklogGv.getLong("timeworked").longValue();
+    remainingInSeconds = issueEstimate;
+    this.body = body == null ? "" : body;
     milliseconds = timeSpentInSec
         * DateTimeConverterUtil.MILLISECONDS_PER_SECOND;
-    duration = durationFormatter.exactDuration(timeSpentInSec);
-    endTime = DateTimeConverterUtil.countEndTime(startTime, milliseconds);
 
-    roundedRemaining = durationFormatter.roundedDuration(issueEstimate);
-    exactRemaining = durationFormatter.exactDuration(issueEstimate);
+    deleteOwnWorklogs = permissionEvaluator.canDeleteOwnWorklogs(issueObject);
+    editOwnWorklogs = permissionEvaluator.canEditOwnWorklogs(issueObject);
+  }
 
-    PermissionManager permissionManager = ComponentAccessor.getPermissionManager();
-    ApplicationUser loggedUser = ComponentAccessor.getJiraAuthenticationContext().getUser();
-    deleteOwnWorklogs =
-        permissionManager.hasPermission(ProjectPermissions.DELETE_OWN_WORKLOGS, issueObject,
-            loggedUser);
-    editOwnWorklogs =
-        permissionManager.hasPermission(ProjectPermissions.EDIT_OWN_WORKLOGS, issueObject,
-            loggedUser);
+  /**
+   * Constructor with a visible worklog row and the already loaded issue of the worklog.
+   *
+   * @param worklogDTO
+   *          the worklog row.
+   * @param issueObject
+   *          the issue of the worklog.
+   * @param permissionEvaluator
+   *          the request scoped {@link WorklogPermissionEvaluator} of the logged user.
+   * @throws IllegalArgumentException
+   *           If can't parse the date.
+   */
+  public EveritWorklog(final WorklogDTO worklogDTO, final MutableIssue issueObject,
+      final WorklogPermissionEvaluator permissionEvaluator) throws IllegalArgumentException {
+    this(worklogDTO.getWorklogId(),
+        worklogDTO.getStartDate().getTime(),
+        worklogDTO.getIssueId(),
+        worklogDTO.getBody(),
+        worklogDTO.getTimeWorked().longValue(),
+        issueObject,
+        permissionEvaluator);
   }
 
   /**
@@ -221,14 +250,7 @@ public class EveritWorklog implements Serializable {
    */
   public EveritWorklog(final Worklog worklog) throws IllegalArgumentException {
     worklogId = worklog.getId();
-    date = DateTimeServer.getInstanceBasedOnSystemTimeZone(worklog.getStartDate().getTime());
-    startTime =
-        DateTimeConverterUtil.dateTimeToString(date.getUserTimeZoneDate());
-    startDate =
-        DateTimeConverterUtil.dateToString(date.getUserTimeZoneDate());
-    weekNo = date.getUserTimeZone().getWeekOfWeekyear();
-    monthNo = date.getUserTimeZone().getMonthOfYear() + 1;
-    dayNo = date.getUserTimeZone().getDayOfYear();
+    initDate(worklog.getStartDate().getTime());
     issue = worklog.getIssue().getKey();
     issueSummary = worklog.getIssue().getSummary();
     body = worklog.getComment();
@@ -238,8 +260,7 @@ public class EveritWorklog implements Serializable {
     long timeSpentInSec = worklog.getTimeSpent().longValue();
     milliseconds = timeSpentInSec
         * DateTimeConverterUtil.MILLISECONDS_PER_SECOND;
-    duration = DateTimeConverterUtil.dateTimeToStringWithFixFormat(new Date(milliseconds));
-    endTime = DateTimeConverterUtil.countEndTime(startTime, milliseconds);
+    fixFormatDuration = true;
   }
 
   public String getBody() {
@@ -247,22 +268,43 @@ public class EveritWorklog implements Serializable {
   }
 
   public Date getDate() {
-    return date.getUserTimeZoneDate();
+    return new Date(dateInMillis);
   }
 
   public int getDayNo() {
     return dayNo;
   }
 
+  /**
+   * Give back the formatted spent time.
+   */
   public String getDuration() {
+    if (duration == null) {
+      long timeSpentInSec = milliseconds / DateTimeConverterUtil.MILLISECONDS_PER_SECOND;
+      duration = fixFormatDuration
+          ? DateTimeConverterUtil.dateTimeToStringWithFixFormat(new Date(milliseconds))
+          : DurationFormatter.getInstance().exactDuration(timeSpentInSec);
+    }
     return duration;
   }
 
+  /**
+   * Give back the formatted end time.
+   */
   public String getEndTime() {
+    if (endTime == null) {
+      endTime = DateTimeConverterUtil.countEndTime(getStartTime(), milliseconds);
+    }
     return endTime;
   }
 
+  /**
+   * Give back the formatted exact remaining time or <code>null</code> if not available.
+   */
   public String getExactRemaining() {
+    if ((exactRemaining == null) && (remainingInSeconds != NO_REMAINING)) {
+      exactRemaining = DurationFormatter.getInstance().exactDuration(remainingInSeconds);
+    }
     return exactRemaining;
   }
 
@@ -306,15 +348,33 @@ public class EveritWorklog implements Serializable {
     return monthNo;
   }
 
+  /**
+   * Give back the formatted rounded remaining time or <code>null</code> if not available.
+   */
   public String getRoundedRemaining() {
+    if ((roundedRemaining == null) && (remainingInSeconds != NO_REMAINING)) {
+      roundedRemaining = DurationFormatter.getInstance().roundedDuration(remainingInSeconds);
+    }
     return roundedRemaining;
   }
 
+  /**
+   * Give back the formatted start date.
+   */
   public String getStartDate() {
+    if (startDate == null) {
+      startDate = DateTimeConverterUtil.dateToString(getDate());
+    }
     return startDate;
   }
 
+  /**
+   * Give back the formatted start time.
+   */
   public String getStartTime() {
+    if (startTime == null) {
+      startTime = DateTimeConverterUtil.dateTimeToString(getDate());
+    }
     return startTime;
   }
 
@@ -326,6 +386,16 @@ public class EveritWorklog implements Serializable {
     return worklogId;
   }
 
+  private void initDate(final long systemTimeZoneInMillis) {
+    DateTime userTimeZone = DateTimeConverterUtil.convertDateZoneToUserTimeZone(
+        new DateTime(systemTimeZoneInMillis)
+            .withZoneRetainFields(TimetrackerUtil.getSystemTimeZone()));
+    dateInMillis = DateTimeConverterUtil.convertDateTimeToDate(userTimeZone).getTime();
+    weekNo = userTimeZone.getWeekOfWeekyear();
+    monthNo = userTimeZone.getMonthOfYear() + 1;
+    dayNo = userTimeZone.getDayOfYear();
+  }
+
   public boolean isDeleteOwnWorklogs() {
     return deleteOwnWorklogs;
   }
@@ -345,7 +415,8 @@ public class EveritWorklog implements Serializable {
   }
 
   public void setDate(final Date date) {
-    this.date = DateTimeServer.getInstanceBasedOnUserTimeZone(date.getTime());
+    dateInMillis = DateTimeConverterUtil
+        .convertDateTimeToDate(new DateTime(date.getTime(), DateTimeZone.UTC)).getTime();
   }
 
   public void setDayNo(final int dayNo) {
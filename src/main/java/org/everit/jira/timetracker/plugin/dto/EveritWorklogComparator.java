@@ -17,7 +17,6 @@ package org.everit.jira.timetracker.plugin.dto;
 
 import java.io.Serializable;
 import java.util.Comparator;
-import java.util.Date;
 
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 
@@ -44,27 +43,20 @@ public final class EveritWorklogComparator implements Comparator<EveritWorklog>,
    */
   @Override
   public int compare(final EveritWorklog o1, final EveritWorklog o2) {
-    Date o1StartDate = null;
-    Date o2StartDate = null;
+    int result;
     try {
-      o1StartDate = DateTimeConverterUtil.stringTimeToDateTime(o1.getStartTime());
-      o2StartDate = DateTimeConverterUtil.stringTimeToDateTime(o2.getStartTime());
+      result = DateTimeConverterUtil.compareTimes(o1.getStartTime(), o2.getStartTime());
     } catch (IllegalArgumentException e) {
       throw new IllegalArgumentException("Faild to convert startDate to Date", e);
     }
-    int result = o1StartDate.compareTo(o2StartDate);
     if (result != 0) {
       return result;
     }
-    Date o1EndDate = null;
-    Date o2EndDate = null;
     try {
-      o1EndDate = DateTimeConverterUtil.stringTimeToDateTime(o1.getEndTime());
-      o2EndDate = DateTimeConverterUtil.stringTimeToDateTime(o2.getEndTime());
+      return DateTimeConverterUtil.compareTimes(o1.getEndTime(), o2.getEndTime());
     } catch (IllegalArgumentException e) {
       throw new IllegalArgumentException("Faild to convert endDate to Date", e);
     }
-    return o1EndDate.compareTo(o2EndDate);
   }
 
 }
@@ -19,16 +19,22 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 
 import org.everit.jira.core.SupportManager;
 import org.everit.jira.core.TimetrackerManager;
 import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.util.IssueKeyMatcher;
+import org.everit.jira.core.util.WorkdayCalendar;
+import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.everit.jira.timetracker.plugin.DurationFormatter;
 import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
 
 import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
 import com.atlassian.jira.component.ComponentAccessor;
@@ -43,7 +49,6 @@ public final class SummaryDTO {
   /**
    * Builder class to create {@link SummaryDTO} object.
    */
-  // TODO WRITE tests for this class
   public static class SummaryDTOBuilder {
 
     private static final long HUNDRED = 100;
@@ -64,14 +69,14 @@ public final class SummaryDTO {
 
     private final Set<DateTime> includeDatesAsSet;
 
-    private final List<Pattern> issuePatterns;
-
     private double monthExpectedWorkSeconds;
 
     private Long monthFilteredSummaryInSecond;
 
     private long monthSummaryInSecounds;
 
+    private final IssueKeyMatcher nonWorkingIssueMatcher;
+
     private final SupportManager supportManager;
 
     private final TimetrackerManager timetrackerManager;
@@ -84,6 +89,8 @@ public final class SummaryDTO {
 
     private long weekSummaryInSecond;
 
+    private final WorkdayCalendar workdayCalendar;
+
     /**
      * Simple constructor.
      *
@@ -96,27 +103,23 @@ public final class SummaryDTO {
      * @param date
      *          the date of selected day. We use the create day summary and we use to date of exime
      *          week and month.
-     * @param excludeDatesAsSet
-     *          the set of excludes dates from timetracker configuration.
-     * @param includeDatesAsSet
-     *          the set of include dates from timetracker configuration.
-     * @param issuePatterns
-     *          the list of issue patterns from timetracker configuration.
+     * @param globalSettings
+     *          the timetracker configuration with the exclude and include dates and the non
+     *          working issue patterns.
      */
     public SummaryDTOBuilder(final TimeTrackingConfiguration timeTrackingConfiguration,
         final TimetrackerManager timetrackerManager,
         final SupportManager supportManager,
         final DateTimeServer date,
-        final Set<DateTime> excludeDatesAsSet,
-        final Set<DateTime> includeDatesAsSet,
-        final List<Pattern> issuePatterns) {
-      durationFormatter = new DurationFormatter();
+        final TimeTrackerGlobalSettings globalSettings) {
+      durationFormatter = DurationFormatter.getInstance();
       this.timeTrackingConfiguration = timeTrackingConfiguration;
       this.supportManager = supportManager;
       this.timetrackerManager = timetrackerManager;
-      this.excludeDatesAsSet = excludeDatesAsSet;
-      this.includeDatesAsSet = includeDatesAsSet;
-      this.issuePatterns = issuePatterns;
+      excludeDatesAsSet = globalSettings.getExcludeDates();
+      includeDatesAsSet = globalSettings.getIncludeDates();
+      nonWorkingIssueMatcher = globalSettings.getNonWorkingIssueMatcher();
+      workdayCalendar = globalSettings.getWorkdayCalendar();
       this.date = date;
     }
 
@@ -184,53 +187,80 @@ public final class SummaryDTO {
         dayIndex.add(Calendar.DAY_OF_MONTH, 1);
       }
       double realWorkDaysInWeek = timetrackerManager.countRealWorkDaysInWeek(weekdays,
-          excludeDatesAsSet, includeDatesAsSet);
+          workdayCalendar);
       return realWorkDaysInWeek * expectedWorkSecondsInDay;
     }
 
-    private void calculateFilteredAndNotFilteredSummarySeconds(final DateTimeServer date,
-        final List<Pattern> issuesRegex) {
+    private void calculateFilteredAndNotFilteredSummarySeconds(final DateTimeServer date) {
       DateTime currentDayStart = DateTimeConverterUtil.setDateToDayStart(date.getUserTimeZone());
       Calendar currentStartCalendar = createNewCalendarWithWeekStart();
       currentStartCalendar.setTime(currentDayStart.toDate());
       currentStartCalendar.setTimeZone(date.getUserTimeZone().getZone().toTimeZone());
 
-      // calculate day summary
-      DateTime startDateTime = currentDayStart.toDateTime();
-      DateTime endDateTime = startDateTime.plusDays(1);
-      daySummaryInSeconds = supportManager.summary(
-          startDateTime.toDate(), endDateTime.toDate(), null);
-      if (isIssuePatternsNotEmpty()) {
-        dayFilteredSummaryInSecond = supportManager.summary(
-            startDateTime.toDate(), endDateTime.toDate(), issuesRegex);
-      }
-      // calculate weeksummary
-      Calendar weekStart = (Calendar) currentStartCalendar.clone();
-      while (weekStart.get(Calendar.DAY_OF_WEEK) != weekStart.getFirstDayOfWeek()) {
-        weekStart.add(Calendar.DATE, -1); // Substract 1 day until first day of week.
-      }
-      startDateTime = new DateTime(weekStart.getTimeInMillis());
-      endDateTime = startDateTime.plusDays(DateTimeConverterUtil.DAYS_PER_WEEK);
-
-      weekSummaryInSecond =
-          supportManager.summary(startDateTime.toDate(), endDateTime.toDate(), null);
-      if (isIssuePatternsNotEmpty()) {
-        weekFilteredSummaryInSecond = supportManager.summary(
-            startDateTime.toDate(), endDateTime.toDate(), issuesRegex);
+      // day interval
+      long dayStart = currentDayStart.getMillis();
+      long dayEnd = currentDayStart.plusDays(1).getMillis();
+      // week interval
+      Calendar weekStartCalendar = (Calendar) currentStartCalendar.clone();
+      while (weekStartCalendar.get(Calendar.DAY_OF_WEEK) != weekStartCalendar
+          .getFirstDayOfWeek()) {
+        weekStartCalendar.add(Calendar.DATE, -1); // Substract 1 day until first day of week.
       }
-      // calculate month summary
-      startDateTime = currentDayStart.withDayOfMonth(1);
-
+      DateTime weekStartDateTime =
+          new DateTime(weekStartCalendar.getTimeInMillis(), currentDayStart.getZone());
+      long weekStart = weekStartDateTime.getMillis();
+      long weekEnd = weekStartDateTime.plusDays(DateTimeConverterUtil.DAYS_PER_WEEK).getMillis();
+      // month interval
+      long monthStart = currentDayStart.withDayOfMonth(1).getMillis();
       Calendar monthEndCalendar = (Calendar) currentStartCalendar.clone();
       monthEndCalendar.set(Calendar.DAY_OF_MONTH,
           monthEndCalendar.getActualMaximum(Calendar.DAY_OF_MONTH));
       monthEndCalendar.add(Calendar.DAY_OF_MONTH, 1);
-      endDateTime = new DateTime(monthEndCalendar.getTimeInMillis());
-      monthSummaryInSecounds =
-          supportManager.summary(startDateTime.toDate(), endDateTime.toDate(), null);
-      if (isIssuePatternsNotEmpty()) {
-        monthFilteredSummaryInSecond =
-            supportManager.summary(startDateTime.toDate(), endDateTime.toDate(), issuesRegex);
+      long monthEnd = monthEndCalendar.getTimeInMillis();
+
+      // the days of the month extended to the whole week
+      DateTimeZone userTimeZone = currentDayStart.getZone();
+      LocalDate firstDay = new LocalDate(Math.min(weekStart, monthStart), userTimeZone);
+      int numberOfDays = Days.daysBetween(firstDay,
+          new LocalDate(Math.max(weekEnd, monthEnd), userTimeZone)).getDays();
+      List<Map<String, Long>> dailyWorklogTimes =
+          supportManager.getDailyWorklogTimes(firstDay.toDateTimeAtStartOfDay(userTimeZone),
+              numberOfDays);
+
+      boolean filtered = isIssuePatternsNotEmpty();
+      long dayFilteredSummary = 0;
+      long weekFilteredSummary = 0;
+      long monthFilteredSummary = 0;
+      daySummaryInSeconds = 0;
+      weekSummaryInSecond = 0;
+      monthSummaryInSecounds = 0;
+      for (int i = 0; i < numberOfDays; i++) {
+        long startDate = firstDay.plusDays(i).toDateTimeAtStartOfDay(userTimeZone).getMillis();
+        long timeWorked = 0;
+        long realTimeWorked = 0;
+        for (Map.Entry<String, Long> worklogTime : dailyWorklogTimes.get(i).entrySet()) {
+          timeWorked += worklogTime.getValue();
+          if (!nonWorkingIssueMatcher.matches(worklogTime.getKey())) {
+            realTimeWorked += worklogTime.getValue();
+          }
+        }
+        if ((startDate >= dayStart) && (startDate < dayEnd)) {
+          daySummaryInSeconds += timeWorked;
+          dayFilteredSummary += realTimeWorked;
+        }
+        if ((startDate >= weekStart) && (startDate < weekEnd)) {
+          weekSummaryInSecond += timeWorked;
+          weekFilteredSummary += realTimeWorked;
+        }
+        if ((startDate >= monthStart) && (startDate < monthEnd)) {
+          monthSummaryInSecounds += timeWorked;
+          monthFilteredSummary += realTimeWorked;
+        }
+      }
+      if (filtered) {
+        dayFilteredSummaryInSecond = dayFilteredSummary;
+        weekFilteredSummaryInSecond = weekFilteredSummary;
+        monthFilteredSummaryInSecond = monthFilteredSummary;
       }
     }
 
@@ -318,7 +348,7 @@ public final class SummaryDTO {
      * Creates {@link SummaryDTO} object.
      */
     public SummaryDTO createSummaryDTO() {
-      calculateFilteredAndNotFilteredSummarySeconds(date, issuePatterns);
+      calculateFilteredAndNotFilteredSummarySeconds(date);
 
       double hoursPerDay = timeTrackingConfiguration.getHoursPerDay().doubleValue();
       dayExpectedWorkSeconds = hoursPerDay * SECOND_IN_HOUR;
@@ -461,7 +491,7 @@ public final class SummaryDTO {
     }
 
     private boolean isIssuePatternsNotEmpty() {
-      return (issuePatterns != null) && !issuePatterns.isEmpty();
+      return !nonWorkingIssueMatcher.isEmpty();
     }
   }
 
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.timetracker.plugin.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.everit.jira.core.util.ConcurrentLruCache;
+import org.joda.time.DateTimeZone;
+import org.joda.time.MutableDateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+/**
+ * Registry of the immutable and thread-safe date formatters by pattern, locale and time zone. The
+ * {@link SimpleDateFormat} patterns (for example the Jira date patterns) are translated to
+ * Joda-Time patterns if all letters have the same meaning, otherwise a thread confined
+ * {@link SimpleDateFormat} is used.
+ */
+public final class DateFormatterRegistry {
+
+  /**
+   * The key of the registered formatters. The locale and the zone may be <code>null</code>.
+   */
+  private static final class FormatterKey {
+
+    private final int hashCode;
+
+    private final Locale locale;
+
+    private final String pattern;
+
+    private final DateTimeZone zone;
+
+    FormatterKey(final String pattern, final Locale locale, final DateTimeZone zone) {
+      this.pattern = pattern;
+      this.locale = locale;
+      this.zone = zone;
+      int result = pattern.hashCode();
+      result = (PRIME * result) + (locale == null ? 0 : locale.hashCode());
+      result = (PRIME * result) + (zone == null ? 0 : zone.hashCode());
+      hashCode = result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof FormatterKey)) {
+        return false;
+      }
+      FormatterKey other = (FormatterKey) obj;
+      return pattern.equals(other.pattern)
+          && (locale == null ? other.locale == null : locale.equals(other.locale))
+          && (zone == null ? other.zone == null : zone.equals(other.zone));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final int EPOCH_YEAR = 1970;
+
+  /**
+   * The maximum number of the registered formatters. The least recently used formatters are
+   * dropped if the registry grows over.
+   */
+  private static final int MAX_SIZE = 512;
+
+  private static final ConcurrentLruCache<FormatterKey, DateTimeFormatter> FORMATTERS =
+      new ConcurrentLruCache<>(MAX_SIZE);
+
+  /**
+   * The pattern letters with the same meaning in {@link SimpleDateFormat} and Joda-Time.
+   */
+  private static final String JAVA_AND_JODA_LETTERS = "GyMDdEaHkKhms";
+
+  /**
+   * The maximum number of the {@link SimpleDateFormat} instances per thread.
+   */
+  private static final int MAX_THREAD_SIZE = 16;
+
+  private static final int MILLISECOND_DIGITS = 3;
+
+  private static final int PRIME = 31;
+
+  private static final ThreadLocal<Map<FormatterKey, SimpleDateFormat>> SIMPLE_DATE_FORMATS =
+      new ThreadLocal<Map<FormatterKey, SimpleDateFormat>>() {
+        @Override
+        protected Map<FormatterKey, SimpleDateFormat> initialValue() {
+          return new LinkedHashMap<FormatterKey, SimpleDateFormat>(MAX_THREAD_SIZE, 0.75f, true) {
+
+            private static final long serialVersionUID = -7013716938296155522L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                final Map.Entry<FormatterKey, SimpleDateFormat> eldest) {
+              return size() > MAX_THREAD_SIZE;
+            }
+          };
+        }
+      };
+
+  private static void appendLetter(final StringBuilder pattern, final char letter,
+      final int count) {
+    for (int i = 0; i < count; i++) {
+      pattern.append(letter);
+    }
+  }
+
+  /**
+   * Format the instant with a {@link SimpleDateFormat} pattern.
+   *
+   * @param javaPattern
+   *          the {@link SimpleDateFormat} pattern.
+   * @param locale
+   *          the locale of the formatter or <code>null</code> for the default locale.
+   * @param zone
+   *          the zone of the formatted instant.
+   * @param millis
+   *          the instant in epoch milliseconds.
+   * @return the formatted instant.
+   */
+  public static String formatJavaPattern(final String javaPattern, final Locale locale,
+      final DateTimeZone zone, final long millis) {
+    String jodaPattern = toJodaPattern(javaPattern);
+    if (jodaPattern != null) {
+      return getFormatter(jodaPattern, locale, zone).print(millis);
+    }
+    return getSimpleDateFormat(javaPattern, locale, zone).format(new Date(millis));
+  }
+
+  /**
+   * Give back the formatter of the Joda-Time pattern. Translate the {@link SimpleDateFormat}
+   * patterns with {@link #toJodaPattern(String)}.
+   *
+   * @param pattern
+   *          the date pattern.
+   * @param locale
+   *          the locale of the formatter or <code>null</code> for the default locale.
+   * @param zone
+   *          the zone of the formatter or <code>null</code> to use the zone of the formatted
+   *          value.
+   * @return the shared formatter.
+   */
+  public static DateTimeFormatter getFormatter(final String pattern, final Locale locale,
+      final DateTimeZone zone) {
+    FormatterKey key = new FormatterKey(pattern, locale, zone);
+    DateTimeFormatter formatter = FORMATTERS.get(key);
+    if (formatter == null) {
+      formatter = DateTimeFormat.forPattern(pattern).withLocale(locale).withZone(zone);
+      FORMATTERS.put(key, formatter);
+    }
+    return formatter;
+  }
+
+  private static SimpleDateFormat getSimpleDateFormat(final String javaPattern,
+      final Locale locale, final DateTimeZone zone) {
+    FormatterKey key = new FormatterKey(javaPattern, locale, zone);
+    Map<FormatterKey, SimpleDateFormat> simpleDateFormats = SIMPLE_DATE_FORMATS.get();
+    SimpleDateFormat simpleDateFormat = simpleDateFormats.get(key);
+    if (simpleDateFormat == null) {
+      simpleDateFormat = new SimpleDateFormat(javaPattern,
+          locale == null ? Locale.getDefault() : locale);
+      simpleDateFormat.setTimeZone(zone.toTimeZone());
+      simpleDateFormats.put(key, simpleDateFormat);
+    }
+    return simpleDateFormat;
+  }
+
+  /**
+   * Parse the beginning of the text with a {@link SimpleDateFormat} pattern like
+   * {@link #parseMillis(String, DateTimeFormatter, DateTimeZone)}.
+   *
+   * @param text
+   *          the text to parse.
+   * @param javaPattern
+   *          the {@link SimpleDateFormat} pattern.
+   * @param locale
+   *          the locale of the formatter or <code>null</code> for the default locale.
+   * @param zone
+   *          the zone of the parsed date.
+   * @return the parsed date in epoch milliseconds.
+   * @throws ParseException
+   *           if the beginning of the text cannot be parsed.
+   */
+  public static long parseJavaPattern(final String text, final String javaPattern,
+      final Locale locale, final DateTimeZone zone) throws ParseException {
+    String jodaPattern = toJodaPattern(javaPattern);
+    if (jodaPattern != null) {
+      return parseMillis(text, getFormatter(jodaPattern, locale, zone), zone);
+    }
+    return getSimpleDateFormat(javaPattern, locale, zone).parse(text).getTime();
+  }
+
+  /**
+   * Parse the beginning of the text with the formatter like the
+   * {@link java.text.DateFormat#parse(String)}. The text after the parsed part is ignored, the not
+   * parsed fields are taken from 1970-01-01 00:00:00.000 in the zone.
+   *
+   * @param text
+   *          the text to parse.
+   * @param formatter
+   *          the formatter.
+   * @param zone
+   *          the zone of the parsed date.
+   * @return the parsed date in epoch milliseconds.
+   * @throws ParseException
+   *           if the beginning of the text cannot be parsed or contains invalid field value.
+   */
+  public static long parseMillis(final String text, final DateTimeFormatter formatter,
+      final DateTimeZone zone) throws ParseException {
+    MutableDateTime instant = new MutableDateTime(EPOCH_YEAR, 1, 1, 0, 0, 0, 0, zone);
+    int position;
+    try {
+      position = formatter.withZone(zone).parseInto(instant, text, 0);
+    } catch (IllegalArgumentException e) {
+      ParseException parseException = new ParseException(e.getMessage(), 0);
+      parseException.initCause(e);
+      throw parseException;
+    }
+    if (position < 0) {
+      throw new ParseException("Unparseable date: \"" + text + "\"", ~position);
+    }
+    return instant.getMillis();
+  }
+
+  /**
+   * Translate the {@link SimpleDateFormat} pattern to Joda-Time pattern.
+   *
+   * @param javaPattern
+   *          the {@link SimpleDateFormat} pattern.
+   * @return the Joda-Time pattern or <code>null</code> if the pattern has a letter that Joda-Time
+   *         does not support or formats differently (for example <code>u, F, W, X, L, w, z</code>)
+   *         or the pattern is invalid.
+   */
+  public static String toJodaPattern(final String javaPattern) {
+    int length = javaPattern.length();
+    StringBuilder jodaPattern = new StringBuilder(length);
+    int index = 0;
+    while (index < length) {
+      char letter = javaPattern.charAt(index);
+      int end = index + 1;
+      if (letter == '\'') {
+        while ((end < length) && (javaPattern.charAt(end) != '\'')) {
+          end++;
+        }
+        if (end == length) {
+          return null;
+        }
+        end++;
+        jodaPattern.append(javaPattern, index, end);
+      } else if (((letter >= 'a') && (letter <= 'z')) || ((letter >= 'A') && (letter <= 'Z'))) {
+        while ((end < length) && (javaPattern.charAt(end) == letter)) {
+          end++;
+        }
+        int count = end - index;
+        if (JAVA_AND_JODA_LETTERS.indexOf(letter) >= 0) {
+          jodaPattern.append(javaPattern, index, end);
+        } else if (letter == 'Y') {
+          // week year
+          appendLetter(jodaPattern, 'x', count);
+        } else if ((letter == 'S') && (count == MILLISECOND_DIGITS)) {
+          jodaPattern.append("SSS");
+        } else if (letter == 'Z') {
+          // RFC 822 time zone
+          jodaPattern.append('Z');
+        } else {
+          return null;
+        }
+      } else {
+        jodaPattern.append(letter);
+      }
+      index = end;
+    }
+    return jodaPattern.toString();
+  }
+
+  private DateFormatterRegistry() {
+  }
+}
@@ -16,33 +16,23 @@
 package org.everit.jira.timetracker.plugin.util;
 
 import java.sql.Timestamp;
-import java.text.DateFormat;
-import java.text.DateFormatSymbols;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.Locale;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import org.everit.jira.core.impl.DateTimeServer;
 import org.everit.jira.core.impl.WorklogComponent;
+import org.everit.jira.core.util.TimetrackerContext;
 import org.everit.jira.core.util.TimetrackerUtil;
 import org.everit.jira.timetracker.plugin.DurationFormatter;
 import org.everit.jira.timetracker.plugin.exception.WorklogException;
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
+import org.joda.time.DateTimeZone;
 
-import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.config.properties.APKeys;
-import com.atlassian.jira.config.properties.ApplicationProperties;
 import com.atlassian.jira.datetime.DateTimeFormatter;
-import com.atlassian.jira.datetime.DateTimeFormatterFactory;
 import com.atlassian.jira.datetime.DateTimeStyle;
-import com.atlassian.jira.security.JiraAuthenticationContext;
 
 /**
  * The utility class of date and time conversions.
@@ -79,10 +69,6 @@ public final class DateTimeConverterUtil {
    */
   public static final int HOUR_EIGHT = 8;
 
-  private static final int HOURS_GROUP = 8;
-
-  private static final int HOURS_GROUP_2 = 2;
-
   /**
    * The number of hours in day.
    */
@@ -107,10 +93,6 @@ public final class DateTimeConverterUtil {
    */
   public static final int MINS_IN_QUATER = 15;
 
-  private static final int MINUTES_GROUP = 6;
-
-  private static final int MINUTES_GROUP_2 = 4;
-
   /**
    * The number of minutes per hour.
    */
@@ -142,12 +124,29 @@ public final class DateTimeConverterUtil {
    * @return The new Timestamp in user TimeZone.
    */
   public static Timestamp addTimeZoneToTimestamp(final Timestamp systemTimestamp) {
-    if (systemTimestamp == null) {
-      return null;
+    return TimestampZoneConverter.forLoggedUser().convert(systemTimestamp);
+  }
+
+  /**
+   * Compare two ({@value DateTimeStyle#TIME}) time strings. The "H:mm" and "H:mm a" times are
+   * compared by minute of day, other times are parsed by {@link #stringTimeToDateTime(String)}.
+   *
+   * @param time1
+   *          the first time.
+   * @param time2
+   *          the second time.
+   * @return negative, zero or positive if the first time is before, equal or after the second.
+   */
+  public static int compareTimes(final String time1, final String time2)
+      throws IllegalArgumentException {
+    String[] amPmMarkers = TimetrackerContext.current().getAmPmMarkers();
+    int minuteOfDay1 = TimeParser.timeToMinuteOfDay(time1, amPmMarkers);
+    int minuteOfDay2 = TimeParser.timeToMinuteOfDay(time2, amPmMarkers);
+    if ((minuteOfDay1 < 0) || (minuteOfDay2 < 0)) {
+      return DateTimeConverterUtil.stringTimeToDateTime(time1)
+          .compareTo(DateTimeConverterUtil.stringTimeToDateTime(time2));
     }
-    DateTimeServer converter =
-        DateTimeServer.getInstanceBasedOnSystemTimeZone(systemTimestamp.getTime());
-    return new Timestamp(converter.getUserTimeZoneDate().getTime());
+    return Integer.compare(minuteOfDay1, minuteOfDay2);
   }
 
   /**
@@ -219,12 +218,8 @@ public final class DateTimeConverterUtil {
    * @return The result String.
    */
   public static String dateAndTimeToString(final Date dateAndTime) {
-    String dateTimeFormat =
-        DateTimeConverterUtil.getJiraDefaultDateAndTimeJavaFormat(APKeys.JIRA_LF_DATE_COMPLETE);
-    DateFormat formatterDateAndTime =
-        new SimpleDateFormat(dateTimeFormat, DateTimeConverterUtil.getLoggedUserLocal());
-    String stringDateAndTime = formatterDateAndTime.format(dateAndTime);
-    return stringDateAndTime;
+    return DateTimeConverterUtil.formatJiraDate(APKeys.JIRA_LF_DATE_COMPLETE,
+        dateAndTime.getTime());
   }
 
   /**
@@ -235,7 +230,7 @@ public final class DateTimeConverterUtil {
    * @return The result string.
    */
   public static String dateTimeToString(final Date date) {
-    DateTimeFormatter dateTimeTimeFormatter = DateTimeConverterUtil.getDateTimeTimeFormatter();
+    DateTimeFormatter dateTimeTimeFormatter = TimetrackerContext.current().getTimeFormatter();
     return dateTimeTimeFormatter.format(date);
   }
 
@@ -247,9 +242,8 @@ public final class DateTimeConverterUtil {
    * @return The result string.
    */
   public static String dateTimeToStringWithFixFormat(final Date date) {
-    DateFormat formatterDate = new SimpleDateFormat(FIX_TIME_FORMAT);
-    formatterDate.setTimeZone(TimeZone.getTimeZone("UTC"));
-    return formatterDate.format(date);
+    return DateFormatterRegistry.getFormatter(FIX_TIME_FORMAT, null, DateTimeZone.UTC)
+        .print(date.getTime());
   }
 
   /**
@@ -260,10 +254,7 @@ public final class DateTimeConverterUtil {
    * @return The result time.
    */
   public static String dateToFixFormatString(final DateTime date) {
-    org.joda.time.format.DateTimeFormatter formatterDate =
-        DateTimeFormat.forPattern(FIX_DATE_TIME_FORMAT);
-    String dateString = formatterDate.print(date);
-    return dateString;
+    return DateFormatterRegistry.getFormatter(FIX_DATE_TIME_FORMAT, null, null).print(date);
   }
 
   /**
@@ -274,12 +265,7 @@ public final class DateTimeConverterUtil {
    * @return The result time.
    */
   public static String dateToString(final Date date) {
-    String dateFormat =
-        DateTimeConverterUtil.getJiraDefaultDateAndTimeJavaFormat(APKeys.JIRA_LF_DATE_DMY);
-    DateFormat formatterDate =
-        new SimpleDateFormat(dateFormat, DateTimeConverterUtil.getLoggedUserLocal());
-    String dateString = formatterDate.format(date);
-    return dateString;
+    return DateTimeConverterUtil.formatJiraDate(APKeys.JIRA_LF_DATE_DMY, date.getTime());
   }
 
   /**
@@ -292,10 +278,10 @@ public final class DateTimeConverterUtil {
    *           If can't parse the date.
    */
   public static Date fixFormatStringToDate(final String dateString) throws ParseException {
-    DateFormat formatterDate = new SimpleDateFormat(FIX_DATE_TIME_FORMAT);
-    formatterDate.setTimeZone(TimeZone.getTimeZone("UTC"));
-    Date date = formatterDate.parse(dateString);
-    return date;
+    org.joda.time.format.DateTimeFormatter formatterDate =
+        DateFormatterRegistry.getFormatter(FIX_DATE_TIME_FORMAT, null, DateTimeZone.UTC);
+    return new Date(
+        DateFormatterRegistry.parseMillis(dateString, formatterDate, DateTimeZone.UTC));
   }
 
   /**
@@ -309,15 +295,22 @@ public final class DateTimeConverterUtil {
    */
   public static Date fixFormatStringToDateWithValidation(final String dateString)
       throws ParseException {
-    DateFormat formatterDate = new SimpleDateFormat(FIX_DATE_TIME_FORMAT);
-    formatterDate.setTimeZone(TimeZone.getTimeZone("UTC"));
-    Date date = formatterDate.parse(dateString);
-    if (!dateString.equals(formatterDate.format(date))) {
+    org.joda.time.format.DateTimeFormatter formatterDate =
+        DateFormatterRegistry.getFormatter(FIX_DATE_TIME_FORMAT, null, DateTimeZone.UTC);
+    Date date = new Date(
+        DateFormatterRegistry.parseMillis(dateString, formatterDate, DateTimeZone.UTC));
+    if (!dateString.equals(formatterDate.print(date.getTime()))) {
       throw new ParseException("Invalid date value:" + dateString, 0);
     }
     return date;
   }
 
+  private static String formatJiraDate(final String formatKey, final long millis) {
+    TimetrackerContext context = TimetrackerContext.current();
+    return DateFormatterRegistry.formatJavaPattern(context.getJiraDatePattern(formatKey),
+        context.getLocale(), DateTimeConverterUtil.getJvmTimeZone(), millis);
+  }
+
   /**
    * Get the difference between to date in seconds.
    *
@@ -332,26 +325,11 @@ public final class DateTimeConverterUtil {
     return TimeUnit.SECONDS.convert(diffInMillies, TimeUnit.MILLISECONDS);
   }
 
-  private static DateTimeFormatter getDateTimeTimeFormatter() {
-    DateTimeFormatterFactory dateTimeFormatterFactory =
-        ComponentAccessor.getComponent(DateTimeFormatterFactory.class);
-    return dateTimeFormatterFactory
-        .formatter()
-        .forLoggedInUser()
-        .withSystemZone()
-        .withStyle(DateTimeStyle.TIME);
-  }
-
-  private static String getJiraDefaultDateAndTimeJavaFormat(final String formatKey) {
-    ApplicationProperties applicationProperties =
-        ComponentAccessor.getComponent(ApplicationProperties.class);
-    return applicationProperties.getDefaultBackedString(formatKey);
-  }
-
-  private static Locale getLoggedUserLocal() {
-    JiraAuthenticationContext authenticationContext = ComponentAccessor
-        .getJiraAuthenticationContext();
-    return authenticationContext.getI18nHelper().getLocale();
+  /**
+   * The {@link Date} values are converted in the JVM default time zone.
+   */
+  private static DateTimeZone getJvmTimeZone() {
+    return DateTimeZone.forTimeZone(TimeZone.getDefault());
   }
 
   /**
@@ -362,7 +340,7 @@ public final class DateTimeConverterUtil {
    * @return If valid then true else false.
    */
   public static boolean isValidJiraTime(final String time) {
-    return Pattern.matches(JIRA_DURATION_PATTERN, time);
+    return TimeParser.jiraDurationToSeconds(time) >= 0;
   }
 
   /**
@@ -373,25 +351,7 @@ public final class DateTimeConverterUtil {
    * @return If valid then true else false.
    */
   public static boolean isValidTime(final String time) {
-    boolean match24Format = Pattern.matches(TIME24HOURS_PATTERN, time);
-    StringBuilder sb = new StringBuilder();
-    sb.append("^([01]?[0-9]|2[0-3]):[0-5][0-9]( (");
-    Locale locale = DateTimeConverterUtil.getLoggedUserLocal();
-    DateFormatSymbols dateFormatSymbols = new DateFormatSymbols(locale);
-    String[] amPmStrings = dateFormatSymbols.getAmPmStrings();
-    int index = 0;
-    for (String string : amPmStrings) {
-      sb.append(string + "|");
-      sb.append(string.toLowerCase(locale));
-      if (index < (amPmStrings.length - 1)) {
-        sb.append("|");
-      }
-      index++;
-    }
-    sb.append("))$");
-    boolean matchAmPmFormat = Pattern.matches(sb.toString(), time);
-    return match24Format || matchAmPmFormat;
-
+    return TimeParser.timeToMinuteOfDay(time, TimetrackerContext.current().getAmPmMarkers()) >= 0;
   }
 
   /**
@@ -402,24 +362,7 @@ public final class DateTimeConverterUtil {
    * @return The calculated seconds.
    */
   public static int jiraDurationToSeconds(final String duration) {
-    Pattern durPatt = Pattern.compile(DateTimeConverterUtil.JIRA_DURATION_PATTERN);
-    Matcher m = durPatt.matcher(duration);
-    int seconds = 0;
-    if (m.matches()) {
-      if (m.group(HOURS_GROUP) != null) {
-        seconds = Integer.parseInt(m.group(HOURS_GROUP)) * DateTimeConverterUtil.MINUTES_PER_HOUR
-            * DateTimeConverterUtil.SECONDS_PER_MINUTE;
-      } else if (m.group(MINUTES_GROUP) != null) {
-        seconds = Integer.parseInt(m.group(MINUTES_GROUP))
-            * DateTimeConverterUtil.SECONDS_PER_MINUTE;
-      } else if ((m.group(HOURS_GROUP_2) != null) && (m.group(MINUTES_GROUP_2) != null)) {
-        seconds = Integer.parseInt(m.group(HOURS_GROUP_2)) * DateTimeConverterUtil.MINUTES_PER_HOUR
-            * DateTimeConverterUtil.SECONDS_PER_MINUTE;
-        seconds += Integer.parseInt(m.group(MINUTES_GROUP_2))
-            * DateTimeConverterUtil.SECONDS_PER_MINUTE;
-      }
-    }
-    return seconds;
+    return Math.max(TimeParser.jiraDurationToSeconds(duration), 0);
   }
 
   /**
@@ -445,7 +388,7 @@ public final class DateTimeConverterUtil {
    * @return The result date.
    */
   public static Date stringTimeToDateTime(final String time) throws IllegalArgumentException {
-    DateTimeFormatter dateTimeTimeFormatter = DateTimeConverterUtil.getDateTimeTimeFormatter();
+    DateTimeFormatter dateTimeTimeFormatter = TimetrackerContext.current().getTimeFormatter();
     return dateTimeTimeFormatter.parse(time);
   }
 
@@ -459,9 +402,9 @@ public final class DateTimeConverterUtil {
    *           If can't parse the date.
    */
   public static Date stringTimeToDateTimeWithFixFormat(final String time) throws ParseException {
-    DateFormat formatterDate = new SimpleDateFormat(FIX_TIME_FORMAT);
-    formatterDate.setTimeZone(TimeZone.getTimeZone("UTC"));
-    return formatterDate.parse(time);
+    return new Date(DateFormatterRegistry.parseMillis(time,
+        DateFormatterRegistry.getFormatter(FIX_TIME_FORMAT, null, DateTimeZone.UTC),
+        DateTimeZone.UTC));
   }
 
   /**
@@ -477,7 +420,7 @@ public final class DateTimeConverterUtil {
   public static String stringTimeToString(final String time) throws ParseException {
     long seconds = DateTimeConverterUtil.stringTimeToDateTimeWithFixFormat(
         time).getTime() / MILLISEC_IN_SECOND;
-    String result = new DurationFormatter().exactDuration(seconds);
+    String result = DurationFormatter.getInstance().exactDuration(seconds);
     return result;
   }
 
@@ -491,12 +434,10 @@ public final class DateTimeConverterUtil {
    *           If can't parse the date.
    */
   public static Date stringToDate(final String dateString) throws ParseException {
-    String dateFormat =
-        DateTimeConverterUtil.getJiraDefaultDateAndTimeJavaFormat(APKeys.JIRA_LF_DATE_DMY);
-    DateFormat formatterDate =
-        new SimpleDateFormat(dateFormat, DateTimeConverterUtil.getLoggedUserLocal());
-    Date date = formatterDate.parse(dateString);
-    return date;
+    TimetrackerContext context = TimetrackerContext.current();
+    return new Date(DateFormatterRegistry.parseJavaPattern(dateString,
+        context.getJiraDatePattern(APKeys.JIRA_LF_DATE_DMY), context.getLocale(),
+        DateTimeConverterUtil.getJvmTimeZone()));
   }
 
   /**
@@ -588,10 +529,11 @@ public final class DateTimeConverterUtil {
    *           if can't parse the date.
    */
   public static Date stringToDateAndTime(final String dateAndTimeString) throws ParseException {
-    DateFormat formatterDateAndTime =
-        new SimpleDateFormat(DATE_TIME_FORMAT, DateTimeConverterUtil.getLoggedUserLocal());
-    Date date = formatterDateAndTime.parse(dateAndTimeString);
-    return date;
+    DateTimeZone jvmTimeZone = DateTimeConverterUtil.getJvmTimeZone();
+    return new Date(DateFormatterRegistry.parseMillis(dateAndTimeString,
+        DateFormatterRegistry.getFormatter(DATE_TIME_FORMAT,
+            TimetrackerContext.current().getLocale(), jvmTimeZone),
+        jvmTimeZone));
   }
 
   /**
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.timetracker.plugin.util;
+
+/**
+ * Hand-written parsers of the JIRA duration ({@value DateTimeConverterUtil#JIRA_DURATION_PATTERN})
+ * and the time ({@value DateTimeConverterUtil#TIME24HOURS_PATTERN}) strings. The parsers accept
+ * the same strings as the patterns and give back primitive values without regex or date objects.
+ */
+public final class TimeParser {
+
+  private static final int MAX_DURATION_MINUTES = 1439;
+
+  private static final int MAX_HOUR_OF_DAY = 23;
+
+  private static final int MAX_MINUTE_OF_HOUR = 59;
+
+  private static final int MAX_MINUTES_DIGITS = 4;
+
+  private static final int NOON = 12;
+
+  private static final int RADIX = 10;
+
+  private static final int SECONDS_PER_HOUR =
+      DateTimeConverterUtil.MINUTES_PER_HOUR * DateTimeConverterUtil.SECONDS_PER_MINUTE;
+
+  /**
+   * The hours, whitespaces and optional minutes form ("1h 30m").
+   */
+  private static int hoursAndMinutesToSeconds(final CharSequence duration, final int hours,
+      final int whitespaceStart) {
+    int length = duration.length();
+    int position = whitespaceStart;
+    while ((position < length) && isWhitespace(duration.charAt(position))) {
+      position++;
+    }
+    if (position == length) {
+      return 0;
+    }
+    int minutesInSeconds = minutesToSeconds(duration, position);
+    if (minutesInSeconds < 0) {
+      return -1;
+    }
+    return (hours * SECONDS_PER_HOUR) + minutesInSeconds;
+  }
+
+  /**
+   * The repeated hours form ("1h" or "1h2h").
+   */
+  private static int hoursToSeconds(final CharSequence duration, final int firstHours,
+      final int firstEnd) {
+    int length = duration.length();
+    int hours = firstHours;
+    int position = firstEnd;
+    while (position < length) {
+      int digitsEnd = skipDigits(duration, position);
+      if ((digitsEnd == length) || (duration.charAt(digitsEnd) != 'h')) {
+        return -1;
+      }
+      hours = parseHour(duration, position, digitsEnd);
+      if (hours < 0) {
+        return -1;
+      }
+      position = digitsEnd + 1;
+    }
+    return hours * SECONDS_PER_HOUR;
+  }
+
+  private static boolean isDigit(final char c) {
+    return (c >= '0') && (c <= '9');
+  }
+
+  /**
+   * Check the character is a regex whitespace (<code>[ \t\n\x0B\f\r]</code>).
+   */
+  private static boolean isWhitespace(final char c) {
+    return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f')
+        || (c == '\r');
+  }
+
+  /**
+   * Converts JIRA duration style strings to seconds. Hours and minutes ("1h 30m") gives back the
+   * sum, repeated fragments ("1h2h" or "1m2m") counts the last one, hours without minutes
+   * followed by whitespace ("1h ") gives back zero.
+   *
+   * @param duration
+   *          the JIRA duration string.
+   * @return the duration in seconds or <code>-1</code> if the duration is not valid.
+   */
+  public static int jiraDurationToSeconds(final CharSequence duration) {
+    int length = duration.length();
+    int digitsEnd = skipDigits(duration, 0);
+    if ((digitsEnd == 0) || (digitsEnd == length)) {
+      return -1;
+    }
+    if (duration.charAt(digitsEnd) == 'm') {
+      return minutesToSeconds(duration, 0);
+    }
+    int hours = parseHour(duration, 0, digitsEnd);
+    if (hours < 0) {
+      return -1;
+    }
+    int position = digitsEnd;
+    while ((position < length) && (duration.charAt(position) == 'h')) {
+      position++;
+    }
+    if ((position < length) && isWhitespace(duration.charAt(position))) {
+      return hoursAndMinutesToSeconds(duration, hours, position);
+    }
+    if (position != (digitsEnd + 1)) {
+      return -1;
+    }
+    return hoursToSeconds(duration, hours, position);
+  }
+
+  /**
+   * The repeated minutes form ("30m" or "30m40m") from the position to the end.
+   */
+  private static int minutesToSeconds(final CharSequence duration, final int start) {
+    int length = duration.length();
+    int minutes = -1;
+    int position = start;
+    while (position < length) {
+      int digitsEnd = skipDigits(duration, position);
+      if ((digitsEnd == length) || (duration.charAt(digitsEnd) != 'm')) {
+        return -1;
+      }
+      minutes = parseDurationMinutes(duration, position, digitsEnd);
+      if (minutes < 0) {
+        return -1;
+      }
+      position = digitsEnd + 1;
+    }
+    return minutes * DateTimeConverterUtil.SECONDS_PER_MINUTE;
+  }
+
+  /**
+   * Parse the minutes of a duration: one to three digits or 1000-1439.
+   */
+  private static int parseDurationMinutes(final CharSequence text, final int start,
+      final int end) {
+    int digits = end - start;
+    if ((digits == 0) || (digits > MAX_MINUTES_DIGITS)) {
+      return -1;
+    }
+    int minutes = parseNumber(text, start, end);
+    if ((digits == MAX_MINUTES_DIGITS)
+        && ((text.charAt(start) != '1') || (minutes > MAX_DURATION_MINUTES))) {
+      return -1;
+    }
+    return minutes;
+  }
+
+  /**
+   * Parse the hours: one digit, two digits starting with 0 or 1, or 20-23.
+   */
+  private static int parseHour(final CharSequence text, final int start, final int end) {
+    int digits = end - start;
+    if ((digits == 0) || (digits > 2)) {
+      return -1;
+    }
+    int hours = parseNumber(text, start, end);
+    if ((digits == 2) && (hours > MAX_HOUR_OF_DAY)) {
+      return -1;
+    }
+    return hours;
+  }
+
+  private static int parseNumber(final CharSequence text, final int start, final int end) {
+    int result = 0;
+    for (int i = start; i < end; i++) {
+      result = (result * RADIX) + (text.charAt(i) - '0');
+    }
+    return result;
+  }
+
+  private static boolean regionEquals(final CharSequence text, final int start,
+      final String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (text.charAt(start + i) != value.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int skipDigits(final CharSequence text, final int start) {
+    int position = start;
+    int length = text.length();
+    while ((position < length) && isDigit(text.charAt(position))) {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * Converts "H:mm" time strings to minute of day.
+   *
+   * @param time
+   *          the time string.
+   * @return the minute of day or <code>-1</code> if the time is not valid.
+   */
+  public static int timeToMinuteOfDay(final CharSequence time) {
+    return timeToMinuteOfDay(time, null);
+  }
+
+  /**
+   * Converts "H:mm" and "H:mm marker" time strings to minute of day. The markers are the AM and PM
+   * strings at even and odd indexes, a time with PM marker is shifted by twelve hours.
+   *
+   * @param time
+   *          the time string.
+   * @param amPmMarkers
+   *          the accepted AM and PM markers or <code>null</code> to accept 24 hours times only.
+   * @return the minute of day or <code>-1</code> if the time is not valid.
+   */
+  public static int timeToMinuteOfDay(final CharSequence time, final String[] amPmMarkers) {
+    int length = time.length();
+    int hourEnd = skipDigits(time, 0);
+    int hours = parseHour(time, 0, hourEnd);
+    int minuteStart = hourEnd + 1;
+    int minuteEnd = minuteStart + 2;
+    if ((hours < 0) || (length < minuteEnd) || (time.charAt(hourEnd) != ':')
+        || (skipDigits(time, minuteStart) < minuteEnd)) {
+      return -1;
+    }
+    int minutes = parseNumber(time, minuteStart, minuteEnd);
+    if (minutes > MAX_MINUTE_OF_HOUR) {
+      return -1;
+    }
+    if (length == minuteEnd) {
+      return (hours * DateTimeConverterUtil.MINUTES_PER_HOUR) + minutes;
+    }
+    if ((amPmMarkers == null) || (time.charAt(minuteEnd) != ' ')) {
+      return -1;
+    }
+    int markerStart = minuteEnd + 1;
+    int markerLength = length - markerStart;
+    for (int i = 0; i < amPmMarkers.length; i++) {
+      String marker = amPmMarkers[i];
+      if ((marker.length() == markerLength) && regionEquals(time, markerStart, marker)) {
+        int hourOfDay = (hours % NOON) + ((i % 2) == 0 ? 0 : NOON);
+        return (hourOfDay * DateTimeConverterUtil.MINUTES_PER_HOUR) + minutes;
+      }
+    }
+    return -1;
+  }
+
+  private TimeParser() {
+  }
+}
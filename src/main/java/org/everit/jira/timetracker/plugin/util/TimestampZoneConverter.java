@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.timetracker.plugin.util;
+
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import org.everit.jira.core.util.TimetrackerContext;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Convert the system time zone timestamps to user time zone timestamps. The time zones are resolved
+ * once, so the converter can be used for all rows of a report. The conversion is the same as the
+ * {@link DateTimeConverterUtil#addTimeZoneToTimestamp(Timestamp)}: the local time of the
+ * timestamp is taken in the system time zone, converted to the user time zone and the result local
+ * time is given back as a JVM default time zone timestamp truncated to seconds.
+ */
+public final class TimestampZoneConverter {
+
+  /**
+   * Create a converter with the system and the logged user time zones.
+   */
+  public static TimestampZoneConverter forLoggedUser() {
+    TimetrackerContext context = TimetrackerContext.current();
+    return new TimestampZoneConverter(DateTimeZone.forTimeZone(TimeZone.getDefault()),
+        context.getSystemTimeZone(), context.getUserTimeZone());
+  }
+
+  private final boolean identity;
+
+  private final DateTimeZone jvmTimeZone;
+
+  private final DateTimeZone systemTimeZone;
+
+  private final DateTimeZone userTimeZone;
+
+  /**
+   * Simple constructor.
+   *
+   * @param jvmTimeZone
+   *          the JVM default time zone of the timestamps.
+   * @param systemTimeZone
+   *          the system time zone.
+   * @param userTimeZone
+   *          the user time zone.
+   */
+  public TimestampZoneConverter(final DateTimeZone jvmTimeZone, final DateTimeZone systemTimeZone,
+      final DateTimeZone userTimeZone) {
+    this.jvmTimeZone = jvmTimeZone;
+    this.systemTimeZone = systemTimeZone;
+    this.userTimeZone = userTimeZone;
+    identity = jvmTimeZone.equals(systemTimeZone) && systemTimeZone.equals(userTimeZone);
+  }
+
+  /**
+   * Convert the system time zone epoch milliseconds to user time zone epoch milliseconds.
+   */
+  public long convert(final long systemMillis) {
+    if (identity) {
+      return jvmTimeZone.adjustOffset(truncateToSeconds(systemMillis), true);
+    }
+    long jvmLocalMillis = jvmTimeZone.convertUTCToLocal(systemMillis);
+    long systemInstant = systemTimeZone.convertLocalToUTC(jvmLocalMillis, false, systemMillis);
+    long userLocalMillis = truncateToSeconds(userTimeZone.convertUTCToLocal(systemInstant));
+    // java.util.Date takes the later offset of an overlap
+    return jvmTimeZone.adjustOffset(jvmTimeZone.convertLocalToUTC(userLocalMillis, false), true);
+  }
+
+  /**
+   * Convert the system time zone timestamp to a new user time zone timestamp.
+   *
+   * @param systemTimestamp
+   *          the timestamp in system time zone. Can be <code>null</code>.
+   * @return the new timestamp in user time zone or <code>null</code> if the parameter was
+   *         <code>null</code>.
+   */
+  public Timestamp convert(final Timestamp systemTimestamp) {
+    if (systemTimestamp == null) {
+      return null;
+    }
+    return new Timestamp(convert(systemTimestamp.getTime()));
+  }
+
+  private long truncateToSeconds(final long millis) {
+    long remainder = millis % DateTimeConstants.MILLIS_PER_SECOND;
+    if (remainder < 0) {
+      remainder += DateTimeConstants.MILLIS_PER_SECOND;
+    }
+    return millis - remainder;
+  }
+}
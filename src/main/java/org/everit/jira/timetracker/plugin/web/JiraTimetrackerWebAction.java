@@ -135,6 +135,12 @@ public class JiraTimetrackerWebAction extends JiraWebActionSupport {
   private static final Logger LOGGER = Logger
       .getLogger(JiraTimetrackerWebAction.class);
 
+  /**
+   * The number of the days checked for missing worklogs, when the page opens on the first missing
+   * day (about a quarter). The logged days of the range are loaded with one query.
+   */
+  private static final int MISSING_WORKLOGS_SCANNED_DAYS = 91;
+
   private static final String SELF_WITH_DATE_MESSAGES_URL_FORMAT =
       "/secure/JiraTimetrackerWebAction.jspa?date=%s&message=%s&messageParameter=%s";
 
@@ -166,7 +172,7 @@ public class JiraTimetrackerWebAction extends JiraWebActionSupport {
 
   private boolean defaultCommand = false;
 
-  private DurationFormatter durationFormatter = new DurationFormatter();
+  private DurationFormatter durationFormatter = DurationFormatter.getInstance();
 
   private String editAllIds;
 
@@ -287,8 +293,7 @@ public class JiraTimetrackerWebAction extends JiraWebActionSupport {
     summaryDTO = new SummaryDTO.SummaryDTOBuilder(
         timeTrackingConfiguration, timetrackerManager, supportManager,
         DateTimeServer.getInstanceBasedOnUserTimeZone(currentTimeInUserTimeZone),
-        globalSettings.getExcludeDates(),
-        globalSettings.getIncludeDates(), globalSettings.getNonWorkingIssuePatterns())
+        globalSettings)
             .createSummaryDTO();
   }
 
@@ -892,9 +897,9 @@ public class JiraTimetrackerWebAction extends JiraWebActionSupport {
         currentTimeInUserTimeZone = new DateTime(TimetrackerUtil.getLoggedUserTimeZone());
       } else {
         currentTimeInUserTimeZone =
-            timetrackerManager.firstMissingWorklogsDate(globalSettings.getExcludeDates(),
-                globalSettings.getIncludeDates(),
-                new DateTime(TimetrackerUtil.getLoggedUserTimeZone()));
+            timetrackerManager.firstMissingWorklogsDate(globalSettings.getWorkdayCalendar(),
+                new DateTime(TimetrackerUtil.getLoggedUserTimeZone()),
+                MISSING_WORKLOGS_SCANNED_DAYS);
       }
     }
   }
@@ -1152,7 +1152,7 @@ const MAX_ELEMENTS_DISPLAYED = 100; // EQUAL TO JIRA.Issues.SearcherGroupListDia
     return true;
   }
   
-  reporting.getWorklogDetailsPage = function(offset, column, order) {
+  reporting.getWorklogDetailsPage = function(offset, column, order, cursor) {
     var url = contextPath + "/rest/jttp-rest/1/paging-report/pageWorklogDetails?filterConditionJson=";
     var filterConditionJson = jQuery('#filterConditionJson').val();
     var filterCondition = JSON.parse(filterConditionJson);
@@ -1162,12 +1162,19 @@ const MAX_ELEMENTS_DISPLAYED = 100; // EQUAL TO JIRA.Issues.SearcherGroupListDia
     var selectedColumnsJson = JSON.stringify(selectedWorklogDetailsColumns);
     var $detailsModule = jQuery('#detailsModule');
     $detailsModule.addClass("pending");
-    jQuery.get(url + filterConditionJson + "&selectedColumnsJson=" + selectedColumnsJson + "&orderBy=" + column + "-" + order, function(data) {
+    var cursorParam = "";
+    if (cursor) {
+      cursorParam = "&cursor=" + encodeURIComponent(cursor);
+    }
+    jQuery.get(url + filterConditionJson + "&selectedColumnsJson=" + selectedColumnsJson + "&orderBy=" + column + "-" + order + cursorParam, function(data) {
       $detailsModule.replaceWith(data);
     }).done(function() {
       initWorklogDetailsColumns();
       $detailsModule.removeClass("pending");
       addTooltips();
+    ).fail(function(jqXHR) {
+      $detailsModule.removeClass("pending");
+      showPagingErrorMessage(jqXHR);
     });
   }
   
@@ -1184,6 +1191,9 @@ const MAX_ELEMENTS_DISPLAYED = 100; // EQUAL TO JIRA.Issues.SearcherGroupListDia
     }).done(function(){
       $summaryModule.removeClass("pending");
       addTooltips();
+    ).fail(function(jqXHR) {
+      $summaryModule.removeClass("pending");
+      showPagingErrorMessage(jqXHR);
     });
   }
   
@@ -1200,6 +1210,9 @@ const MAX_ELEMENTS_DISPLAYED = 100; // EQUAL TO JIRA.Issues.SearcherGroupListDia
     }).done(function(){
       $summaryModule.removeClass("pending");
       addTooltips();
+    ).fail(function(jqXHR) {
+      $summaryModule.removeClass("pending");
+      showPagingErrorMessage(jqXHR);
     });
   }
   
@@ -1216,6 +1229,15 @@ const MAX_ELEMENTS_DISPLAYED = 100; // EQUAL TO JIRA.Issues.SearcherGroupListDia
     }).done(function(){
       $summaryModule.removeClass("pending");
       addTooltips();
+    ).fail(function(jqXHR) {
+      $summaryModule.removeClass("pending");
+      showPagingErrorMessage(jqXHR);
+    });
+  }
+  
+  function showPagingErrorMessage(jqXHR) {
+    AJS.messages.error({
+      body: AJS.escapeHtml(jqXHR.responseText)
     });
   }
   
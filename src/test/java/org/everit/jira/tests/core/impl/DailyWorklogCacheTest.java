@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.impl;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.everit.jira.core.dto.WorklogTimeDTO;
+import org.everit.jira.core.impl.DailyWorklogCache;
+import org.everit.jira.core.query.WorklogTimesQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.event.issue.IssueEvent;
+import com.atlassian.jira.event.type.EventType;
+import com.atlassian.jira.issue.worklog.Worklog;
+
+public class DailyWorklogCacheTest {
+
+  private static final DateTime FROM_DATE =
+      new DateTime(2016, 1, 4, 0, 0, DateTimeZone.forID("Europe/Budapest"));
+
+  private static final String USER_KEY = "userkey";
+
+  private DailyWorklogCache dailyWorklogCache;
+
+  private QuerydslSupport querydslSupport;
+
+  @Before
+  public void before() {
+    dailyWorklogCache = new DailyWorklogCache();
+    querydslSupport = Mockito.mock(QuerydslSupport.class);
+    Mockito.when(querydslSupport.execute(Matchers.isA(WorklogTimesQuery.class)))
+        .thenReturn(new ArrayList<>(Arrays.asList(
+            createWorklogTime("TSP-1", FROM_DATE.plusHours(1), 3600L),
+            createWorklogTime("TSP-2", FROM_DATE.plusHours(2), 1800L),
+            createWorklogTime("TSP-1", FROM_DATE.plusDays(2).plusHours(23), 600L))));
+  }
+
+  private WorklogTimeDTO createWorklogTime(final String issueKey, final DateTime startDate,
+      final long timeWorked) {
+    WorklogTimeDTO worklogTime = new WorklogTimeDTO();
+    worklogTime.setIssueKey(issueKey);
+    worklogTime.setStartDate(new Timestamp(startDate.getMillis()));
+    worklogTime.setTimeWorked(timeWorked);
+    return worklogTime;
+  }
+
+  private IssueEvent createIssueEvent(final Long eventTypeId) {
+    IssueEvent issueEvent = Mockito.mock(IssueEvent.class);
+    Mockito.when(issueEvent.getEventTypeId()).thenReturn(eventTypeId);
+    return issueEvent;
+  }
+
+  private IssueEvent createWorklogEvent(final Long eventTypeId, final DateTime startDate) {
+    Worklog worklog = Mockito.mock(Worklog.class);
+    Mockito.when(worklog.getAuthorKey()).thenReturn(USER_KEY);
+    Mockito.when(worklog.getStartDate()).thenReturn(startDate.toDate());
+    IssueEvent issueEvent = createIssueEvent(eventTypeId);
+    Mockito.when(issueEvent.getWorklog()).thenReturn(worklog);
+    return issueEvent;
+  }
+
+  @Test
+  public void testGetDailyWorklogTimes() {
+    List<Map<String, Long>> dailyWorklogTimes =
+        dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+
+    Assert.assertEquals(4, dailyWorklogTimes.size());
+    Assert.assertEquals(Long.valueOf(3600L), dailyWorklogTimes.get(0).get("TSP-1"));
+    Assert.assertEquals(Long.valueOf(1800L), dailyWorklogTimes.get(0).get("TSP-2"));
+    Assert.assertTrue(dailyWorklogTimes.get(1).isEmpty());
+    Assert.assertEquals(Long.valueOf(600L), dailyWorklogTimes.get(2).get("TSP-1"));
+    Assert.assertTrue(dailyWorklogTimes.get(3).isEmpty());
+
+    // served from the cache
+    Assert.assertEquals(dailyWorklogTimes,
+        dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4));
+    Assert.assertEquals(dailyWorklogTimes.subList(1, 3),
+        dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY,
+            FROM_DATE.plusDays(1), 2));
+    Mockito.verify(querydslSupport, Mockito.times(1))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+  }
+
+  @Test
+  public void testInvalidateOnTransitionWithWorklog() {
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+
+    // transition without worklog
+    dailyWorklogCache.onIssueEvent(createIssueEvent(EventType.ISSUE_RESOLVED_ID));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(1))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    // work logged on the transition screen
+    dailyWorklogCache.onIssueEvent(
+        createWorklogEvent(EventType.ISSUE_RESOLVED_ID, FROM_DATE.plusDays(2)));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(2))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    // work logged on the edit screen
+    dailyWorklogCache.onIssueEvent(
+        createWorklogEvent(EventType.ISSUE_UPDATED_ID, FROM_DATE.plusDays(4)));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(3))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+  }
+
+  @Test
+  public void testInvalidateOnWorklogEvents() {
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+
+    // other user
+    dailyWorklogCache.invalidateUser("otheruserkey");
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(1))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    // not related event
+    dailyWorklogCache.onIssueEvent(createIssueEvent(EventType.ISSUE_COMMENTED_ID));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(1))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    // worklog created far from the cached days
+    dailyWorklogCache.onIssueEvent(
+        createWorklogEvent(EventType.ISSUE_WORKLOGGED_ID, FROM_DATE.plusDays(10)));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(1))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    dailyWorklogCache.onIssueEvent(
+        createWorklogEvent(EventType.ISSUE_WORKLOGGED_ID, FROM_DATE.plusDays(1)));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(2))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    dailyWorklogCache.onIssueEvent(
+        createWorklogEvent(EventType.ISSUE_WORKLOG_UPDATED_ID, FROM_DATE.plusDays(10)));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(3))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+
+    dailyWorklogCache.onIssueEvent(createWorklogEvent(EventType.ISSUE_MOVED_ID, FROM_DATE));
+    dailyWorklogCache.getDailyWorklogTimes(querydslSupport, USER_KEY, FROM_DATE, 4);
+    Mockito.verify(querydslSupport, Mockito.times(4))
+        .execute(Matchers.isA(WorklogTimesQuery.class));
+  }
+}
@@ -20,42 +20,31 @@ import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.everit.jira.core.SupportManager;
+import org.everit.jira.core.dto.WorklogTimeDTO;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.DateTimeServer;
 import org.everit.jira.core.impl.SupportComponent;
+import org.everit.jira.core.query.WorklogTimesQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.reporting.plugin.dto.MissingsWorklogsDTO;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.junit.Assert;
 import org.junit.Test;
-import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
-import org.ofbiz.core.entity.EntityOperator;
 import org.ofbiz.core.entity.GenericEntityException;
-import org.ofbiz.core.entity.GenericValue;
-import org.ofbiz.core.entity.model.ModelEntity;
 
-import com.atlassian.crowd.embedded.api.User;
 import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
-import com.atlassian.jira.issue.IssueManager;
 import com.atlassian.jira.mock.component.MockComponentWorker;
-import com.atlassian.jira.mock.issue.MockIssue;
-import com.atlassian.jira.ofbiz.OfBizDelegator;
 import com.atlassian.jira.security.JiraAuthenticationContext;
-import com.atlassian.jira.security.PermissionManager;
-import com.atlassian.jira.security.Permissions;
 import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.MockApplicationUser;
 import com.atlassian.jira.user.preferences.JiraUserPreferences;
@@ -65,36 +54,6 @@ import com.atlassian.jira.util.I18nHelper.BeanFactory;
 
 public class GetDatesTestWithUserTimeZone {
 
-  static class DummyGenericValue extends GenericValue {
-    private static final long serialVersionUID = 3415063923321743460L;
-
-    private final Map<String, Object> values;
-
-    @SuppressWarnings("deprecation")
-    public DummyGenericValue(final Map<String, Object> values) {
-      super(new ModelEntity());
-      this.values = Collections.unmodifiableMap(new HashMap<>(values));
-    }
-
-    @Override
-    public Long getLong(final String key) {
-      Object object = values.get(key);
-      if (object == null) {
-        return null;
-      }
-      return Long.valueOf(object.toString());
-    }
-
-    @Override
-    public String getString(final String key) {
-      Object object = values.get(key);
-      if (object == null) {
-        return null;
-      }
-      return String.valueOf(object);
-    }
-  }
-
   private static final String NOWORK_ISSUE_KEY = "NOWORK-1";
 
   private static final String WORK_ISSUE_KEY = "WORK-1";
@@ -119,14 +78,6 @@ public class GetDatesTestWithUserTimeZone {
 
   private DateTimeZone useTimeZOne = DateTimeZone.forID("America/Denver");
 
-  private GenericValue createDummyGenericValue(final long issueId, final long timeworked) {
-    HashMap<String, Object> values = new HashMap<>();
-    values.put("issue", issueId);
-    values.put("timeworked", timeworked);
-    return new DummyGenericValue(values);
-
-  }
-
   private void initMockComponentWorker() {
     timeTrackerGlobalSettings = new TimeTrackerGlobalSettings();
     DateTime date = new DateTime(1452124800000L, DateTimeZone.UTC); // 2016.01.07
@@ -161,23 +112,8 @@ public class GetDatesTestWithUserTimeZone {
     Mockito.when(timeTrackingConfiguration.getHoursPerDay())
         .thenReturn(new BigDecimal(1.0));
 
-    PermissionManager permissionManager =
-        Mockito.mock(PermissionManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(
-        permissionManager.getProjects(Matchers.eq(Permissions.BROWSE), Matchers.any(User.class)))
-        .thenReturn(new ArrayList<GenericValue>());
-
-    IssueManager issueManager = Mockito.mock(IssueManager.class, Mockito.RETURNS_DEEP_STUBS);
-    MockIssue noworkIssue = new MockIssue(1, NOWORK_ISSUE_KEY);
-    MockIssue workIssue = new MockIssue(2, WORK_ISSUE_KEY);
-    Mockito.when(issueManager.getIssueObject(noworkIssue.getId()))
-        .thenReturn(noworkIssue);
-    Mockito.when(issueManager.getIssueObject(workIssue.getId()))
-        .thenReturn(workIssue);
-
-    OfBizDelegator ofBizDelegator = mockOfbizDelagator(noworkIssue, workIssue);
-
-    supportManager = new SupportComponent(timeTrackingConfiguration);
+    supportManager = new SupportComponent(timeTrackingConfiguration,
+        new DailyWorklogCache(), mockQuerydslSupport());
 
     JiraUserPreferences mockJiraUserPreferences =
         Mockito.mock(JiraUserPreferences.class, Mockito.RETURNS_DEEP_STUBS);
@@ -203,150 +139,37 @@ public class GetDatesTestWithUserTimeZone {
 
     mockComponentWorker.addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
         .addMock(TimeTrackingConfiguration.class, timeTrackingConfiguration)
-        .addMock(PermissionManager.class, permissionManager)
-        .addMock(IssueManager.class, issueManager)
-        .addMock(OfBizDelegator.class, ofBizDelegator)
         .init();
 
   }
 
-  private OfBizDelegator mockOfbizDelagator(final MockIssue noworkIssue,
-      final MockIssue workIssue) {
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.anyString(),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && ((today.getMillis()) == ((Timestamp) expr.getRhs()).getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(
-            new ArrayList<>(Arrays.asList(createDummyGenericValue(workIssue.getId(), 3600L))));
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.anyString(),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && ((todayPlus1.getMillis()) == ((Timestamp) expr.getRhs())
-                      .getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(new ArrayList<>(Arrays.asList(
-            createDummyGenericValue(workIssue.getId(), 1000L),
-            createDummyGenericValue(noworkIssue.getId(), 2000L)))); // not enough worklog
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.anyString(),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && ((todayPlus2.getMillis()) == ((Timestamp) expr.getRhs())
-                      .getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(new ArrayList<>(Arrays.asList(
-            createDummyGenericValue(noworkIssue.getId(), 2600L),
-            createDummyGenericValue(workIssue.getId(), 1000L))));// enough but with non work issue
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.anyString(),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && ((todayPlus3.getMillis()) == ((Timestamp) expr.getRhs())
-                      .getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(new ArrayList<>(Arrays.asList(
-            createDummyGenericValue(workIssue.getId(), 500L),
-            createDummyGenericValue(workIssue.getId(), 100L),
-            createDummyGenericValue(workIssue.getId(), 2000L)))); // not enough worklog
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.anyString(),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && ((todayPlus4.getMillis()) == ((Timestamp) expr.getRhs())
-                      .getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(null);
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.anyString(),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && ((todayPlus5.getMillis()) == ((Timestamp) expr.getRhs())
-                      .getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(null);
-    return ofBizDelegator;
+  private WorklogTimeDTO createWorklogTime(final String issueKey, final DateTime startDate,
+      final long timeWorked) {
+    WorklogTimeDTO worklogTime = new WorklogTimeDTO();
+    worklogTime.setIssueKey(issueKey);
+    worklogTime.setStartDate(new Timestamp(startDate.getMillis()));
+    worklogTime.setTimeWorked(timeWorked);
+    return worklogTime;
+  }
+
+  private QuerydslSupport mockQuerydslSupport() {
+    List<WorklogTimeDTO> worklogTimes = new ArrayList<>(Arrays.asList(
+        createWorklogTime(WORK_ISSUE_KEY, today, 3600L),
+        // not enough worklog
+        createWorklogTime(WORK_ISSUE_KEY, todayPlus1, 1000L),
+        createWorklogTime(NOWORK_ISSUE_KEY, todayPlus1, 2000L),
+        // enough but with non work issue
+        createWorklogTime(NOWORK_ISSUE_KEY, todayPlus2, 2600L),
+        createWorklogTime(WORK_ISSUE_KEY, todayPlus2, 1000L),
+        // not enough worklog
+        createWorklogTime(WORK_ISSUE_KEY, todayPlus3, 500L),
+        createWorklogTime(WORK_ISSUE_KEY, todayPlus3, 100L),
+        createWorklogTime(WORK_ISSUE_KEY, todayPlus3, 2000L)));
+
+    QuerydslSupport querydslSupport = Mockito.mock(QuerydslSupport.class);
+    Mockito.when(querydslSupport.execute(Matchers.isA(WorklogTimesQuery.class)))
+        .thenReturn(worklogTimes);
+    return querydslSupport;
   }
 
   /**
@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.everit.jira.core.SupportManager;
+import org.everit.jira.core.impl.DailyWorklogCache;
+import org.everit.jira.core.impl.ProjectIdRegistry;
 import org.everit.jira.core.impl.SupportComponent;
 import org.junit.Assert;
 import org.junit.Test;
@@ -72,10 +74,12 @@ public class GetProjectIdsTest {
     return new DummyGenericValue(values);
   }
 
+  private OfBizDelegator ofBizDelegator;
+
   private void initMockComponentWorker() {
     MockComponentWorker mockComponentWorker = new MockComponentWorker();
 
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
+    ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
     Mockito.when(ofBizDelegator.findAll(Matchers.eq("Project")))
         .thenReturn(new ArrayList<>(
             Arrays.asList(
@@ -90,11 +94,46 @@ public class GetProjectIdsTest {
   public void testGetProjectIds() {
     initMockComponentWorker();
 
-    SupportManager supportManager = new SupportComponent(null);
+    SupportManager supportManager = new SupportComponent(null,
+        new DailyWorklogCache(), null);
 
     List<String> projectsId = supportManager.getProjectsId();
     Assert.assertEquals(2, projectsId.size());
     Assert.assertEquals("1", projectsId.get(0));
     Assert.assertEquals("2", projectsId.get(1));
   }
+
+  @Test
+  public void testGetProjectIdsLoadedOnce() {
+    initMockComponentWorker();
+
+    SupportManager supportManager = new SupportComponent(null,
+        new DailyWorklogCache(), null);
+
+    supportManager.getProjectsId();
+    List<String> projectsId = supportManager.getProjectsId();
+    Assert.assertEquals(Arrays.asList("1", "2"), projectsId);
+    Mockito.verify(ofBizDelegator, Mockito.times(1)).findAll("Project");
+  }
+
+  @Test
+  public void testProjectIdRegistryInvalidate() {
+    initMockComponentWorker();
+
+    ProjectIdRegistry projectIdRegistry = new ProjectIdRegistry();
+
+    Assert.assertEquals(Arrays.asList("1", "2"), projectIdRegistry.getProjectIds());
+    Mockito.when(ofBizDelegator.findAll(Matchers.eq("Project")))
+        .thenReturn(new ArrayList<>(
+            Arrays.asList(
+                createDummyGenericValue(1),
+                createDummyGenericValue(2),
+                createDummyGenericValue(3))));
+    Assert.assertEquals(Arrays.asList("1", "2"), projectIdRegistry.getProjectIds());
+
+    projectIdRegistry.onProjectCreated(null);
+
+    Assert.assertEquals(Arrays.asList("1", "2", "3"), projectIdRegistry.getProjectIds());
+    Mockito.verify(ofBizDelegator, Mockito.times(2)).findAll("Project");
+  }
 }
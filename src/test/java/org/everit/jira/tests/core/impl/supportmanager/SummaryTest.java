@@ -17,116 +17,38 @@ package org.everit.jira.tests.core.impl.supportmanager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.everit.jira.core.SupportManager;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.SupportComponent;
+import org.everit.jira.core.query.IssueWorklogSummaryQuery;
+import org.everit.jira.core.query.WorklogSummaryQuery;
+import org.everit.jira.core.util.IssueKeyMatcher;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.GenericEntityException;
-import org.ofbiz.core.entity.GenericValue;
-import org.ofbiz.core.entity.model.ModelEntity;
 
-import com.atlassian.crowd.embedded.api.User;
-import com.atlassian.jira.issue.IssueManager;
-import com.atlassian.jira.issue.MutableIssue;
 import com.atlassian.jira.mock.component.MockComponentWorker;
-import com.atlassian.jira.mock.issue.MockIssue;
-import com.atlassian.jira.ofbiz.OfBizDelegator;
-import com.atlassian.jira.permission.ProjectPermissions;
 import com.atlassian.jira.security.JiraAuthenticationContext;
-import com.atlassian.jira.security.PermissionManager;
-import com.atlassian.jira.security.Permissions;
-import com.atlassian.jira.security.groups.GroupManager;
-import com.atlassian.jira.security.roles.ProjectRoleManager;
-import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.MockApplicationUser;
 
 public class SummaryTest {
 
-  static class DummyGenericValue extends GenericValue {
-    private static final long serialVersionUID = 3415063923321743460L;
-
-    final Map<String, Object> values;
-
-    @SuppressWarnings("deprecation")
-    public DummyGenericValue(final Map<String, Object> values) {
-      super(new ModelEntity());
-      this.values = Collections.unmodifiableMap(new HashMap<>(values));
-    }
-
-    @Override
-    public boolean equals(final Object obj) {
-      if (this == obj) {
-        return true;
-      }
-      if (!super.equals(obj)) {
-        return false;
-      }
-      if (getClass() != obj.getClass()) {
-        return false;
-      }
-      DummyGenericValue other = (DummyGenericValue) obj;
-      if (values == null) {
-        if (other.values != null) {
-          return false;
-        }
-      } else if (!values.equals(other.values)) {
-        return false;
-      }
-      return true;
-    }
-
-    @Override
-    public Long getLong(final String key) {
-      Object object = values.get(key);
-      if (object == null) {
-        return null;
-      }
-      return Long.valueOf(object.toString());
-    }
-
-    @Override
-    public String getString(final String key) {
-      Object object = values.get(key);
-      if (object == null) {
-        return null;
-      }
-      return String.valueOf(object);
-    }
-
-    @Override
-    public int hashCode() {
-      final int prime = 31;
-      int result = super.hashCode();
-      result = (prime * result) + ((values == null) ? 0 : values.hashCode());
-      return result;
-    }
-  }
-
-  private static final String GROUPLEVEL_FOR_USER = "test";
-
-  private MockIssue noWorkIssue = new MockIssue(1, "NOWORK-1");
+  private static final String NO_WORK_ISSUE_KEY = "NOWORK-1";
 
-  private MockIssue workIssue = new MockIssue(2, "WORK-1");
+  private static final String WORK_ISSUE_KEY = "WORK-1";
 
-  private GenericValue createDummyGenericValue(final long issueId, final int timeworked,
-      final String grouplevel) {
-    HashMap<String, Object> values = new HashMap<>();
-    values.put("issue", issueId);
-    values.put("grouplevel", grouplevel);
-    values.put("timeworked", timeworked);
-    return new DummyGenericValue(values);
-  }
+  private QuerydslSupport querydslSupport;
 
-  private void initMockComponentWorker(final List<GenericValue> worklogs) {
+  @Before
+  public void before() {
     MockComponentWorker mockComponentWorker = new MockComponentWorker();
 
     JiraAuthenticationContext jiraAuthenticationContext =
@@ -135,59 +57,40 @@ public class SummaryTest {
     Mockito.when(jiraAuthenticationContext.getUser())
         .thenReturn(user);
 
-    PermissionManager permissionManager =
-        Mockito.mock(PermissionManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(
-        permissionManager.getProjects(Matchers.eq(Permissions.BROWSE), Matchers.any(User.class)))
-        .thenReturn(new ArrayList<GenericValue>());
-    Mockito.when(
-        permissionManager.hasPermission(Matchers.eq(ProjectPermissions.BROWSE_PROJECTS),
-            Matchers.any(MutableIssue.class),
-            Matchers.eq(user)))
-        .thenReturn(true);
-    IssueManager issueManager = Mockito.mock(IssueManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(issueManager.getIssueObject(workIssue.getId()))
-        .thenReturn(workIssue);
-    Mockito.when(issueManager.getIssueObject(noWorkIssue.getId()))
-        .thenReturn(noWorkIssue);
-
-    GroupManager groupManager = Mockito.mock(GroupManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(groupManager.getGroupNamesForUser(Matchers.any(ApplicationUser.class)))
-        .thenReturn(new ArrayList<>(Arrays.asList(GROUPLEVEL_FOR_USER)));
-
-    ProjectRoleManager projectRoleManager =
-        Mockito.mock(ProjectRoleManager.class, Mockito.RETURNS_DEEP_STUBS);
-
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"), Matchers.anyList()))
-        .thenReturn(worklogs);
-
     mockComponentWorker.addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
-        .addMock(PermissionManager.class, permissionManager)
-        .addMock(IssueManager.class, issueManager)
-        .addMock(GroupManager.class, groupManager)
-        .addMock(ProjectRoleManager.class, projectRoleManager)
-        .addMock(OfBizDelegator.class, ofBizDelegator)
         .init();
+
+    Map<String, Long> issueSummaries = new HashMap<>();
+    issueSummaries.put(WORK_ISSUE_KEY, 6200L);
+    issueSummaries.put(NO_WORK_ISSUE_KEY, 8200L);
+
+    querydslSupport = Mockito.mock(QuerydslSupport.class);
+    Mockito.when(querydslSupport.execute(Matchers.isA(IssueWorklogSummaryQuery.class)))
+        .thenReturn(issueSummaries);
+    Mockito.when(querydslSupport.execute(Matchers.isA(WorklogSummaryQuery.class)))
+        .thenReturn(14400L);
   }
 
   @Test
-  public void testSummary() throws GenericEntityException {
-    initMockComponentWorker(
-        new ArrayList<>(
-            Arrays.asList(
-                createDummyGenericValue(workIssue.getId(), 1600, null),
-                createDummyGenericValue(noWorkIssue.getId(), 2600, null),
-                createDummyGenericValue(workIssue.getId(), 4600, GROUPLEVEL_FOR_USER),
-                createDummyGenericValue(workIssue.getId(), 4600, "empty_group"),
-                createDummyGenericValue(noWorkIssue.getId(), 5600, GROUPLEVEL_FOR_USER))));
-
-    SupportManager supportManager = new SupportComponent(null);
+  public void testSummary() {
+    SupportManager supportManager = new SupportComponent(null,
+        new DailyWorklogCache(), querydslSupport);
 
     long summary = supportManager.summary(new Date(),
         new Date(),
-        new ArrayList<>(Arrays.asList(Pattern.compile(noWorkIssue.getKey()))));
+        new IssueKeyMatcher(Arrays.asList(Pattern.compile(NO_WORK_ISSUE_KEY))));
 
     Assert.assertEquals(6200L, summary);
   }
+
+  @Test
+  public void testSummaryWithoutPatterns() {
+    SupportManager supportManager = new SupportComponent(null,
+        new DailyWorklogCache(), querydslSupport);
+
+    long summary = supportManager.summary(new Date(), new Date(),
+        new IssueKeyMatcher(new ArrayList<Pattern>()));
+
+    Assert.assertEquals(14400L, summary);
+  }
 }
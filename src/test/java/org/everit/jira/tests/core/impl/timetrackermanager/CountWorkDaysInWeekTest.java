@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.List;
 
 import org.everit.jira.core.TimetrackerManager;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.TimetrackerComponent;
 import org.everit.jira.tests.util.converterUtilForTests;
 import org.joda.time.DateTime;
@@ -38,7 +39,8 @@ public class CountWorkDaysInWeekTest {
   public void testWithExcludeAndIncludeDay() throws ParseException {
     TimeTrackingConfiguration mockConfiguration =
         Mockito.mock(TimeTrackingConfiguration.class, Mockito.RETURNS_DEEP_STUBS);
-    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null);
+    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null,
+        new DailyWorklogCache(), null);
     Mockito.when(mockConfiguration.getDaysPerWeek().doubleValue()).thenReturn(5.0);
 
     List<DateTime> weekdays = new ArrayList<>();
@@ -60,7 +62,8 @@ public class CountWorkDaysInWeekTest {
   public void testWithExcludeDay() throws ParseException {
     TimeTrackingConfiguration mockConfiguration =
         Mockito.mock(TimeTrackingConfiguration.class, Mockito.RETURNS_DEEP_STUBS);
-    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null);
+    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null,
+        new DailyWorklogCache(), null);
     Mockito.when(mockConfiguration.getDaysPerWeek().doubleValue()).thenReturn(5.0);
 
     List<DateTime> weekdays = new ArrayList<>();
@@ -80,7 +83,8 @@ public class CountWorkDaysInWeekTest {
   public void testWithIncludeDay() throws ParseException {
     TimeTrackingConfiguration mockConfiguration =
         Mockito.mock(TimeTrackingConfiguration.class, Mockito.RETURNS_DEEP_STUBS);
-    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null);
+    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null,
+        new DailyWorklogCache(), null);
     Mockito.when(mockConfiguration.getDaysPerWeek().doubleValue()).thenReturn(5.0);
 
     List<DateTime> weekdays = new ArrayList<>();
@@ -100,7 +104,8 @@ public class CountWorkDaysInWeekTest {
   public void testWithoutExcludeAndInclude() throws ParseException {
     TimeTrackingConfiguration mockConfiguration =
         Mockito.mock(TimeTrackingConfiguration.class, Mockito.RETURNS_DEEP_STUBS);
-    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null);
+    TimetrackerManager timetrackerManager = new TimetrackerComponent(mockConfiguration, null,
+        new DailyWorklogCache(), null);
     Mockito.when(mockConfiguration.getDaysPerWeek().doubleValue()).thenReturn(5.0);
 
     List<DateTime> weekdays = new ArrayList<>();
@@ -25,8 +25,12 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
+import org.everit.jira.core.dto.WorklogTimeDTO;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.TimetrackerComponent;
+import org.everit.jira.core.query.WorklogTimesQuery;
 import org.everit.jira.core.util.TimetrackerUtil;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.everit.jira.settings.dto.TimeZoneTypes;
@@ -37,19 +41,14 @@ import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.junit.Assert;
 import org.junit.Test;
-import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
-import org.ofbiz.core.entity.EntityOperator;
-import org.ofbiz.core.entity.GenericEntityException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.ofbiz.core.entity.GenericValue;
 
 import com.atlassian.crowd.embedded.api.User;
 import com.atlassian.jira.mock.component.MockComponentWorker;
-import com.atlassian.jira.mock.ofbiz.MockGenericValue;
-import com.atlassian.jira.ofbiz.OfBizDelegator;
 import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.Permissions;
@@ -62,7 +61,7 @@ import com.atlassian.jira.util.I18nHelper.BeanFactory;
 
 public class FirstMissingWorklogsDateTest {
 
-  private TimetrackerComponent timetrackerComponent = new TimetrackerComponent(null, null);
+  private TimetrackerComponent timetrackerComponent;
 
   public void initMockComponents(final long hasNoWorklogDayStartUTC) {
     initMockComponents(hasNoWorklogDayStartUTC, "UTC", TimeZoneTypes.SYSTEM);
@@ -115,59 +114,38 @@ public class FirstMissingWorklogsDateTest {
     Mockito.when(settingsHelper.loadGlobalSettings()).thenReturn(ttGlobalSettings);
     mockComponentWorker.addMock(TimeTrackerSettingsHelper.class, settingsHelper);
 
-    MockGenericValue mockGenericValue = new MockGenericValue("none");
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
-    ArrayList<GenericValue> genericValues =
-        new ArrayList<>(Arrays.asList((GenericValue) mockGenericValue));
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
+    QuerydslSupport querydslSupport = Mockito.mock(QuerydslSupport.class);
+    // worklog on every day of the queried range except the hasNoWorklogDate
+    Mockito.when(querydslSupport.execute(Matchers.isA(WorklogTimesQuery.class)))
+        .thenAnswer(new Answer<List<WorklogTimeDTO>>() {
           @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            DateTimeFormatter sdf = DateTimeFormat.forPattern("yyyy-MM-dd");
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && !(hasNoWorklogDate == ((Timestamp) expr.getRhs()).getTime())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(genericValues);
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            DateTimeFormatter sdf = DateTimeFormat.forPattern("yyyy-MM-dd");
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if ("startdate".equals(expr.getLhs())
-                  && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                  && (hasNoWorklogDate == ((Timestamp) expr.getRhs()).getTime())) {
-                return true;
+          public List<WorklogTimeDTO> answer(final InvocationOnMock invocation)
+              throws Throwable {
+            WorklogTimesQuery query = (WorklogTimesQuery) invocation.getArguments()[0];
+            List<WorklogTimeDTO> worklogTimes = new ArrayList<>();
+            DateTime dayStart = new DateTime(query.getStartDate().getTime());
+            while (dayStart.isBefore(query.getEndDate().getTime())) {
+              if (dayStart.getMillis() != hasNoWorklogDate) {
+                WorklogTimeDTO worklogTime = new WorklogTimeDTO();
+                worklogTime.setIssueKey("TSP-1");
+                worklogTime.setStartDate(new Timestamp(dayStart.plusHours(1).getMillis()));
+                worklogTime.setTimeWorked(3600L);
+                worklogTimes.add(worklogTime);
               }
+              dayStart = dayStart.plusDays(1);
             }
-            return false;
+            return worklogTimes;
           }
-        })))
-        .thenReturn(null);
-    mockComponentWorker.addMock(OfBizDelegator.class, ofBizDelegator);
+        });
+    timetrackerComponent = new TimetrackerComponent(null, null, new DailyWorklogCache(),
+        querydslSupport);
+
 
     mockComponentWorker.init();
   }
 
   @Test
-  public void testFirstMissingWorklogsDateEnd() throws ParseException, GenericEntityException {
+  public void testFirstMissingWorklogsDateEnd() throws ParseException {
 
     Calendar today = Calendar.getInstance();
     Calendar todayPlus1 = (Calendar) today.clone();
@@ -221,7 +199,7 @@ public class FirstMissingWorklogsDateTest {
   }
 
   @Test
-  public void testFirstMissingWorklogsDateMiddle() throws ParseException, GenericEntityException {
+  public void testFirstMissingWorklogsDateMiddle() throws ParseException {
 
     Calendar today = Calendar.getInstance();
     Calendar todayPlus1 = (Calendar) today.clone();
@@ -274,7 +252,29 @@ public class FirstMissingWorklogsDateTest {
   }
 
   @Test
-  public void testFirstMissingWorklogsDateToday() throws ParseException, GenericEntityException {
+  public void testFirstMissingWorklogsDateQuarterScan() throws ParseException {
+    Calendar today = Calendar.getInstance();
+    Calendar todayMinus60 = (Calendar) today.clone();
+    todayMinus60.add(Calendar.DAY_OF_YEAR, -60);
+
+    initMockComponents(
+        DateTimeConverterUtil.setDateToDayStart(new DateTime(todayMinus60.getTimeInMillis()))
+            .getMillis());
+    Set<DateTime> excludeDatesSet = new HashSet<>();
+    Set<DateTime> includeDatesSet =
+        new HashSet<>(Arrays.asList(new DateTime(todayMinus60.getTime().getTime())));
+
+    DateTime firstMissingWorklogsDate =
+        timetrackerComponent.firstMissingWorklogsDate(excludeDatesSet, includeDatesSet,
+            new DateTime(TimetrackerUtil.getLoggedUserTimeZone()), 90);
+
+    DateTimeFormatter sdfdt = DateTimeFormat.forPattern("yyyy-MM-dd");
+    Assert.assertEquals(sdfdt.print(new DateTime(todayMinus60.getTime().getTime())),
+        sdfdt.print(firstMissingWorklogsDate));
+  }
+
+  @Test
+  public void testFirstMissingWorklogsDateToday() throws ParseException {
 
     Calendar today = Calendar.getInstance();
 
@@ -294,7 +294,7 @@ public class FirstMissingWorklogsDateTest {
 
   @Test
   public void testFirstMissingWorklogsDateWithUserSpecificTimeZone()
-      throws ParseException, GenericEntityException {
+      throws ParseException {
 
     long hasNoWorklog = 1482710400000L;// 2016.12.26 00:00 in utc
     // 2016.12.26 00:00 in user time zone 03:00 in utc
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Locale;
 
 import org.everit.jira.core.TimetrackerManager;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.TimetrackerComponent;
 import org.everit.jira.tests.util.converterUtilForTests;
 import org.joda.time.DateTime;
@@ -52,7 +53,8 @@ public class GetExtraDaysOfTheMonthTest {
 
   @Before
   public void before() {
-    timetrackerManager = new TimetrackerComponent(null, null);
+    timetrackerManager = new TimetrackerComponent(null, null,
+        new DailyWorklogCache(), null);
 
     MockComponentWorker mockComponentWorker = new MockComponentWorker();
 
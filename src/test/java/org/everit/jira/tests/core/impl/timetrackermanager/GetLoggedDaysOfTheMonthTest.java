@@ -15,33 +15,28 @@
  */
 package org.everit.jira.tests.core.impl.timetrackermanager;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
+import org.everit.jira.core.dto.WorklogTimeDTO;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.DateTimeServer;
 import org.everit.jira.core.impl.TimetrackerComponent;
-import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
+import org.everit.jira.core.query.WorklogTimesQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.joda.time.DateTime;
 import org.junit.Assert;
 import org.junit.Test;
-import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
-import org.ofbiz.core.entity.EntityOperator;
-import org.ofbiz.core.entity.GenericEntityException;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.ofbiz.core.entity.GenericValue;
 
 import com.atlassian.crowd.embedded.api.User;
 import com.atlassian.jira.mock.component.MockComponentWorker;
-import com.atlassian.jira.mock.ofbiz.MockGenericValue;
-import com.atlassian.jira.ofbiz.OfBizDelegator;
 import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.Permissions;
@@ -54,9 +49,12 @@ import com.atlassian.jira.util.I18nHelper.BeanFactory;
 
 public class GetLoggedDaysOfTheMonthTest {
 
-  private TimetrackerComponent timetrackerComponent = new TimetrackerComponent(null, null);
+  private QuerydslSupport querydslSupport = Mockito.mock(QuerydslSupport.class);
 
-  public void initMockComponents(final Date dateOfMonth) {
+  private TimetrackerComponent timetrackerComponent =
+      new TimetrackerComponent(null, null, new DailyWorklogCache(), querydslSupport);
+
+  public void initMockComponents() {
     MockComponentWorker mockComponentWorker = new MockComponentWorker();
 
     PermissionManager permissionManager =
@@ -95,45 +93,36 @@ public class GetLoggedDaysOfTheMonthTest {
     mockComponentWorker.addMock(I18nHelper.class, i18nHelper);
     mockComponentWorker.addMock(BeanFactory.class, mockBeanFactory);
 
-    MockGenericValue mockGenericValue = new MockGenericValue("none");
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
-    ArrayList<GenericValue> genericValues =
-        new ArrayList<>(Arrays.asList((GenericValue) mockGenericValue));
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
+    // one worklog on every day of the queried range
+    Mockito.when(querydslSupport.execute(Matchers.isA(WorklogTimesQuery.class)))
+        .thenAnswer(new Answer<List<WorklogTimeDTO>>() {
           @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM");
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              try {
-                if ("startdate".equals(expr.getLhs())
-                    && EntityOperator.GREATER_THAN_EQUAL_TO.equals(expr.getOperator())
-                    && !sdf.format(dateOfMonth)
-                        .equals(sdf.format(sdf.parse(expr.getRhs().toString())))) {
-                  return true;
-                }
-              } catch (ParseException e) {
-              }
+          public List<WorklogTimeDTO> answer(final InvocationOnMock invocation)
+              throws Throwable {
+            WorklogTimesQuery query = (WorklogTimesQuery) invocation.getArguments()[0];
+            List<WorklogTimeDTO> worklogTimes = new ArrayList<>();
+            DateTime worklogDate = new DateTime(query.getStartDate().getTime()).plusHours(1);
+            while (worklogDate.isBefore(query.getEndDate().getTime())) {
+              WorklogTimeDTO worklogTime = new WorklogTimeDTO();
+              worklogTime.setIssueKey("TSP-1");
+              worklogTime.setStartDate(new Timestamp(worklogDate.getMillis()));
+              worklogTime.setTimeWorked(3600L);
+              worklogTimes.add(worklogTime);
+              worklogDate = worklogDate.plusDays(1);
             }
-            return false;
+            return worklogTimes;
           }
-        })))
-        .thenReturn(genericValues);
-    mockComponentWorker.addMock(OfBizDelegator.class, ofBizDelegator);
+        });
+
 
     mockComponentWorker.init();
   }
 
   @Test
-  public void testGetLoggedDaysOfMonth() throws GenericEntityException {
+  public void testGetLoggedDaysOfMonth() {
     DateTime dateOfMonth = new DateTime();
     dateOfMonth = dateOfMonth.withMonthOfYear(1);
-    initMockComponents(DateTimeConverterUtil.convertDateTimeToDate(dateOfMonth));
+    initMockComponents();
 
     DateTimeServer dateOfMonthServer = DateTimeServer.getInstanceBasedOnUserTimeZone(dateOfMonth);
     List<String> loggedDaysOfTheMonth =
@@ -142,7 +131,7 @@ public class GetLoggedDaysOfTheMonthTest {
     Assert.assertEquals(31, loggedDaysOfTheMonth.size());
 
     dateOfMonth = dateOfMonth.withMonthOfYear(4);
-    initMockComponents(DateTimeConverterUtil.convertDateTimeToDate(dateOfMonth));
+    initMockComponents();
 
     dateOfMonthServer = DateTimeServer.getInstanceBasedOnUserTimeZone(dateOfMonth);
     loggedDaysOfTheMonth =
@@ -152,7 +141,7 @@ public class GetLoggedDaysOfTheMonthTest {
 
     dateOfMonth = dateOfMonth.withMonthOfYear(2);
     dateOfMonth = dateOfMonth.withYear(2016);
-    initMockComponents(DateTimeConverterUtil.convertDateTimeToDate(dateOfMonth));
+    initMockComponents();
 
     dateOfMonthServer = DateTimeServer.getInstanceBasedOnUserTimeZone(dateOfMonth);
     loggedDaysOfTheMonth =
@@ -162,7 +151,7 @@ public class GetLoggedDaysOfTheMonthTest {
 
     dateOfMonth = dateOfMonth.withMonthOfYear(2);
     dateOfMonth = dateOfMonth.withYear(2015);
-    initMockComponents(DateTimeConverterUtil.convertDateTimeToDate(dateOfMonth));
+    initMockComponents();
 
     dateOfMonthServer = DateTimeServer.getInstanceBasedOnUserTimeZone(dateOfMonth);
     loggedDaysOfTheMonth =
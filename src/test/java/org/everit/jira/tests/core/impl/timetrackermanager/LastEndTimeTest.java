@@ -22,6 +22,7 @@ import java.util.Date;
 import java.util.Locale;
 
 import org.everit.jira.core.TimetrackerManager;
+import org.everit.jira.core.impl.DailyWorklogCache;
 import org.everit.jira.core.impl.TimetrackerComponent;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
@@ -122,7 +123,8 @@ public class LastEndTimeTest {
     Mockito.when(timeTrackerUserSettings.getDefaultStartTime())
         .thenReturn("08:00");
     Mockito.when(timeTrackerSettingsHelper.loadGlobalSettings()).thenReturn(ttGlobalSettings);
-    timetrackerManager = new TimetrackerComponent(null, timeTrackerSettingsHelper);
+    timetrackerManager = new TimetrackerComponent(null, timeTrackerSettingsHelper,
+        new DailyWorklogCache(), null);
 
     mockComponentWorker.addMock(TimeTrackerSettingsHelper.class, timeTrackerSettingsHelper);
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.impl.worklogmanager;
+
+import java.util.Locale;
+
+import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.impl.WorklogComponent;
+import org.everit.jira.core.query.WorklogCountQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
+import org.everit.jira.settings.TimeTrackerSettingsHelper;
+import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
+import org.everit.jira.settings.dto.TimeZoneTypes;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.ofbiz.OfBizDelegator;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.user.ApplicationUser;
+import com.atlassian.jira.user.MockApplicationUser;
+import com.atlassian.jira.user.preferences.JiraUserPreferences;
+import com.atlassian.jira.user.preferences.UserPreferencesManager;
+import com.atlassian.jira.util.I18nHelper;
+import com.atlassian.jira.util.I18nHelper.BeanFactory;
+
+public class CountWorklogsWithoutPermissionChecksTest {
+
+  private static final long DAY_IN_MILLIS = 86400000L;
+
+  private OfBizDelegator ofBizDelegator;
+
+  private QuerydslSupport querydslSupport;
+
+  private WorklogComponent worklogManager;
+
+  @Before
+  public void before() {
+    MockComponentWorker mockComponentWorker = new MockComponentWorker();
+
+    JiraAuthenticationContext mockJiraAuthenticationContext =
+        Mockito.mock(JiraAuthenticationContext.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(mockJiraAuthenticationContext.getUser())
+        .thenReturn(new MockApplicationUser("test_userkey", "test_username"));
+
+    JiraUserPreferences mockJiraUserPreferences =
+        Mockito.mock(JiraUserPreferences.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(mockJiraUserPreferences.getString("jira.user.timezone"))
+        .thenReturn("UTC");
+
+    UserPreferencesManager mockUserPreferencesManager =
+        Mockito.mock(UserPreferencesManager.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(mockUserPreferencesManager.getPreferences(Matchers.any(ApplicationUser.class)))
+        .thenReturn(mockJiraUserPreferences);
+
+    I18nHelper i18nHelper = Mockito.mock(I18nHelper.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(i18nHelper.getLocale())
+        .thenReturn(Locale.ENGLISH);
+    BeanFactory mockBeanFactory = Mockito.mock(BeanFactory.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(mockBeanFactory.getInstance(Matchers.any(ApplicationUser.class)))
+        .thenReturn(i18nHelper);
+
+    TimeTrackerGlobalSettings ttGlobalSettings = new TimeTrackerGlobalSettings();
+    ttGlobalSettings.timeZone(TimeZoneTypes.SYSTEM);
+    TimeTrackerSettingsHelper settingsHelper =
+        Mockito.mock(TimeTrackerSettingsHelper.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(settingsHelper.loadGlobalSettings()).thenReturn(ttGlobalSettings);
+
+    ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
+
+    mockComponentWorker.addMock(JiraAuthenticationContext.class, mockJiraAuthenticationContext)
+        .addMock(UserPreferencesManager.class, mockUserPreferencesManager)
+        .addMock(I18nHelper.class, i18nHelper)
+        .addMock(BeanFactory.class, mockBeanFactory)
+        .addMock(TimeTrackerSettingsHelper.class, settingsHelper)
+        .addMock(OfBizDelegator.class, ofBizDelegator)
+        .init();
+
+    querydslSupport = Mockito.mock(QuerydslSupport.class);
+    Mockito.when(querydslSupport.execute(Matchers.isA(WorklogCountQuery.class)))
+        .thenReturn(1000L);
+
+    worklogManager = new WorklogComponent(querydslSupport);
+  }
+
+  @Test
+  public void testCountWorklogsInDateRange() {
+    DateTime startDate = new DateTime(2016, 12, 26, 10, 0, DateTimeZone.UTC);
+    DateTime endDate = startDate.plusDays(2);
+
+    long count = worklogManager.countWorklogsWithoutPermissionChecks(
+        DateTimeServer.getInstanceBasedOnUserTimeZone(startDate),
+        DateTimeServer.getInstanceBasedOnUserTimeZone(endDate));
+
+    Assert.assertEquals(1000L, count);
+    ArgumentCaptor<WorklogCountQuery> queryCaptor =
+        ArgumentCaptor.forClass(WorklogCountQuery.class);
+    Mockito.verify(querydslSupport).execute(queryCaptor.capture());
+    WorklogCountQuery query = queryCaptor.getValue();
+    Assert.assertFalse(query.isPermissionCheck());
+    Assert.assertEquals(3 * DAY_IN_MILLIS,
+        query.getEndDate().getTime() - query.getStartDate().getTime());
+  }
+
+  @Test
+  public void testCountWorklogsOfOneDay() {
+    DateTime startDate = new DateTime(2016, 12, 26, 10, 0, DateTimeZone.UTC);
+
+    long count = worklogManager.countWorklogsWithoutPermissionChecks(
+        DateTimeServer.getInstanceBasedOnUserTimeZone(startDate), null);
+
+    // the count comes from a single SQL COUNT, no worklog is loaded
+    Assert.assertEquals(1000L, count);
+    Mockito.verifyZeroInteractions(ofBizDelegator);
+    ArgumentCaptor<WorklogCountQuery> queryCaptor =
+        ArgumentCaptor.forClass(WorklogCountQuery.class);
+    Mockito.verify(querydslSupport).execute(queryCaptor.capture());
+    WorklogCountQuery query = queryCaptor.getValue();
+    Assert.assertFalse(query.isPermissionCheck());
+    Assert.assertEquals("test_userkey", query.getUserKey());
+    Assert.assertEquals(DAY_IN_MILLIS,
+        query.getEndDate().getTime() - query.getStartDate().getTime());
+  }
+}
@@ -296,7 +296,7 @@ public class CreateWorklogTest {
         .addMock(DateTimeFormatterFactory.class, mockDateTimeFormatterFactory)
         .init();
 
-    worklogManager = new WorklogComponent();
+    worklogManager = new WorklogComponent(null);
   }
 
   @Test
@@ -153,7 +153,7 @@ public class DeleteWorklogTest {
         .addMock(WorklogManager.class, mockWorklogManager)
         .init();
 
-    worklogManager = new WorklogComponent();
+    worklogManager = new WorklogComponent(null);
   }
 
   @Test
@@ -327,7 +327,7 @@ public class EditWorklogTest {
         .addMock(DateTimeFormatterFactory.class, mockDateTimeFormatterFactory)
         .init();
 
-    worklogManager = new WorklogComponent();
+    worklogManager = new WorklogComponent(null);
   }
 
   @Test
@@ -147,7 +147,7 @@ public class GetWorklogTest {
         .addMock(DateTimeFormatterFactory.class, mockDateTimeFormatterFactory)
         .init();
 
-    worklogManager = new WorklogComponent();
+    worklogManager = new WorklogComponent(null);
   }
 
   @Test
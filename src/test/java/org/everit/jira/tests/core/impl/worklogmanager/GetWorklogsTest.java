@@ -17,19 +17,20 @@ package org.everit.jira.tests.core.impl.worklogmanager;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import org.easymock.EasyMock;
+import org.everit.jira.core.dto.WorklogDTO;
 import org.everit.jira.core.impl.DateTimeServer;
 import org.everit.jira.core.impl.WorklogComponent;
+import org.everit.jira.core.query.WorklogsQuery;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.everit.jira.settings.dto.TimeZoneTypes;
@@ -42,11 +43,7 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
 import org.ofbiz.core.entity.GenericEntityException;
-import org.ofbiz.core.entity.GenericValue;
-import org.ofbiz.core.entity.model.ModelEntity;
 
 import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
 import com.atlassian.jira.config.properties.ApplicationProperties;
@@ -61,7 +58,6 @@ import com.atlassian.jira.issue.status.category.StatusCategory;
 import com.atlassian.jira.issue.worklog.WorklogImpl;
 import com.atlassian.jira.issue.worklog.WorklogManager;
 import com.atlassian.jira.mock.component.MockComponentWorker;
-import com.atlassian.jira.ofbiz.OfBizDelegator;
 import com.atlassian.jira.permission.ProjectPermissions;
 import com.atlassian.jira.project.MockProject;
 import com.atlassian.jira.project.Project;
@@ -79,36 +75,6 @@ import com.atlassian.jira.util.I18nHelper.BeanFactory;
 
 public class GetWorklogsTest {
 
-  static class DummyGenericValue extends GenericValue {
-    private static final long serialVersionUID = 3415063923321743460L;
-
-    private final Map<String, Object> values;
-
-    @SuppressWarnings("deprecation")
-    public DummyGenericValue(final Map<String, Object> values) {
-      super(new ModelEntity());
-      this.values = Collections.unmodifiableMap(new HashMap<>(values));
-    }
-
-    @Override
-    public Long getLong(final String key) {
-      Object object = values.get(key);
-      if (object == null) {
-        return null;
-      }
-      return Long.valueOf(object.toString());
-    }
-
-    @Override
-    public String getString(final String key) {
-      Object object = values.get(key);
-      if (object == null) {
-        return null;
-      }
-      return String.valueOf(object);
-    }
-  }
-
   static class DummyWorklog extends WorklogImpl {
 
     private MutableIssue issue;
@@ -140,6 +106,8 @@ public class GetWorklogsTest {
 
   private MockApplicationUser loggedUser;
 
+  private QuerydslSupport querydslSupport;
+
   private WorklogComponent worklogManager;
 
   @Before
@@ -158,7 +126,7 @@ public class GetWorklogsTest {
 
     PermissionManager permissionManager =
         Mockito.mock(PermissionManager.class, Mockito.RETURNS_DEEP_STUBS);
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
+    querydslSupport = Mockito.mock(QuerydslSupport.class);
     GroupManager groupManager = Mockito.mock(GroupManager.class, Mockito.RETURNS_DEEP_STUBS);
     IssueManager issueManager = Mockito.mock(IssueManager.class, Mockito.RETURNS_DEEP_STUBS);
 
@@ -212,71 +180,29 @@ public class GetWorklogsTest {
             Matchers.any(MutableIssue.class),
             Matchers.eq(loggedUser)))
         .thenReturn(true);
-    List<GenericValue> genericValues = new ArrayList<>();
-    genericValues.add(createDummyGenericValue(null, null, dummyWorklog.getIssue().getId()));
     MutableIssue mockIssue = createIssue(30L, "NO-");
-    genericValues.add(createDummyGenericValue(null, null, mockIssue.getId()));
-
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if (loggedUser.getKey().equals(expr.getRhs())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(genericValues);
-
-    genericValues = new ArrayList<>();
-    genericValues.add(createDummyGenericValue(null, null, dummyWorklog.getIssue().getId()));
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if (SELECTED_USER.equals(expr.getRhs())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(genericValues);
-
-    genericValues = new ArrayList<>();
-    genericValues.add(createDummyGenericValue(null, null, dummyWorklog.getIssue().getId()));
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              if (SELECTED_USER.equals(expr.getRhs())) {
-                return true;
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(genericValues);
+    List<WorklogDTO> loggedUserWorklogs = new ArrayList<>();
+    loggedUserWorklogs.add(createWorklogDTO(dummyWorklog.getIssue().getId()));
+    loggedUserWorklogs.add(createWorklogDTO(mockIssue.getId()));
+    Mockito.when(querydslSupport.execute(Matchers.argThat(new ArgumentMatcher<WorklogsQuery>() {
+      @Override
+      public boolean matches(final Object argument) {
+        return (argument instanceof WorklogsQuery)
+            && loggedUser.getKey().equals(((WorklogsQuery) argument).getUserKey());
+      }
+    })))
+        .thenReturn(loggedUserWorklogs);
+
+    List<WorklogDTO> selectedUserWorklogs = new ArrayList<>();
+    selectedUserWorklogs.add(createWorklogDTO(dummyWorklog.getIssue().getId()));
+    Mockito.when(querydslSupport.execute(Matchers.argThat(new ArgumentMatcher<WorklogsQuery>() {
+      @Override
+      public boolean matches(final Object argument) {
+        return (argument instanceof WorklogsQuery)
+            && SELECTED_USER.equals(((WorklogsQuery) argument).getUserKey());
+      }
+    })))
+        .thenReturn(selectedUserWorklogs);
 
     List<String> groups = new ArrayList<>(Arrays.asList("one", "group_1", "group_2"));
     Mockito.when(groupManager.getGroupNamesForUser((ApplicationUser) Matchers.any()))
@@ -286,6 +212,8 @@ public class GetWorklogsTest {
         .thenReturn((MutableIssue) dummyWorklog.getIssue());
     Mockito.when(issueManager.getIssueObject(mockIssue.getId()))
         .thenReturn(mockIssue);
+    Mockito.when(issueManager.getIssueObjects(Matchers.anyCollectionOf(Long.class)))
+        .thenReturn(Arrays.asList((MutableIssue) dummyWorklog.getIssue(), mockIssue));
     mockComponentWorker.addMock(IssueManager.class, issueManager);
 
     BigDecimal daysPerWeek = new BigDecimal(5);
@@ -313,24 +241,12 @@ public class GetWorklogsTest {
         .addMock(ApplicationProperties.class, mockApplicationProperties)
         .addMock(UserUtil.class, userUtil)
         .addMock(PermissionManager.class, permissionManager)
-        .addMock(OfBizDelegator.class, ofBizDelegator)
         .addMock(GroupManager.class, groupManager)
         .addMock(TimeTrackingConfiguration.class, ttConfig)
         .addMock(DateTimeFormatterFactory.class, mockDateTimeFormatterFactory)
         .init();
 
-    worklogManager = new WorklogComponent();
-  }
-
-  private DummyGenericValue createDummyGenericValue(final Long roleLevelId, final String groupLevel,
-      final long issueId) {
-    HashMap<String, Object> values = new HashMap<>();
-    values.put("rolelevel", roleLevelId);
-    values.put("grouplevel", groupLevel);
-    values.put("issue", issueId);
-    values.put("startdate", "2000-11-22 08:00");
-    values.put("timeworked", 10);
-    return new DummyGenericValue(values);
+    worklogManager = new WorklogComponent(querydslSupport);
   }
 
   private MutableIssue createIssue(final long id, final String key) {
@@ -351,6 +267,14 @@ public class GetWorklogsTest {
     return issue;
   }
 
+  private WorklogDTO createWorklogDTO(final long issueId) {
+    WorklogDTO worklogDTO = new WorklogDTO();
+    worklogDTO.setIssueId(issueId);
+    worklogDTO.setStartDate(Timestamp.valueOf("2000-11-22 08:00:00"));
+    worklogDTO.setTimeWorked(10L);
+    return worklogDTO;
+  }
+
   @Test
   public void testGetWorklogs()
       throws DataAccessException, GenericEntityException, SQLException, ParseException {
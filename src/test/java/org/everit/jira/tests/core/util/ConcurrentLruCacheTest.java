@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import org.everit.jira.core.util.ConcurrentLruCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLruCacheTest {
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache<>(4);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.put("c", 3);
+    cache.put("d", 4);
+    Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+
+    cache.put("e", 5);
+
+    Assert.assertEquals(3, cache.size());
+    Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+    Assert.assertNull(cache.get("b"));
+    Assert.assertNull(cache.get("c"));
+    Assert.assertEquals(Integer.valueOf(4), cache.get("d"));
+    Assert.assertEquals(Integer.valueOf(5), cache.get("e"));
+  }
+
+  @Test
+  public void testSingleEntry() {
+    ConcurrentLruCache<String, Integer> cache = new ConcurrentLruCache<>(1);
+    cache.put("a", 1);
+    cache.put("b", 2);
+
+    Assert.assertEquals(1, cache.size());
+    Assert.assertNull(cache.get("a"));
+    Assert.assertEquals(Integer.valueOf(2), cache.get("b"));
+
+    cache.clear();
+    Assert.assertNull(cache.get("b"));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import org.everit.jira.timetracker.plugin.util.DateFormatterRegistry;
+import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DateFormatterRegistryTest {
+
+  private static final long INSTANT = 1355400600123L;
+
+  private static final DateTimeZone ZONE = DateTimeZone.forID("Europe/Budapest");
+
+  private void assertSameAsSimpleDateFormat(final String javaPattern) throws ParseException {
+    SimpleDateFormat simpleDateFormat = new SimpleDateFormat(javaPattern, Locale.ENGLISH);
+    simpleDateFormat.setTimeZone(ZONE.toTimeZone());
+    String expected = simpleDateFormat.format(new Date(INSTANT));
+
+    Assert.assertEquals(expected,
+        DateFormatterRegistry.formatJavaPattern(javaPattern, Locale.ENGLISH, ZONE, INSTANT));
+    Assert.assertEquals(simpleDateFormat.parse(expected).getTime(),
+        DateFormatterRegistry.parseJavaPattern(expected, javaPattern, Locale.ENGLISH, ZONE));
+  }
+
+  @Test
+  public void testFixFormatStringToDate() throws ParseException {
+    Assert.assertEquals(1355356800000L,
+        DateTimeConverterUtil.fixFormatStringToDate("2012-12-13").getTime());
+    Assert.assertEquals(1355356800000L,
+        DateTimeConverterUtil.fixFormatStringToDateWithValidation("2012-12-13").getTime());
+    try {
+      DateTimeConverterUtil.fixFormatStringToDateWithValidation("2014-15-02");
+      Assert.fail("Expected ParseException");
+    } catch (ParseException e) {
+      Assert.assertNotNull(e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFormatAndParseJavaPattern() throws ParseException {
+    assertSameAsSimpleDateFormat("dd/MMM/yy");
+    assertSameAsSimpleDateFormat("dd/MMM/yy h:mm a");
+    assertSameAsSimpleDateFormat("EEEE, d 'de' MMMM yyyy");
+    assertSameAsSimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    assertSameAsSimpleDateFormat("h 'o''clock' a");
+    // not translated patterns
+    assertSameAsSimpleDateFormat("yyyy-MM-dd u");
+    assertSameAsSimpleDateFormat("yyyy 'week' ww");
+    assertSameAsSimpleDateFormat("dd.MM.yyyy HH:mm z");
+    assertSameAsSimpleDateFormat("LLL yyyy");
+  }
+
+  @Test
+  public void testGetFormatter() {
+    DateTimeFormatter formatter =
+        DateFormatterRegistry.getFormatter("dd/MMM/yy", Locale.ENGLISH, DateTimeZone.UTC);
+    Assert.assertSame(formatter,
+        DateFormatterRegistry.getFormatter("dd/MMM/yy", Locale.ENGLISH, DateTimeZone.UTC));
+    Assert.assertNotSame(formatter,
+        DateFormatterRegistry.getFormatter("dd/MMM/yy", Locale.GERMAN, DateTimeZone.UTC));
+    Assert.assertEquals("13/Dec/12", formatter.print(1355356800000L));
+  }
+
+  @Test
+  public void testParseMillis() throws ParseException {
+    DateTimeFormatter formatter =
+        DateFormatterRegistry.getFormatter("yyyy-MM-dd HH:mm", Locale.ENGLISH, DateTimeZone.UTC);
+    Assert.assertEquals(1355400600000L,
+        DateFormatterRegistry.parseMillis("2012-12-13 12:10", formatter, DateTimeZone.UTC));
+    Assert.assertEquals(1355400600000L,
+        DateFormatterRegistry.parseMillis("2012-12-13 12:10:00.0", formatter, DateTimeZone.UTC));
+
+    DateTimeFormatter timeFormatter =
+        DateFormatterRegistry.getFormatter("HH:mm", null, DateTimeZone.UTC);
+    Assert.assertEquals(5400000L,
+        DateFormatterRegistry.parseMillis("01:30", timeFormatter, DateTimeZone.UTC));
+    try {
+      DateFormatterRegistry.parseMillis("a1:30", timeFormatter, DateTimeZone.UTC);
+      Assert.fail("Expected ParseException");
+    } catch (ParseException e) {
+      Assert.assertEquals(0, e.getErrorOffset());
+    }
+  }
+
+  @Test
+  public void testToJodaPattern() {
+    Assert.assertEquals("dd/MMM/yy h:mm a",
+        DateFormatterRegistry.toJodaPattern("dd/MMM/yy h:mm a"));
+    Assert.assertEquals("d 'de' MMMM yyyy",
+        DateFormatterRegistry.toJodaPattern("d 'de' MMMM yyyy"));
+    Assert.assertEquals("xxxx-MM-dd", DateFormatterRegistry.toJodaPattern("YYYY-MM-dd"));
+    Assert.assertEquals("HH:mm:ss.SSSZ",
+        DateFormatterRegistry.toJodaPattern("HH:mm:ss.SSSZZZZ"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("yyyy-MM-dd u"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("F W"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("yyyy-MM-dd'T'HH:mmXXX"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("LLL yyyy"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("yyyy-ww"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("HH:mm z"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("HH:mm:ss.S"));
+    Assert.assertNull(DateFormatterRegistry.toJodaPattern("'unterminated"));
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import org.everit.jira.core.util.IssueKeyMatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IssueKeyMatcherTest {
+
+  @Test
+  public void testEmptyPatterns() {
+    IssueKeyMatcher nullMatcher = new IssueKeyMatcher(null);
+    Assert.assertTrue(nullMatcher.isEmpty());
+    Assert.assertFalse(nullMatcher.matches("TSP-1"));
+
+    IssueKeyMatcher emptyMatcher = new IssueKeyMatcher(new ArrayList<Pattern>());
+    Assert.assertTrue(emptyMatcher.isEmpty());
+    Assert.assertFalse(emptyMatcher.matches("TSP-1"));
+  }
+
+  @Test
+  public void testMatches() {
+    IssueKeyMatcher matcher = new IssueKeyMatcher(
+        Arrays.asList(Pattern.compile("TSP-1"), Pattern.compile("SAMPLE-.*"),
+            Pattern.compile("A|B-1")),
+        2);
+
+    Assert.assertFalse(matcher.isEmpty());
+    Assert.assertTrue(matcher.matches("TSP-1"));
+    Assert.assertFalse(matcher.matches("TSP-12"));
+    Assert.assertTrue(matcher.matches("SAMPLE-12"));
+    Assert.assertTrue(matcher.matches("A"));
+    Assert.assertTrue(matcher.matches("B-1"));
+    Assert.assertFalse(matcher.matches("A-1"));
+    // evicted from the cache
+    Assert.assertTrue(matcher.matches("TSP-1"));
+    Assert.assertFalse(matcher.matches(null));
+  }
+
+  @Test
+  public void testMatchesNotCombinablePatterns() {
+    IssueKeyMatcher matcher = new IssueKeyMatcher(
+        Arrays.asList(Pattern.compile("tsp-1", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("(A)-\\1"), Pattern.compile("(?<key>B)-\\k<key>"),
+            Pattern.compile("(?<key>C)-1")));
+
+    Assert.assertTrue(matcher.matches("TSP-1"));
+    Assert.assertTrue(matcher.matches("A-A"));
+    Assert.assertFalse(matcher.matches("A-1"));
+    Assert.assertTrue(matcher.matches("B-B"));
+    Assert.assertTrue(matcher.matches("C-1"));
+    Assert.assertFalse(matcher.matches("C-C"));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
+import org.everit.jira.timetracker.plugin.util.TimeParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeParserTest {
+
+  private static final String[] AM_PM_MARKERS = new String[] { "AM", "PM", "am", "pm" };
+
+  private static final String AM_PM_PATTERN = "^([01]?[0-9]|2[0-3]):[0-5][0-9]( (AM|am|PM|pm))$";
+
+  private static final String DURATION_CHARACTERS = "0123456789hm \t";
+
+  private static final Pattern JIRA_DURATION_PATTERN =
+      Pattern.compile(DateTimeConverterUtil.JIRA_DURATION_PATTERN);
+
+  private static final int SAMPLE_COUNT = 200000;
+
+  private static final String TIME_CHARACTERS = "0123456789: AMPamp";
+
+  private static final Pattern TIME24HOURS_PATTERN =
+      Pattern.compile(DateTimeConverterUtil.TIME24HOURS_PATTERN);
+
+  /**
+   * The regex based conversion of the JIRA durations.
+   */
+  private static int regexDurationToSeconds(final String duration) {
+    Matcher m = JIRA_DURATION_PATTERN.matcher(duration);
+    if (!m.matches()) {
+      return -1;
+    }
+    if (m.group(8) != null) {
+      return Integer.parseInt(m.group(8)) * 3600;
+    } else if (m.group(6) != null) {
+      return Integer.parseInt(m.group(6)) * 60;
+    } else if ((m.group(2) != null) && (m.group(4) != null)) {
+      return (Integer.parseInt(m.group(2)) * 3600) + (Integer.parseInt(m.group(4)) * 60);
+    }
+    return 0;
+  }
+
+  private String randomString(final Random random, final String characters) {
+    int length = random.nextInt(10);
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      sb.append(characters.charAt(random.nextInt(characters.length())));
+    }
+    return sb.toString();
+  }
+
+  private String randomValidDuration(final Random random) {
+    switch (random.nextInt(3)) {
+      case 0:
+        return random.nextInt(30) + "h";
+      case 1:
+        return random.nextInt(1500) + "m";
+      default:
+        return random.nextInt(30) + "h " + random.nextInt(1500) + "m";
+    }
+  }
+
+  private String randomValidTime(final Random random) {
+    String time = random.nextInt(30) + ":" + random.nextInt(7) + random.nextInt(10);
+    if (random.nextBoolean()) {
+      return time + " " + AM_PM_MARKERS[random.nextInt(AM_PM_MARKERS.length)];
+    }
+    return time;
+  }
+
+  @Test
+  public void testJiraDurationExamples() {
+    Assert.assertEquals(5400, TimeParser.jiraDurationToSeconds("1h 30m"));
+    Assert.assertEquals(5400, TimeParser.jiraDurationToSeconds("1hh\t30m"));
+    Assert.assertEquals(7200, TimeParser.jiraDurationToSeconds("2h"));
+    Assert.assertEquals(86340, TimeParser.jiraDurationToSeconds("1439m"));
+    Assert.assertEquals(0, TimeParser.jiraDurationToSeconds("2h "));
+    Assert.assertEquals(10800, TimeParser.jiraDurationToSeconds("2h3h"));
+    Assert.assertEquals(-1, TimeParser.jiraDurationToSeconds("1440m"));
+    Assert.assertEquals(-1, TimeParser.jiraDurationToSeconds("24h"));
+    Assert.assertEquals(-1, TimeParser.jiraDurationToSeconds("1h 30m "));
+    Assert.assertEquals(-1, TimeParser.jiraDurationToSeconds(""));
+  }
+
+  @Test
+  public void testJiraDurationProperties() {
+    Random random = new Random(1L);
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      String duration = (i % 2) == 0
+          ? randomString(random, DURATION_CHARACTERS)
+          : randomValidDuration(random);
+      Assert.assertEquals(duration, regexDurationToSeconds(duration),
+          TimeParser.jiraDurationToSeconds(duration));
+    }
+  }
+
+  @Test
+  public void testTimeExamples() {
+    Assert.assertEquals(510, TimeParser.timeToMinuteOfDay("8:30"));
+    Assert.assertEquals(1439, TimeParser.timeToMinuteOfDay("23:59"));
+    Assert.assertEquals(-1, TimeParser.timeToMinuteOfDay("24:00"));
+    Assert.assertEquals(-1, TimeParser.timeToMinuteOfDay("8:30 PM"));
+    Assert.assertEquals(1230, TimeParser.timeToMinuteOfDay("8:30 PM", AM_PM_MARKERS));
+    Assert.assertEquals(30, TimeParser.timeToMinuteOfDay("12:30 am", AM_PM_MARKERS));
+    Assert.assertEquals(750, TimeParser.timeToMinuteOfDay("12:30 pm", AM_PM_MARKERS));
+    Assert.assertEquals(-1, TimeParser.timeToMinuteOfDay("8:30 Pm", AM_PM_MARKERS));
+  }
+
+  @Test
+  public void testTimeProperties() {
+    Pattern amPmPattern = Pattern.compile(AM_PM_PATTERN);
+    Random random = new Random(1L);
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      String time = (i % 2) == 0
+          ? randomString(random, TIME_CHARACTERS)
+          : randomValidTime(random);
+      boolean valid24Hours = TIME24HOURS_PATTERN.matcher(time).matches();
+      Assert.assertEquals(time, valid24Hours, TimeParser.timeToMinuteOfDay(time) >= 0);
+      Assert.assertEquals(time, valid24Hours || amPmPattern.matcher(time).matches(),
+          TimeParser.timeToMinuteOfDay(time, AM_PM_MARKERS) >= 0);
+    }
+  }
+}
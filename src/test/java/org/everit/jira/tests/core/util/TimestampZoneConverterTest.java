@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import java.sql.Timestamp;
+
+import org.everit.jira.timetracker.plugin.util.TimestampZoneConverter;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampZoneConverterTest {
+
+  private static final DateTimeZone BUDAPEST = DateTimeZone.forID("Europe/Budapest");
+
+  private static final DateTimeZone NEW_YORK = DateTimeZone.forID("America/New_York");
+
+  @Test
+  public void testConvertToUserTimeZone() {
+    TimestampZoneConverter converter =
+        new TimestampZoneConverter(DateTimeZone.UTC, DateTimeZone.UTC, BUDAPEST);
+    long systemMillis = new DateTime(2016, 1, 1, 10, 0, 0, 500, DateTimeZone.UTC).getMillis();
+    Assert.assertEquals(new DateTime(2016, 1, 1, 11, 0, 0, 0, DateTimeZone.UTC).getMillis(),
+        converter.convert(systemMillis));
+
+    converter = new TimestampZoneConverter(DateTimeZone.UTC, BUDAPEST, NEW_YORK);
+    Assert.assertEquals(new DateTime(2016, 7, 1, 4, 0, 0, 0, DateTimeZone.UTC).getMillis(),
+        converter.convert(new DateTime(2016, 7, 1, 10, 0, 0, 0, DateTimeZone.UTC).getMillis()));
+  }
+
+  @Test
+  public void testConvertTimestamp() {
+    TimestampZoneConverter converter =
+        new TimestampZoneConverter(DateTimeZone.UTC, DateTimeZone.UTC, BUDAPEST);
+    Assert.assertNull(converter.convert((Timestamp) null));
+    Timestamp converted = converter.convert(new Timestamp(
+        new DateTime(2016, 7, 1, 10, 0, 0, 0, DateTimeZone.UTC).getMillis()));
+    Assert.assertEquals(new DateTime(2016, 7, 1, 12, 0, 0, 0, DateTimeZone.UTC).getMillis(),
+        converted.getTime());
+  }
+
+  @Test
+  public void testOverlapTakesLaterOffset() {
+    TimestampZoneConverter converter =
+        new TimestampZoneConverter(BUDAPEST, BUDAPEST, BUDAPEST);
+    long firstOccurrence = new DateTime(2015, 10, 25, 0, 31, 20, 427, DateTimeZone.UTC).getMillis();
+    Assert.assertEquals(new DateTime(2015, 10, 25, 1, 31, 20, 0, DateTimeZone.UTC).getMillis(),
+        converter.convert(firstOccurrence));
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import java.util.Locale;
+
+import org.everit.jira.core.util.TimetrackerContext;
+import org.everit.jira.core.util.TimetrackerUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.user.MockApplicationUser;
+import com.atlassian.jira.util.I18nHelper;
+
+public class TimetrackerContextTest {
+
+  private JiraAuthenticationContext jiraAuthenticationContext;
+
+  @After
+  public void after() {
+    TimetrackerContext.end();
+  }
+
+  @Before
+  public void before() {
+    jiraAuthenticationContext = Mockito.mock(JiraAuthenticationContext.class);
+    Mockito.when(jiraAuthenticationContext.getUser())
+        .thenReturn(new MockApplicationUser("userKey", "username"));
+    I18nHelper i18nHelper = Mockito.mock(I18nHelper.class);
+    Mockito.when(i18nHelper.getLocale()).thenReturn(Locale.ENGLISH);
+    Mockito.when(jiraAuthenticationContext.getI18nHelper()).thenReturn(i18nHelper);
+    new MockComponentWorker()
+        .addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
+        .init();
+  }
+
+  @Test
+  public void testBoundContext() {
+    Assert.assertTrue(TimetrackerContext.begin());
+    Assert.assertFalse(TimetrackerContext.begin());
+    Assert.assertSame(TimetrackerContext.current(), TimetrackerContext.current());
+
+    Assert.assertEquals("userKey", TimetrackerUtil.getLoggedUserKey());
+    Assert.assertEquals("userKey", TimetrackerUtil.getLoggedUserKey());
+    Assert.assertTrue(TimetrackerUtil.isUserLogged());
+    Assert.assertEquals(Locale.ENGLISH, TimetrackerContext.current().getLocale());
+    Mockito.verify(jiraAuthenticationContext, Mockito.times(1)).getUser();
+
+    TimetrackerContext.end();
+    Assert.assertNotSame(TimetrackerContext.current(), TimetrackerContext.current());
+  }
+
+  @Test
+  public void testResetCurrent() {
+    TimetrackerContext.begin();
+    TimetrackerContext context = TimetrackerContext.current();
+    TimetrackerContext.resetCurrent();
+    Assert.assertNotSame(context, TimetrackerContext.current());
+    Assert.assertSame(TimetrackerContext.current(), TimetrackerContext.current());
+  }
+
+  @Test
+  public void testUnboundContext() {
+    Assert.assertNotSame(TimetrackerContext.current(), TimetrackerContext.current());
+
+    Assert.assertEquals("userKey", TimetrackerUtil.getLoggedUserKey());
+    Assert.assertEquals("userKey", TimetrackerUtil.getLoggedUserKey());
+    Mockito.verify(jiraAuthenticationContext, Mockito.times(2)).getUser();
+  }
+}
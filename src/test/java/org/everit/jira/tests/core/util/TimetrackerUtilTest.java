@@ -26,7 +26,9 @@ import java.util.Locale;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+import org.everit.jira.core.query.WorklogCountQuery;
 import org.everit.jira.core.util.TimetrackerUtil;
+import org.everit.jira.querydsl.support.QuerydslSupport;
 import org.everit.jira.tests.core.DummyDateTimeFromatter;
 import org.everit.jira.timetracker.plugin.dto.WorklogValues;
 import org.joda.time.DateTime;
@@ -37,9 +39,6 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
-import org.ofbiz.core.entity.GenericEntityException;
 import org.ofbiz.core.entity.GenericValue;
 
 import com.atlassian.crowd.embedded.api.User;
@@ -49,8 +48,6 @@ import com.atlassian.jira.issue.status.MockStatus;
 import com.atlassian.jira.issue.status.Status;
 import com.atlassian.jira.mock.component.MockComponentWorker;
 import com.atlassian.jira.mock.issue.MockIssue;
-import com.atlassian.jira.mock.ofbiz.MockGenericValue;
-import com.atlassian.jira.ofbiz.OfBizDelegator;
 import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.Permissions;
@@ -82,11 +79,26 @@ public class TimetrackerUtilTest {
     }
   }
 
+  static class WorklogCountQueryMatcher extends ArgumentMatcher<WorklogCountQuery> {
+
+    private final Date startDate;
+
+    WorklogCountQueryMatcher(final Date startDate) {
+      this.startDate = startDate;
+    }
+
+    @Override
+    public boolean matches(final Object argument) {
+      return (argument instanceof WorklogCountQuery)
+          && startDate.equals(((WorklogCountQuery) argument).getStartDate());
+    }
+  }
+
   private static final String CLOSED_STATUS_ID = "6";
 
   private static final String OPEN_STATUS_ID = "1";
 
-  public void initMockComponents(final Date containsWorklogDate,
+  public QuerydslSupport initMockComponents(final Date containsWorklogDate,
       final Date notContainsWorklogDate) {
     MockComponentWorker mockComponentWorker = new MockComponentWorker();
 
@@ -104,59 +116,6 @@ public class TimetrackerUtilTest {
         .thenReturn(loggedUser);
     mockComponentWorker.addMock(JiraAuthenticationContext.class, jiraAuthenticationContext);
 
-    MockGenericValue mockGenericValue = new MockGenericValue("none");
-    OfBizDelegator ofBizDelegator = Mockito.mock(OfBizDelegator.class, Mockito.RETURNS_DEEP_STUBS);
-    ArrayList<GenericValue> genericValues =
-        new ArrayList<>(Arrays.asList((GenericValue) mockGenericValue));
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              try {
-                if ("startdate".equals(expr.getLhs())
-                    && sdf.format(containsWorklogDate)
-                        .equals(sdf.format(sdf.parse(expr.getRhs().toString())))) {
-                  return true;
-                }
-              } catch (ParseException e) {
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(genericValues);
-    Mockito.when(ofBizDelegator.findByAnd(Matchers.eq("IssueWorklogView"),
-        Matchers.argThat(new ArgumentMatcher<List<EntityCondition>>() {
-          @Override
-          public boolean matches(final Object argument) {
-            if (argument == null) {
-              return false;
-            }
-            List<EntityCondition> exprList = (List<EntityCondition>) argument;
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            for (EntityCondition expression : exprList) {
-              EntityExpr expr = (EntityExpr) expression;
-              try {
-                if ("startdate".equals(expr.getLhs())
-                    && sdf.format(notContainsWorklogDate)
-                        .equals(sdf.format(sdf.parse(expr.getRhs().toString())))) {
-                  return true;
-                }
-              } catch (ParseException e) {
-              }
-            }
-            return false;
-          }
-        })))
-        .thenReturn(null);
-    mockComponentWorker.addMock(OfBizDelegator.class, ofBizDelegator);
 
     DateTimeFormatterFactory mockDateTimeFormatterFactory =
         Mockito.mock(DateTimeFormatterFactory.class, Mockito.RETURNS_DEEP_STUBS);
@@ -165,19 +124,30 @@ public class TimetrackerUtilTest {
     mockComponentWorker.addMock(DateTimeFormatterFactory.class, mockDateTimeFormatterFactory);
 
     mockComponentWorker.init();
+
+    QuerydslSupport querydslSupport = Mockito.mock(QuerydslSupport.class);
+    Mockito.when(querydslSupport.execute(
+        Matchers.argThat(new WorklogCountQueryMatcher(containsWorklogDate))))
+        .thenReturn(1L);
+    Mockito.when(querydslSupport.execute(
+        Matchers.argThat(new WorklogCountQueryMatcher(notContainsWorklogDate))))
+        .thenReturn(0L);
+    return querydslSupport;
   }
 
   @Test
-  public void isContainsWorklog() throws ParseException, GenericEntityException {
+  public void isContainsWorklog() throws ParseException {
     SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
     Date containsWorklogDate = sdf.parse("2015-10-21");
     Date notContainsWorklogDate = sdf.parse("2016-10-21");
 
-    initMockComponents(containsWorklogDate, notContainsWorklogDate);
+    QuerydslSupport querydslSupport =
+        initMockComponents(containsWorklogDate, notContainsWorklogDate);
 
-    Assert.assertTrue(TimetrackerUtil.isContainsWorklog(containsWorklogDate));
+    Assert.assertTrue(TimetrackerUtil.isContainsWorklog(querydslSupport, containsWorklogDate));
 
-    Assert.assertFalse(TimetrackerUtil.isContainsWorklog(notContainsWorklogDate));
+    Assert.assertFalse(
+        TimetrackerUtil.isContainsWorklog(querydslSupport, notContainsWorklogDate));
   }
 
   @Test
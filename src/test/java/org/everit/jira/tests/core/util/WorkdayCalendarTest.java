@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.everit.jira.core.util.WorkdayCalendar;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorkdayCalendarTest {
+
+  private static final DateTimeZone USER_ZONE = DateTimeZone.forID("America/New_York");
+
+  private Set<DateTime> dates(final DateTime... dates) {
+    return new HashSet<>(Arrays.asList(dates));
+  }
+
+  private DateTime utcDay(final int year, final int month, final int day) {
+    return new DateTime(year, month, day, 0, 0, DateTimeZone.UTC);
+  }
+
+  @Test
+  public void testEmptyCalendar() {
+    WorkdayCalendar workdayCalendar =
+        new WorkdayCalendar(Collections.<DateTime> emptySet(), Collections.<DateTime> emptySet());
+
+    Assert.assertTrue(workdayCalendar.isWorkday(new DateTime(2016, 12, 30, 0, 0, USER_ZONE)));
+    Assert.assertFalse(workdayCalendar.isWorkday(new DateTime(2016, 12, 31, 0, 0, USER_ZONE)));
+    Assert.assertFalse(workdayCalendar.isExcluded(new DateTime(2016, 12, 30, 0, 0, USER_ZONE)));
+    Assert.assertFalse(workdayCalendar.isIncluded(new DateTime(2016, 12, 31, 0, 0, USER_ZONE)));
+  }
+
+  @Test
+  public void testIsWorkday() {
+    WorkdayCalendar workdayCalendar = new WorkdayCalendar(
+        dates(utcDay(2016, 12, 26), utcDay(2017, 1, 1)),
+        dates(utcDay(2016, 12, 31), utcDay(2017, 1, 1)));
+
+    // the day is calculated in the zone of the checked date
+    Assert.assertTrue(workdayCalendar.isExcluded(new DateTime(2016, 12, 26, 23, 0, USER_ZONE)));
+    Assert.assertFalse(workdayCalendar.isWorkday(new DateTime(2016, 12, 26, 23, 0, USER_ZONE)));
+    Assert.assertTrue(workdayCalendar.isWorkday(new DateTime(2016, 12, 27, 0, 0, USER_ZONE)));
+    Assert.assertTrue(workdayCalendar.isIncluded(new DateTime(2016, 12, 31, 0, 0, USER_ZONE)));
+    Assert.assertTrue(workdayCalendar.isWorkday(new DateTime(2016, 12, 31, 0, 0, USER_ZONE)));
+    // excluded wins over included
+    Assert.assertFalse(workdayCalendar.isWorkday(new DateTime(2017, 1, 1, 0, 0, USER_ZONE)));
+    Assert.assertFalse(workdayCalendar.isWorkday(new DateTime(2017, 1, 7, 0, 0, USER_ZONE)));
+    Assert.assertTrue(workdayCalendar.isWorkday(new DateTime(1969, 12, 31, 0, 0, USER_ZONE)));
+    Assert.assertFalse(workdayCalendar.isWorkday(new DateTime(1969, 12, 28, 0, 0, USER_ZONE)));
+    Assert.assertEquals(2, workdayCalendar.countExcludedDays(Arrays.asList(
+        new DateTime(2016, 12, 26, 0, 0, USER_ZONE), new DateTime(2017, 1, 1, 0, 0, USER_ZONE),
+        new DateTime(2017, 1, 2, 0, 0, USER_ZONE))));
+    Assert.assertEquals(1, workdayCalendar.countIncludedDays(Arrays.asList(
+        new DateTime(2016, 12, 31, 0, 0, USER_ZONE), new DateTime(2017, 1, 2, 0, 0, USER_ZONE))));
+  }
+}
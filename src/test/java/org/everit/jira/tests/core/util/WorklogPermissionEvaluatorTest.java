@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.core.util;
+
+import org.everit.jira.core.util.WorklogPermissionEvaluator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.issue.Issue;
+import com.atlassian.jira.mock.issue.MockIssue;
+import com.atlassian.jira.permission.ProjectPermissions;
+import com.atlassian.jira.project.MockProject;
+import com.atlassian.jira.security.PermissionManager;
+import com.atlassian.jira.user.MockApplicationUser;
+
+public class WorklogPermissionEvaluatorTest {
+
+  private MockIssue issue;
+
+  private PermissionManager permissionManager;
+
+  private WorklogPermissionEvaluator permissionEvaluator;
+
+  private MockApplicationUser user;
+
+  @Before
+  public void before() {
+    user = new MockApplicationUser("userKey", "username");
+    issue = new MockIssue(1, "KEY-1");
+    issue.setProjectObject(new MockProject(1));
+
+    permissionManager = Mockito.mock(PermissionManager.class, Mockito.RETURNS_DEEP_STUBS);
+    permissionEvaluator = new WorklogPermissionEvaluator(user, permissionManager);
+  }
+
+  @Test
+  public void testOwnWorklogPermissions() {
+    Mockito.when(
+        permissionManager.hasPermission(Matchers.eq(ProjectPermissions.EDIT_OWN_WORKLOGS),
+            Matchers.any(Issue.class),
+            Matchers.eq(user)))
+        .thenReturn(true);
+
+    Assert.assertTrue(permissionEvaluator.canEditOwnWorklogs(issue));
+    Assert.assertTrue(permissionEvaluator.canEditOwnWorklogs(issue));
+    Assert.assertFalse(permissionEvaluator.canDeleteOwnWorklogs(issue));
+    Assert.assertFalse(permissionEvaluator.canDeleteOwnWorklogs(issue));
+
+    Mockito.verify(permissionManager, Mockito.times(1))
+        .hasPermission(Matchers.eq(ProjectPermissions.EDIT_OWN_WORKLOGS),
+            Matchers.any(Issue.class), Matchers.eq(user));
+    Mockito.verify(permissionManager, Mockito.times(1))
+        .hasPermission(Matchers.eq(ProjectPermissions.DELETE_OWN_WORKLOGS),
+            Matchers.any(Issue.class), Matchers.eq(user));
+  }
+}
@@ -15,106 +15,46 @@
  */
 package org.everit.jira.tests.core.util;
 
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
+import org.everit.jira.core.dto.WorklogDTO;
 import org.everit.jira.core.util.WorklogUtil;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
-import org.ofbiz.core.entity.EntityCondition;
-import org.ofbiz.core.entity.EntityExpr;
-import org.ofbiz.core.entity.EntityOperator;
-import org.ofbiz.core.entity.GenericValue;
-import org.ofbiz.core.entity.model.ModelEntity;
 
-import com.atlassian.jira.component.ComponentAccessor;
 import com.atlassian.jira.issue.IssueManager;
 import com.atlassian.jira.issue.MutableIssue;
-import com.atlassian.jira.mock.MockProjectRoleManager.MockProjectRole;
 import com.atlassian.jira.mock.component.MockComponentWorker;
 import com.atlassian.jira.mock.issue.MockIssue;
-import com.atlassian.jira.permission.ProjectPermissions;
 import com.atlassian.jira.project.MockProject;
 import com.atlassian.jira.project.Project;
-import com.atlassian.jira.security.JiraAuthenticationContext;
 import com.atlassian.jira.security.PermissionManager;
 import com.atlassian.jira.security.Permissions;
-import com.atlassian.jira.security.groups.GroupManager;
-import com.atlassian.jira.security.roles.ProjectRole;
-import com.atlassian.jira.security.roles.ProjectRoleManager;
-import com.atlassian.jira.user.ApplicationUser;
 import com.atlassian.jira.user.MockApplicationUser;
 
 public class WorklogUtilTest {
 
-  static class DummyGenericValue extends GenericValue {
-    private static final long serialVersionUID = 3415063923321743460L;
-
-    private final Map<String, Object> values;
-
-    @SuppressWarnings("deprecation")
-    public DummyGenericValue(final Map<String, Object> values) {
-      super(new ModelEntity());
-      this.values = Collections.unmodifiableMap(new HashMap<>(values));
-    }
-
-    @Override
-    public Long getLong(final String key) {
-      return (Long) values.get(key);
-    }
-
-    @Override
-    public String getString(final String key) {
-      return (String) values.get(key);
-    }
-  }
-
-  private Calendar endDate;
   private MockApplicationUser noProjectUser;
-  private Calendar startDate;
-  private MockApplicationUser test0User;
-  private MockApplicationUser user;
 
-  private void assertEntityExpression(final EntityExpr expression, final String expectedLhs,
-      final EntityOperator expectedOperator, final Object expectedRhs) {
-    Assert.assertEquals(expectedLhs, expression.getLhs());
-    Assert.assertEquals(expectedOperator, expectedOperator);
-    Assert.assertEquals(expectedRhs, expression.getRhs());
-  }
+  private MockApplicationUser test0User;
 
   @Before
   public void before() {
-    startDate = Calendar.getInstance();
-    endDate = (Calendar) startDate.clone();
-    endDate.set(Calendar.YEAR, 2000);
     test0User = new MockApplicationUser("test0", "test0_username");
     noProjectUser = new MockApplicationUser("noProjectUser", "noProjectUser_username");
-  }
 
-  private DummyGenericValue createDummyGenericValue(final Long roleLevelId, final String groupLevel,
-      final long issueId) {
-    HashMap<String, Object> values = new HashMap<>();
-    values.put("rolelevel", roleLevelId);
-    values.put("grouplevel", groupLevel);
-    values.put("issue", issueId);
-    return new DummyGenericValue(values);
-  }
+    List<Project> projects = new ArrayList<>();
+    projects.add(new MockProject(1));
+    projects.add(new MockProject(2));
 
-  private void initMockComponentsForCreateWorklogQueryExpr(final MockApplicationUser test0User,
-      final MockApplicationUser noProjectUser,
-      final List<Project> projects) {
     MockComponentWorker mockComponentWorker = new MockComponentWorker();
-
     PermissionManager permissionManager =
         Mockito.mock(PermissionManager.class, Mockito.RETURNS_DEEP_STUBS);
     Mockito.when(permissionManager.getProjects(Permissions.BROWSE, test0User))
@@ -122,269 +62,41 @@ public class WorklogUtilTest {
     Mockito.when(permissionManager.getProjects(Permissions.BROWSE, noProjectUser))
         .thenReturn(new ArrayList<Project>());
     mockComponentWorker.addMock(PermissionManager.class, permissionManager);
-
-    mockComponentWorker.init();
-  }
-
-  private void initMockComponentsForHasWorklogVisibility() {
-    MockComponentWorker mockComponentWorker = new MockComponentWorker();
-
-    JiraAuthenticationContext mockJiraAuthenticationContext =
-        Mockito.mock(JiraAuthenticationContext.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(mockJiraAuthenticationContext.getI18nHelper().getLocale())
-        .thenReturn(new Locale("en", "US"));
-    user = new MockApplicationUser("userKey", "username");
-    Mockito.when(mockJiraAuthenticationContext.getUser())
-        .thenReturn(user);
-    mockComponentWorker.addMock(JiraAuthenticationContext.class, mockJiraAuthenticationContext);
-
-    MockIssue mockIssue = new MockIssue(1, "KEY-12");
-    IssueManager issueManager = Mockito.mock(IssueManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(issueManager.getIssueObject(Matchers.anyLong()))
-        .thenReturn(mockIssue);
-    mockComponentWorker.addMock(IssueManager.class, issueManager);
-
-    List<String> groups = new ArrayList<>(Arrays.asList("one", "group_1", "group_2"));
-    GroupManager groupManager = Mockito.mock(GroupManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(groupManager.getGroupNamesForUser((ApplicationUser) Matchers.any()))
-        .thenReturn(groups);
-    mockComponentWorker.addMock(GroupManager.class, groupManager);
-
-    List<ProjectRole> projectRoles = new ArrayList<>();
-    projectRoles.add(new MockProjectRole(0, "p_admin", ""));
-    projectRoles.add(new MockProjectRole(1, "p_user", ""));
-    projectRoles.add(new MockProjectRole(2, "p_developer", ""));
-    ProjectRoleManager projectRoleManager =
-        Mockito.mock(ProjectRoleManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(projectRoleManager.getProjectRoles((ApplicationUser) Matchers.any(),
-        (Project) Matchers.any()))
-        .thenReturn(projectRoles);
-    mockComponentWorker.addMock(ProjectRoleManager.class, projectRoleManager);
-    PermissionManager permissionManager =
-        Mockito.mock(PermissionManager.class, Mockito.RETURNS_DEEP_STUBS);
-    Mockito.when(
-        permissionManager.hasPermission(Matchers.eq(ProjectPermissions.BROWSE_PROJECTS),
-            Matchers.any(MutableIssue.class),
-            Matchers.eq(user)))
-        .thenReturn(true);
-    mockComponentWorker.addMock(PermissionManager.class, permissionManager);
     mockComponentWorker.init();
   }
 
-  @Test
-  public void testCreateWorklogQueryExprListWithPermissionCheckLoggedUser() {
-    List<Project> projects = new ArrayList<>();
-    projects.add(new MockProject(1));
-    projects.add(new MockProject(2));
-
-    initMockComponentsForCreateWorklogQueryExpr(test0User, noProjectUser, projects);
-
-    // has project to user.
-    List<EntityCondition> test0UserConditions =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(test0User,
-            startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-
-    EntityExpr ecAuthor = (EntityExpr) test0UserConditions.get(0);
-    assertEntityExpression(ecAuthor, "author",
-        EntityOperator.EQUALS, test0User.getKey());
-
-    Assert.assertEquals(4, test0UserConditions.size());
-    EntityExpr ecStartDateGreaterThanEqual = (EntityExpr) test0UserConditions.get(1);
-    assertEntityExpression(ecStartDateGreaterThanEqual, "startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate.getTimeInMillis()));
-
-    EntityExpr ecStartDateLessThan = (EntityExpr) test0UserConditions.get(2);
-    assertEntityExpression(ecStartDateLessThan, "startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate.getTimeInMillis()));
-
-    EntityExpr ecProject = (EntityExpr) test0UserConditions.get(3);
-    assertEntityExpression(ecProject, "project",
-        EntityOperator.IN, new ArrayList<Long>(Arrays.asList(1L, 2L)));
-
-    // no projects to user.
-    List<EntityCondition> noProjectUserConditions =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(noProjectUser,
-            startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-
-    ecAuthor = (EntityExpr) noProjectUserConditions.get(0);
-    assertEntityExpression(ecAuthor, "author",
-        EntityOperator.EQUALS, noProjectUser.getKey());
-
-    Assert.assertEquals(4, noProjectUserConditions.size());
-    ecStartDateGreaterThanEqual = (EntityExpr) noProjectUserConditions.get(1);
-    assertEntityExpression(ecStartDateGreaterThanEqual, "startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate.getTimeInMillis()));
-
-    ecStartDateLessThan = (EntityExpr) noProjectUserConditions.get(2);
-    assertEntityExpression(ecStartDateLessThan, "startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate.getTimeInMillis()));
-
-    ecProject = (EntityExpr) noProjectUserConditions.get(3);
-    assertEntityExpression(ecProject, "project",
-        EntityOperator.EQUALS, null);
+  private WorklogDTO createWorklog(final long issueId) {
+    WorklogDTO worklog = new WorklogDTO();
+    worklog.setIssueId(issueId);
+    return worklog;
   }
 
   @Test
-  public void testCreateWorklogQueryExprListWithPermissionCheckSelectedUser() {
-    List<Project> projects = new ArrayList<>();
-    projects.add(new MockProject(1));
-    projects.add(new MockProject(2));
-
-    initMockComponentsForCreateWorklogQueryExpr(test0User, noProjectUser, projects);
-
-    // has project to user.
-    List<EntityCondition> test0UserConditions =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck("test",
-            test0User,
-            startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-
-    EntityExpr ecAuthor = (EntityExpr) test0UserConditions.get(0);
-    assertEntityExpression(ecAuthor, "author",
-        EntityOperator.EQUALS, "test");
-
-    Assert.assertEquals(4, test0UserConditions.size());
-    EntityExpr ecStartDateGreaterThanEqual = (EntityExpr) test0UserConditions.get(1);
-    assertEntityExpression(ecStartDateGreaterThanEqual, "startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate.getTimeInMillis()));
-
-    EntityExpr ecStartDateLessThan = (EntityExpr) test0UserConditions.get(2);
-    assertEntityExpression(ecStartDateLessThan, "startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate.getTimeInMillis()));
-
-    EntityExpr ecProject = (EntityExpr) test0UserConditions.get(3);
-    assertEntityExpression(ecProject, "project",
-        EntityOperator.IN, new ArrayList<Long>(Arrays.asList(1L, 2L)));
-
-    // no projects to user.
-    List<EntityCondition> noProjectUserConditions =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck("test",
-            noProjectUser,
-            startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-
-    ecAuthor = (EntityExpr) noProjectUserConditions.get(0);
-    assertEntityExpression(ecAuthor, "author",
-        EntityOperator.EQUALS, "test");
-
-    Assert.assertEquals(4, noProjectUserConditions.size());
-    ecStartDateGreaterThanEqual = (EntityExpr) noProjectUserConditions.get(1);
-    assertEntityExpression(ecStartDateGreaterThanEqual, "startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate.getTimeInMillis()));
-
-    ecStartDateLessThan = (EntityExpr) noProjectUserConditions.get(2);
-    assertEntityExpression(ecStartDateLessThan, "startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate.getTimeInMillis()));
-
-    ecProject = (EntityExpr) noProjectUserConditions.get(3);
-    assertEntityExpression(ecProject, "project",
-        EntityOperator.EQUALS, null);
-
-    // has project to user but no add selected user.
-    List<EntityCondition> test0UserConditionsNullSelectedUser =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck(null, test0User,
-            startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-
-    ecAuthor = (EntityExpr) test0UserConditionsNullSelectedUser.get(0);
-    assertEntityExpression(ecAuthor, "author",
-        EntityOperator.EQUALS, test0User.getKey());
-
-    Assert.assertEquals(4, test0UserConditionsNullSelectedUser.size());
-    ecStartDateGreaterThanEqual =
-        (EntityExpr) test0UserConditionsNullSelectedUser.get(1);
-    assertEntityExpression(ecStartDateGreaterThanEqual, "startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate.getTimeInMillis()));
-
-    ecStartDateLessThan = (EntityExpr) test0UserConditionsNullSelectedUser.get(2);
-    assertEntityExpression(ecStartDateLessThan, "startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate.getTimeInMillis()));
-
-    ecProject = (EntityExpr) test0UserConditionsNullSelectedUser.get(3);
-    assertEntityExpression(ecProject, "project",
-        EntityOperator.IN, new ArrayList<Long>(Arrays.asList(1L, 2L)));
-
-    // has project to user but no add selected user.
-    List<EntityCondition> test0UserConditionsEmptySelectedUser =
-        WorklogUtil.createWorklogQueryExprListWithPermissionCheck("", test0User,
-            startDate.getTimeInMillis(),
-            endDate.getTimeInMillis());
-
-    ecAuthor = (EntityExpr) test0UserConditionsEmptySelectedUser.get(0);
-    assertEntityExpression(ecAuthor, "author",
-        EntityOperator.EQUALS, test0User.getKey());
-
-    Assert.assertEquals(4, test0UserConditionsEmptySelectedUser.size());
-    ecStartDateGreaterThanEqual =
-        (EntityExpr) test0UserConditionsEmptySelectedUser.get(1);
-    assertEntityExpression(ecStartDateGreaterThanEqual, "startdate",
-        EntityOperator.GREATER_THAN_EQUAL_TO, new Timestamp(startDate.getTimeInMillis()));
-
-    ecStartDateLessThan = (EntityExpr) test0UserConditionsEmptySelectedUser.get(2);
-    assertEntityExpression(ecStartDateLessThan, "startdate",
-        EntityOperator.LESS_THAN, new Timestamp(endDate.getTimeInMillis()));
-
-    ecProject = (EntityExpr) test0UserConditionsEmptySelectedUser.get(3);
-    assertEntityExpression(ecProject, "project",
-        EntityOperator.IN, new ArrayList<Long>(Arrays.asList(1L, 2L)));
+  public void testCreateProjects() {
+    Assert.assertEquals(Arrays.asList(1L, 2L), WorklogUtil.createProjects(test0User));
+    Assert.assertTrue(WorklogUtil.createProjects(noProjectUser).isEmpty());
   }
 
   @Test
-  public void testHasWorklogVisibility() {
-    initMockComponentsForHasWorklogVisibility();
-
-    IssueManager issueManager = ComponentAccessor.getIssueManager();
-    GroupManager groupManager = ComponentAccessor.getGroupManager();
-    PermissionManager permissionManager = ComponentAccessor.getPermissionManager();
-    ProjectRoleManager projectRoleManager =
-        ComponentAccessor.getComponent(ProjectRoleManager.class);
-
-    DummyGenericValue existsRoleLevelGV = createDummyGenericValue(0L, null, 1);
-    boolean hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(user,
-        issueManager,
-        groupManager,
-        projectRoleManager,
-        permissionManager,
-        existsRoleLevelGV);
-    Assert.assertTrue(hasWorklogVisibility);
-
-    DummyGenericValue existsGroupLevelGV = createDummyGenericValue(null, "group_1", 1);
-    hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(user,
-        issueManager,
-        groupManager,
-        projectRoleManager,
-        permissionManager,
-        existsGroupLevelGV);
-    Assert.assertTrue(hasWorklogVisibility);
-
-    DummyGenericValue notExistsRoleLevelGV = createDummyGenericValue(-1L, null, 1);
-    hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(user,
-        issueManager,
-        groupManager,
-        projectRoleManager,
-        permissionManager,
-        notExistsRoleLevelGV);
-    Assert.assertFalse(hasWorklogVisibility);
-
-    DummyGenericValue notExistsGroupLevelGV = createDummyGenericValue(null, "no_group", 1);
-    hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(user,
-        issueManager,
-        groupManager,
-        projectRoleManager,
-        permissionManager,
-        notExistsGroupLevelGV);
-    Assert.assertFalse(hasWorklogVisibility);
-
-    DummyGenericValue defaultGV = createDummyGenericValue(null, null, 1);
-    hasWorklogVisibility = WorklogUtil.hasWorklogVisibility(user,
-        issueManager,
-        groupManager,
-        projectRoleManager,
-        permissionManager,
-        defaultGV);
-    Assert.assertTrue(hasWorklogVisibility);
+  public void testLoadWorklogIssues() {
+    IssueManager issueManager = Mockito.mock(IssueManager.class);
+    Mockito.when(issueManager.getIssueObjects(Matchers.anyCollectionOf(Long.class)))
+        .thenReturn(Arrays.<MutableIssue> asList(new MockIssue(1, "KEY-1"),
+            new MockIssue(2, "KEY-2")));
+
+    Map<Long, MutableIssue> issues = WorklogUtil.loadWorklogIssues(issueManager,
+        Arrays.asList(createWorklog(1), createWorklog(2), createWorklog(1)));
+
+    Assert.assertEquals(2, issues.size());
+    Assert.assertEquals("KEY-1", issues.get(1L).getKey());
+    Assert.assertEquals("KEY-2", issues.get(2L).getKey());
+    Mockito.verify(issueManager, Mockito.times(1))
+        .getIssueObjects(new HashSet<>(Arrays.asList(1L, 2L)));
+
+    Assert.assertTrue(
+        WorklogUtil.loadWorklogIssues(issueManager, new ArrayList<WorklogDTO>()).isEmpty());
+    Mockito.verify(issueManager, Mockito.times(1))
+        .getIssueObjects(Matchers.anyCollectionOf(Long.class));
   }
 
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.reporting.plugin;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.everit.jira.querydsl.support.QuerydslCallable;
+import org.everit.jira.querydsl.support.QuerydslSupport;
+import org.everit.jira.reporting.plugin.ReportingPluginImpl;
+import org.everit.jira.reporting.plugin.dto.IssueSummaryReportDTO;
+import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
+import org.everit.jira.reporting.plugin.exception.JTRPException;
+import org.everit.jira.tests.reporting.plugin.query.H2JiraDatabase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.groups.GroupManager;
+import com.atlassian.jira.user.MockApplicationUser;
+
+public class ReportingPluginImplTest {
+
+  /**
+   * Runs the queries on the test database. The queries on the report executor threads wait for
+   * the release latch first.
+   */
+  private class BlockingQueryAnswer implements Answer<Object> {
+
+    private final RuntimeException callerThreadException;
+
+    BlockingQueryAnswer(final RuntimeException callerThreadException) {
+      this.callerThreadException = callerThreadException;
+    }
+
+    @Override
+    public Object answer(final InvocationOnMock invocation) throws Throwable {
+      QuerydslCallable<?> query = (QuerydslCallable<?>) invocation.getArguments()[0];
+      if (Thread.currentThread().getName().startsWith(REPORT_THREAD_NAME_PREFIX)) {
+        startedReportThreadQueries.countDown();
+        try {
+          releaseReportThreadQueries.await();
+        } catch (InterruptedException e) {
+          interruptedReportThreadQueries.countDown();
+          throw e;
+        }
+      } else {
+        if (Thread.currentThread() == testThread) {
+          testThreadQueries.incrementAndGet();
+        } else {
+          startedCallerThreadQueries.countDown();
+        }
+        if (callerThreadException != null) {
+          startedReportThreadQueries.await(WAIT_SECONDS, TimeUnit.SECONDS);
+          throw callerThreadException;
+        }
+      }
+      return query.call(database.getConnection(), database.getConfiguration());
+    }
+  }
+
+  private static final int MAX_QUEUED_QUERIES = 32;
+
+  private static final int MAX_THREAD = 8;
+
+  private static final String REPORT_THREAD_NAME_PREFIX = "jttp-report-";
+
+  private static final long WAIT_SECONDS = 10;
+
+  private H2JiraDatabase database;
+
+  private CountDownLatch interruptedReportThreadQueries;
+
+  private CountDownLatch releaseReportThreadQueries;
+
+  private CountDownLatch startedCallerThreadQueries;
+
+  private CountDownLatch startedReportThreadQueries;
+
+  private Thread testThread;
+
+  private AtomicInteger testThreadQueries;
+
+  @After
+  public void after() throws SQLException {
+    releaseReportThreadQueries.countDown();
+    database.close();
+  }
+
+  @Before
+  public void before() throws SQLException {
+    JiraAuthenticationContext jiraAuthenticationContext =
+        Mockito.mock(JiraAuthenticationContext.class);
+    Mockito.when(jiraAuthenticationContext.getUser())
+        .thenReturn(new MockApplicationUser("admin", "admin"));
+    new MockComponentWorker()
+        .addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
+        .addMock(GroupManager.class, Mockito.mock(GroupManager.class))
+        .init();
+
+    database = H2JiraDatabase.create();
+    interruptedReportThreadQueries = new CountDownLatch(1);
+    releaseReportThreadQueries = new CountDownLatch(1);
+    startedCallerThreadQueries = new CountDownLatch(0);
+    startedReportThreadQueries = new CountDownLatch(1);
+    testThread = Thread.currentThread();
+    testThreadQueries = new AtomicInteger();
+  }
+
+  private ReportingPluginImpl createReportingPlugin(final RuntimeException callerThreadException)
+      throws Exception {
+    QuerydslSupport querydslSupport = Mockito.mock(QuerydslSupport.class);
+    Mockito.when(querydslSupport.execute(Matchers.any(QuerydslCallable.class)))
+        .thenAnswer(new BlockingQueryAnswer(callerThreadException));
+    ReportingPluginImpl reportingPlugin = new ReportingPluginImpl(querydslSupport);
+    reportingPlugin.afterPropertiesSet();
+    return reportingPlugin;
+  }
+
+  private ReportSearchParam reportSearchParam() {
+    return new ReportSearchParam()
+        .projectIds(Arrays.asList(10000L));
+  }
+
+  @Test
+  public void testCallerRunsWhenExecutorSaturated() throws Exception {
+    startedCallerThreadQueries = new CountDownLatch(MAX_THREAD + MAX_QUEUED_QUERIES);
+    startedReportThreadQueries = new CountDownLatch(MAX_THREAD);
+    final ReportingPluginImpl reportingPlugin = createReportingPlugin(null);
+    List<Thread> reportThreads = new ArrayList<>();
+    try {
+      for (int i = 0; i < (MAX_THREAD + MAX_QUEUED_QUERIES); i++) {
+        Thread reportThread = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            reportingPlugin.getIssueSummaryReport(reportSearchParam());
+          }
+        });
+        reportThread.start();
+        reportThreads.add(reportThread);
+      }
+      // the count queries are submitted before the page queries
+      Assert.assertTrue(startedCallerThreadQueries.await(WAIT_SECONDS, TimeUnit.SECONDS));
+      Assert.assertTrue(startedReportThreadQueries.await(WAIT_SECONDS, TimeUnit.SECONDS));
+
+      IssueSummaryReportDTO issueSummaryReport =
+          reportingPlugin.getIssueSummaryReport(reportSearchParam());
+
+      Assert.assertEquals(Long.valueOf(0L), issueSummaryReport.getIssueSummaryCount());
+      Assert.assertEquals(2, testThreadQueries.get());
+      Assert.assertEquals(1, releaseReportThreadQueries.getCount());
+    } finally {
+      releaseReportThreadQueries.countDown();
+      for (Thread reportThread : reportThreads) {
+        reportThread.join(TimeUnit.SECONDS.toMillis(WAIT_SECONDS));
+      }
+      reportingPlugin.destroy();
+    }
+  }
+
+  @Test
+  public void testPageQueryFailureCancelsCountQuery() throws Exception {
+    IllegalStateException pageQueryException = new IllegalStateException("page query failed");
+    ReportingPluginImpl reportingPlugin = createReportingPlugin(pageQueryException);
+    try {
+      reportingPlugin.getIssueSummaryReport(reportSearchParam());
+      Assert.fail("Expected the exception of the page query.");
+    } catch (IllegalStateException e) {
+      Assert.assertSame(pageQueryException, e);
+    } finally {
+      reportingPlugin.destroy();
+    }
+    Assert.assertTrue(interruptedReportThreadQueries.await(WAIT_SECONDS, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    System.setProperty(ReportingPluginImpl.REPORT_TIMEOUT_SECONDS_PROPERTY, "1");
+    ReportingPluginImpl reportingPlugin;
+    try {
+      reportingPlugin = createReportingPlugin(null);
+    } finally {
+      System.clearProperty(ReportingPluginImpl.REPORT_TIMEOUT_SECONDS_PROPERTY);
+    }
+    try {
+      reportingPlugin.getIssueSummaryReport(reportSearchParam());
+      Assert.fail("Expected the report timeout.");
+    } catch (JTRPException e) {
+      Assert.assertEquals("jtrp.plugin.report_timeout", e.getMessage());
+    } finally {
+      reportingPlugin.destroy();
+    }
+    Assert.assertTrue(interruptedReportThreadQueries.await(WAIT_SECONDS, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.reporting.plugin.query;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.everit.jira.querydsl.schema.QAppUser;
+import org.everit.jira.querydsl.schema.QComponent;
+import org.everit.jira.querydsl.schema.QCustomfield;
+import org.everit.jira.querydsl.schema.QCustomfieldvalue;
+import org.everit.jira.querydsl.schema.QCwdDirectory;
+import org.everit.jira.querydsl.schema.QCwdUser;
+import org.everit.jira.querydsl.schema.QIssuelink;
+import org.everit.jira.querydsl.schema.QIssuelinktype;
+import org.everit.jira.querydsl.schema.QIssuestatus;
+import org.everit.jira.querydsl.schema.QIssuetype;
+import org.everit.jira.querydsl.schema.QJiraissue;
+import org.everit.jira.querydsl.schema.QLabel;
+import org.everit.jira.querydsl.schema.QNodeassociation;
+import org.everit.jira.querydsl.schema.QPriority;
+import org.everit.jira.querydsl.schema.QProject;
+import org.everit.jira.querydsl.schema.QProjectroleactor;
+import org.everit.jira.querydsl.schema.QProjectversion;
+import org.everit.jira.querydsl.schema.QResolution;
+import org.everit.jira.querydsl.schema.QWorklog;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.RelationalPathBase;
+import com.querydsl.sql.SQLTemplates;
+import com.querydsl.sql.dml.SQLInsertClause;
+
+/**
+ * In memory H2 database with the Jira tables of the report queries. The tables are created from
+ * the Querydsl metadata without keys and constraints.
+ */
+public final class H2JiraDatabase {
+
+  private static final Map<Class<?>, String> COLUMN_TYPES = new HashMap<>();
+
+  private static final RelationalPathBase<?>[] TABLES = {
+      new QAppUser("appUser"),
+      new QComponent("component"),
+      new QCustomfield("customfield"),
+      new QCustomfieldvalue("customfieldvalue"),
+      new QCwdDirectory("cwdDirectory"),
+      new QCwdUser("cwdUser"),
+      new QIssuelink("issuelink"),
+      new QIssuelinktype("issuelinktype"),
+      new QIssuestatus("issuestatus"),
+      new QIssuetype("issuetype"),
+      new QJiraissue("issue"),
+      new QLabel("label"),
+      new QNodeassociation("nodeassociation"),
+      new QPriority("priority"),
+      new QProject("project"),
+      new QProjectroleactor("projectroleactor"),
+      new QProjectversion("projectversion"),
+      new QResolution("resolution"),
+      new QWorklog("worklog") };
+
+  static {
+    COLUMN_TYPES.put(BigDecimal.class, "DECIMAL(31, 8)");
+    COLUMN_TYPES.put(Boolean.class, "BOOLEAN");
+    COLUMN_TYPES.put(Double.class, "DOUBLE");
+    COLUMN_TYPES.put(Integer.class, "INTEGER");
+    COLUMN_TYPES.put(Long.class, "BIGINT");
+    COLUMN_TYPES.put(Short.class, "SMALLINT");
+    COLUMN_TYPES.put(Time.class, "TIME");
+    COLUMN_TYPES.put(Timestamp.class, "TIMESTAMP");
+    COLUMN_TYPES.put(java.sql.Date.class, "DATE");
+  }
+
+  /**
+   * Create a new empty database.
+   */
+  public static H2JiraDatabase create() throws SQLException {
+    Connection connection = DriverManager.getConnection("jdbc:h2:mem:");
+    Configuration configuration = new Configuration(new H2Templates());
+    for (RelationalPathBase<?> table : TABLES) {
+      createTable(connection, configuration.getTemplates(), table);
+    }
+    return new H2JiraDatabase(connection, configuration);
+  }
+
+  private static void createTable(final Connection connection, final SQLTemplates templates,
+      final RelationalPathBase<?> table) throws SQLException {
+    StringBuilder sql = new StringBuilder("CREATE TABLE ")
+        .append(templates.quoteIdentifier(table.getTableName()))
+        .append(" (");
+    String separator = "";
+    for (Path<?> column : table.getColumns()) {
+      String columnType = COLUMN_TYPES.get(column.getType());
+      sql.append(separator)
+          .append(templates.quoteIdentifier(table.getMetadata(column).getName()))
+          .append(' ')
+          .append(columnType == null ? "VARCHAR" : columnType);
+      separator = ", ";
+    }
+    sql.append(')');
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql.toString());
+    }
+  }
+
+  private final Configuration configuration;
+
+  private final Connection connection;
+
+  private H2JiraDatabase(final Connection connection, final Configuration configuration) {
+    this.connection = connection;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Drop the database.
+   */
+  public void close() throws SQLException {
+    connection.close();
+  }
+
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  public Connection getConnection() {
+    return connection;
+  }
+
+  /**
+   * Insert a row into the table.
+   *
+   * @param table
+   *          the table.
+   * @param columns
+   *          the columns of the values.
+   * @param values
+   *          the values in the order of the columns.
+   */
+  public void insert(final RelationalPathBase<?> table, final Path<?>[] columns,
+      final Object... values) {
+    new SQLInsertClause(connection, configuration, table)
+        .columns(columns)
+        .values(values)
+        .execute();
+  }
+}
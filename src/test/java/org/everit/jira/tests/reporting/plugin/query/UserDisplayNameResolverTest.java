@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.reporting.plugin.query;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.everit.jira.querydsl.schema.QAppUser;
+import org.everit.jira.querydsl.schema.QCwdDirectory;
+import org.everit.jira.querydsl.schema.QCwdUser;
+import org.everit.jira.reporting.plugin.query.util.QueryUtil;
+import org.everit.jira.reporting.plugin.query.util.UserDisplayNameResolver;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.sql.SQLQuery;
+
+public class UserDisplayNameResolverTest {
+
+  private static final long FIRST_DIRECTORY_ID = 1L;
+
+  private static final int KEY_COUNT = 1001;
+
+  private static final long SECOND_DIRECTORY_ID = 2L;
+
+  private H2JiraDatabase database;
+
+  private final AtomicInteger preparedStatementCount = new AtomicInteger();
+
+  @After
+  public void after() throws SQLException {
+    database.close();
+  }
+
+  @Before
+  public void before() throws SQLException {
+    database = H2JiraDatabase.create();
+    QCwdDirectory qCwdDirectory = new QCwdDirectory("cwdDirectory");
+    // the second directory has the lower position
+    database.insert(qCwdDirectory,
+        new Path<?>[] { qCwdDirectory.id, qCwdDirectory.directoryPosition },
+        FIRST_DIRECTORY_ID, 1L);
+    database.insert(qCwdDirectory,
+        new Path<?>[] { qCwdDirectory.id, qCwdDirectory.directoryPosition },
+        SECOND_DIRECTORY_ID, 0L);
+  }
+
+  private Connection countingConnection() {
+    final Connection connection = database.getConnection();
+    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { Connection.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args)
+              throws Throwable {
+            if ("prepareStatement".equals(method.getName())) {
+              preparedStatementCount.incrementAndGet();
+            }
+            try {
+              return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          }
+        });
+  }
+
+  private void insertUser(final String userKey, final long directoryId,
+      final String displayName) {
+    String lowerUserName = userKey.toLowerCase();
+    QAppUser qAppUser = new QAppUser("appUser");
+    if (directoryId == FIRST_DIRECTORY_ID) {
+      database.insert(qAppUser, new Path<?>[] { qAppUser.userKey, qAppUser.lowerUserName },
+          userKey, lowerUserName);
+    }
+    QCwdUser qCwdUser = new QCwdUser("cwdUser");
+    database.insert(qCwdUser,
+        new Path<?>[] { qCwdUser.directoryId, qCwdUser.lowerUserName, qCwdUser.displayName },
+        directoryId, lowerUserName, displayName);
+  }
+
+  @Test
+  public void testChunking() {
+    List<String> userKeys = new ArrayList<>();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      String userKey = "chunk-user-" + i;
+      insertUser(userKey, FIRST_DIRECTORY_ID, "Chunk User " + i);
+      userKeys.add(userKey);
+    }
+
+    Map<String, String> displayNames = UserDisplayNameResolver.resolve(countingConnection(),
+        database.getConfiguration(), userKeys);
+
+    Assert.assertEquals(3, preparedStatementCount.get());
+    Assert.assertEquals(KEY_COUNT, displayNames.size());
+    Assert.assertEquals("Chunk User 0", displayNames.get("chunk-user-0"));
+    Assert.assertEquals("Chunk User 1000", displayNames.get("chunk-user-1000"));
+
+    // the second call is served from the cache
+    Assert.assertEquals(displayNames, UserDisplayNameResolver.resolve(countingConnection(),
+        database.getConfiguration(), userKeys));
+    Assert.assertEquals(3, preparedStatementCount.get());
+  }
+
+  @Test
+  public void testLowestDirectoryPosition() {
+    insertUser("position-user", FIRST_DIRECTORY_ID, "Position User First");
+    insertUser("position-user", SECOND_DIRECTORY_ID, "Position User Second");
+
+    Map<String, String> displayNames = UserDisplayNameResolver.resolve(
+        database.getConnection(), database.getConfiguration(),
+        Arrays.asList("position-user"));
+
+    Assert.assertEquals("Position User Second", displayNames.get("position-user"));
+  }
+
+  @Test
+  public void testMissingUser() {
+    insertUser("nameless-user", FIRST_DIRECTORY_ID, null);
+
+    Map<String, String> displayNames = UserDisplayNameResolver.resolve(
+        database.getConnection(), database.getConfiguration(),
+        Arrays.asList("missing-user", "nameless-user", null));
+
+    Assert.assertEquals(2, displayNames.size());
+    Assert.assertEquals("missing-user", displayNames.get("missing-user"));
+    Assert.assertEquals("nameless-user", displayNames.get("nameless-user"));
+  }
+
+  @Test
+  public void testUserDisplayNameSortKey() {
+    insertUser("sort-user-a", FIRST_DIRECTORY_ID, "Zed");
+    insertUser("sort-user-a", SECOND_DIRECTORY_ID, "Bob");
+    insertUser("sort-user-b", FIRST_DIRECTORY_ID, "Carol");
+    insertUser("sort-user-c", FIRST_DIRECTORY_ID, null);
+
+    QAppUser qAppUser = new QAppUser("appUser");
+    PathBuilder<Object> userSort = new PathBuilder<>(Object.class, "userSort");
+    List<String> userKeys = new SQLQuery<>(database.getConnection(), database.getConfiguration())
+        .select(qAppUser.userKey)
+        .from(qAppUser)
+        .leftJoin(QueryUtil.createUserDisplayNameQuery(), userSort)
+        .on(userSort.getString(QueryUtil.USER_DISPLAY_NAME_USER_KEY).eq(qAppUser.userKey))
+        .orderBy(QueryUtil.createUserDisplayNameSortKey(userSort, qAppUser.userKey).asc())
+        .fetch();
+
+    Assert.assertEquals(Arrays.asList("sort-user-a", "sort-user-b", "sort-user-c"), userKeys);
+  }
+}
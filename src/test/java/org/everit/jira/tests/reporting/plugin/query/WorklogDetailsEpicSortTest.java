@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.reporting.plugin.query;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.everit.jira.querydsl.schema.QCustomfield;
+import org.everit.jira.querydsl.schema.QCustomfieldvalue;
+import org.everit.jira.querydsl.schema.QIssuelink;
+import org.everit.jira.querydsl.schema.QIssuelinktype;
+import org.everit.jira.querydsl.schema.QIssuestatus;
+import org.everit.jira.querydsl.schema.QIssuetype;
+import org.everit.jira.querydsl.schema.QJiraissue;
+import org.everit.jira.querydsl.schema.QProject;
+import org.everit.jira.querydsl.schema.QWorklog;
+import org.everit.jira.reporting.plugin.column.WorklogDetailsColumns;
+import org.everit.jira.reporting.plugin.dto.OrderBy;
+import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
+import org.everit.jira.reporting.plugin.dto.WorklogDetailsDTO;
+import org.everit.jira.reporting.plugin.query.WorklogDetailsReportQueryBuilder;
+import org.everit.jira.reporting.plugin.query.util.EpicSchemaCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.groups.GroupManager;
+import com.atlassian.jira.user.MockApplicationUser;
+import com.querydsl.core.types.Path;
+
+public class WorklogDetailsEpicSortTest {
+
+  private static final long EPIC_NAME_FIELD_ID = 10100L;
+
+  private static final long EPIC_STORY_LINK_TYPE_ID = 10200L;
+
+  private static final long ISSUE_COUNT = 5;
+
+  private static final long PROJECT_ID = 10000L;
+
+  private H2JiraDatabase database;
+
+  @After
+  public void after() throws SQLException {
+    database.close();
+    EpicSchemaCache.invalidate();
+  }
+
+  @Before
+  public void before() throws SQLException {
+    JiraAuthenticationContext jiraAuthenticationContext =
+        Mockito.mock(JiraAuthenticationContext.class);
+    Mockito.when(jiraAuthenticationContext.getUser())
+        .thenReturn(new MockApplicationUser("admin", "admin"));
+    new MockComponentWorker()
+        .addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
+        .addMock(GroupManager.class, Mockito.mock(GroupManager.class))
+        .init();
+    EpicSchemaCache.invalidate();
+
+    database = H2JiraDatabase.create();
+
+    QProject qProject = new QProject("project");
+    database.insert(qProject, new Path<?>[] { qProject.id, qProject.pkey, qProject.pname },
+        PROJECT_ID, "TEST", "Test");
+
+    QIssuetype qIssuetype = new QIssuetype("issuetype");
+    database.insert(qIssuetype, new Path<?>[] { qIssuetype.id, qIssuetype.pname }, "1", "Task");
+
+    QIssuestatus qIssuestatus = new QIssuestatus("issuestatus");
+    database.insert(qIssuestatus, new Path<?>[] { qIssuestatus.id, qIssuestatus.pname },
+        "1", "Open");
+
+    Timestamp created = new Timestamp(1451606400000L);
+    QJiraissue qIssue = new QJiraissue("issue");
+    QWorklog qWorklog = new QWorklog("worklog");
+    for (long issueId = 1; issueId <= ISSUE_COUNT; issueId++) {
+      database.insert(qIssue,
+          new Path<?>[] { qIssue.id, qIssue.project, qIssue.issuenum, qIssue.issuetype,
+              qIssue.issuestatus, qIssue.summary, qIssue.reporter, qIssue.created,
+              qIssue.updated },
+          issueId, PROJECT_ID, issueId, "1", "1", "Issue " + issueId, "admin", created,
+          created);
+      database.insert(qWorklog,
+          new Path<?>[] { qWorklog.id, qWorklog.issueid, qWorklog.author, qWorklog.timeworked,
+              qWorklog.startdate, qWorklog.created, qWorklog.updated },
+          issueId, issueId, "admin", 600L, created, created, created);
+    }
+  }
+
+  private void insertEpics() {
+    QCustomfield qCustomfield = new QCustomfield("customfield");
+    database.insert(qCustomfield, new Path<?>[] { qCustomfield.id, qCustomfield.cfname },
+        EPIC_NAME_FIELD_ID, EpicSchemaCache.EPIC_NAME_FIELD_NAME);
+    QIssuelinktype qIssuelinktype = new QIssuelinktype("issuelinktype");
+    database.insert(qIssuelinktype,
+        new Path<?>[] { qIssuelinktype.id, qIssuelinktype.linkname },
+        EPIC_STORY_LINK_TYPE_ID, EpicSchemaCache.EPIC_STORY_LINK_TYPE_NAME);
+
+    // issue 1 is an epic with two Epic Name values, issue 2 is an epic with one
+    QCustomfieldvalue qCustomfieldvalue = new QCustomfieldvalue("customfieldvalue");
+    Path<?>[] valueColumns = new Path<?>[] { qCustomfieldvalue.id, qCustomfieldvalue.issue,
+        qCustomfieldvalue.customfield, qCustomfieldvalue.stringvalue };
+    database.insert(qCustomfieldvalue, valueColumns, 1L, 1L, EPIC_NAME_FIELD_ID, "Zulu");
+    database.insert(qCustomfieldvalue, valueColumns, 2L, 1L, EPIC_NAME_FIELD_ID, "Alpha");
+    database.insert(qCustomfieldvalue, valueColumns, 3L, 2L, EPIC_NAME_FIELD_ID, "Mike");
+
+    // issue 3 is a story of epic 2, issue 4 is a story of epic 1, issue 5 has no epic
+    QIssuelink qIssuelink = new QIssuelink("issuelink");
+    Path<?>[] linkColumns = new Path<?>[] { qIssuelink.id, qIssuelink.linktype,
+        qIssuelink.source, qIssuelink.destination };
+    database.insert(qIssuelink, linkColumns, 1L, EPIC_STORY_LINK_TYPE_ID, 2L, 3L);
+    database.insert(qIssuelink, linkColumns, 2L, EPIC_STORY_LINK_TYPE_ID, 1L, 4L);
+  }
+
+  private List<WorklogDetailsDTO> query(final String orderColumnName, final boolean asc)
+      throws SQLException {
+    ReportSearchParam reportSearchParam = new ReportSearchParam()
+        .projectIds(Arrays.asList(PROJECT_ID))
+        .offset(0L)
+        .limit(ISSUE_COUNT);
+    OrderBy orderBy = new OrderBy()
+        .columnName(orderColumnName)
+        .asc(asc);
+    return new WorklogDetailsReportQueryBuilder(reportSearchParam, orderBy)
+        .buildQuery()
+        .call(database.getConnection(), database.getConfiguration());
+  }
+
+  @Test
+  public void testEpicLinkSort() throws SQLException {
+    insertEpics();
+
+    List<WorklogDetailsDTO> worklogDetails = query(WorklogDetailsColumns.ISSUE_EPIC_LINK, false);
+
+    Assert.assertEquals(Arrays.asList("Mike", "Alpha"), nonNullEpicLinks(worklogDetails));
+    Assert.assertEquals(Long.valueOf(3L), worklogDetails.get(0).getIssueId());
+    Assert.assertEquals(Long.valueOf(4L), worklogDetails.get(1).getIssueId());
+  }
+
+  @Test
+  public void testEpicNameSort() throws SQLException {
+    insertEpics();
+
+    List<WorklogDetailsDTO> worklogDetails = query(WorklogDetailsColumns.ISSUE_EPIC_NAME, false);
+
+    Assert.assertEquals(Long.valueOf(2L), worklogDetails.get(0).getIssueId());
+    Assert.assertEquals("Mike", worklogDetails.get(0).getIssueEpicName());
+    Assert.assertEquals(Long.valueOf(1L), worklogDetails.get(1).getIssueId());
+    Assert.assertEquals("Alpha", worklogDetails.get(1).getIssueEpicName());
+  }
+
+  @Test
+  public void testWithoutEpicSchema() throws SQLException {
+    List<WorklogDetailsDTO> worklogDetails = query(WorklogDetailsColumns.ISSUE_EPIC_LINK, true);
+
+    Assert.assertEquals(ISSUE_COUNT, worklogDetails.size());
+    for (int i = 0; i < worklogDetails.size(); i++) {
+      Assert.assertEquals(Long.valueOf(i + 1L), worklogDetails.get(i).getWorklogId());
+      Assert.assertNull(worklogDetails.get(i).getIssueEpicLink());
+      Assert.assertNull(worklogDetails.get(i).getIssueEpicName());
+    }
+  }
+
+  private List<String> nonNullEpicLinks(final List<WorklogDetailsDTO> worklogDetails) {
+    List<String> epicLinks = new ArrayList<>();
+    for (WorklogDetailsDTO worklogDetailsDTO : worklogDetails) {
+      if (worklogDetailsDTO.getIssueEpicLink() != null) {
+        epicLinks.add(worklogDetailsDTO.getIssueEpicLink());
+      }
+    }
+    return epicLinks;
+  }
+}
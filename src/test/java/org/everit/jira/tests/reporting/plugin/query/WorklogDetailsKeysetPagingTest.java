@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.reporting.plugin.query;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.everit.jira.querydsl.schema.QIssuestatus;
+import org.everit.jira.querydsl.schema.QIssuetype;
+import org.everit.jira.querydsl.schema.QJiraissue;
+import org.everit.jira.querydsl.schema.QProject;
+import org.everit.jira.querydsl.schema.QWorklog;
+import org.everit.jira.reporting.plugin.column.WorklogDetailsColumns;
+import org.everit.jira.reporting.plugin.dto.OrderBy;
+import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
+import org.everit.jira.reporting.plugin.dto.WorklogDetailsDTO;
+import org.everit.jira.reporting.plugin.query.WorklogDetailsReportQueryBuilder;
+import org.everit.jira.reporting.plugin.query.util.EpicSchemaCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.groups.GroupManager;
+import com.atlassian.jira.user.MockApplicationUser;
+import com.querydsl.core.types.Path;
+
+public class WorklogDetailsKeysetPagingTest {
+
+  private static final long HOUR = 3600000L;
+
+  private static final long ISSUE_COUNT = 3;
+
+  private static final long PAGE_SIZE = 2;
+
+  private static final long PROJECT_ID = 10000L;
+
+  private static final int WORKLOG_COUNT = 7;
+
+  private H2JiraDatabase database;
+
+  @After
+  public void after() throws SQLException {
+    database.close();
+  }
+
+  private void assertKeysetPaging(final String columnName) throws SQLException {
+    for (boolean asc : new boolean[] { true, false }) {
+      OrderBy orderBy = new OrderBy()
+          .columnName(columnName)
+          .asc(asc);
+      List<WorklogDetailsDTO> allWorklogs = new WorklogDetailsReportQueryBuilder(
+          reportSearchParam(0L, WORKLOG_COUNT), orderBy)
+              .buildQuery()
+              .call(database.getConnection(), database.getConfiguration());
+
+      Assert.assertEquals(columnName + " " + asc, worklogIds(allWorklogs),
+          pageWithCursor(orderBy));
+    }
+  }
+
+  @Before
+  public void before() throws SQLException {
+    JiraAuthenticationContext jiraAuthenticationContext =
+        Mockito.mock(JiraAuthenticationContext.class);
+    Mockito.when(jiraAuthenticationContext.getUser())
+        .thenReturn(new MockApplicationUser("admin", "admin"));
+    new MockComponentWorker()
+        .addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
+        .addMock(GroupManager.class, Mockito.mock(GroupManager.class))
+        .init();
+    EpicSchemaCache.invalidate();
+
+    database = H2JiraDatabase.create();
+
+    QProject qProject = new QProject("project");
+    database.insert(qProject, new Path<?>[] { qProject.id, qProject.pkey, qProject.pname },
+        PROJECT_ID, "TEST", "Test");
+
+    QIssuetype qIssuetype = new QIssuetype("issuetype");
+    database.insert(qIssuetype, new Path<?>[] { qIssuetype.id, qIssuetype.pname }, "1", "Task");
+
+    QIssuestatus qIssuestatus = new QIssuestatus("issuestatus");
+    database.insert(qIssuestatus, new Path<?>[] { qIssuestatus.id, qIssuestatus.pname },
+        "1", "Open");
+
+    long baseTime = 1451606400000L;
+    Timestamp created = new Timestamp(baseTime);
+    QJiraissue qIssue = new QJiraissue("issue");
+    for (long issueNum = 1; issueNum <= ISSUE_COUNT; issueNum++) {
+      database.insert(qIssue,
+          new Path<?>[] { qIssue.id, qIssue.project, qIssue.issuenum, qIssue.issuetype,
+              qIssue.issuestatus, qIssue.summary, qIssue.reporter, qIssue.created,
+              qIssue.updated },
+          issueNum, PROJECT_ID, issueNum, "1", "1", "Issue " + issueNum, "admin", created,
+          created);
+    }
+
+    // the issue keys, the start times and the spent times repeat to test the tie-breaker
+    QWorklog qWorklog = new QWorklog("worklog");
+    for (long worklogId = 1; worklogId <= WORKLOG_COUNT; worklogId++) {
+      Timestamp startDate = new Timestamp(baseTime + ((worklogId % 3) * HOUR));
+      startDate.setNanos((int) (worklogId % 2) * 500000000);
+      database.insert(qWorklog,
+          new Path<?>[] { qWorklog.id, qWorklog.issueid, qWorklog.author, qWorklog.timeworked,
+              qWorklog.startdate, qWorklog.created, qWorklog.updated },
+          worklogId, (worklogId % ISSUE_COUNT) + 1, "admin", ((worklogId % 2) + 1) * 600,
+          startDate, created, created);
+    }
+  }
+
+  private List<Long> pageWithCursor(final OrderBy orderBy) throws SQLException {
+    List<Long> worklogIds = new ArrayList<>();
+    String pageCursor = null;
+    long offset = 0;
+    do {
+      WorklogDetailsReportQueryBuilder queryBuilder = new WorklogDetailsReportQueryBuilder(
+          reportSearchParam(offset, PAGE_SIZE).pageCursor(pageCursor), orderBy);
+      Assert.assertEquals(pageCursor != null, queryBuilder.isKeysetPaging());
+
+      List<WorklogDetailsDTO> page = queryBuilder.buildQuery()
+          .call(database.getConnection(), database.getConfiguration());
+      worklogIds.addAll(worklogIds(page));
+      pageCursor = queryBuilder.createNextPageCursor(page);
+      offset += page.size();
+    } while (pageCursor != null);
+    return worklogIds;
+  }
+
+  private ReportSearchParam reportSearchParam(final long offset, final long limit) {
+    return new ReportSearchParam()
+        .projectIds(Arrays.asList(PROJECT_ID))
+        .offset(offset)
+        .limit(limit);
+  }
+
+  @Test
+  public void testCursorOfOtherPage() throws SQLException {
+    OrderBy orderBy = new OrderBy()
+        .columnName(WorklogDetailsColumns.TIME_SPENT)
+        .asc(true);
+    WorklogDetailsReportQueryBuilder queryBuilder =
+        new WorklogDetailsReportQueryBuilder(reportSearchParam(0L, PAGE_SIZE), orderBy);
+    String pageCursor = queryBuilder.createNextPageCursor(queryBuilder.buildQuery()
+        .call(database.getConnection(), database.getConfiguration()));
+    Assert.assertNotNull(pageCursor);
+
+    Assert.assertTrue(new WorklogDetailsReportQueryBuilder(
+        reportSearchParam(PAGE_SIZE, PAGE_SIZE).pageCursor(pageCursor), orderBy)
+            .isKeysetPaging());
+    // other offset
+    Assert.assertFalse(new WorklogDetailsReportQueryBuilder(
+        reportSearchParam(PAGE_SIZE * 2, PAGE_SIZE).pageCursor(pageCursor), orderBy)
+            .isKeysetPaging());
+    // other direction
+    Assert.assertFalse(new WorklogDetailsReportQueryBuilder(
+        reportSearchParam(PAGE_SIZE, PAGE_SIZE).pageCursor(pageCursor),
+        new OrderBy().columnName(WorklogDetailsColumns.TIME_SPENT).asc(false))
+            .isKeysetPaging());
+    // other column
+    Assert.assertFalse(new WorklogDetailsReportQueryBuilder(
+        reportSearchParam(PAGE_SIZE, PAGE_SIZE).pageCursor(pageCursor),
+        new OrderBy().columnName(WorklogDetailsColumns.START_TIME).asc(true))
+            .isKeysetPaging());
+  }
+
+  @Test
+  public void testInvalidCursor() {
+    OrderBy orderBy = new OrderBy()
+        .columnName(WorklogDetailsColumns.TIME_SPENT)
+        .asc(true);
+    for (String pageCursor : new String[] { "", "not a cursor", "e30", "bnVsbA" }) {
+      Assert.assertFalse(pageCursor, new WorklogDetailsReportQueryBuilder(
+          reportSearchParam(PAGE_SIZE, PAGE_SIZE).pageCursor(pageCursor), orderBy)
+              .isKeysetPaging());
+    }
+  }
+
+  @Test
+  public void testIssueKey() throws SQLException {
+    assertKeysetPaging(WorklogDetailsColumns.ISSUE_KEY);
+  }
+
+  @Test
+  public void testNotKeysetColumn() throws SQLException {
+    OrderBy orderBy = new OrderBy()
+        .columnName(WorklogDetailsColumns.ASSIGNEE)
+        .asc(true);
+    WorklogDetailsReportQueryBuilder queryBuilder =
+        new WorklogDetailsReportQueryBuilder(reportSearchParam(0L, PAGE_SIZE), orderBy);
+    List<WorklogDetailsDTO> page = queryBuilder.buildQuery()
+        .call(database.getConnection(), database.getConfiguration());
+
+    Assert.assertEquals(PAGE_SIZE, page.size());
+    Assert.assertNull(queryBuilder.createNextPageCursor(page));
+  }
+
+  @Test
+  public void testStartTime() throws SQLException {
+    assertKeysetPaging(WorklogDetailsColumns.START_TIME);
+  }
+
+  @Test
+  public void testTimeSpent() throws SQLException {
+    assertKeysetPaging(WorklogDetailsColumns.TIME_SPENT);
+  }
+
+  private List<Long> worklogIds(final List<WorklogDetailsDTO> worklogDetails) {
+    List<Long> worklogIds = new ArrayList<>();
+    for (WorklogDetailsDTO worklogDetailsDTO : worklogDetails) {
+      worklogIds.add(worklogDetailsDTO.getWorklogId());
+    }
+    return worklogIds;
+  }
+}
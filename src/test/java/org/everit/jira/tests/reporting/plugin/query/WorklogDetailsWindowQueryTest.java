@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.reporting.plugin.query;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.everit.jira.querydsl.schema.QIssuestatus;
+import org.everit.jira.querydsl.schema.QIssuetype;
+import org.everit.jira.querydsl.schema.QJiraissue;
+import org.everit.jira.querydsl.schema.QProject;
+import org.everit.jira.querydsl.schema.QWorklog;
+import org.everit.jira.reporting.plugin.dto.OrderBy;
+import org.everit.jira.reporting.plugin.dto.ReportSearchParam;
+import org.everit.jira.reporting.plugin.dto.WorklogDetailsDTO;
+import org.everit.jira.reporting.plugin.dto.WorklogDetailsReportDTO;
+import org.everit.jira.reporting.plugin.query.WorklogDetailsReportQueryBuilder;
+import org.everit.jira.reporting.plugin.query.util.EpicSchemaCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.groups.GroupManager;
+import com.atlassian.jira.user.MockApplicationUser;
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.H2Templates;
+
+public class WorklogDetailsWindowQueryTest {
+
+  private static final long PROJECT_ID = 10000L;
+
+  private static final int WORKLOG_COUNT = 5;
+
+  private H2JiraDatabase database;
+
+  @After
+  public void after() throws SQLException {
+    database.close();
+  }
+
+  private void assertSameAsSeparateQueries(final ReportSearchParam reportSearchParam)
+      throws SQLException {
+    WorklogDetailsReportDTO windowResult = queryWindow(reportSearchParam);
+
+    WorklogDetailsReportQueryBuilder queryBuilder =
+        new WorklogDetailsReportQueryBuilder(reportSearchParam, OrderBy.DEFAULT);
+    List<WorklogDetailsDTO> worklogDetails = queryBuilder.buildQuery()
+        .call(database.getConnection(), database.getConfiguration());
+    Long worklogDetailsCount = queryBuilder.buildCountQuery()
+        .call(database.getConnection(), database.getConfiguration());
+    Long grandTotal = queryBuilder.buildGrandTotalQuery()
+        .call(database.getConnection(), database.getConfiguration());
+
+    Assert.assertEquals(worklogIds(worklogDetails),
+        worklogIds(windowResult.getWorklogDetails()));
+    Assert.assertEquals(worklogDetailsCount, windowResult.getWorklogDetailsCount());
+    Assert.assertEquals(grandTotal, windowResult.getGrandTotal());
+  }
+
+  @Before
+  public void before() throws SQLException {
+    JiraAuthenticationContext jiraAuthenticationContext =
+        Mockito.mock(JiraAuthenticationContext.class);
+    Mockito.when(jiraAuthenticationContext.getUser())
+        .thenReturn(new MockApplicationUser("admin", "admin"));
+    new MockComponentWorker()
+        .addMock(JiraAuthenticationContext.class, jiraAuthenticationContext)
+        .addMock(GroupManager.class, Mockito.mock(GroupManager.class))
+        .init();
+    EpicSchemaCache.invalidate();
+
+    database = H2JiraDatabase.create();
+
+    QProject qProject = new QProject("project");
+    database.insert(qProject, new Path<?>[] { qProject.id, qProject.pkey, qProject.pname },
+        PROJECT_ID, "TEST", "Test");
+
+    QIssuetype qIssuetype = new QIssuetype("issuetype");
+    database.insert(qIssuetype, new Path<?>[] { qIssuetype.id, qIssuetype.pname }, "1", "Task");
+
+    QIssuestatus qIssuestatus = new QIssuestatus("issuestatus");
+    database.insert(qIssuestatus, new Path<?>[] { qIssuestatus.id, qIssuestatus.pname },
+        "1", "Open");
+
+    Timestamp created = new Timestamp(1451606400000L);
+    QJiraissue qIssue = new QJiraissue("issue");
+    for (long issueNum = 1; issueNum <= 2; issueNum++) {
+      database.insert(qIssue,
+          new Path<?>[] { qIssue.id, qIssue.project, qIssue.issuenum, qIssue.issuetype,
+              qIssue.issuestatus, qIssue.summary, qIssue.reporter, qIssue.created,
+              qIssue.updated },
+          issueNum, PROJECT_ID, issueNum, "1", "1", "Issue " + issueNum, "admin", created,
+          created);
+    }
+
+    QWorklog qWorklog = new QWorklog("worklog");
+    for (long worklogId = 1; worklogId <= WORKLOG_COUNT; worklogId++) {
+      database.insert(qWorklog,
+          new Path<?>[] { qWorklog.id, qWorklog.issueid, qWorklog.author, qWorklog.timeworked,
+              qWorklog.startdate, qWorklog.created, qWorklog.updated },
+          worklogId, (worklogId % 2) + 1, "admin", worklogId * 600, created, created, created);
+    }
+  }
+
+  private WorklogDetailsReportDTO queryWindow(final ReportSearchParam reportSearchParam)
+      throws SQLException {
+    return new WorklogDetailsReportQueryBuilder(reportSearchParam, OrderBy.DEFAULT)
+        .buildWindowQuery()
+        .call(database.getConnection(), database.getConfiguration());
+  }
+
+  private ReportSearchParam reportSearchParam(final long offset, final long limit) {
+    return new ReportSearchParam()
+        .projectIds(Arrays.asList(PROJECT_ID))
+        .offset(offset)
+        .limit(limit);
+  }
+
+  @Test
+  public void testEmptyPageAfterOffset() throws SQLException {
+    ReportSearchParam reportSearchParam = reportSearchParam(WORKLOG_COUNT + 5, 2);
+
+    WorklogDetailsReportDTO windowResult = queryWindow(reportSearchParam);
+
+    Assert.assertTrue(windowResult.getWorklogDetails().isEmpty());
+    Assert.assertNull(windowResult.getWorklogDetailsCount());
+    Assert.assertNull(windowResult.getGrandTotal());
+    Assert.assertEquals(Long.valueOf(WORKLOG_COUNT),
+        new WorklogDetailsReportQueryBuilder(reportSearchParam, OrderBy.DEFAULT)
+            .buildCountQuery()
+            .call(database.getConnection(), database.getConfiguration()));
+  }
+
+  @Test
+  public void testEmptyReport() throws SQLException {
+    ReportSearchParam reportSearchParam = reportSearchParam(0, 2)
+        .projectIds(Arrays.asList(PROJECT_ID + 1));
+
+    WorklogDetailsReportDTO windowResult = queryWindow(reportSearchParam);
+
+    Assert.assertTrue(windowResult.getWorklogDetails().isEmpty());
+    Assert.assertEquals(Long.valueOf(0L), windowResult.getWorklogDetailsCount());
+    Assert.assertEquals(Long.valueOf(0L), windowResult.getGrandTotal());
+  }
+
+  @Test
+  public void testFirstPage() throws SQLException {
+    assertSameAsSeparateQueries(reportSearchParam(0, 2));
+  }
+
+  @Test
+  public void testLastPage() throws SQLException {
+    assertSameAsSeparateQueries(reportSearchParam(WORKLOG_COUNT - 1, 2));
+  }
+
+  @Test
+  public void testWindowFunctionSupported() {
+    Assert.assertTrue(
+        WorklogDetailsReportQueryBuilder.isWindowFunctionSupported(new H2Templates()));
+  }
+
+  private List<Long> worklogIds(final List<WorklogDetailsDTO> worklogDetails) {
+    List<Long> worklogIds = new ArrayList<>();
+    for (WorklogDetailsDTO worklogDetailsDTO : worklogDetails) {
+      worklogIds.add(worklogDetailsDTO.getWorklogId());
+    }
+    return worklogIds;
+  }
+}
@@ -17,6 +17,8 @@ package org.everit.jira.tests.settings;
 
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
@@ -40,7 +42,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import com.atlassian.cache.Cache;
+import com.atlassian.cache.CacheLoader;
+import com.atlassian.cache.CacheManager;
+import com.atlassian.cache.CacheSettings;
 import com.atlassian.jira.config.ConstantsManager;
 import com.atlassian.jira.mock.MockConstantsManager;
 import com.atlassian.jira.mock.component.MockComponentWorker;
@@ -61,6 +69,46 @@ public class SettingsLoadTest {
     }
   }
 
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private CacheManager mockCacheManager() {
+    CacheManager cacheManager = Mockito.mock(CacheManager.class);
+    Mockito.when(cacheManager.getCache(Matchers.anyString(), Matchers.any(CacheLoader.class),
+        Matchers.any(CacheSettings.class))).thenAnswer(new Answer<Cache>() {
+          @Override
+          public Cache answer(final InvocationOnMock invocation) throws Throwable {
+            final CacheLoader loader = (CacheLoader) invocation.getArguments()[1];
+            final Map<Object, Object> values = new HashMap<>();
+            Cache cache = Mockito.mock(Cache.class);
+            Mockito.when(cache.get(Matchers.any())).thenAnswer(new Answer<Object>() {
+              @Override
+              public Object answer(final InvocationOnMock getInvocation) throws Throwable {
+                Object key = getInvocation.getArguments()[0];
+                if (!values.containsKey(key)) {
+                  values.put(key, loader.load(key));
+                }
+                return values.get(key);
+              }
+            });
+            Mockito.doAnswer(new Answer<Void>() {
+              @Override
+              public Void answer(final InvocationOnMock removeInvocation) throws Throwable {
+                values.remove(removeInvocation.getArguments()[0]);
+                return null;
+              }
+            }).when(cache).remove(Matchers.any());
+            Mockito.doAnswer(new Answer<Void>() {
+              @Override
+              public Void answer(final InvocationOnMock putInvocation) throws Throwable {
+                values.put(putInvocation.getArguments()[0], putInvocation.getArguments()[1]);
+                return null;
+              }
+            }).when(cache).put(Matchers.any(), Matchers.any());
+            return cache;
+          }
+        });
+    return cacheManager;
+  }
+
   @Before
   public void setUp() {
     PluginAccessor pluginAccessorMock =
@@ -137,6 +185,72 @@ public class SettingsLoadTest {
     Mockito.verifyNoMoreInteractions(settingsFactoryMock);
   }
 
+  @Test
+  public void testCachedGlobalSettings() {
+    PluginSettingsFactory settingsFactoryMock = Mockito.mock(PluginSettingsFactory.class);
+    DummyPluginSettings dummyPluginSettings = new DummyPluginSettings();
+    dummyPluginSettings.putGlobalSetting(GlobalSettingsKey.PLUGIN_UUID, "123456");
+    dummyPluginSettings.putGlobalSetting(GlobalSettingsKey.EXCLUDE_DATES, "1388620800000,");
+    Mockito.when(settingsFactoryMock.createGlobalSettings()).thenReturn(dummyPluginSettings);
+    TimeTrackerSettingsHelperImpl timeTrackerSettingsHelperImpl =
+        new TimeTrackerSettingsHelperImpl(settingsFactoryMock, null, mockCacheManager());
+
+    TimeTrackerGlobalSettings loadGlobalSettings =
+        timeTrackerSettingsHelperImpl.loadGlobalSettings();
+    Assert.assertSame(loadGlobalSettings, timeTrackerSettingsHelperImpl.loadGlobalSettings());
+    Assert.assertSame(loadGlobalSettings.getExcludeDates(),
+        loadGlobalSettings.getExcludeDates());
+    Mockito.verify(settingsFactoryMock, Mockito.times(1)).createGlobalSettings();
+    try {
+      loadGlobalSettings.pluginUUID("654321");
+      Assert.fail("The cached settings must be read-only.");
+    } catch (UnsupportedOperationException e) {
+      Assert.assertEquals("123456", loadGlobalSettings.getPluginUUID());
+    }
+
+    timeTrackerSettingsHelperImpl.saveGlobalSettings(new TimeTrackerGlobalSettings()
+        .excludeDates(Collections.singleton(1388707200000L)));
+    TimeTrackerGlobalSettings reloadedGlobalSettings =
+        timeTrackerSettingsHelperImpl.loadGlobalSettings();
+    Assert.assertNotSame(loadGlobalSettings, reloadedGlobalSettings);
+    Assert.assertEquals(Collections.singleton(1388707200000L),
+        reloadedGlobalSettings.getExcludeDatesAsLong());
+    Assert.assertEquals("123456", reloadedGlobalSettings.getPluginUUID());
+    Mockito.verify(settingsFactoryMock, Mockito.times(3)).createGlobalSettings();
+  }
+
+  @Test
+  public void testCachedUserSettings() {
+    PluginSettingsFactory settingsFactoryMock = Mockito.mock(PluginSettingsFactory.class);
+    AnalyticsSender analyticsSenderMock = Mockito.mock(AnalyticsSender.class);
+    DummyPluginSettings dummyPluginSettings = new DummyPluginSettings();
+    DummyPluginSettings dummyUserSettings = new DummyPluginSettings();
+    dummyUserSettings.putUserSetting(UserSettingKey.REPORTING_SETTINGS_PAGER_SIZE, "30");
+    dummyUserSettings.putUserSetting(UserSettingKey.USER_CANCELED_UPDATE, "12.6.5");
+    Mockito.when(settingsFactoryMock.createGlobalSettings()).thenReturn(dummyPluginSettings);
+    Mockito.when(settingsFactoryMock.createSettingsForKey(Matchers.anyString()))
+        .thenReturn(dummyUserSettings);
+    TimeTrackerSettingsHelperImpl timeTrackerSettingsHelperImpl =
+        new TimeTrackerSettingsHelperImpl(settingsFactoryMock, analyticsSenderMock,
+            mockCacheManager());
+
+    Assert.assertEquals(30, timeTrackerSettingsHelperImpl.loadUserSettings().getPageSize());
+    Assert.assertEquals(30, timeTrackerSettingsHelperImpl.loadUserSettings().getPageSize());
+    Mockito.verify(settingsFactoryMock, Mockito.times(1))
+        .createSettingsForKey(Matchers.anyString());
+    Assert.assertEquals(1, timeTrackerSettingsHelperImpl.getUserSettingsCacheHitCount());
+    Assert.assertEquals(1, timeTrackerSettingsHelperImpl.getUserSettingsCacheMissCount());
+
+    timeTrackerSettingsHelperImpl.saveUserSettings(new TimeTrackerUserSettings().pageSize(50));
+    TimeTrackerUserSettings loadUserSettings = timeTrackerSettingsHelperImpl.loadUserSettings();
+    Assert.assertEquals(50, loadUserSettings.getPageSize());
+    Assert.assertEquals("12.6.5", loadUserSettings.getUserCanceledUpdate());
+    Mockito.verify(settingsFactoryMock, Mockito.times(2))
+        .createSettingsForKey(Matchers.anyString());
+    Assert.assertEquals(2, timeTrackerSettingsHelperImpl.getUserSettingsCacheHitCount());
+    Assert.assertEquals(1, timeTrackerSettingsHelperImpl.getUserSettingsCacheMissCount());
+  }
+
   @Test
   public void testDates() throws ParseException {
     Assert.assertEquals(1355356800000L,
@@ -118,4 +118,14 @@ public class DurationFormatterTest {
     setupMockTimeTrackerConfig(hoursPerDay, dayPerWeek);
     Assert.assertEquals(expectedString, new DurationFormatter().exactDuration(inputSeconds));
   }
+
+  @Test
+  public void testSharedInstance() {
+    setupMockTimeTrackerConfig(hoursPerDay, dayPerWeek);
+    DurationFormatter durationFormatter = DurationFormatter.getInstance();
+    Assert.assertSame(durationFormatter, DurationFormatter.getInstance());
+    Assert.assertEquals(expectedString, durationFormatter.exactDuration(inputSeconds));
+    Assert.assertEquals(new DurationFormatter().roundedDuration(inputSeconds),
+        durationFormatter.appendRoundedDuration(new StringBuilder(), inputSeconds).toString());
+  }
 }
@@ -19,18 +19,22 @@ import java.math.BigDecimal;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
 import org.easymock.EasyMock;
+import org.everit.jira.core.impl.DateTimeServer;
 import org.everit.jira.settings.TimeTrackerSettingsHelper;
 import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
 import org.everit.jira.settings.dto.TimeZoneTypes;
 import org.everit.jira.tests.core.DummyDateTimeFromatter;
 import org.everit.jira.tests.timetracker.plugin.DurationBuilder;
+import org.everit.jira.timetracker.plugin.DurationFormatter;
 import org.everit.jira.timetracker.plugin.dto.EveritWorklog;
+import org.everit.jira.timetracker.plugin.util.DateTimeConverterUtil;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -82,6 +86,12 @@ public class EveritWorklogTest {
 
   }
 
+  private static final String BODY = "Worklog comment";
+
+  private static final String START_DATE = "2011-11-11 11:11";
+
+  private static final long TIME_WORKED = 5400L;
+
   private static DurationBuilder duration() {
     return new DurationBuilder(8, 5);
   }
@@ -206,12 +216,36 @@ public class EveritWorklogTest {
     Assert.assertEquals(expectedRemaining, subject.getRoundedRemaining());
   }
 
+  @Test
+  public void testLazyFormatting() throws ParseException {
+    EveritWorklog subject = worklogWithRemaining(remainingInSecond);
+
+    // the strings that the constructor formatted before the lazy formatting
+    Date userTimeZoneDate = DateTimeServer.getInstanceBasedOnSystemTimeZone(
+        DateTimeConverterUtil.stringToDateAndTime(START_DATE).getTime()).getUserTimeZoneDate();
+    String startTime = DateTimeConverterUtil.dateTimeToString(userTimeZoneDate);
+    DurationFormatter durationFormatter = DurationFormatter.getInstance();
+
+    Assert.assertEquals(BODY, subject.getBody());
+    Assert.assertEquals(startTime, subject.getStartTime());
+    Assert.assertEquals(DateTimeConverterUtil.dateToString(userTimeZoneDate),
+        subject.getStartDate());
+    Assert.assertEquals(DateTimeConverterUtil.countEndTime(startTime,
+        TIME_WORKED * DateTimeConverterUtil.MILLISECONDS_PER_SECOND), subject.getEndTime());
+    Assert.assertEquals(durationFormatter.exactDuration(TIME_WORKED), subject.getDuration());
+    Assert.assertEquals(durationFormatter.exactDuration(remainingInSecond),
+        subject.getExactRemaining());
+    Assert.assertEquals(durationFormatter.roundedDuration(remainingInSecond),
+        subject.getRoundedRemaining());
+  }
+
   private EveritWorklog worklogWithRemaining(final int remainingInSeconds) {
     HashMap<String, Object> values = new HashMap<String, Object>();
     setupMockIssueManager(remainingInSeconds);
-    values.put("startdate", "2011-11-11 11:11");
+    values.put("startdate", START_DATE);
     values.put("issue", "11");
-    values.put("timeworked", 10L);
+    values.put("timeworked", TIME_WORKED);
+    values.put("body", BODY);
     try {
       return new EveritWorklog(new DummyGenericValue(values));
     } catch (ParseException e) {
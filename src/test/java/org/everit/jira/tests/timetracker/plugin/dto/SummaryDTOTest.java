@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2011 Everit Kft. (http://www.everit.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.everit.jira.tests.timetracker.plugin.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.everit.jira.core.SupportManager;
+import org.everit.jira.core.TimetrackerManager;
+import org.everit.jira.core.impl.DateTimeServer;
+import org.everit.jira.core.util.WorkdayCalendar;
+import org.everit.jira.settings.TimeTrackerSettingsHelper;
+import org.everit.jira.settings.dto.TimeTrackerGlobalSettings;
+import org.everit.jira.settings.dto.TimeZoneTypes;
+import org.everit.jira.timetracker.plugin.DurationFormatter;
+import org.everit.jira.timetracker.plugin.dto.SummaryDTO;
+import org.everit.jira.timetracker.plugin.dto.SummaryDTO.SummaryDTOBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.atlassian.jira.bc.issue.worklog.TimeTrackingConfiguration;
+import com.atlassian.jira.config.properties.APKeys;
+import com.atlassian.jira.config.properties.ApplicationProperties;
+import com.atlassian.jira.mock.component.MockComponentWorker;
+import com.atlassian.jira.security.JiraAuthenticationContext;
+import com.atlassian.jira.security.PermissionManager;
+import com.atlassian.jira.user.preferences.UserPreferencesManager;
+import com.atlassian.jira.util.I18nHelper.BeanFactory;
+
+public class SummaryDTOTest {
+
+  private static final double DAY_SECONDS = 8 * 3600;
+
+  private static final double DELTA = 0.0001;
+
+  /**
+   * The working days of June 2016.
+   */
+  private static final int MONTH_WORKDAYS = 22;
+
+  /**
+   * The days from 2016-06-01 to the end of the week of 2016-06-30 (2016-07-03).
+   */
+  private static final int NUMBER_OF_DAYS = 33;
+
+  private static final int WEEK_WORKDAYS = 5;
+
+  private final List<Object[]> dailyWorklogTimesCalls = new ArrayList<>();
+
+  private TimetrackerManager timetrackerManager;
+
+  private TimeTrackingConfiguration timeTrackingConfiguration;
+
+  @Before
+  public void before() {
+    ApplicationProperties applicationProperties =
+        Mockito.mock(ApplicationProperties.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(applicationProperties.getOption(APKeys.JIRA_DATE_TIME_PICKER_USE_ISO8601))
+        .thenReturn(true);
+    Mockito.when(applicationProperties
+        .getDefaultBackedString(Matchers.matches("jira.timetracking.format")))
+        .thenReturn("pretty");
+
+    timeTrackingConfiguration = Mockito.mock(TimeTrackingConfiguration.class);
+    Mockito.when(timeTrackingConfiguration.getHoursPerDay()).thenReturn(new BigDecimal(8));
+    Mockito.when(timeTrackingConfiguration.getDaysPerWeek()).thenReturn(new BigDecimal(5));
+
+    TimeTrackerSettingsHelper settingsHelper = Mockito.mock(TimeTrackerSettingsHelper.class);
+    Mockito.when(settingsHelper.loadGlobalSettings())
+        .thenReturn(new TimeTrackerGlobalSettings().timeZone(TimeZoneTypes.SYSTEM));
+
+    new MockComponentWorker()
+        .addMock(ApplicationProperties.class, applicationProperties)
+        .addMock(BeanFactory.class, Mockito.mock(BeanFactory.class, Mockito.RETURNS_DEEP_STUBS))
+        .addMock(JiraAuthenticationContext.class,
+            Mockito.mock(JiraAuthenticationContext.class, Mockito.RETURNS_DEEP_STUBS))
+        .addMock(PermissionManager.class, Mockito.mock(PermissionManager.class))
+        .addMock(TimeTrackerSettingsHelper.class, settingsHelper)
+        .addMock(TimeTrackingConfiguration.class, timeTrackingConfiguration)
+        .addMock(UserPreferencesManager.class, Mockito.mock(UserPreferencesManager.class))
+        .init();
+
+    timetrackerManager = Mockito.mock(TimetrackerManager.class);
+    Mockito.when(timetrackerManager.countRealWorkDaysInWeek(Matchers.anyListOf(DateTime.class),
+        Matchers.any(WorkdayCalendar.class)))
+        .thenReturn((double) WEEK_WORKDAYS);
+  }
+
+  private SupportManager supportManager(final Map<Integer, Map<String, Long>> worklogTimes) {
+    SupportManager supportManager = Mockito.mock(SupportManager.class);
+    Mockito.when(supportManager.getDailyWorklogTimes(Matchers.any(DateTime.class),
+        Matchers.anyInt())).thenAnswer(new Answer<List<Map<String, Long>>>() {
+          @Override
+          public List<Map<String, Long>> answer(final InvocationOnMock invocation) {
+            dailyWorklogTimesCalls.add(invocation.getArguments());
+            int numberOfDays = (Integer) invocation.getArguments()[1];
+            List<Map<String, Long>> dailyWorklogTimes = new ArrayList<>();
+            for (int i = 0; i < numberOfDays; i++) {
+              Map<String, Long> dayWorklogTimes = worklogTimes.get(i);
+              dailyWorklogTimes.add(dayWorklogTimes == null
+                  ? Collections.<String, Long> emptyMap()
+                  : dayWorklogTimes);
+            }
+            return dailyWorklogTimes;
+          }
+        });
+    return supportManager;
+  }
+
+  @Test
+  public void testAggregation() {
+    Map<Integer, Map<String, Long>> worklogTimes = new HashMap<>();
+    // 2016-06-01: in the month only
+    worklogTimes.put(0, Collections.singletonMap("TEST-1", 3600L));
+    // 2016-06-27: in the week and the month
+    worklogTimes.put(26, Collections.singletonMap("TEST-2", 3600L));
+    // 2016-06-29: the selected day
+    Map<String, Long> selectedDay = new HashMap<>();
+    selectedDay.put("TEST-1", 7200L);
+    selectedDay.put("NW-1", 1800L);
+    worklogTimes.put(28, selectedDay);
+    // 2016-07-02: in the week only
+    worklogTimes.put(31, Collections.singletonMap("TEST-1", 1800L));
+
+    TimeTrackerGlobalSettings globalSettings = new TimeTrackerGlobalSettings()
+        .filteredSummaryIssues(Arrays.asList(Pattern.compile("NW-.*")));
+    DateTimeZone zone = DateTimeZone.getDefault();
+    DateTimeServer date = DateTimeServer.getInstanceBasedOnUserTimeZone(
+        new DateTime(2016, 6, 29, 12, 0, zone));
+
+    SummaryDTO summary = new SummaryDTOBuilder(timeTrackingConfiguration, timetrackerManager,
+        supportManager(worklogTimes), date, globalSettings).createSummaryDTO();
+
+    Assert.assertEquals(1, dailyWorklogTimesCalls.size());
+    Assert.assertEquals(new LocalDate(2016, 6, 1).toDateTimeAtStartOfDay(zone),
+        dailyWorklogTimesCalls.get(0)[0]);
+    Assert.assertEquals(NUMBER_OF_DAYS, dailyWorklogTimesCalls.get(0)[1]);
+
+    Assert.assertEquals(DurationFormatter.getInstance().industryDuration(9000L),
+        summary.getDaySumIndustryFormatted());
+    Assert.assertEquals(9000 / DAY_SECONDS, summary.getDay().getFilteredPercent(), DELTA);
+    Assert.assertEquals((7200 / DAY_SECONDS) * 100,
+        summary.getDay().getFilteredRealWorkIndicatorPrecent(), DELTA);
+
+    double weekSeconds = WEEK_WORKDAYS * DAY_SECONDS;
+    Assert.assertEquals(14400 / weekSeconds, summary.getWeek().getFilteredPercent(), DELTA);
+    Assert.assertEquals((12600 / weekSeconds) * 100,
+        summary.getWeek().getFilteredRealWorkIndicatorPrecent(), DELTA);
+
+    double monthSeconds = MONTH_WORKDAYS * DAY_SECONDS;
+    Assert.assertEquals(16200 / monthSeconds, summary.getMonth().getFilteredPercent(), DELTA);
+    Assert.assertEquals((14400 / monthSeconds) * 100,
+        summary.getMonth().getFilteredRealWorkIndicatorPrecent(), DELTA);
+  }
+
+  @Test
+  public void testWithoutNonWorkingIssues() {
+    Map<Integer, Map<String, Long>> worklogTimes = new HashMap<>();
+    worklogTimes.put(28, Collections.singletonMap("NW-1", 1800L));
+
+    DateTimeServer date = DateTimeServer.getInstanceBasedOnUserTimeZone(
+        new DateTime(2016, 6, 29, 12, 0, DateTimeZone.getDefault()));
+
+    SummaryDTO summary = new SummaryDTOBuilder(timeTrackingConfiguration, timetrackerManager,
+        supportManager(worklogTimes), date, new TimeTrackerGlobalSettings()).createSummaryDTO();
+
+    Assert.assertEquals(1800 / DAY_SECONDS, summary.getDay().getFilteredPercent(), DELTA);
+    Assert.assertEquals(1, summary.getDay().getFilteredRealWorkIndicatorPrecent(), DELTA);
+    Assert.assertEquals("", summary.getDay().getFilteredSummary());
+  }
+}